@@ -2,7 +2,9 @@ package com.ecommerce.category;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 
+import java.time.Instant;
 import java.util.List;
 
 @Entity
@@ -31,4 +33,11 @@ public class Category {
     @OneToMany(mappedBy = "parent", cascade = CascadeType.PERSIST)
     private List<Category> children;
 
+    @Version
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at", nullable = false)
+    private Instant updatedAt;
+
 }
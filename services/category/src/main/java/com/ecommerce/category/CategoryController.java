@@ -8,6 +8,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Set;
@@ -35,8 +36,11 @@ public class CategoryController {
     }
 
     @GetMapping
-    public ResponseEntity<List<CategoryOverviewResponse>> getAllCategories() {
+    public ResponseEntity<List<CategoryOverviewResponse>> getAllCategories(WebRequest webRequest) {
         log.info("Fetching all categories");
+        if (webRequest.checkNotModified(categoryService.getCategoryTreeETag()))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+
         List<CategoryOverviewResponse> response = categoryService.getAllCategories();
         return ResponseEntity.ok(response);
     }
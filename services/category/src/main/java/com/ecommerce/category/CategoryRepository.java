@@ -27,4 +27,16 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      */
     @Query("SELECT COUNT(c) FROM Category c WHERE c.id IN :ids")
     int countCategoriesByIds(@Param("ids") Set<Long> ids);
+
+    /**
+     * Computes a digest of the IDs, versions and parents of all categories.
+     * The digest changes whenever a category is created, updated, moved or deleted.
+     *
+     * @return the digest, or null if there are no categories.
+     */
+    @Query(value = """
+        SELECT md5(string_agg(c.id || ':' || c.version || ':' || COALESCE(c.parent_id, 0), ',' ORDER BY c.id))
+        FROM category c
+      """, nativeQuery = true)
+    String findTreeDigest();
 }
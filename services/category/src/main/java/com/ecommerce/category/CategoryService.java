@@ -91,6 +91,19 @@ public class CategoryService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Computes an entity tag of the category tree from the versions and parents of all categories,
+     * used to answer conditional requests without loading the tree.
+     *
+     * @return strong entity tag of the category tree
+     */
+    @Transactional(readOnly = true)
+    public String getCategoryTreeETag() {
+        log.debug("Computing entity tag of the category tree.");
+        String digest = categoryRepository.findTreeDigest();
+        return "\"" + Objects.requireNonNullElse(digest, "empty") + "\"";
+    }
+
     /**
      * Creates a new category.
      *
@@ -134,6 +147,7 @@ public class CategoryService {
         Category updatedCategory = categoryMapper.toCategory(request);
 
         updatedCategory.setId(existingCategory.getId());
+        updatedCategory.setVersion(existingCategory.getVersion());
         updatedCategory.setChildren(existingCategory.getChildren());
 
         Category parentCategory = Optional.ofNullable(request.parentId())
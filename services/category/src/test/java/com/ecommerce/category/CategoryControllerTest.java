@@ -9,6 +9,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -119,13 +122,32 @@ class CategoryControllerTest {
 
         when(categoryService.getAllCategories()).thenReturn(allCategories);
 
-        ResponseEntity<List<CategoryOverviewResponse>> response = categoryController.getAllCategories();
+        when(categoryService.getCategoryTreeETag()).thenReturn("\"abc\"");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+
+        ResponseEntity<List<CategoryOverviewResponse>> response = categoryController.getAllCategories(
+                new ServletWebRequest(new MockHttpServletRequest("GET", "/"), servletResponse));
 
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(2, response.getBody().size());
         assertEquals(allCategories, response.getBody());
         verify(categoryService, times(1)).getAllCategories();
+        assertEquals("\"abc\"", servletResponse.getHeader("ETag"));
+    }
+
+    @Test
+    void getAllCategories_MatchingETag_ReturnsNotModified() {
+        when(categoryService.getCategoryTreeETag()).thenReturn("\"abc\"");
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
+        servletRequest.addHeader("If-None-Match", "\"abc\"");
+
+        ResponseEntity<List<CategoryOverviewResponse>> response = categoryController.getAllCategories(
+                new ServletWebRequest(servletRequest, new MockHttpServletResponse()));
+
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(categoryService, never()).getAllCategories();
     }
 
     @Test
@@ -163,6 +163,24 @@ class CategoryServiceTest {
         verify(categoryMapper, times(1)).toOverviewResponse(parentCategory);
     }
 
+    @Test
+    void getCategoryTreeETag_ReturnsQuotedDigest() {
+        when(categoryRepository.findTreeDigest()).thenReturn("abc");
+
+        String result = categoryService.getCategoryTreeETag();
+
+        assertEquals("\"abc\"", result);
+    }
+
+    @Test
+    void getCategoryTreeETag_NoCategories_ReturnsEmptyTag() {
+        when(categoryRepository.findTreeDigest()).thenReturn(null);
+
+        String result = categoryService.getCategoryTreeETag();
+
+        assertEquals("\"empty\"", result);
+    }
+
     @Test
     void createCategory_ValidRequest_ReturnsNewCategoryId() {
         Category newCategory = Category.builder()
@@ -2,6 +2,7 @@ package com.ecommerce.category;
 
 import org.junit.jupiter.api.Test;
 
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -31,13 +32,17 @@ class CategoryTest {
         List<Category> children = new ArrayList<>();
         Category parent = Category.builder().id(2L).name("Parent Category").build();
 
-        Category category = new Category(1L, "Test Category", "Category Description", parent, children);
+        Instant updatedAt = Instant.parse("2024-01-01T00:00:00Z");
+
+        Category category = new Category(1L, "Test Category", "Category Description", parent, children, 2L, updatedAt);
 
         assertEquals(1L, category.getId());
         assertEquals("Test Category", category.getName());
         assertEquals("Category Description", category.getDescription());
         assertSame(parent, category.getParent());
         assertSame(children, category.getChildren());
+        assertEquals(2L, category.getVersion());
+        assertEquals(updatedAt, category.getUpdatedAt());
     }
 
     @Test
@@ -0,0 +1,11 @@
+package com.ecommerce.attribute;
+
+/**
+ * Published whenever an attribute or its values change.
+ * Removing an attribute value detaches it from every variant, so the change can affect any product.
+ *
+ * @param attributeId the ID of the changed attribute
+ */
+public record AttributeChangedEvent(
+        Long attributeId
+) {}
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Set;
 
 @Repository
@@ -20,4 +21,30 @@ public interface AttributeRepository extends JpaRepository<Attribute, Long> {
     @Query("SELECT COUNT(a) FROM Attribute a WHERE a.id IN :ids")
     int countByIds(@Param("ids") Set<Long> ids);
 
+    /**
+     * Retrieves the IDs of all attributes.
+     *
+     * @return the attribute IDs.
+     */
+    @Query("SELECT a.id FROM Attribute a")
+    Set<Long> findAllIds();
+
+    /**
+     * Retrieves the attributes of visible products in a category together with all their values.
+     *
+     * @param categoryId the category ID.
+     * @return the distinct attributes with their values fetched.
+     */
+    @Query("""
+        SELECT DISTINCT attribute FROM Attribute attribute
+        LEFT JOIN FETCH attribute.values
+        WHERE EXISTS (
+            SELECT product.id FROM Product product
+            JOIN product.attributes productAttribute
+            WHERE productAttribute = attribute
+            AND :categoryId MEMBER OF product.categoryIds
+            AND product.isVisible = true
+        )
+      """)
+    List<Attribute> findAllWithValuesByVisibleProductsInCategory(@Param("categoryId") Long categoryId);
 }
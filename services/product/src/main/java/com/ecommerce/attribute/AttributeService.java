@@ -2,10 +2,10 @@ package com.ecommerce.attribute;
 
 import com.ecommerce.attributevalue.AttributeValueService;
 import com.ecommerce.exception.AttributeNotFoundException;
-import com.ecommerce.product.Product;
 import com.ecommerce.product.ProductRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -23,6 +23,7 @@ public class AttributeService {
     private final AttributeMapper attributeMapper;
     private final AttributeValidator attributeValidator;
     private final AttributeValueService attributeValueService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Retrieves an attribute entity by its ID.
@@ -134,6 +135,7 @@ public class AttributeService {
         log.info("Attribute successfully updated with ID: {}", savedAttribute.getId());
 
         attributeValueService.manageAttributeValues(savedAttribute, request.values());
+        eventPublisher.publishEvent(new AttributeChangedEvent(savedAttribute.getId()));
         return savedAttribute.getId();
     }
 
@@ -149,13 +151,24 @@ public class AttributeService {
 
         Attribute attribute = this.findAttributeEntityById(id);
 
+        // published before the delete, so products using the attribute are still found by the listeners
+        eventPublisher.publishEvent(new AttributeChangedEvent(id));
         attributeRepository.delete(attribute);
         log.info("Attribute with ID {} successfully deleted.", id);
     }
 
-    public Set<AttributeResponse> getAttributesByProducts(List<Product> products) {
-        return products.stream()
-                .flatMap(product -> product.getAttributes().stream())
+    /**
+     * Retrieves the attributes of visible products in a category, with all their values.
+     *
+     * @param categoryId the category ID (must not be null)
+     * @return a set of attribute response DTOs
+     */
+    @Transactional(readOnly = true)
+    public Set<AttributeResponse> getAttributesByCategory(Long categoryId) {
+        Objects.requireNonNull(categoryId, "ID kategorie nesmí být prázdné.");
+        log.debug("Fetching attributes for category ID: {}", categoryId);
+
+        return attributeRepository.findAllWithValuesByVisibleProductsInCategory(categoryId).stream()
                 .map(attributeMapper::toResponse)
                 .collect(Collectors.toSet());
     }
@@ -39,4 +39,12 @@ public interface AttributeValueRepository extends JpaRepository<AttributeValue,
     @Query("SELECT COUNT(v) FROM AttributeValue v WHERE v.id IN :ids")
     int countByIds(@Param("ids") Set<Long> ids);
 
+    /**
+     * Retrieves the IDs of all attribute values.
+     *
+     * @return the attribute value IDs.
+     */
+    @Query("SELECT v.id FROM AttributeValue v")
+    Set<Long> findAllIds();
+
 }
@@ -0,0 +1,7 @@
+package com.ecommerce.exception;
+
+public class CatalogImportException extends RuntimeException {
+    public CatalogImportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,7 @@
+package com.ecommerce.exception;
+
+public class FacetIndexNotReadyException extends RuntimeException {
+    public FacetIndexNotReadyException(String message) {
+        super(message);
+    }
+}
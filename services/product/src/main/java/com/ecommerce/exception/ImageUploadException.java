@@ -0,0 +1,11 @@
+package com.ecommerce.exception;
+
+public class ImageUploadException extends RuntimeException {
+    public ImageUploadException(String message) {
+        super(message);
+    }
+
+    public ImageUploadException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -28,6 +28,12 @@ public class GlobalExceptionHandler {
         return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, exception.getMessage());
     }
 
+    @ExceptionHandler(ReservationNotFoundException.class)
+    public ProblemDetail handleReservationNotFoundException(ReservationNotFoundException exception) {
+        log.error("Reservation not found: {}", exception.getMessage(), exception);
+        return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, exception.getMessage());
+    }
+
     @ExceptionHandler(QuantityOutOfStockException.class)
     public ProblemDetail handleQuantityOutOfStockException(QuantityOutOfStockException exception) {
         log.error("Quantity out of stock: {}", exception.getMessage(), exception);
@@ -46,6 +52,30 @@ public class GlobalExceptionHandler {
         return ProblemDetail.forStatusAndDetail(HttpStatus.NOT_FOUND, exception.getMessage());
     }
 
+    @ExceptionHandler(InvalidCursorException.class)
+    public ProblemDetail handleInvalidCursorException(InvalidCursorException exception) {
+        log.error("Invalid cursor: {}", exception.getMessage(), exception);
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, exception.getMessage());
+    }
+
+    @ExceptionHandler(CatalogImportException.class)
+    public ProblemDetail handleCatalogImportException(CatalogImportException exception) {
+        log.error("Catalog import failed: {}", exception.getMessage(), exception);
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, exception.getMessage());
+    }
+
+    @ExceptionHandler(ImageUploadException.class)
+    public ProblemDetail handleImageUploadException(ImageUploadException exception) {
+        log.error("Image upload failed: {}", exception.getMessage(), exception);
+        return ProblemDetail.forStatusAndDetail(HttpStatus.INTERNAL_SERVER_ERROR, exception.getMessage());
+    }
+
+    @ExceptionHandler(FacetIndexNotReadyException.class)
+    public ProblemDetail handleFacetIndexNotReadyException(FacetIndexNotReadyException exception) {
+        log.warn("Facet index not ready: {}", exception.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, exception.getMessage());
+    }
+
     @ExceptionHandler(NullPointerException.class)
     public ProblemDetail handleNullPointerException(NullPointerException exception) {
         log.error("Null pointer error: {}", exception.getMessage(), exception);
@@ -0,0 +1,27 @@
+package com.ecommerce.kafka;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import lombok.Builder;
+
+import java.time.Instant;
+
+/**
+ * An event of the product event stream, keyed by the product ID.
+ *
+ * @param type       whether the product was changed or deleted
+ * @param productId  the product ID
+ * @param version    the version of the product, null for a deleted product
+ * @param sequence   taken when the event is sent and increasing with the state it carries,
+ *                   consumers can drop events with a lower sequence than the last applied one
+ * @param occurredAt when the last change published by the event was made
+ * @param product    the product state as JSON, null for a deleted product
+ */
+@Builder
+public record ProductEvent(
+        ProductEventType type,
+        Long productId,
+        Long version,
+        Long sequence,
+        Instant occurredAt,
+        @JsonRawValue String product
+) {}
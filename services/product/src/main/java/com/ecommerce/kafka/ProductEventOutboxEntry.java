@@ -0,0 +1,31 @@
+package com.ecommerce.kafka;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Marks a product whose state has to be published to the product event stream.
+ * The entry is written in the transaction that changes the product and deleted once
+ * {@link ProductEventRelay} has sent the event.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+@Table(name = "product_event_outbox")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ProductEventOutboxEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(nullable = false)
+    private Long productId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.kafka;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductEventOutboxRepository extends JpaRepository<ProductEventOutboxEntry, Long> {
+
+    /**
+     * Writes one outbox entry per product with a single statement.
+     *
+     * @param productIds the IDs of the changed products.
+     * @return the number of written entries.
+     */
+    @Modifying
+    @Query(value = """
+        INSERT INTO product_event_outbox (product_id)
+        SELECT unnest(CAST(ARRAY[:productIds] AS BIGINT[]))
+      """, nativeQuery = true)
+    int insertEntries(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Takes the relay lock until the transaction ends. Only one relay sends events at a time,
+     * so the events of a product are always sent in the order of their entries.
+     *
+     * @return true if the lock was taken, false if another relay holds it.
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('product_event_outbox'))", nativeQuery = true)
+    boolean tryLockRelay();
+
+    /**
+     * Takes the sequences of the events about to be sent. The relay lock is held while the sequences are taken
+     * and the states are read, so a later sequence of a product never carries an older state.
+     *
+     * @param count the number of events.
+     * @return the sequences, in increasing order.
+     */
+    @Query(value = """
+        SELECT nextval('product_event_sequence') FROM generate_series(1, :count) ORDER BY 1
+      """, nativeQuery = true)
+    List<Long> nextSequences(@Param("count") int count);
+
+    @Query(value = """
+        SELECT * FROM product_event_outbox
+        ORDER BY id
+        LIMIT :limit
+      """, nativeQuery = true)
+    List<ProductEventOutboxEntry> findOldest(@Param("limit") int limit);
+
+    /**
+     * Reads the current state of products with a single query: the visibility, the price summary, the categories
+     * and the price and stock of every variant, including the stock held in shards.
+     * Products that no longer exist are not returned.
+     *
+     * @param productIds the product IDs.
+     * @return the state of the existing products.
+     */
+    @Query(value = """
+        SELECT product.id AS productId, product.version AS version, json_build_object(
+            'name', product.name,
+            'isVisible', product.is_visible,
+            'price', product.min_price,
+            'basePrice', product.min_base_price,
+            'maxPrice', product.max_price,
+            'isPriceEqual', product.prices_equal,
+            'categoryIds', ARRAY(
+                SELECT category.category_id FROM product_category category
+                WHERE category.product_id = product.id
+                ORDER BY category.category_id
+            ),
+            'variants', ARRAY(
+                SELECT json_build_object(
+                    'id', variant.id,
+                    'sku', variant.sku,
+                    'basePrice', variant.base_price,
+                    'discountedPrice', variant.discounted_price,
+                    'quantity', variant.quantity + COALESCE((
+                        SELECT SUM(shard.quantity) FROM variant_stock_shard shard
+                        WHERE shard.variant_id = variant.id
+                    ), 0),
+                    'quantityUnlimited', COALESCE(variant.quantity_unlimited, FALSE)
+                )
+                FROM variant
+                WHERE variant.product_id = product.id
+                ORDER BY variant.id
+            )
+        )::text AS state
+        FROM product
+        WHERE product.id IN (:productIds)
+      """, nativeQuery = true)
+    List<ProductEventState> findStates(@Param("productIds") Collection<Long> productIds);
+}
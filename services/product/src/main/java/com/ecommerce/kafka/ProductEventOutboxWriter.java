@@ -0,0 +1,62 @@
+package com.ecommerce.kafka;
+
+import com.ecommerce.product.ProductChangedEvent;
+import com.ecommerce.product.catalog.CatalogImportedEvent;
+import com.ecommerce.variant.StockChangedEvent;
+import com.ecommerce.variant.bulk.VariantsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Writes the outbox entries of changed products. The listeners run synchronously in the changing transaction,
+ * so an entry is committed exactly when the change is, and {@link ProductEventRelay} publishes it afterwards.
+ * A catalog import publishes its event after the batches have been committed, its entries are written
+ * in a transaction of their own.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductEventOutboxWriter {
+    private static final int INSERT_BATCH_SIZE = 1000;
+
+    private final ProductEventOutboxRepository productEventOutboxRepository;
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        this.writeEntries(Set.of(event.productId()));
+    }
+
+    @EventListener
+    public void onVariantsChanged(VariantsChangedEvent event) {
+        this.writeEntries(event.productIds());
+    }
+
+    @EventListener
+    public void onStockChanged(StockChangedEvent event) {
+        this.writeEntries(event.productIds());
+    }
+
+    @EventListener
+    @Transactional
+    public void onCatalogImported(CatalogImportedEvent event) {
+        List<Long> productIds = event.productIds();
+        for (int from = 0; from < productIds.size(); from += INSERT_BATCH_SIZE) {
+            this.writeEntries(productIds.subList(from, Math.min(from + INSERT_BATCH_SIZE, productIds.size())));
+        }
+    }
+
+    private void writeEntries(Collection<Long> productIds) {
+        if (productIds.isEmpty())
+            return;
+
+        int written = productEventOutboxRepository.insertEntries(productIds);
+        log.debug("Written {} product event outbox entries", written);
+    }
+}
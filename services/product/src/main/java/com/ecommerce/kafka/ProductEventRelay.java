@@ -0,0 +1,134 @@
+package com.ecommerce.kafka;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Publishes the product event stream from the outbox. The events carry the state of the product
+ * at the time they are sent, so all entries of a product in one batch are published as a single event.
+ * The sequence of an event is taken when it is sent, under the relay lock, so it grows with the state it carries.
+ * Entries are deleted only after Kafka has acknowledged their events; a failed send rolls the batch back
+ * and it is sent again by the next run, so every change is delivered at least once.
+ */
+@Component
+@Slf4j
+public class ProductEventRelay {
+    private final ProductEventOutboxRepository productEventOutboxRepository;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+    private final int batchSize;
+    private final Duration sendTimeout;
+
+    public ProductEventRelay(
+            ProductEventOutboxRepository productEventOutboxRepository,
+            KafkaTemplate<String, String> kafkaTemplate,
+            ObjectMapper objectMapper,
+            @Value("${application.outbox.topic:product-events}") String topic,
+            @Value("${application.outbox.batch-size:500}") int batchSize,
+            @Value("${application.outbox.send-timeout:PT30S}") Duration sendTimeout
+    ) {
+        this.productEventOutboxRepository = productEventOutboxRepository;
+        this.kafkaTemplate = kafkaTemplate;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+        this.batchSize = batchSize;
+        this.sendTimeout = sendTimeout;
+    }
+
+    /**
+     * Sends the events of one batch of outbox entries and deletes the entries.
+     *
+     * @return the number of sent events
+     * @throws KafkaException if any of the events was not acknowledged in time
+     */
+    @Scheduled(
+            initialDelayString = "${application.outbox.relay-interval:PT1S}",
+            fixedDelayString = "${application.outbox.relay-interval:PT1S}"
+    )
+    @Transactional
+    public int relayEvents() {
+        if (!productEventOutboxRepository.tryLockRelay())
+            return 0;
+
+        List<ProductEventOutboxEntry> entries = productEventOutboxRepository.findOldest(batchSize);
+        if (entries.isEmpty())
+            return 0;
+
+        // entries are ordered by ID, the last entry of a product carries the time of its event
+        Map<Long, ProductEventOutboxEntry> latestEntries = entries.stream()
+                .collect(Collectors.toMap(ProductEventOutboxEntry::getProductId, Function.identity(),
+                        (previous, latest) -> latest, LinkedHashMap::new));
+        Map<Long, ProductEventState> states = productEventOutboxRepository.findStates(latestEntries.keySet()).stream()
+                .collect(Collectors.toMap(ProductEventState::getProductId, Function.identity()));
+
+        // outbox IDs follow the order of inserts, not of commits, so sequences are taken only now under the relay lock
+        Iterator<Long> sequences = productEventOutboxRepository.nextSequences(latestEntries.size()).iterator();
+        List<CompletableFuture<?>> sends = new ArrayList<>(latestEntries.size());
+        for (ProductEventOutboxEntry entry : latestEntries.values()) {
+            ProductEvent event = this.toEvent(entry, sequences.next(), states.get(entry.getProductId()));
+            sends.add(kafkaTemplate.send(topic, String.valueOf(entry.getProductId()), this.toJson(event)));
+        }
+        this.awaitAcknowledgements(sends);
+
+        productEventOutboxRepository.deleteAllByIdInBatch(entries.stream().map(ProductEventOutboxEntry::getId).toList());
+        log.debug("Relayed {} product events from {} outbox entries", sends.size(), entries.size());
+
+        return sends.size();
+    }
+
+    private ProductEvent toEvent(ProductEventOutboxEntry entry, Long sequence, ProductEventState state) {
+        ProductEvent.ProductEventBuilder event = ProductEvent.builder()
+                .productId(entry.getProductId())
+                .sequence(sequence)
+                .occurredAt(entry.getCreatedAt());
+
+        if (state == null)
+            return event.type(ProductEventType.PRODUCT_DELETED).build();
+
+        return event.type(ProductEventType.PRODUCT_UPDATED)
+                .version(state.getVersion())
+                .product(state.getState())
+                .build();
+    }
+
+    private String toJson(ProductEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Událost produktu se nepodařilo serializovat.", e);
+        }
+    }
+
+    private void awaitAcknowledgements(List<CompletableFuture<?>> sends) {
+        try {
+            CompletableFuture.allOf(sends.toArray(CompletableFuture[]::new))
+                    .get(sendTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KafkaException("Odesílání událostí produktů bylo přerušeno.", e);
+        } catch (ExecutionException | TimeoutException e) {
+            throw new KafkaException("Nepodařilo se odeslat události produktů.", e);
+        }
+    }
+}
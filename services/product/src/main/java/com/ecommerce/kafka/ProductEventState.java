@@ -0,0 +1,12 @@
+package com.ecommerce.kafka;
+
+/**
+ * The current state of a product as published in {@link ProductEvent}.
+ */
+public interface ProductEventState {
+    Long getProductId();
+
+    Long getVersion();
+
+    String getState();
+}
@@ -0,0 +1,23 @@
+package com.ecommerce.kafka;
+
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class ProductEventTopicConfig {
+
+    /**
+     * Events carry the whole state of a product and are keyed by the product ID,
+     * so a compacted topic keeps the latest event of every product.
+     */
+    @Bean
+    public NewTopic productEventTopic(@Value("${application.outbox.topic:product-events}") String topic) {
+        return TopicBuilder
+                .name(topic)
+                .compact()
+                .build();
+    }
+}
@@ -0,0 +1,6 @@
+package com.ecommerce.kafka;
+
+public enum ProductEventType {
+    PRODUCT_UPDATED,
+    PRODUCT_DELETED
+}
@@ -10,5 +10,6 @@ import java.util.Set;
 public record FilterRangesResponse(
         BigDecimal lowPrice,
         BigDecimal maxPrice,
-        Set<AttributeResponse> attributes
+        Set<AttributeResponse> attributes,
+        long version
 ) {}
@@ -0,0 +1,116 @@
+package com.ecommerce.product;
+
+import com.ecommerce.attribute.AttributeChangedEvent;
+import com.ecommerce.attribute.AttributeService;
+import com.ecommerce.product.catalog.CatalogImportedEvent;
+import com.ecommerce.product.facet.ProductFacetLink;
+import com.ecommerce.variant.bulk.VariantsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the filter ranges of category pages from in-memory snapshots.
+ * A snapshot is computed on the first request for a category and kept until it is invalidated.
+ * Every computed snapshot gets a new, increasing version.
+ * <p>
+ * The snapshot of a category is dropped when a product of the category changes.
+ * It is also dropped when variants of its products change, including bulk price updates.
+ * A change of any attribute and a catalog import drop the snapshots of all categories.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class FilterRangesService {
+    private final ProductRepository productRepository;
+    private final AttributeService attributeService;
+
+    private final Map<Long, FilterRangesResponse> snapshots = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong versions = new AtomicLong();
+
+    /**
+     * Retrieves the price range and the attributes of the visible products in a category.
+     *
+     * @param categoryId the category ID
+     * @return the filter ranges snapshot
+     */
+    @Transactional(readOnly = true)
+    public FilterRangesResponse getFilterRangesByCategory(Long categoryId) {
+        Objects.requireNonNull(categoryId, "ID kategorie nesmí být prázdné.");
+
+        FilterRangesResponse snapshot = snapshots.get(categoryId);
+        if (snapshot != null)
+            return snapshot;
+
+        long invalidationsBefore = invalidations.get();
+        FilterRangesResponse computed = this.computeFilterRanges(categoryId);
+
+        // a snapshot computed while a change was committed may already be stale, so it is served but not kept
+        if (invalidations.get() != invalidationsBefore)
+            return computed;
+
+        FilterRangesResponse previous = snapshots.putIfAbsent(categoryId, computed);
+        if (previous != null)
+            return previous;
+
+        // a change committed between the check and the put may have missed the snapshot, which is then dropped
+        if (invalidations.get() != invalidationsBefore)
+            snapshots.remove(categoryId, computed);
+        return computed;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        log.debug("Invalidating filter ranges of categories {}", event.categoryIds());
+        invalidations.incrementAndGet();
+        event.categoryIds().forEach(snapshots::remove);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onVariantsChanged(VariantsChangedEvent event) {
+        invalidations.incrementAndGet();
+        Set<Long> categoryIds = productRepository.findCategoryLinksByProductIds(event.productIds()).stream()
+                .map(ProductFacetLink::targetId)
+                .collect(Collectors.toSet());
+        log.debug("Invalidating filter ranges of categories {} after bulk change of variants", categoryIds);
+        categoryIds.forEach(snapshots::remove);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAttributeChanged(AttributeChangedEvent event) {
+        log.debug("Invalidating filter ranges of all categories after change of attribute ID {}", event.attributeId());
+        invalidations.incrementAndGet();
+        snapshots.clear();
+    }
+
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        log.debug("Invalidating filter ranges of all categories after import of {} products", event.productIds().size());
+        invalidations.incrementAndGet();
+        snapshots.clear();
+    }
+
+    private FilterRangesResponse computeFilterRanges(Long categoryId) {
+        log.debug("Computing filter ranges for category ID: {}", categoryId);
+        ProductPriceRange priceRange = productRepository.findPriceRangeByCategory(categoryId);
+
+        return FilterRangesResponse.builder()
+                .lowPrice(priceRange.lowPrice())
+                .maxPrice(priceRange.maxPrice())
+                .attributes(attributeService.getAttributesByCategory(categoryId))
+                .version(versions.incrementAndGet())
+                .build();
+    }
+}
@@ -6,6 +6,8 @@ import com.ecommerce.variant.Variant;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -34,7 +36,25 @@ public class Product {
     @Column(nullable = false)
     private boolean isVisible;
 
-    @ElementCollection(fetch = FetchType.EAGER)
+    @Column(name = "min_price", precision = 10, scale = 2, insertable = false, updatable = false)
+    private BigDecimal minPrice;
+
+    @Column(name = "min_base_price", precision = 10, scale = 2, insertable = false, updatable = false)
+    private BigDecimal minBasePrice;
+
+    @Column(name = "max_price", precision = 10, scale = 2, insertable = false, updatable = false)
+    private BigDecimal maxPrice;
+
+    @Column(name = "prices_equal", nullable = false, insertable = false, updatable = false)
+    private boolean pricesEqual;
+
+    @Column(name = "version", nullable = false, insertable = false, updatable = false)
+    private long version;
+
+    @Column(name = "updated_at", nullable = false, insertable = false, updatable = false)
+    private Instant updatedAt;
+
+    @ElementCollection
     @CollectionTable(
             name = "product_category",
             joinColumns = @JoinColumn(name = "product_id")
@@ -51,8 +71,7 @@ public class Product {
     @OneToMany(
             mappedBy = "product",
             cascade = CascadeType.REMOVE,
-            orphanRemoval = true,
-            fetch = FetchType.EAGER
+            orphanRemoval = true
     )
     @Builder.Default
     private List<Variant> variants = new ArrayList<>();
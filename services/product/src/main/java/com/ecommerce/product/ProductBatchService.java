@@ -0,0 +1,79 @@
+package com.ecommerce.product;
+
+import com.ecommerce.product.facet.ProductFacetLink;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Multi-get of product overviews for internal consumers and the storefront, and hydration of related products
+ * in product details. Overviews come from {@link ProductOverviewCache}, only the products missing from it
+ * are read from the database.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBatchService {
+    private final ProductOverviewCache productOverviewCache;
+    private final ProductOverviewRepository productOverviewRepository;
+    private final ProductRepository productRepository;
+
+    /**
+     * Retrieves product overview responses for the given product IDs, preserving the original order.
+     * Only visible products are included in the results, every product at most once.
+     *
+     * @param ids List of product IDs to retrieve
+     * @return List of product overview responses in the same order as the input IDs (visible products only)
+     */
+    public List<ProductOverviewResponse> getProductsByIds(List<Long> ids) {
+        Objects.requireNonNull(ids, "ID produktů nesmí být null.");
+
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        distinctIds.remove(null);
+        log.debug("Fetching {} products by IDs", distinctIds.size());
+        if (distinctIds.isEmpty())
+            return Collections.emptyList();
+
+        Map<Long, ProductOverviewResponse> overviews = productOverviewCache.getAll(
+                distinctIds, productOverviewRepository::findOverviews);
+
+        return distinctIds.stream()
+                .map(overviews::get)
+                .filter(overview -> overview != null && overview.isVisible())
+                .toList();
+    }
+
+    /**
+     * Resolves the related products of the given products, for a single product as well as a whole page,
+     * with one query for the related product IDs and one for the overviews missing from the cache.
+     * Related products are included whether they are visible or not, as they are in the product itself.
+     *
+     * @param productIds the IDs of the products
+     * @return the overviews of the related products per product ID; products without related products are missing
+     */
+    public Map<Long, Set<ProductOverviewResponse>> getRelatedProducts(Collection<Long> productIds) {
+        Objects.requireNonNull(productIds, "ID produktů nesmí být null.");
+        if (productIds.isEmpty())
+            return Collections.emptyMap();
+
+        List<ProductFacetLink> links = productRepository.findRelatedProductLinksByProductIds(productIds);
+        if (links.isEmpty())
+            return Collections.emptyMap();
+
+        Set<Long> relatedIds = links.stream()
+                .map(ProductFacetLink::targetId)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        log.debug("Hydrating {} related products of {} products", relatedIds.size(), productIds.size());
+
+        Map<Long, ProductOverviewResponse> overviews = productOverviewCache.getAll(
+                relatedIds, productOverviewRepository::findOverviews);
+
+        return links.stream()
+                .filter(link -> overviews.containsKey(link.targetId()))
+                .collect(Collectors.groupingBy(ProductFacetLink::productId,
+                        Collectors.mapping(link -> overviews.get(link.targetId()), Collectors.toSet())));
+    }
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.product;
+
+import java.util.Set;
+
+/**
+ * Published whenever a product, its variants or its categories change.
+ * Listeners keeping derived read models should react after the transaction commits.
+ *
+ * @param productId   the ID of the changed product
+ * @param categoryIds the categories the product belonged to before or belongs to after the change
+ */
+public record ProductChangedEvent(
+        Long productId,
+        Set<Long> categoryIds
+) {}
@@ -1,5 +1,8 @@
 package com.ecommerce.product;
 
+import com.ecommerce.product.facet.ProductFacetResponse;
+import com.ecommerce.product.search.ProductSuggestion;
+import com.ecommerce.productimage.ImageSize;
 import com.ecommerce.productimage.ProductImageResponse;
 import com.ecommerce.settings.Constants;
 import jakarta.validation.Valid;
@@ -8,17 +11,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/v1/products")
@@ -27,10 +34,16 @@ import java.util.Set;
 @Slf4j
 public class ProductController {
     private final ProductService productService;
+    private final ProductBatchService productBatchService;
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest webRequest) {
         log.info("Fetching product with ID: {}", id);
+        ProductVersion version = productService.getProductVersion(id);
+        // only the ETag is checked, stock changes do not move the update time, so Last-Modified would go stale
+        if (webRequest.checkNotModified(version.toETag()))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+
         ProductResponse response = productService.getProductById(id);
         return ResponseEntity.ok(response);
     }
@@ -58,9 +71,13 @@ public class ProductController {
             @RequestParam(required = false) BigDecimal lowPrice,
             @RequestParam(required = false) BigDecimal maxPrice,
             @RequestParam(required = false) Set<Long> attributeValueIds,
-            @PathVariable Long categoryId
+            @PathVariable Long categoryId,
+            WebRequest webRequest
     ) {
         log.info("Fetching products for category ID: {} with pagination: page {}, size {}, sort by {}", categoryId, pageNumber, pageSize, direction);
+        if (webRequest.checkNotModified(productService.getCategoryListingETag(categoryId)))
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+
         Sort sort = Sort.by(Sort.Direction.fromString(direction), attribute);
         PageRequest pageRequest = PageRequest.of(pageNumber, pageSize, sort);
         ProductSpecificationRequest specifications = new ProductSpecificationRequest(lowPrice, maxPrice, attributeValueIds);
@@ -68,6 +85,37 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/category/{categoryId}/scroll")
+    public ResponseEntity<ProductSliceResponse> scrollProductsByCategory(
+            @RequestParam(defaultValue = Constants.PAGE_SIZE + "") int pageSize,
+            @RequestParam(defaultValue = Constants.DIRECTION) String direction,
+            @RequestParam(required = false, defaultValue = Constants.DEFAULT_SORT_ATTRIBUTE) String attribute,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) BigDecimal lowPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Set<Long> attributeValueIds,
+            @PathVariable Long categoryId
+    ) {
+        log.info("Scrolling products for category ID: {} with page size {}, sort by {}, cursor {}", categoryId, pageSize, direction, cursor);
+        Sort sort = Sort.by(Sort.Direction.fromString(direction), attribute);
+        ProductSpecificationRequest specifications = new ProductSpecificationRequest(lowPrice, maxPrice, attributeValueIds);
+        ProductSliceResponse response = productService.scrollProductsByCategory(categoryId, specifications, sort, pageSize, cursor);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/category/{categoryId}/facets")
+    public ResponseEntity<ProductFacetResponse> getFacetCountsByCategory(
+            @RequestParam(required = false) BigDecimal lowPrice,
+            @RequestParam(required = false) BigDecimal maxPrice,
+            @RequestParam(required = false) Set<Long> attributeValueIds,
+            @PathVariable Long categoryId
+    ) {
+        log.info("Fetching facet counts for category ID: {}", categoryId);
+        ProductSpecificationRequest specifications = new ProductSpecificationRequest(lowPrice, maxPrice, attributeValueIds);
+        ProductFacetResponse response = productService.getFacetCountsByCategory(categoryId, specifications);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/category/{categoryId}/ranges")
     public ResponseEntity<FilterRangesResponse> getFilterRangesByCategory(@PathVariable Long categoryId) {
         FilterRangesResponse response = productService.getFilterRangesByCategory(categoryId);
@@ -77,7 +125,14 @@ public class ProductController {
     @GetMapping("/batch")
     public ResponseEntity<List<ProductOverviewResponse>> getProductsByIds(@RequestParam List<Long> ids) {
         log.info("Batching products by IDs: {}", ids);
-        List<ProductOverviewResponse> response = productService.getProductsByIds(ids);
+        List<ProductOverviewResponse> response = productBatchService.getProductsByIds(ids);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<ProductOverviewResponse>> getProductsByIdList(@RequestBody List<Long> ids) {
+        log.info("Batching {} products by IDs", ids.size());
+        List<ProductOverviewResponse> response = productBatchService.getProductsByIds(ids);
         return ResponseEntity.ok(response);
     }
 
@@ -93,6 +148,27 @@ public class ProductController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/search/slice")
+    public ResponseEntity<Slice<ProductOverviewResponse>> searchProductsSliceByQuery(
+            @RequestParam(defaultValue = Constants.PAGE_NUMBER + "") int pageNumber,
+            @RequestParam(defaultValue = Constants.PAGE_SIZE + "") int pageSize,
+            @RequestParam(defaultValue = "") String query
+    ) {
+        log.info("Searching product slice with query: {}", query);
+        PageRequest pageRequest = PageRequest.of(pageNumber, pageSize);
+        Slice<ProductOverviewResponse> response = productService.searchProductsSliceByQuery(query, pageRequest);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/suggest")
+    public ResponseEntity<List<ProductSuggestion>> suggestProducts(
+            @RequestParam(defaultValue = "") String query,
+            @RequestParam(defaultValue = Constants.SUGGESTION_LIMIT + "") int limit
+    ) {
+        List<ProductSuggestion> response = productService.suggestProducts(query, limit);
+        return ResponseEntity.ok(response);
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @PostMapping
     public ResponseEntity<Long> createProduct(@RequestBody @Valid ProductRequest request) {
@@ -135,15 +211,23 @@ public class ProductController {
     @GetMapping("/{id}/images/{fileName}")
     public ResponseEntity<Resource> getImage(
             @PathVariable Long id,
-            @PathVariable String fileName
+            @PathVariable String fileName,
+            @RequestParam(required = false) ImageSize size
     ) {
-        ProductImageResponse response = productService.getImage(id, fileName);
+        ProductImageResponse response = productService.getImage(id, fileName, size);
 
         if (response == null)
             return ResponseEntity.notFound().build();
 
+        // Last-Modified lets Spring answer If-Modified-Since with 304, Range requests are answered with 206
+        CacheControl cacheControl = response.immutable()
+                ? CacheControl.maxAge(Constants.IMAGE_CACHE_MAX_AGE_DAYS, TimeUnit.DAYS).cachePublic().immutable()
+                : CacheControl.noCache();
+
         return ResponseEntity.ok()
                 .contentType(response.mediaType())
+                .lastModified(response.lastModified())
+                .cacheControl(cacheControl)
                 .body(response.resource());
     }
 }
\ No newline at end of file
@@ -0,0 +1,41 @@
+package com.ecommerce.product;
+
+import com.ecommerce.exception.InvalidCursorException;
+import lombok.NonNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset position of a product listing - the sort key value and the ID of the last returned product.
+ */
+public record ProductCursor(
+        Long id,
+        String value
+) {
+    private static final String SEPARATOR = ":";
+
+    public static ProductCursor of(@NonNull Product product, @NonNull ProductSortKey sortKey) {
+        return new ProductCursor(product.getId(), sortKey.valueOf(product));
+    }
+
+    public String encode() {
+        String raw = id + SEPARATOR + value;
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static ProductCursor decode(@NonNull String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = raw.indexOf(SEPARATOR);
+
+            return new ProductCursor(
+                    Long.parseLong(raw.substring(0, separatorIndex)),
+                    raw.substring(separatorIndex + 1)
+            );
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException(String.format("Neplatný kurzor stránkování: %s", cursor));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.ecommerce.product;
+
+import com.ecommerce.exception.InvalidCursorException;
+import jakarta.persistence.criteria.*;
+import lombok.NonNull;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+
+/**
+ * Restricts a sorted product listing to the rows following the given cursor,
+ * using the (sort key, id) pair so that ties on the sort key are resolved by ID.
+ */
+public class ProductKeysetSpecification implements Specification<Product> {
+    private final ProductSortKey sortKey;
+    private final Sort.Direction direction;
+    private final ProductCursor cursor;
+
+    public ProductKeysetSpecification(ProductSortKey sortKey, Sort.Direction direction, ProductCursor cursor) {
+        this.sortKey = sortKey;
+        this.direction = direction;
+        this.cursor = cursor;
+    }
+
+    @Override
+    public @NonNull Predicate toPredicate(
+            Root<Product> root,
+            @NonNull CriteriaQuery<?> query,
+            CriteriaBuilder criteriaBuilder
+    ) {
+        Path<Long> id = root.get("id");
+
+        try {
+            return switch (sortKey) {
+                case ID -> this.after(criteriaBuilder, id, cursor.id());
+                case NAME -> this.after(criteriaBuilder,
+                        criteriaBuilder.lower(root.get("name")), cursor.value().toLowerCase(), id);
+                case PRICE -> this.after(criteriaBuilder,
+                        root.get("minPrice"), new BigDecimal(cursor.value()), id);
+            };
+        } catch (NumberFormatException e) {
+            throw new InvalidCursorException(String.format("Neplatný kurzor stránkování pro řazení podle %s.", sortKey));
+        }
+    }
+
+    private <T extends Comparable<? super T>> Predicate after(
+            CriteriaBuilder criteriaBuilder,
+            Expression<T> key,
+            T value,
+            Path<Long> id
+    ) {
+        return criteriaBuilder.or(
+                this.after(criteriaBuilder, key, value),
+                criteriaBuilder.and(
+                        criteriaBuilder.equal(key, value),
+                        this.after(criteriaBuilder, id, cursor.id())
+                )
+        );
+    }
+
+    private <T extends Comparable<? super T>> Predicate after(
+            CriteriaBuilder criteriaBuilder,
+            Expression<T> key,
+            T value
+    ) {
+        return direction.isAscending()
+                ? criteriaBuilder.greaterThan(key, value)
+                : criteriaBuilder.lessThan(key, value);
+    }
+}
@@ -10,6 +10,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
+import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
@@ -34,22 +35,15 @@ public class ProductMapper {
                 .build();
     }
 
-    public ProductOverviewResponse toOverviewResponse(@NonNull Product product) {
-        log.debug("Mapping Product to ProductOverviewResponse: {}", product);
-        return ProductOverviewResponse.builder()
-                .id(product.getId())
-                .name(product.getName())
-                .price(priceService.getCheapestVariantPrice(product))
-                .basePrice(priceService.getCheapestVariantBasePrice(product))
-                .isPriceEqual(priceService.isVariantsPricesEqual(product))
-                .isVisible(product.isVisible())
-                .categoryIds(product.getCategoryIds())
-                .relatedProductIds(this.mapRelatedProductIdsFor(product))
-                .primaryImagePath(this.mapPrimaryImagePath(product))
-                .build();
-    }
-
-    public ProductResponse toResponse(@NonNull Product product) {
+    /**
+     * Maps a product to its detail response. The related products are hydrated by the caller,
+     * so mapping never loads the related product entities one by one.
+     *
+     * @param product         the product
+     * @param relatedProducts the overviews of the related products
+     * @return the product response
+     */
+    public ProductResponse toResponse(@NonNull Product product, @NonNull Collection<ProductOverviewResponse> relatedProducts) {
         log.debug("Mapping Product to ProductResponse: {}", product);
         return ProductResponse.builder()
                 .id(product.getId())
@@ -61,7 +55,7 @@ public class ProductMapper {
                 .isVisible(product.isVisible())
                 .variants(this.mapVariantsFor(product))
                 .categoryIds(product.getCategoryIds())
-                .relatedProducts(this.mapRelatedProductsFor(product))
+                .relatedProducts(Set.copyOf(relatedProducts))
                 .attributes(this.mapAttributesFor(product))
                 .imagePaths(this.mapProductImages(product))
                 .build();
@@ -75,22 +69,6 @@ public class ProductMapper {
                 .orElse(Collections.emptySet());
     }
 
-    private Set<ProductOverviewResponse> mapRelatedProductsFor(Product product) {
-        return Optional.ofNullable(product.getRelatedProducts())
-                .map(relatedProducts -> relatedProducts.stream()
-                        .map(this::toOverviewResponse)
-                        .collect(Collectors.toSet()))
-                .orElse(Collections.emptySet());
-    }
-
-    private List<Long> mapRelatedProductIdsFor(Product product) {
-        return Optional.ofNullable(product.getRelatedProducts())
-                .map(relatedProducts -> relatedProducts.stream()
-                        .map(Product::getId)
-                        .collect(Collectors.toList()))
-                .orElse(Collections.emptyList());
-    }
-
     private Set<AttributeResponse> mapAttributesFor(Product product) {
         return Optional.ofNullable(product.getAttributes())
                 .map(attributes -> attributes.stream()
@@ -107,11 +85,4 @@ public class ProductMapper {
                         .collect(Collectors.toList()))
                 .orElse(null);
     }
-
-    private String mapPrimaryImagePath(Product product) {
-        return Optional.ofNullable(product.getImages())
-                .filter(images -> !images.isEmpty())
-                .map(images -> images.getFirst().getImagePath())
-                .orElse(null);
-    }
 }
@@ -0,0 +1,184 @@
+package com.ecommerce.product;
+
+import com.ecommerce.product.catalog.CatalogImportedEvent;
+import com.ecommerce.variant.bulk.VariantsChangedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.function.Function;
+
+/**
+ * Bounded multi-get cache of product overviews, one entry per product, so batches with different
+ * combinations of IDs share their entries. Only the products missing from the cache are loaded,
+ * all of them at once. The least recently used entries are evicted once the number of entries exceeds the limit.
+ * <p>
+ * Entries are invalidated after commit by {@link ProductChangedEvent} and {@link VariantsChangedEvent},
+ * and by {@link CatalogImportedEvent}. A changed product also invalidates every cached product
+ * that lists it as a related product, found through a reverse index maintained with the entries.
+ * The listeners run before the invalidation of {@link ProductResponseCache}, which hydrates related products
+ * from this cache, so a detail reloaded right after a change never picks up a stale overview.
+ * Lookups are exported as {@code cache.gets} with a hit or miss result and the requested batch sizes
+ * as {@code product.overview.batch.size}.
+ */
+@Component
+@Slf4j
+public class ProductOverviewCache {
+    private static final String CACHE_NAME = "product-overview";
+
+    private final int maxEntries;
+    private final Counter hits;
+    private final Counter misses;
+    private final DistributionSummary batchSizes;
+
+    private final LinkedHashMap<Long, ProductOverviewResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Set<Long>> productsByRelatedProduct = new HashMap<>();
+    private long generation;
+
+    public ProductOverviewCache(
+            MeterRegistry meterRegistry,
+            @Value("${application.cache.overview-max-entries:50000}") int maxEntries
+    ) {
+        this.maxEntries = maxEntries;
+        this.hits = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("cache.gets")
+                .tag("cache", CACHE_NAME)
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("product.overview.batch.size")
+                .description("Number of distinct product IDs requested in one batch")
+                .register(meterRegistry);
+        Gauge.builder("cache.size", this, ProductOverviewCache::size)
+                .tag("cache", CACHE_NAME)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the overviews of the given products, loading the ones that are not cached with a single call.
+     * Overviews loaded while an invalidation happened are returned but not cached, as they may be stale.
+     *
+     * @param productIds the product IDs
+     * @param loader     loads the overviews of the missing products; products that do not exist are left out
+     * @return the overviews of the existing products per product ID
+     */
+    public Map<Long, ProductOverviewResponse> getAll(
+            Collection<Long> productIds,
+            Function<Set<Long>, Collection<ProductOverviewResponse>> loader
+    ) {
+        Objects.requireNonNull(productIds, "ID produktů nesmí být null.");
+
+        Map<Long, ProductOverviewResponse> found = new HashMap<>();
+        Set<Long> missing = new LinkedHashSet<>();
+        long loadGeneration;
+        synchronized (this) {
+            for (Long productId : productIds) {
+                ProductOverviewResponse overview = entries.get(productId);
+                if (overview != null) {
+                    found.put(productId, overview);
+                } else {
+                    missing.add(productId);
+                }
+            }
+            loadGeneration = generation;
+        }
+
+        batchSizes.record(found.size() + missing.size());
+        hits.increment(found.size());
+        misses.increment(missing.size());
+        if (missing.isEmpty())
+            return found;
+
+        log.debug("Loading overviews of {} products missing from the cache", missing.size());
+        Collection<ProductOverviewResponse> loaded = loader.apply(missing);
+        loaded.forEach(overview -> found.put(overview.id(), overview));
+
+        synchronized (this) {
+            if (loadGeneration == generation)
+                loaded.forEach(this::put);
+        }
+        return found;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        generation++;
+        this.removeWithDependents(event.productId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public synchronized void onVariantsChanged(VariantsChangedEvent event) {
+        generation++;
+        event.productIds().forEach(this::removeWithDependents);
+    }
+
+    @EventListener
+    public synchronized void onCatalogImported(CatalogImportedEvent event) {
+        generation++;
+        event.productIds().forEach(this::removeWithDependents);
+    }
+
+    public synchronized boolean contains(Long productId) {
+        return entries.containsKey(productId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void put(ProductOverviewResponse overview) {
+        this.remove(overview.id());
+        entries.put(overview.id(), overview);
+        relatedProductIdsOf(overview).forEach(relatedId ->
+                productsByRelatedProduct.computeIfAbsent(relatedId, key -> new HashSet<>()).add(overview.id()));
+
+        Iterator<Map.Entry<Long, ProductOverviewResponse>> eldest = entries.entrySet().iterator();
+        while (entries.size() > maxEntries && eldest.hasNext()) {
+            ProductOverviewResponse evicted = eldest.next().getValue();
+            eldest.remove();
+            this.unlink(evicted);
+        }
+    }
+
+    private void removeWithDependents(Long productId) {
+        Set<Long> dependents = productsByRelatedProduct.getOrDefault(productId, Collections.emptySet());
+        List.copyOf(dependents).forEach(this::remove);
+        this.remove(productId);
+    }
+
+    private void remove(Long productId) {
+        ProductOverviewResponse overview = entries.remove(productId);
+        if (overview != null)
+            this.unlink(overview);
+    }
+
+    private void unlink(ProductOverviewResponse overview) {
+        relatedProductIdsOf(overview).forEach(relatedId -> {
+            Set<Long> products = productsByRelatedProduct.get(relatedId);
+            if (products == null)
+                return;
+
+            products.remove(overview.id());
+            if (products.isEmpty())
+                productsByRelatedProduct.remove(relatedId);
+        });
+    }
+
+    private static List<Long> relatedProductIdsOf(ProductOverviewResponse overview) {
+        return overview.relatedProductIds() == null ? Collections.emptyList() : overview.relatedProductIds();
+    }
+}
@@ -0,0 +1,78 @@
+package com.ecommerce.product;
+
+import com.ecommerce.product.facet.ProductFacetLink;
+import com.ecommerce.productimage.ProductImageRepository;
+import com.ecommerce.productimage.ProductPrimaryImage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Read path producing product overviews without touching the lazy associations of the products.
+ * Categories, related product IDs and primary images of all products are fetched by one query each,
+ * so mapping a page costs the same number of statements regardless of the page size.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductOverviewReader {
+    private final ProductRepository productRepository;
+    private final ProductImageRepository productImageRepository;
+
+    public Page<ProductOverviewResponse> toOverviewResponses(Page<Product> products) {
+        return new PageImpl<>(this.toOverviewResponses(products.getContent()), products.getPageable(), products.getTotalElements());
+    }
+
+    public Slice<ProductOverviewResponse> toOverviewResponses(Slice<Product> products) {
+        return new SliceImpl<>(this.toOverviewResponses(products.getContent()), products.getPageable(), products.hasNext());
+    }
+
+    /**
+     * Maps products to overview responses, keeping the order of the products.
+     *
+     * @param products the products with their scalar columns loaded
+     * @return the overview responses
+     */
+    public List<ProductOverviewResponse> toOverviewResponses(List<Product> products) {
+        if (products.isEmpty())
+            return Collections.emptyList();
+
+        Set<Long> productIds = products.stream()
+                .map(Product::getId)
+                .collect(Collectors.toSet());
+        log.debug("Reading overviews of {} products", productIds.size());
+
+        Map<Long, Set<Long>> categoryIds = productRepository.findCategoryLinksByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(ProductFacetLink::productId,
+                        Collectors.mapping(ProductFacetLink::targetId, Collectors.toSet())));
+
+        Map<Long, List<Long>> relatedProductIds = productRepository.findRelatedProductLinksByProductIds(productIds).stream()
+                .collect(Collectors.groupingBy(ProductFacetLink::productId,
+                        Collectors.mapping(ProductFacetLink::targetId, Collectors.toList())));
+
+        Map<Long, String> primaryImagePaths = productImageRepository.findPrimaryImagesByProductIds(productIds).stream()
+                .collect(Collectors.toMap(ProductPrimaryImage::productId, ProductPrimaryImage::imagePath,
+                        (first, second) -> first));
+
+        return products.stream()
+                .map(product -> ProductOverviewResponse.builder()
+                        .id(product.getId())
+                        .name(product.getName())
+                        .price(product.getMinPrice())
+                        .basePrice(product.getMinBasePrice())
+                        .isPriceEqual(product.isPricesEqual())
+                        .isVisible(product.isVisible())
+                        .categoryIds(categoryIds.getOrDefault(product.getId(), Collections.emptySet()))
+                        .relatedProductIds(relatedProductIds.getOrDefault(product.getId(), Collections.emptyList()))
+                        .primaryImagePath(primaryImagePaths.get(product.getId()))
+                        .build())
+                .toList();
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.product;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Reads product overviews with a single query, with the categories, related products and the primary image
+ * aggregated in the same row, instead of loading the product entities and their associations.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductOverviewRepository {
+    private static final String FIND_OVERVIEWS = """
+        SELECT product.id, product.name, product.min_price, product.min_base_price,
+            product.prices_equal, product.is_visible,
+            ARRAY(SELECT category.category_id FROM product_category category
+                WHERE category.product_id = product.id ORDER BY category.category_id) AS category_ids,
+            ARRAY(SELECT related.related_product_id FROM product_related_product related
+                WHERE related.product_id = product.id ORDER BY related.related_product_id) AS related_product_ids,
+            (SELECT image.image_path FROM product_image image
+                WHERE image.product_id = product.id
+                ORDER BY image.upload_order, image.id
+                LIMIT 1) AS primary_image_path
+        FROM product
+        WHERE product.id = ANY(CAST(? AS BIGINT[]))
+      """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds the overviews of the given products, visible or not.
+     *
+     * @param productIds the product IDs
+     * @return the overviews of the existing products, in no particular order
+     */
+    public List<ProductOverviewResponse> findOverviews(Collection<Long> productIds) {
+        if (productIds.isEmpty())
+            return Collections.emptyList();
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(FIND_OVERVIEWS);
+            statement.setArray(1, connection.createArrayOf("bigint", productIds.toArray(Long[]::new)));
+            return statement;
+        }, (resultSet, rowNumber) -> this.toOverview(resultSet));
+    }
+
+    private ProductOverviewResponse toOverview(ResultSet resultSet) throws SQLException {
+        return ProductOverviewResponse.builder()
+                .id(resultSet.getLong("id"))
+                .name(resultSet.getString("name"))
+                .price(resultSet.getBigDecimal("min_price"))
+                .basePrice(resultSet.getBigDecimal("min_base_price"))
+                .isPriceEqual(resultSet.getBoolean("prices_equal"))
+                .isVisible(resultSet.getBoolean("is_visible"))
+                .categoryIds(new HashSet<>(longsOf(resultSet.getArray("category_ids"))))
+                .relatedProductIds(longsOf(resultSet.getArray("related_product_ids")))
+                .primaryImagePath(resultSet.getString("primary_image_path"))
+                .build();
+    }
+
+    private static List<Long> longsOf(Array array) throws SQLException {
+        if (array == null)
+            return Collections.emptyList();
+
+        return List.of((Long[]) array.getArray());
+    }
+}
@@ -0,0 +1,11 @@
+package com.ecommerce.product;
+
+import java.math.BigDecimal;
+
+/**
+ * Cheapest and highest variant price among a group of products.
+ */
+public record ProductPriceRange(
+        BigDecimal lowPrice,
+        BigDecimal maxPrice
+) {}
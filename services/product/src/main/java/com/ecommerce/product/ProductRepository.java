@@ -1,20 +1,26 @@
 package com.ecommerce.product;
 
+import com.ecommerce.product.facet.ProductFacetLink;
+import com.ecommerce.product.facet.ProductFacetRow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
-import java.nio.channels.FileChannel;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, JpaSpecificationExecutor<Product> {
 
     /**
      * Retrieves visible products belonging to a specific category.
@@ -24,36 +30,83 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     List<Product> findAll(Specification<Product> specification);
 
+    /**
+     * Calculates the cheapest and the highest variant price of visible products in a category
+     * from the stored price summary.
+     *
+     * @param categoryId the category ID.
+     * @return the price range, with null prices when the category has no priced products.
+     */
     @Query("""
-        SELECT product FROM Product product
+        SELECT new com.ecommerce.product.ProductPriceRange(MIN(product.minPrice), MAX(product.maxPrice))
+        FROM Product product
         WHERE :categoryId MEMBER OF product.categoryIds
         AND product.isVisible = true
       """)
-    List<Product> findAllVisibleByCategory(
-            @Param("categoryId") Long categoryId
+    ProductPriceRange findPriceRangeByCategory(@Param("categoryId") Long categoryId);
+
+    /**
+     * Ranked search over visible products. A product matches when its name or description contains all
+     * query tokens as word prefixes (GIN index on search_vector), or when its name is similar to the query
+     * (GIN trigram index on search_name). Name matches rank above description matches.
+     */
+    String SEARCH_QUERY = """
+        SELECT product.* FROM product
+        WHERE product.is_visible = true
+        AND (
+            product.search_vector @@ to_tsquery('simple', :tsQuery)
+            OR product.search_name % :query
+        )
+        ORDER BY ts_rank(product.search_vector, to_tsquery('simple', :tsQuery))
+            + similarity(product.search_name, :query) DESC, product.id
+      """;
+
+    /**
+     * Searches visible products by name and description.
+     *
+     * @param query   the normalized search query.
+     * @param tsQuery the prefix full-text query built from the search query.
+     * @param pageable pagination information.
+     * @return a page of visible products ordered by relevance.
+     */
+    @Query(value = SEARCH_QUERY, countQuery = """
+        SELECT COUNT(*) FROM product
+        WHERE product.is_visible = true
+        AND (
+            product.search_vector @@ to_tsquery('simple', :tsQuery)
+            OR product.search_name % :query
+        )
+      """, nativeQuery = true)
+    Page<Product> searchVisible(
+            @Param("query") String query,
+            @Param("tsQuery") String tsQuery,
+            Pageable pageable
     );
 
     /**
-     * Retrieves visible products whose names are similar to the provided search query.
-     * The similarity is calculated using a database function (e.g., PostgreSQL's `similarity` function).
+     * Searches visible products by name and description without counting all matches.
      *
-     * @param query the search query to compare against product names.
-     * @param similarity the minimum similarity threshold for matching products.
+     * @param query   the normalized search query.
+     * @param tsQuery the prefix full-text query built from the search query.
      * @param pageable pagination information.
-     * @return a page of visible products sorted by similarity to the query.
+     * @return a slice of visible products ordered by relevance.
      */
-    @Query("""
-        SELECT product FROM Product product
-        WHERE FUNCTION('similarity', product.name, :query) > :similarity
-        AND product.isVisible = true
-        ORDER BY FUNCTION('similarity', product.name, :query) DESC
-       """)
-    Page<Product> findAllVisibleBySimilarity(
+    @Query(value = SEARCH_QUERY, nativeQuery = true)
+    Slice<Product> searchVisibleSlice(
             @Param("query") String query,
-            @Param("similarity") double similarity,
+            @Param("tsQuery") String tsQuery,
             Pageable pageable
     );
 
+    /**
+     * Sets the minimum trigram similarity used by the {@code %} operator for the rest of the current transaction.
+     *
+     * @param similarity the minimum similarity threshold.
+     * @return the applied setting.
+     */
+    @Query(value = "SELECT set_config('pg_trgm.similarity_threshold', CAST(:similarity AS text), true)", nativeQuery = true)
+    String setSimilarityThreshold(@Param("similarity") double similarity);
+
     /**
      * Counts the number of products based on a set of IDs.
      * This can be useful for determining how many products exist in a specific list of IDs.
@@ -63,4 +116,252 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT COUNT(p) FROM Product p WHERE p.id IN :ids")
     int countByIds(@Param("ids") Set<Long> ids);
+
+    /**
+     * Finds which of the given product IDs still exist.
+     *
+     * @param ids product IDs to check.
+     * @return the IDs of the existing products.
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Recalculates the stored price summary of products from their variants -
+     * the cheapest and the highest effective price, the base price of the cheapest variant
+     * and whether all variants share the same price.
+     */
+    String PRICE_SUMMARY_UPDATE = """
+        UPDATE product
+        SET min_price = (
+                SELECT MIN(CASE WHEN variant.discounted_price > 0 THEN variant.discounted_price ELSE variant.base_price END)
+                FROM variant
+                WHERE variant.product_id = product.id
+            ),
+            min_base_price = (
+                SELECT variant.base_price
+                FROM variant
+                WHERE variant.product_id = product.id
+                ORDER BY CASE WHEN variant.discounted_price > 0 THEN variant.discounted_price ELSE variant.base_price END, variant.id
+                LIMIT 1
+            ),
+            max_price = (
+                SELECT MAX(CASE WHEN variant.discounted_price > 0 THEN variant.discounted_price ELSE variant.base_price END)
+                FROM variant
+                WHERE variant.product_id = product.id
+            ),
+            prices_equal = (
+                SELECT COUNT(DISTINCT CASE WHEN variant.discounted_price > 0 THEN variant.discounted_price ELSE variant.base_price END) = 1
+                FROM variant
+                WHERE variant.product_id = product.id
+            )
+      """;
+
+    /**
+     * Recalculates the stored price summary of a product.
+     * The summary is used for listing, sorting and filtering, so it has to be refreshed on every variant price write.
+     *
+     * @param productId the ID of the product to refresh.
+     * @return the number of updated products.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = PRICE_SUMMARY_UPDATE + "WHERE product.id = :productId", nativeQuery = true)
+    int refreshPriceSummary(@Param("productId") Long productId);
+
+    /**
+     * Recalculates the stored price summary of several products with a single statement.
+     *
+     * @param productIds the IDs of the products to refresh.
+     * @return the number of updated products.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = PRICE_SUMMARY_UPDATE + "WHERE product.id IN (:productIds)", nativeQuery = true)
+    int refreshPriceSummaries(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Increments the version of a product and of the products showing it as a related product.
+     *
+     * @param productId the ID of the changed product.
+     * @return the number of updated products.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE product
+        SET version = version + 1, updated_at = now()
+        WHERE product.id = :productId
+        OR product.id IN (
+            SELECT related.product_id FROM product_related_product related
+            WHERE related.related_product_id = :productId
+        )
+      """, nativeQuery = true)
+    int incrementVersion(@Param("productId") Long productId);
+
+    /**
+     * Increments the versions of several products and of the products showing them as a related product.
+     *
+     * @param productIds the IDs of the changed products.
+     * @return the number of updated products.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE product
+        SET version = version + 1, updated_at = now()
+        WHERE product.id IN (:productIds)
+        OR product.id IN (
+            SELECT related.product_id FROM product_related_product related
+            WHERE related.related_product_id IN (:productIds)
+        )
+      """, nativeQuery = true)
+    int incrementVersions(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Increments the version of products that have the attribute or whose variants have its values.
+     *
+     * @param attributeId the ID of the changed attribute.
+     * @return the number of updated products.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE product
+        SET version = version + 1, updated_at = now()
+        WHERE product.id IN (
+            SELECT product_attribute.product_id FROM product_attribute
+            WHERE product_attribute.attribute_id = :attributeId
+        )
+        OR product.id IN (
+            SELECT variant.product_id FROM variant
+            JOIN variant_attribute_value ON variant_attribute_value.variant_id = variant.id
+            JOIN attribute_value ON attribute_value.id = variant_attribute_value.attribute_value_id
+            WHERE attribute_value.attribute_id = :attributeId
+        )
+      """, nativeQuery = true)
+    int incrementVersionByAttribute(@Param("attributeId") Long attributeId);
+
+    /**
+     * Retrieves the version of a product.
+     *
+     * @param productId the ID of the product.
+     * @return the version, or empty if the product does not exist.
+     */
+    @Query("""
+        SELECT new com.ecommerce.product.ProductVersion(product.id, product.version, product.updatedAt)
+        FROM Product product
+        WHERE product.id = :productId
+      """)
+    Optional<ProductVersion> findVersionById(@Param("productId") Long productId);
+
+    /**
+     * Computes a digest of the stock of the variants of a product, including the stock held in shards.
+     *
+     * @param productId the ID of the product.
+     * @return the digest, 0 for a product without variants.
+     */
+    @Query(value = """
+        SELECT COALESCE(hashtext(string_agg(
+            variant.id || ':' || CAST(COALESCE(variant.quantity_unlimited, FALSE) AS TEXT) || ':' || (
+                COALESCE(variant.quantity, 0) + COALESCE((
+                    SELECT SUM(shard.quantity) FROM variant_stock_shard shard
+                    WHERE shard.variant_id = variant.id
+                ), 0)
+            ),
+            ',' ORDER BY variant.id
+        )), 0)
+        FROM variant
+        WHERE variant.product_id = :productId
+      """, nativeQuery = true)
+    int findStockDigest(@Param("productId") Long productId);
+
+    /**
+     * Computes a digest of the IDs and versions of all products in a category.
+     * The digest changes whenever a product is added to, removed from or changed in the category.
+     *
+     * @param categoryId the ID of the category.
+     * @return the digest, or null if the category has no products.
+     */
+    @Query(value = """
+        SELECT md5(string_agg(product.id || ':' || product.version, ',' ORDER BY product.id))
+        FROM product
+        JOIN product_category ON product_category.product_id = product.id
+        WHERE product_category.category_id = :categoryId
+      """, nativeQuery = true)
+    String findListingDigestByCategory(@Param("categoryId") Long categoryId);
+
+    /**
+     * Retrieves the facet index columns of all products.
+     *
+     * @return the facet rows of all products.
+     */
+    @Query("""
+        SELECT new com.ecommerce.product.facet.ProductFacetRow(product.id, product.name, product.isVisible, product.minPrice)
+        FROM Product product
+      """)
+    List<ProductFacetRow> findAllFacetRows();
+
+    /**
+     * Retrieves the facet index columns of a single product.
+     *
+     * @param productId the ID of the product.
+     * @return the facet row, or empty if the product does not exist.
+     */
+    @Query("""
+        SELECT new com.ecommerce.product.facet.ProductFacetRow(product.id, product.name, product.isVisible, product.minPrice)
+        FROM Product product
+        WHERE product.id = :productId
+      """)
+    Optional<ProductFacetRow> findFacetRowById(@Param("productId") Long productId);
+
+    /**
+     * Retrieves the category links of all products.
+     *
+     * @return pairs of product ID and category ID.
+     */
+    @Query("""
+        SELECT new com.ecommerce.product.facet.ProductFacetLink(product.id, categoryId)
+        FROM Product product
+        JOIN product.categoryIds categoryId
+      """)
+    List<ProductFacetLink> findAllCategoryLinks();
+
+    /**
+     * Retrieves the category links of a single product.
+     *
+     * @param productId the ID of the product.
+     * @return pairs of product ID and category ID.
+     */
+    @Query("""
+        SELECT new com.ecommerce.product.facet.ProductFacetLink(product.id, categoryId)
+        FROM Product product
+        JOIN product.categoryIds categoryId
+        WHERE product.id = :productId
+      """)
+    List<ProductFacetLink> findCategoryLinksByProductId(@Param("productId") Long productId);
+
+    /**
+     * Retrieves the category links of the given products.
+     *
+     * @param productIds the IDs of the products.
+     * @return pairs of product ID and category ID.
+     */
+    @Query("""
+        SELECT new com.ecommerce.product.facet.ProductFacetLink(product.id, categoryId)
+        FROM Product product
+        JOIN product.categoryIds categoryId
+        WHERE product.id IN :productIds
+      """)
+    List<ProductFacetLink> findCategoryLinksByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    /**
+     * Retrieves the related product links of the given products.
+     *
+     * @param productIds the IDs of the products.
+     * @return pairs of product ID and related product ID, ordered by the related product ID.
+     */
+    @Query("""
+        SELECT new com.ecommerce.product.facet.ProductFacetLink(product.id, relatedProduct.id)
+        FROM Product product
+        JOIN product.relatedProducts relatedProduct
+        WHERE product.id IN :productIds
+        ORDER BY relatedProduct.id
+      """)
+    List<ProductFacetLink> findRelatedProductLinksByProductIds(@Param("productIds") Collection<Long> productIds);
 }
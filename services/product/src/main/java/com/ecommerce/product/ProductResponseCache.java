@@ -0,0 +1,203 @@
+package com.ecommerce.product;
+
+import com.ecommerce.attribute.AttributeChangedEvent;
+import com.ecommerce.attribute.AttributeResponse;
+import com.ecommerce.attributevalue.AttributeValueResponse;
+import com.ecommerce.variant.StockChangedEvent;
+import com.ecommerce.variant.VariantResponse;
+import com.ecommerce.variant.bulk.VariantsChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+/**
+ * Bounded read-through cache of fully mapped product details.
+ * The size is measured as a weight roughly proportional to the number of nested objects of a response,
+ * so a few products with many variants cannot push out hundreds of small ones unnoticed.
+ * The least recently used entries are evicted once the total weight exceeds the limit.
+ * <p>
+ * Entries are invalidated after commit by {@link ProductChangedEvent} (the product itself, its variants
+ * or images changed), {@link VariantsChangedEvent} (a bulk change of variants of many products),
+ * {@link StockChangedEvent} (the stock of variants shown in the response was taken or returned)
+ * and {@link AttributeChangedEvent}. A changed product also invalidates every cached
+ * product that shows it as a related product, and a changed attribute invalidates only the cached products
+ * that use it, found through reverse indexes maintained with the entries.
+ */
+@Component
+@Slf4j
+public class ProductResponseCache {
+    private final long maxWeight;
+
+    private final LinkedHashMap<Long, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Long, Set<Long>> productsByRelatedProduct = new HashMap<>();
+    private final Map<Long, Set<Long>> productsByAttribute = new HashMap<>();
+    private long totalWeight;
+    private long generation;
+
+    public ProductResponseCache(@Value("${application.cache.product-max-weight:20000}") long maxWeight) {
+        this.maxWeight = maxWeight;
+    }
+
+    private record Entry(ProductResponse response, long weight) {}
+
+    /**
+     * Returns the cached response of a product, or loads it and caches it.
+     * A response loaded while an invalidation happened is returned but not cached, as it may be stale.
+     *
+     * @param productId the product ID
+     * @param loader    builds the response when it is not cached
+     * @return the product response
+     */
+    public ProductResponse get(Long productId, Supplier<ProductResponse> loader) {
+        Objects.requireNonNull(productId, "ID produktu nesmí být prázdné.");
+
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(productId);
+            if (entry != null)
+                return entry.response();
+            loadGeneration = generation;
+        }
+
+        log.debug("Product ID {} is not cached, loading its response", productId);
+        ProductResponse response = loader.get();
+
+        synchronized (this) {
+            if (loadGeneration == generation)
+                this.put(productId, response);
+        }
+        return response;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        generation++;
+        this.removeWithDependents(event.productId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onVariantsChanged(VariantsChangedEvent event) {
+        generation++;
+        event.productIds().forEach(this::removeWithDependents);
+    }
+
+    /**
+     * Evicts the products whose stock changed. Related products carry no stock, so the products
+     * showing them are kept.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onStockChanged(StockChangedEvent event) {
+        generation++;
+        event.productIds().forEach(this::remove);
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public synchronized void onAttributeChanged(AttributeChangedEvent event) {
+        generation++;
+        Set<Long> dependents = productsByAttribute.getOrDefault(event.attributeId(), Collections.emptySet());
+        List.copyOf(dependents).forEach(this::remove);
+    }
+
+    public synchronized boolean contains(Long productId) {
+        return entries.containsKey(productId);
+    }
+
+    public synchronized long getTotalWeight() {
+        return totalWeight;
+    }
+
+    private void put(Long productId, ProductResponse response) {
+        long weight = weightOf(response);
+        if (weight > maxWeight)
+            return;
+
+        this.remove(productId);
+        entries.put(productId, new Entry(response, weight));
+        totalWeight += weight;
+        relatedProductIdsOf(response).forEach(relatedId -> this.link(productsByRelatedProduct, relatedId, productId));
+        attributeIdsOf(response).forEach(attributeId -> this.link(productsByAttribute, attributeId, productId));
+
+        Iterator<Map.Entry<Long, Entry>> eldest = entries.entrySet().iterator();
+        while (totalWeight > maxWeight && eldest.hasNext()) {
+            Map.Entry<Long, Entry> evicted = eldest.next();
+            eldest.remove();
+            this.unlink(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    private void removeWithDependents(Long productId) {
+        Set<Long> dependents = productsByRelatedProduct.getOrDefault(productId, Collections.emptySet());
+        List.copyOf(dependents).forEach(this::remove);
+        this.remove(productId);
+    }
+
+    private void remove(Long productId) {
+        Entry entry = entries.remove(productId);
+        if (entry != null)
+            this.unlink(productId, entry);
+    }
+
+    private void unlink(Long productId, Entry entry) {
+        totalWeight -= entry.weight();
+        relatedProductIdsOf(entry.response()).forEach(relatedId -> this.unlink(productsByRelatedProduct, relatedId, productId));
+        attributeIdsOf(entry.response()).forEach(attributeId -> this.unlink(productsByAttribute, attributeId, productId));
+    }
+
+    private void link(Map<Long, Set<Long>> index, Long key, Long productId) {
+        index.computeIfAbsent(key, k -> new HashSet<>()).add(productId);
+    }
+
+    private void unlink(Map<Long, Set<Long>> index, Long key, Long productId) {
+        Set<Long> products = index.get(key);
+        if (products == null)
+            return;
+
+        products.remove(productId);
+        if (products.isEmpty())
+            index.remove(key);
+    }
+
+    private static Set<Long> relatedProductIdsOf(ProductResponse response) {
+        Set<Long> relatedIds = new HashSet<>();
+        nullSafe(response.relatedProducts()).forEach(related -> relatedIds.add(related.id()));
+        return relatedIds;
+    }
+
+    private static Set<Long> attributeIdsOf(ProductResponse response) {
+        Set<Long> attributeIds = new HashSet<>();
+        nullSafe(response.attributes()).forEach(attribute -> attributeIds.add(attribute.id()));
+        nullSafe(response.variants()).stream()
+                .map(VariantResponse::attributeValues)
+                .filter(Objects::nonNull)
+                .flatMap(values -> values.values().stream())
+                .map(AttributeValueResponse::attributeId)
+                .filter(Objects::nonNull)
+                .forEach(attributeIds::add);
+        return attributeIds;
+    }
+
+    /**
+     * Estimates the size of a response as the number of objects it consists of.
+     */
+    static long weightOf(ProductResponse response) {
+        long weight = 1;
+        for (VariantResponse variant : nullSafe(response.variants())) {
+            weight += 1 + (variant.attributeValues() == null ? 0 : variant.attributeValues().size());
+        }
+        for (AttributeResponse attribute : nullSafe(response.attributes())) {
+            weight += 1 + (attribute.values() == null ? 0 : attribute.values().size());
+        }
+        weight += nullSafe(response.relatedProducts()).size();
+        weight += response.imagePaths() == null ? 0 : response.imagePaths().size();
+        return weight;
+    }
+
+    private static <T> Collection<T> nullSafe(Collection<T> collection) {
+        return collection == null ? Collections.emptySet() : collection;
+    }
+}
@@ -3,22 +3,30 @@ package com.ecommerce.product;
 import com.ecommerce.attribute.AttributeService;
 import com.ecommerce.exception.ProductNotFoundException;
 import com.ecommerce.feignclient.category.CategoryClient;
+import com.ecommerce.product.facet.ProductFacetResponse;
+import com.ecommerce.product.facet.ProductFacetService;
+import com.ecommerce.product.search.ProductSuggestion;
+import com.ecommerce.product.search.ProductSuggestionIndex;
+import com.ecommerce.product.search.SearchTextNormalizer;
+import com.ecommerce.productimage.ImageSize;
 import com.ecommerce.productimage.ProductImageResponse;
 import com.ecommerce.productimage.ProductImageService;
 import com.ecommerce.relatedproduct.RelatedProductService;
 import com.ecommerce.settings.Constants;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.math.BigDecimal;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -28,11 +36,17 @@ import java.util.stream.Collectors;
 public class ProductService {
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
+    private final ProductOverviewReader productOverviewReader;
+    private final ProductBatchService productBatchService;
     private final ProductImageService productImageService;
     private final RelatedProductService relatedProductService;
-    private final ProductPriceService priceService;
     private final AttributeService attributeService;
     private final CategoryClient categoryClient;
+    private final ProductFacetService productFacetService;
+    private final FilterRangesService filterRangesService;
+    private final ProductSuggestionIndex productSuggestionIndex;
+    private final ProductResponseCache productResponseCache;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Finds a product entity by ID.
@@ -63,8 +77,45 @@ public class ProductService {
         Objects.requireNonNull(id, "ID produktu nesmí být prázdné.");
         log.debug("Fetching product response for ID: {}", id);
 
-        Product product = this.findProductEntityById(id);
-        return productMapper.toResponse(product);
+        return productResponseCache.get(id, () -> productMapper.toResponse(
+                this.findProductEntityById(id),
+                productBatchService.getRelatedProducts(Set.of(id)).getOrDefault(id, Collections.emptySet())
+        ));
+    }
+
+    /**
+     * Retrieves the version of a product with the digest of its stock, used to answer conditional requests
+     * without mapping the product.
+     *
+     * @param id the product ID
+     * @return the product version
+     * @throws ProductNotFoundException if not found
+     */
+    @Transactional(readOnly = true)
+    public ProductVersion getProductVersion(Long id) {
+        Objects.requireNonNull(id, "ID produktu nesmí být prázdné.");
+        log.debug("Fetching version of product ID: {}", id);
+
+        return productRepository.findVersionById(id)
+                .map(version -> version.withStockDigest(productRepository.findStockDigest(id)))
+                .orElseThrow(() -> new ProductNotFoundException(
+                        String.format("Produkt s ID %s nebyl nalezen.", id)
+                ));
+    }
+
+    /**
+     * Computes an entity tag of the product listing of a category from the versions of its products.
+     *
+     * @param categoryId category ID
+     * @return strong entity tag of the listing
+     */
+    @Transactional(readOnly = true)
+    public String getCategoryListingETag(Long categoryId) {
+        Objects.requireNonNull(categoryId, "ID kategorie nesmí být prázdné.");
+        log.debug("Computing listing entity tag for category ID: {}", categoryId);
+
+        String digest = productRepository.findListingDigestByCategory(categoryId);
+        return "\"" + categoryId + "-" + Objects.requireNonNullElse(digest, "empty") + "\"";
     }
 
     /**
@@ -78,12 +129,13 @@ public class ProductService {
         Objects.requireNonNull(pageRequest, "Požadavek na stránkování nesmí být prázdný.");
         log.debug("Fetching all products with page request: {}", pageRequest);
 
-        return productRepository.findAll(pageRequest)
-                .map(productMapper::toOverviewResponse);
+        return productOverviewReader.toOverviewResponses(productRepository.findAll(pageRequest));
     }
 
     /**
      * Retrieves products by category with optional specifications.
+     * Filtering, sorting and pagination are answered by the in-memory facet index when it is ready,
+     * otherwise they are all done by the database.
      *
      * @param categoryId           category ID
      * @param specifications product specification filter
@@ -100,92 +152,129 @@ public class ProductService {
         Objects.requireNonNull(pageRequest, "Požadavek na stránkování nesmí být prázdný.");
         log.debug("Fetching products for category ID: {}", categoryId);
 
-        Specification<Product> categorySpec = (root, query, cb) ->
-                cb.and(
-                        cb.isMember(categoryId, root.get("categoryIds")),
-                        cb.isTrue(root.get("isVisible"))
-                );
-        Specification<Product> finalSpec = categorySpec.and(new ProductSpecification(specifications));
+        Sort.Order order = this.resolveOrder(pageRequest.getSort());
+        ProductSortKey sortKey = this.resolveSortKey(order);
 
-        List<Product> products = productRepository.findAll(finalSpec);
-        List<Product> sortedProducts = this.sortProducts(products, pageRequest.getSort());
+        Optional<Page<Long>> indexedIds = productFacetService.findProductIdsByCategory(
+                categoryId, specifications, sortKey, order.getDirection(), pageRequest);
+        if (indexedIds.isPresent())
+            return this.toOverviewPage(indexedIds.get());
 
-        int start = (int) pageRequest.getOffset();
-        int end = Math.min((start + pageRequest.getPageSize()), sortedProducts.size());
+        PageRequest sortedPageRequest = pageRequest.withSort(sortKey.toSort(order.getDirection()));
+        Specification<Product> finalSpec = this.categorySpecification(categoryId)
+                .and(new ProductSpecification(specifications));
 
-        List<ProductOverviewResponse> pagedProducts = sortedProducts.subList(start, end)
-                .stream()
-                .map(productMapper::toOverviewResponse)
-                .toList();
-
-        return new PageImpl<>(pagedProducts, pageRequest, sortedProducts.size());
+        return productOverviewReader.toOverviewResponses(productRepository.findAll(finalSpec, sortedPageRequest));
     }
 
-    private List<Product> sortProducts(List<Product> products, Sort sort) {
-        if (sort.isUnsorted()) {
-            return products;
-        }
+    /**
+     * Retrieves products by category using keyset pagination, intended for infinite scrolling.
+     * Instead of an offset, the next slice starts right after the product encoded in the cursor,
+     * so the cost of a request does not grow with the scrolled depth.
+     *
+     * @param categoryId     category ID
+     * @param specifications product specification filter
+     * @param sort           requested sort
+     * @param pageSize       number of products in the slice
+     * @param cursor         cursor returned with the previous slice, or null for the first slice
+     * @return slice of product responses with the cursor of the next slice
+     */
+    @Transactional(readOnly = true)
+    public ProductSliceResponse scrollProductsByCategory(
+            Long categoryId,
+            ProductSpecificationRequest specifications,
+            Sort sort,
+            int pageSize,
+            String cursor
+    ) {
+        Objects.requireNonNull(categoryId, "ID kategorie nesmí být prázdné.");
+        Objects.requireNonNull(sort, "Řazení nesmí být prázdné.");
+        log.debug("Scrolling products for category ID: {} after cursor: {}", categoryId, cursor);
 
-        Sort.Order order = sort.iterator().next();
-        Comparator<Product> comparator;
-
-        switch (order.getProperty()) {
-            case "id" -> comparator = Comparator.comparing(Product::getId);
-            case "name" -> comparator = Comparator.comparing(Product::getName, String.CASE_INSENSITIVE_ORDER);
-            case "price" -> comparator = Comparator.comparing(
-                    priceService::getCheapestVariantPrice,
-                    Comparator.nullsLast(BigDecimal::compareTo)
-            );
-            default -> {
-                log.warn("Neplatný atribut pro řazení: {}", order.getProperty());
-                return products;
-            }
-        }
+        Sort.Order order = this.resolveOrder(sort);
+        ProductSortKey sortKey = this.resolveSortKey(order);
+
+        Specification<Product> finalSpec = this.categorySpecification(categoryId)
+                .and(new ProductSpecification(specifications));
 
-        if (order.isDescending()) {
-            comparator = comparator.reversed();
+        if (cursor != null && !cursor.isBlank()) {
+            ProductCursor position = ProductCursor.decode(cursor);
+            finalSpec = finalSpec.and(new ProductKeysetSpecification(sortKey, order.getDirection(), position));
         }
 
-        return products.stream()
-                .sorted(comparator)
-                .toList();
+        List<Product> products = productRepository.findBy(finalSpec, query -> query
+                .sortBy(sortKey.toSort(order.getDirection()))
+                .limit(pageSize + 1)
+                .all());
+
+        boolean hasNext = products.size() > pageSize;
+        List<Product> slice = hasNext ? products.subList(0, pageSize) : products;
+
+        return ProductSliceResponse.builder()
+                .content(productOverviewReader.toOverviewResponses(slice))
+                .nextCursor(hasNext ? ProductCursor.of(slice.getLast(), sortKey).encode() : null)
+                .hasNext(hasNext)
+                .build();
     }
 
     /**
-     * Retrieves product overview responses for the given product IDs, preserving the original order.
-     * Only visible products are included in the results.
+     * Counts the products of a category matching the filter, in total and per attribute value.
      *
-     * @param ids List of product IDs to retrieve
-     * @return List of product overview responses in the same order as the input IDs (visible products only)
+     * @param categoryId     category ID
+     * @param specifications product specification filter
+     * @return facet counts
      */
-    public List<ProductOverviewResponse> getProductsByIds(List<Long> ids) {
-        Objects.requireNonNull(ids, "ID produktů nesmí být null.");
-        log.debug("Fetching {} products by IDs: {}", ids.size(), ids);
+    public ProductFacetResponse getFacetCountsByCategory(Long categoryId, ProductSpecificationRequest specifications) {
+        Objects.requireNonNull(categoryId, "ID kategorie nesmí být prázdné.");
+        log.debug("Fetching facet counts for category ID: {}", categoryId);
 
-        Map<Long, Integer> idPositionMap = new HashMap<>();
-        for (int i = 0; i < ids.size(); i++) {
-            idPositionMap.put(ids.get(i), i);
-        }
+        return productFacetService.getFacetCountsByCategory(categoryId, specifications);
+    }
+
+    /**
+     * Loads the products of a page of IDs and maps them in the order of the IDs.
+     * Products deleted in the meantime are skipped.
+     */
+    private Page<ProductOverviewResponse> toOverviewPage(Page<Long> ids) {
+        if (ids.isEmpty())
+            return new PageImpl<>(Collections.emptyList(), ids.getPageable(), ids.getTotalElements());
 
-        List<Product> visibleProducts = productRepository.findAllById(ids).stream()
-                .filter(Product::isVisible)
-                .collect(Collectors.toList());
+        Map<Long, Product> productsById = productRepository.findAllById(ids.getContent()).stream()
+                .collect(Collectors.toMap(Product::getId, product -> product));
 
-        if (visibleProducts.isEmpty()) {
-            return Collections.emptyList();
-        }
+        List<Product> products = ids.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .toList();
 
-        visibleProducts.sort(Comparator.comparingInt(product ->
-                idPositionMap.getOrDefault(product.getId(), Integer.MAX_VALUE)));
+        return new PageImpl<>(productOverviewReader.toOverviewResponses(products), ids.getPageable(), ids.getTotalElements());
+    }
 
-        return visibleProducts.stream()
-                .map(productMapper::toOverviewResponse)
-                .collect(Collectors.toList());
+    private Specification<Product> categorySpecification(Long categoryId) {
+        return (root, query, cb) ->
+                cb.and(
+                        cb.isMember(categoryId, root.get("categoryIds")),
+                        cb.isTrue(root.get("isVisible"))
+                );
     }
 
+    private Sort.Order resolveOrder(Sort sort) {
+        return sort.stream()
+                .findFirst()
+                .orElse(new Sort.Order(Sort.Direction.fromString(Constants.DIRECTION), Constants.DEFAULT_SORT_ATTRIBUTE));
+    }
+
+    private ProductSortKey resolveSortKey(Sort.Order order) {
+        return ProductSortKey.fromAttribute(order.getProperty())
+                .orElseGet(() -> {
+                    log.warn("Neplatný atribut pro řazení: {}", order.getProperty());
+                    return ProductSortKey.ID;
+                });
+    }
 
     /**
-     * Searches for products based on a query.
+     * Searches visible products by name and description, ordered by relevance.
+     * Diacritics and letter case of the query are ignored.
      *
      * @param query       search query
      * @param pageRequest pagination request
@@ -200,11 +289,60 @@ public class ProductService {
         Objects.requireNonNull(pageRequest, "Požadavek na stránkování nesmí být prázdný.");
         log.debug("Searching products with query: {}", query);
 
-        return productRepository.findAllVisibleBySimilarity(
-                query,
-                Constants.MIN_SIMILARITY,
+        String tsQuery = SearchTextNormalizer.toPrefixTsQuery(query);
+        if (tsQuery.isEmpty())
+            return Page.empty(pageRequest);
+
+        productRepository.setSimilarityThreshold(Constants.MIN_SIMILARITY);
+        return productOverviewReader.toOverviewResponses(productRepository.searchVisible(
+                SearchTextNormalizer.normalize(query),
+                tsQuery,
+                pageRequest
+        ));
+    }
+
+    /**
+     * Searches visible products by name and description without counting all matches.
+     * The slice only tells whether a next page exists, which is cheaper for infinite scrolling.
+     *
+     * @param query       search query
+     * @param pageRequest pagination request
+     * @return slice of product responses
+     */
+    @Transactional(readOnly = true)
+    public Slice<ProductOverviewResponse> searchProductsSliceByQuery(
+            String query,
+            PageRequest pageRequest
+    ) {
+        Objects.requireNonNull(query, "Query nesmí být prázdné.");
+        Objects.requireNonNull(pageRequest, "Požadavek na stránkování nesmí být prázdný.");
+        log.debug("Searching product slice with query: {}", query);
+
+        String tsQuery = SearchTextNormalizer.toPrefixTsQuery(query);
+        if (tsQuery.isEmpty())
+            return new SliceImpl<>(Collections.emptyList(), pageRequest, false);
+
+        productRepository.setSimilarityThreshold(Constants.MIN_SIMILARITY);
+        return productOverviewReader.toOverviewResponses(productRepository.searchVisibleSlice(
+                SearchTextNormalizer.normalize(query),
+                tsQuery,
                 pageRequest
-        ).map(productMapper::toOverviewResponse);
+        ));
+    }
+
+    /**
+     * Suggests visible products whose name contains a word starting with the query.
+     * Served from the in-memory suggestion index, the database is not queried.
+     *
+     * @param query the typed text
+     * @param limit the maximum number of suggestions, capped at {@link Constants#MAX_SUGGESTION_LIMIT}
+     * @return the suggestions
+     */
+    public List<ProductSuggestion> suggestProducts(String query, int limit) {
+        Objects.requireNonNull(query, "Query nesmí být prázdné.");
+        log.debug("Suggesting products for query: {}", query);
+
+        return productSuggestionIndex.suggest(query, Math.min(limit, Constants.MAX_SUGGESTION_LIMIT));
     }
 
     /**
@@ -222,6 +360,7 @@ public class ProductService {
         this.assignProductDetails(product, request);
 
         Product savedProduct = productRepository.save(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), Set.copyOf(savedProduct.getCategoryIds())));
         log.info("Product created successfully: ID {}, Name {}", savedProduct.getId(), savedProduct.getName());
 
         return savedProduct.getId();
@@ -245,6 +384,7 @@ public class ProductService {
 
         Product existingProduct = this.findProductEntityById(id);
         Product updatedProduct = productMapper.toProduct(request);
+        Set<Long> affectedCategoryIds = new HashSet<>(existingProduct.getCategoryIds());
 
         updatedProduct.setId(existingProduct.getId());
         updatedProduct.setVariants(existingProduct.getVariants());
@@ -252,6 +392,8 @@ public class ProductService {
         this.assignProductDetails(updatedProduct, request);
 
         Product savedProduct = productRepository.save(updatedProduct);
+        affectedCategoryIds.addAll(savedProduct.getCategoryIds());
+        eventPublisher.publishEvent(new ProductChangedEvent(savedProduct.getId(), affectedCategoryIds));
         log.info("Product updated successfully: ID {}, Name {}", savedProduct.getId(), savedProduct.getName());
 
         return savedProduct.getId();
@@ -269,36 +411,60 @@ public class ProductService {
 
         Product product = this.findProductEntityById(id);
 
+        // published before the delete, so products relating to this one are still found by the listeners
+        eventPublisher.publishEvent(new ProductChangedEvent(id, Set.copyOf(product.getCategoryIds())));
+        // image files are removed by ImageGarbageCollector, the request does not touch the file system
         productRepository.delete(product);
-        productImageService.deleteDirectory(id);
         log.info("Product deleted successfully: ID {}, Name {}", id, product.getName());
     }
 
     /**
      * Uploads images for a specific product.
+     * The files are streamed to disk before the image records are written, so no database
+     * transaction is open while the upload is being stored. Files of images that are no longer
+     * part of the product are deleted after the records have been committed.
      *
      * @param productId the ID of the product to upload images for
      * @param files list of image files to be processed
-     * @throws IllegalArgumentException if product with given ID doesn't exist
+     * @throws ProductNotFoundException if product with given ID doesn't exist
      */
-    @Transactional
     public void uploadProductImages(Long productId, List<MultipartFile> files) {
-        Product product = this.findProductEntityById(productId);
-        productImageService.processFilesForProduct(product, files);
+        Objects.requireNonNull(productId, "ID produktu nesmí být prázdné.");
+        Objects.requireNonNull(files, "Seznam obrázků nesmí být prázdný.");
+
+        if (!productRepository.existsById(productId))
+            throw new ProductNotFoundException(String.format("Produkt s ID %s nebyl nalezen.", productId));
+
+        List<String> fileNames = productImageService.storeFiles(productId, files);
+        List<String> removedImagePaths = productImageService.saveImages(productId, fileNames);
+        productImageService.deleteFiles(productId, removedImagePaths);
     }
 
     /**
      * Retrieves a specific image for a product.
+     * Images are served from the upload directory only, the product is not loaded from the database.
      *
      * @param id the product ID
      * @param fileName the name of the image file to retrieve
-     * @return ProductImageResponse containing the image data
-     * @throws IllegalArgumentException if product with given ID doesn't exist
+     * @param size the requested rendition, or null for the original image
+     * @return ProductImageResponse containing the image data, or null if the image does not exist
      */
-    @Transactional(readOnly = true)
-    public ProductImageResponse getImage(Long id, String fileName) {
-        Product product = this.findProductEntityById(id);
-        return productImageService.getImage(product, fileName);
+    public ProductImageResponse getImage(Long id, String fileName, ImageSize size) {
+        Objects.requireNonNull(id, "ID produktu nesmí být prázdné.");
+        return productImageService.getImage(id, fileName, size);
+    }
+
+    /**
+     * Recalculates the stored price summary of a product after its variants have changed.
+     *
+     * @param productId the product ID
+     */
+    @Transactional
+    public void refreshPriceSummary(Long productId) {
+        Objects.requireNonNull(productId, "ID produktu nesmí být prázdné.");
+        log.debug("Refreshing price summary for product ID: {}", productId);
+
+        productRepository.refreshPriceSummary(productId);
     }
 
     /**
@@ -317,13 +483,16 @@ public class ProductService {
         product.setAttributes(attributeService.processProductAttributes(request));
     }
 
+    /**
+     * Retrieves the price range and the attributes used for filtering products in a category.
+     *
+     * @param categoryId category ID
+     * @return filter ranges of the category
+     */
     public FilterRangesResponse getFilterRangesByCategory(Long categoryId) {
-        List<Product> products = productRepository.findAllVisibleByCategory(categoryId);
+        Objects.requireNonNull(categoryId, "ID kategorie nesmí být prázdné.");
+        log.debug("Fetching filter ranges for category ID: {}", categoryId);
 
-        return FilterRangesResponse.builder()
-                .lowPrice(priceService.getCheapestVariantPrice(products))
-                .maxPrice(priceService.getHighestVariantPrice(products))
-                .attributes(attributeService.getAttributesByProducts(products))
-                .build();
+        return filterRangesService.getFilterRangesByCategory(categoryId);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.product;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record ProductSliceResponse(
+        List<ProductOverviewResponse> content,
+        String nextCursor,
+        boolean hasNext
+) {}
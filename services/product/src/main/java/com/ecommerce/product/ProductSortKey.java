@@ -0,0 +1,65 @@
+package com.ecommerce.product;
+
+import org.springframework.data.domain.Sort;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Sort keys supported by the product listings, mapped to stored product columns
+ * so the ordering can be done by the database.
+ */
+public enum ProductSortKey {
+    ID("id", "id"),
+    NAME("name", "name"),
+    PRICE("price", "minPrice");
+
+    private final String attribute;
+    private final String property;
+
+    ProductSortKey(String attribute, String property) {
+        this.attribute = attribute;
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    public static Optional<ProductSortKey> fromAttribute(String attribute) {
+        return Arrays.stream(values())
+                .filter(key -> key.attribute.equalsIgnoreCase(attribute))
+                .findFirst();
+    }
+
+    /**
+     * Builds the database ordering for this key, with the product ID as a tiebreaker
+     * so that pages and cursors stay stable for products sharing the same key value.
+     *
+     * @param direction the sort direction
+     * @return the sort to be applied by the database
+     */
+    public Sort toSort(Sort.Direction direction) {
+        Sort.Order order = new Sort.Order(direction, property);
+
+        return switch (this) {
+            case ID -> Sort.by(order);
+            case NAME -> Sort.by(order.ignoreCase(), new Sort.Order(direction, ID.property));
+            case PRICE -> Sort.by(order, new Sort.Order(direction, ID.property));
+        };
+    }
+
+    /**
+     * Extracts the value of this sort key from a product, used to build a keyset cursor.
+     *
+     * @param product the last product of a slice
+     * @return the sort key value as text
+     */
+    public String valueOf(Product product) {
+        return switch (this) {
+            case ID -> String.valueOf(product.getId());
+            case NAME -> product.getName();
+            case PRICE -> product.getMinPrice().toPlainString();
+        };
+    }
+}
@@ -1,5 +1,6 @@
 package com.ecommerce.product;
 
+import com.ecommerce.attributevalue.AttributeValue;
 import com.ecommerce.variant.Variant;
 import jakarta.persistence.criteria.*;
 import lombok.NonNull;
@@ -18,38 +19,44 @@ public class ProductSpecification implements Specification<Product> {
         this.attributeValueIds = request.attributeValueIds();
     }
 
+    /**
+     * Filters products by their stored cheapest price and attribute values.
+     * The attribute filter is an EXISTS subquery, so every product is returned at most once
+     * and the result can be paginated directly in the database.
+     */
     @Override
     public @NonNull Predicate toPredicate(
             Root<Product> root,
             @NonNull CriteriaQuery<?> query,
             CriteriaBuilder criteriaBuilder
     ) {
-        Predicate predicate = criteriaBuilder.conjunction();
-        Join<Product, Variant> productVariantJoin = root.join("variants");
+        Path<BigDecimal> minPrice = root.get("minPrice");
+        Predicate predicate = criteriaBuilder.isNotNull(minPrice);
 
         if (lowPrice != null) {
             predicate = criteriaBuilder.and(predicate,
-                    criteriaBuilder.greaterThanOrEqualTo(productVariantJoin.get("discountedPrice"), lowPrice));
+                    criteriaBuilder.greaterThanOrEqualTo(minPrice, lowPrice));
         }
         if (maxPrice != null) {
             predicate = criteriaBuilder.and(predicate,
-                    criteriaBuilder.lessThanOrEqualTo(productVariantJoin.get("discountedPrice"), maxPrice));
+                    criteriaBuilder.lessThanOrEqualTo(minPrice, maxPrice));
         }
 
         if (attributeValueIds != null && !attributeValueIds.isEmpty()) {
-            Join<Variant, String> variantAttributeValueJoin = productVariantJoin.join("values");
-            predicate = criteriaBuilder.and(predicate,
-                    variantAttributeValueJoin.get("id").in(attributeValueIds));
-        }
+            Subquery<Long> subquery = query.subquery(Long.class);
+            Root<Variant> variantRoot = subquery.from(Variant.class);
+            Join<Variant, AttributeValue> variantAttributeValueJoin = variantRoot.join("values");
 
-        Subquery<BigDecimal> subquery = query.subquery(BigDecimal.class);
-        Root<Variant> variantRoot = subquery.from(Variant.class);
-        subquery.select(criteriaBuilder.min(variantRoot.get("discountedPrice")));
-        subquery.where(criteriaBuilder.equal(variantRoot.get("product"), root));
+            subquery.select(variantRoot.get("id"))
+                    .where(
+                            criteriaBuilder.equal(variantRoot.get("product"), root),
+                            variantAttributeValueJoin.get("id").in(attributeValueIds)
+                    );
+
+            predicate = criteriaBuilder.and(predicate, criteriaBuilder.exists(subquery));
+        }
 
-        return criteriaBuilder.and(predicate,
-                criteriaBuilder.equal(productVariantJoin.get("discountedPrice"), subquery)
-        );
+        return predicate;
     }
 }
 
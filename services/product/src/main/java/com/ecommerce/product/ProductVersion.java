@@ -0,0 +1,28 @@
+package com.ecommerce.product;
+
+import java.time.Instant;
+
+/**
+ * Version of a product detail. The version is incremented whenever anything shown in the detail changes,
+ * including variants, images, attributes and related products.
+ * Stock changes do not increment the version, so purchases of hot variants do not write the product row;
+ * the stock shown in the detail is covered by a digest of the stock of its variants instead.
+ */
+public record ProductVersion(
+        Long productId,
+        long version,
+        Instant updatedAt,
+        int stockDigest
+) {
+    public ProductVersion(Long productId, long version, Instant updatedAt) {
+        this(productId, version, updatedAt, 0);
+    }
+
+    public ProductVersion withStockDigest(int stockDigest) {
+        return new ProductVersion(productId, version, updatedAt, stockDigest);
+    }
+
+    public String toETag() {
+        return "\"" + productId + "-" + version + "-" + Integer.toHexString(stockDigest) + "\"";
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.product;
+
+import com.ecommerce.attribute.AttributeChangedEvent;
+import com.ecommerce.variant.bulk.VariantsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Increments the versions of products whose responses are affected by a change.
+ * The listeners run synchronously in the changing transaction, so the version is committed
+ * together with the change and conditional requests never see a new version with old data.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductVersionUpdater {
+    private final ProductRepository productRepository;
+
+    @EventListener
+    public void onProductChanged(ProductChangedEvent event) {
+        int updated = productRepository.incrementVersion(event.productId());
+        log.debug("Incremented version of {} products after change of product ID {}", updated, event.productId());
+    }
+
+    @EventListener
+    public void onAttributeChanged(AttributeChangedEvent event) {
+        int updated = productRepository.incrementVersionByAttribute(event.attributeId());
+        log.debug("Incremented version of {} products after change of attribute ID {}", updated, event.attributeId());
+    }
+
+    @EventListener
+    public void onVariantsChanged(VariantsChangedEvent event) {
+        int updated = productRepository.incrementVersions(event.productIds());
+        log.debug("Incremented version of {} products after bulk change of {} variants", updated, event.changes().size());
+    }
+}
@@ -0,0 +1,57 @@
+package com.ecommerce.product.catalog;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.time.Instant;
+
+@RestController
+@RequestMapping("/api/v1/products")
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogController {
+    private static final String SNAPSHOT_WATERMARK_HEADER = "X-Snapshot-Watermark";
+
+    private final CatalogImportService catalogImportService;
+    private final CatalogExportService catalogExportService;
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<CatalogImportResponse> importCatalog(InputStream body) {
+        log.info("Importing product catalog");
+        CatalogImportResponse response = catalogImportService.importCatalog(body);
+        return ResponseEntity.ok(response);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportCatalog() {
+        log.info("Exporting product catalog");
+        StreamingResponseBody body = catalogExportService::exportCatalog;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @PreAuthorize("hasRole('SERVICE')")
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> getCatalogSnapshot(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince
+    ) {
+        log.info("Streaming catalog snapshot updated since {}", updatedSince);
+        Instant watermark = Instant.now();
+        StreamingResponseBody body = output -> catalogSnapshotService.writeSnapshot(updatedSince, output);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(SNAPSHOT_WATERMARK_HEADER, watermark.toString())
+                .body(body);
+    }
+}
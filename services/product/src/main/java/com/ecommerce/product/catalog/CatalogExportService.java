@@ -0,0 +1,137 @@
+package com.ecommerce.product.catalog;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Exports the whole catalog as NDJSON, in the format accepted by {@link CatalogImportService}.
+ * Products are read with a server-side cursor together with their variants and associations aggregated
+ * in the same row, so the export needs one query and holds only one fetch of rows in memory.
+ */
+@Service
+@Slf4j
+public class CatalogExportService {
+    private static final TypeReference<List<CatalogVariantRecord>> VARIANTS = new TypeReference<>() {};
+
+    private static final String EXPORT_QUERY = """
+        SELECT product.id, product.name, product.description, product.is_visible,
+            ARRAY(SELECT category.category_id FROM product_category category
+                WHERE category.product_id = product.id ORDER BY category.category_id) AS category_ids,
+            ARRAY(SELECT attribute.attribute_id FROM product_attribute attribute
+                WHERE attribute.product_id = product.id ORDER BY attribute.attribute_id) AS attribute_ids,
+            ARRAY(SELECT related.related_product_id FROM product_related_product related
+                WHERE related.product_id = product.id ORDER BY related.related_product_id) AS related_product_ids,
+            (
+                SELECT json_agg(json_build_object(
+                    'sku', variant.sku,
+                    'basePrice', variant.base_price,
+                    'discountedPrice', variant.discounted_price,
+                    'quantity', variant.quantity + COALESCE((
+                        SELECT SUM(shard.quantity) FROM variant_stock_shard shard WHERE shard.variant_id = variant.id
+                    ), 0),
+                    'quantityUnlimited', COALESCE(variant.quantity_unlimited, false),
+                    'attributeValueIds', ARRAY(
+                        SELECT value.attribute_value_id FROM variant_attribute_value value
+                        WHERE value.variant_id = variant.id ORDER BY value.attribute_value_id
+                    )
+                ) ORDER BY variant.id)
+                FROM variant
+                WHERE variant.product_id = product.id
+            ) AS variants
+        FROM product
+        ORDER BY product.id
+      """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public CatalogExportService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${application.catalog.export-fetch-size:500}") int fetchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes all products to the output, one JSON record per line.
+     * Runs in a read-only transaction, which PostgreSQL requires to fetch the rows with a cursor.
+     *
+     * @param output the stream to write to; it is flushed but not closed
+     */
+    @Transactional(readOnly = true)
+    public void exportCatalog(OutputStream output) {
+        log.debug("Exporting catalog with fetch size {}", fetchSize);
+
+        ObjectWriter writer = objectMapper.writer();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_QUERY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> this.writeLine(output, writer, this.toRecord(resultSet)));
+
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CatalogProductRecord toRecord(ResultSet resultSet) throws SQLException {
+        String variants = resultSet.getString("variants");
+        try {
+            return CatalogProductRecord.builder()
+                    .id(resultSet.getLong("id"))
+                    .name(resultSet.getString("name"))
+                    .description(resultSet.getString("description"))
+                    .isVisible(resultSet.getBoolean("is_visible"))
+                    .categoryIds(toIds(resultSet.getArray("category_ids")))
+                    .attributeIds(toIds(resultSet.getArray("attribute_ids")))
+                    .relatedProductIds(toIds(resultSet.getArray("related_product_ids")))
+                    .variants(variants == null ? List.of() : objectMapper.readValue(variants, VARIANTS))
+                    .build();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeLine(OutputStream output, ObjectWriter writer, CatalogProductRecord record) {
+        try {
+            output.write(writer.writeValueAsBytes(record));
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Set<Long> toIds(Array array) throws SQLException {
+        if (array == null)
+            return Set.of();
+
+        return Arrays.stream((Long[]) array.getArray())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
@@ -0,0 +1,12 @@
+package com.ecommerce.product.catalog;
+
+/**
+ * A rejected line of a catalog import.
+ *
+ * @param line    the line number, starting at 1
+ * @param message why the line was rejected
+ */
+public record CatalogImportError(
+        int line,
+        String message
+) {}
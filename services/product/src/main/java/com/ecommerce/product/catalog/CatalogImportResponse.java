@@ -0,0 +1,12 @@
+package com.ecommerce.product.catalog;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record CatalogImportResponse(
+        int imported,
+        int rejected,
+        List<CatalogImportError> errors
+) {}
@@ -0,0 +1,272 @@
+package com.ecommerce.product.catalog;
+
+import com.ecommerce.attribute.AttributeRepository;
+import com.ecommerce.attributevalue.AttributeValueRepository;
+import com.ecommerce.exception.CatalogImportException;
+import com.ecommerce.feignclient.category.CategoryClient;
+import com.ecommerce.feignclient.category.CategoryResponse;
+import com.ecommerce.product.ProductRepository;
+import com.ecommerce.variant.VariantRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports products with their variants from an NDJSON stream, one product per line.
+ * Lines are read and validated in batches: categories are checked with one call to the category service
+ * per batch, attributes and attribute values against sets loaded once per import, related products and SKUs
+ * with one query per batch. Valid products of a batch are inserted together in a single transaction,
+ * invalid lines are reported and skipped.
+ */
+@Service
+@Slf4j
+public class CatalogImportService {
+    private static final int MAX_REPORTED_ERRORS = 100;
+
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final CategoryClient categoryClient;
+    private final AttributeRepository attributeRepository;
+    private final AttributeValueRepository attributeValueRepository;
+    private final ProductRepository productRepository;
+    private final VariantRepository variantRepository;
+    private final CatalogImportWriter catalogImportWriter;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public CatalogImportService(
+            ObjectMapper objectMapper,
+            Validator validator,
+            CategoryClient categoryClient,
+            AttributeRepository attributeRepository,
+            AttributeValueRepository attributeValueRepository,
+            ProductRepository productRepository,
+            VariantRepository variantRepository,
+            CatalogImportWriter catalogImportWriter,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${application.catalog.import-batch-size:500}") int batchSize
+    ) {
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.categoryClient = categoryClient;
+        this.attributeRepository = attributeRepository;
+        this.attributeValueRepository = attributeValueRepository;
+        this.productRepository = productRepository;
+        this.variantRepository = variantRepository;
+        this.catalogImportWriter = catalogImportWriter;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Imports the products of an NDJSON stream.
+     *
+     * @param input the NDJSON stream, one {@link CatalogProductRecord} per line
+     * @return the number of imported and rejected products with the reasons of the first rejections
+     * @throws CatalogImportException if the stream could not be read
+     */
+    public CatalogImportResponse importCatalog(InputStream input) {
+        Objects.requireNonNull(input, "Importovaná data nesmí být prázdná.");
+        log.debug("Importing catalog in batches of {} products", batchSize);
+
+        ImportContext context = new ImportContext(attributeRepository.findAllIds(), attributeValueRepository.findAllIds());
+        List<ImportLine> batch = new ArrayList<>(batchSize);
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank())
+                    continue;
+
+                try {
+                    batch.add(new ImportLine(lineNumber, objectMapper.readValue(line, CatalogProductRecord.class)));
+                } catch (JsonProcessingException e) {
+                    context.reject(lineNumber, "Řádek neobsahuje platný JSON záznam produktu.");
+                }
+
+                if (batch.size() >= batchSize) {
+                    this.importBatch(batch, context);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new CatalogImportException("Importovaná data se nepodařilo přečíst.", e);
+        }
+        this.importBatch(batch, context);
+
+        if (!context.importedIds.isEmpty())
+            eventPublisher.publishEvent(new CatalogImportedEvent(List.copyOf(context.importedIds)));
+        log.info("Catalog import finished: {} products imported, {} rejected", context.importedIds.size(), context.rejected);
+
+        return CatalogImportResponse.builder()
+                .imported(context.importedIds.size())
+                .rejected(context.rejected)
+                .errors(List.copyOf(context.errors))
+                .build();
+    }
+
+    private void importBatch(List<ImportLine> batch, ImportContext context) {
+        if (batch.isEmpty())
+            return;
+
+        this.resolveCategories(batch, context);
+        Set<Long> existingRelatedIds = this.findExistingRelatedProducts(batch);
+        Set<String> existingSkus = this.findExistingSkus(batch);
+
+        List<ImportLine> accepted = new ArrayList<>();
+        for (ImportLine line : batch) {
+            Optional<String> error = this.validate(line.record(), context, existingRelatedIds, existingSkus);
+            if (error.isPresent()) {
+                context.reject(line.number(), error.get());
+                continue;
+            }
+            accepted.add(line);
+            context.seenSkus.addAll(skusOf(line.record()));
+        }
+
+        try {
+            context.importedIds.addAll(catalogImportWriter.insert(accepted.stream().map(ImportLine::record).toList()));
+        } catch (DataAccessException e) {
+            log.error("Failed to insert catalog batch starting at line {}", batch.getFirst().number(), e);
+            accepted.forEach(line -> {
+                context.seenSkus.removeAll(skusOf(line.record()));
+                context.reject(line.number(), "Produkt se nepodařilo uložit.");
+            });
+        }
+    }
+
+    private Optional<String> validate(
+            CatalogProductRecord record,
+            ImportContext context,
+            Set<Long> existingRelatedIds,
+            Set<String> existingSkus
+    ) {
+        Set<ConstraintViolation<CatalogProductRecord>> violations = validator.validate(record);
+        if (!violations.isEmpty())
+            return Optional.of(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(" ")));
+
+        if (!context.validCategoryIds.containsAll(nullToEmpty(record.categoryIds())))
+            return Optional.of("Některá z kategorií produktu neexistuje.");
+        if (!context.attributeIds.containsAll(nullToEmpty(record.attributeIds())))
+            return Optional.of("Některý z atributů produktu neexistuje.");
+        if (!existingRelatedIds.containsAll(nullToEmpty(record.relatedProductIds())))
+            return Optional.of("Některý ze souvisejících produktů neexistuje.");
+
+        List<String> skus = skusOf(record);
+        for (CatalogVariantRecord variant : nullToEmpty(record.variants())) {
+            if (!context.attributeValueIds.containsAll(nullToEmpty(variant.attributeValueIds())))
+                return Optional.of(String.format("Některá z hodnot atributů varianty %s neexistuje.", variant.sku()));
+        }
+        if (new HashSet<>(skus).size() != skus.size())
+            return Optional.of("Varianty produktu mají duplicitní SKU.");
+        for (String sku : skus) {
+            if (existingSkus.contains(sku) || context.seenSkus.contains(sku))
+                return Optional.of(String.format("Varianta se SKU %s již existuje.", sku));
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Checks the categories not seen in the previous batches with one call to the category service.
+     * The service rejects the whole call when any category is missing; only then are the categories
+     * checked one by one to find the missing ones.
+     */
+    private void resolveCategories(List<ImportLine> batch, ImportContext context) {
+        Set<Long> unknownIds = batch.stream()
+                .flatMap(line -> nullToEmpty(line.record().categoryIds()).stream())
+                .filter(id -> !context.validCategoryIds.contains(id) && !context.invalidCategoryIds.contains(id))
+                .collect(Collectors.toSet());
+        if (unknownIds.isEmpty())
+            return;
+
+        try {
+            categoryClient.getCategoriesByIds(unknownIds).stream()
+                    .map(CategoryResponse::id)
+                    .forEach(context.validCategoryIds::add);
+        } catch (FeignException.NotFound e) {
+            for (Long id : unknownIds) {
+                try {
+                    categoryClient.getCategoriesByIds(Set.of(id));
+                    context.validCategoryIds.add(id);
+                } catch (FeignException.NotFound notFound) {
+                    context.invalidCategoryIds.add(id);
+                }
+            }
+        }
+    }
+
+    private Set<Long> findExistingRelatedProducts(List<ImportLine> batch) {
+        Set<Long> relatedIds = batch.stream()
+                .flatMap(line -> nullToEmpty(line.record().relatedProductIds()).stream())
+                .collect(Collectors.toSet());
+
+        return relatedIds.isEmpty() ? Set.of() : productRepository.findExistingIds(relatedIds);
+    }
+
+    private Set<String> findExistingSkus(List<ImportLine> batch) {
+        Set<String> skus = batch.stream()
+                .flatMap(line -> skusOf(line.record()).stream())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+
+        return skus.isEmpty() ? Set.of() : variantRepository.findExistingSkus(skus);
+    }
+
+    private static List<String> skusOf(CatalogProductRecord record) {
+        return nullToEmpty(record.variants()).stream()
+                .map(CatalogVariantRecord::sku)
+                .toList();
+    }
+
+    private static <T> Collection<T> nullToEmpty(Collection<T> values) {
+        return values == null ? List.of() : values;
+    }
+
+    private record ImportLine(int number, CatalogProductRecord record) {}
+
+    /**
+     * State shared by all batches of one import.
+     */
+    private static class ImportContext {
+        private final Set<Long> attributeIds;
+        private final Set<Long> attributeValueIds;
+        private final Set<Long> validCategoryIds = new HashSet<>();
+        private final Set<Long> invalidCategoryIds = new HashSet<>();
+        private final Set<String> seenSkus = new HashSet<>();
+        private final List<Long> importedIds = new ArrayList<>();
+        private final List<CatalogImportError> errors = new ArrayList<>();
+        private int rejected;
+
+        private ImportContext(Set<Long> attributeIds, Set<Long> attributeValueIds) {
+            this.attributeIds = attributeIds;
+            this.attributeValueIds = attributeValueIds;
+        }
+
+        private void reject(int line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS)
+                errors.add(new CatalogImportError(line, message));
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.product.catalog;
+
+import com.ecommerce.product.ProductRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inserts validated catalog records with JDBC batches. The IDs are reserved from the table sequences
+ * up front, so the rows do not have to be inserted one by one to learn their generated IDs.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CatalogImportWriter {
+    private static final String RESERVE_IDS = "SELECT nextval(pg_get_serial_sequence(?, 'id')) FROM generate_series(1, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ProductRepository productRepository;
+
+    /**
+     * Inserts the products with their variants and all their associations in one transaction.
+     *
+     * @param records validated product records
+     * @return the IDs of the inserted products, in the order of the records
+     */
+    @Transactional
+    public List<Long> insert(List<CatalogProductRecord> records) {
+        if (records.isEmpty())
+            return List.of();
+
+        List<Long> productIds = this.reserveIds("product", records.size());
+        List<CatalogVariantRecord> variants = new ArrayList<>();
+        List<Long> variantProductIds = new ArrayList<>();
+        List<Object[]> productRows = new ArrayList<>();
+        List<Object[]> categoryRows = new ArrayList<>();
+        List<Object[]> attributeRows = new ArrayList<>();
+        List<Object[]> relatedProductRows = new ArrayList<>();
+
+        for (int i = 0; i < records.size(); i++) {
+            CatalogProductRecord record = records.get(i);
+            Long productId = productIds.get(i);
+
+            productRows.add(new Object[]{productId, record.name(), record.description(), record.isVisible()});
+            nullToEmpty(record.categoryIds()).forEach(id -> categoryRows.add(new Object[]{productId, id}));
+            nullToEmpty(record.attributeIds()).forEach(id -> attributeRows.add(new Object[]{productId, id}));
+            nullToEmpty(record.relatedProductIds()).forEach(id -> relatedProductRows.add(new Object[]{productId, id}));
+            nullToEmpty(record.variants()).forEach(variant -> {
+                variants.add(variant);
+                variantProductIds.add(productId);
+            });
+        }
+
+        List<Long> variantIds = this.reserveIds("variant", variants.size());
+        List<Object[]> variantRows = new ArrayList<>();
+        List<Object[]> variantValueRows = new ArrayList<>();
+
+        for (int i = 0; i < variants.size(); i++) {
+            CatalogVariantRecord variant = variants.get(i);
+            Long variantId = variantIds.get(i);
+
+            variantRows.add(new Object[]{
+                    variantId, variantProductIds.get(i), variant.sku(), variant.basePrice(),
+                    variant.discountedPrice(), variant.quantity(), variant.quantityUnlimited()
+            });
+            nullToEmpty(variant.attributeValueIds()).forEach(id -> variantValueRows.add(new Object[]{variantId, id}));
+        }
+
+        jdbcTemplate.batchUpdate("INSERT INTO product (id, name, description, is_visible) VALUES (?, ?, ?, ?)",
+                productRows, new int[]{Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.BOOLEAN});
+        jdbcTemplate.batchUpdate("INSERT INTO product_category (product_id, category_id) VALUES (?, ?)", categoryRows);
+        jdbcTemplate.batchUpdate("INSERT INTO product_attribute (product_id, attribute_id) VALUES (?, ?)", attributeRows);
+        jdbcTemplate.batchUpdate("INSERT INTO product_related_product (product_id, related_product_id) VALUES (?, ?)",
+                relatedProductRows);
+        jdbcTemplate.batchUpdate("""
+                INSERT INTO variant (id, product_id, sku, base_price, discounted_price, quantity, quantity_unlimited)
+                VALUES (?, ?, ?, ?, ?, ?, ?)
+                """, variantRows,
+                new int[]{Types.BIGINT, Types.BIGINT, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC, Types.INTEGER, Types.BOOLEAN});
+        jdbcTemplate.batchUpdate("INSERT INTO variant_attribute_value (variant_id, attribute_value_id) VALUES (?, ?)",
+                variantValueRows);
+
+        if (!variants.isEmpty())
+            productRepository.refreshPriceSummaries(productIds);
+
+        log.debug("Inserted {} products with {} variants", productIds.size(), variants.size());
+        return productIds;
+    }
+
+    private List<Long> reserveIds(String table, int count) {
+        if (count == 0)
+            return List.of();
+
+        return jdbcTemplate.queryForList(RESERVE_IDS, Long.class, table, count);
+    }
+
+    private static <T> Collection<T> nullToEmpty(Collection<T> values) {
+        return values == null ? List.of() : values;
+    }
+}
@@ -0,0 +1,14 @@
+package com.ecommerce.product.catalog;
+
+import java.util.List;
+
+/**
+ * Published once a catalog import has finished, after all of its batches have been committed.
+ * Imported products do not publish a {@code ProductChangedEvent} each, read models derived
+ * from the catalog are rebuilt once instead.
+ *
+ * @param productIds the IDs of the imported products
+ */
+public record CatalogImportedEvent(
+        List<Long> productIds
+) {}
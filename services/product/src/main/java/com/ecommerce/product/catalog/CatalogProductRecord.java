@@ -0,0 +1,27 @@
+package com.ecommerce.product.catalog;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One line of the NDJSON catalog import and export - a product together with its variants.
+ * The ID is filled in on export only, imported products always get a new ID.
+ */
+@Builder
+public record CatalogProductRecord(
+        Long id,
+        @NotBlank(message = "Jméno produktu nesmí být prázdné.")
+        @Size(max = 255, message = "Jméno produktu nesmí být delší než 255 znaků.")
+        String name,
+        String description,
+        boolean isVisible,
+        Set<Long> categoryIds,
+        Set<Long> attributeIds,
+        Set<Long> relatedProductIds,
+        List<@Valid CatalogVariantRecord> variants
+) {}
@@ -0,0 +1,30 @@
+package com.ecommerce.product.catalog;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * One product of a catalog snapshot, with the fields internal consumers need.
+ * A product hidden or deleted since the watermark of an incremental snapshot is sent as a tombstone
+ * carrying only its ID, visibility, version and time of change.
+ */
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record CatalogSnapshotRecord(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        BigDecimal basePrice,
+        Boolean isPriceEqual,
+        boolean isVisible,
+        Set<Long> categoryIds,
+        List<Long> relatedProductIds,
+        long version,
+        Instant updatedAt
+) {}
@@ -0,0 +1,146 @@
+package com.ecommerce.product.catalog;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.*;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Streams the catalog to internal consumers as NDJSON, one {@link CatalogSnapshotRecord} per line.
+ * Products are read with a server-side cursor, with their categories and related products aggregated
+ * in the same row, so a snapshot of any size needs one query and constant memory.
+ * <p>
+ * A full snapshot contains the visible products ordered by ID. An incremental snapshot contains every
+ * product changed since the watermark, ordered by the time of change. Hidden products and products deleted
+ * since the watermark, read from {@code product_tombstone}, are sent as tombstones.
+ * Products are stamped with the start of the changing transaction, so consumers should ask for changes
+ * since a watermark slightly older than the start of their previous snapshot.
+ */
+@Service
+@Slf4j
+public class CatalogSnapshotService {
+    private static final String SNAPSHOT_COLUMNS = """
+        SELECT product.id, product.name, product.description, product.min_price, product.min_base_price,
+            product.prices_equal, product.is_visible, product.version, product.updated_at,
+            ARRAY(SELECT category.category_id FROM product_category category
+                WHERE category.product_id = product.id ORDER BY category.category_id) AS category_ids,
+            ARRAY(SELECT related.related_product_id FROM product_related_product related
+                WHERE related.product_id = product.id ORDER BY related.related_product_id) AS related_product_ids
+        FROM product
+      """;
+
+    private static final String FULL_SNAPSHOT = SNAPSHOT_COLUMNS + """
+        WHERE product.is_visible
+        ORDER BY product.id
+      """;
+
+    // a tombstone of a product recreated under the same ID is skipped, the product itself is sent instead
+    private static final String INCREMENTAL_SNAPSHOT = SNAPSHOT_COLUMNS + """
+        WHERE product.updated_at >= ?
+        UNION ALL
+        SELECT tombstone.id, NULL, NULL, NULL, NULL,
+            NULL, FALSE, tombstone.version, tombstone.deleted_at,
+            CAST(NULL AS BIGINT[]), CAST(NULL AS BIGINT[])
+        FROM product_tombstone tombstone
+        WHERE tombstone.deleted_at >= ?
+            AND NOT EXISTS (SELECT 1 FROM product WHERE product.id = tombstone.id)
+        ORDER BY updated_at, id
+      """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public CatalogSnapshotService(
+            JdbcTemplate jdbcTemplate,
+            ObjectMapper objectMapper,
+            @Value("${application.catalog.export-fetch-size:500}") int fetchSize
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes the products of the snapshot to the output, one JSON record per line.
+     * Runs in a read-only transaction, which PostgreSQL requires to fetch the rows with a cursor.
+     *
+     * @param updatedSince the watermark of an incremental snapshot, or null for a full snapshot
+     * @param output       the stream to write to; it is flushed but not closed
+     */
+    @Transactional(readOnly = true)
+    public void writeSnapshot(Instant updatedSince, OutputStream output) {
+        log.debug("Streaming catalog snapshot updated since {}", updatedSince);
+
+        ObjectWriter writer = objectMapper.writer();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    updatedSince == null ? FULL_SNAPSHOT : INCREMENTAL_SNAPSHOT);
+            if (updatedSince != null) {
+                statement.setTimestamp(1, Timestamp.from(updatedSince));
+                statement.setTimestamp(2, Timestamp.from(updatedSince));
+            }
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (RowCallbackHandler) resultSet -> this.writeLine(output, writer, this.toRecord(resultSet)));
+
+        try {
+            output.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private CatalogSnapshotRecord toRecord(ResultSet resultSet) throws SQLException {
+        CatalogSnapshotRecord.CatalogSnapshotRecordBuilder builder = CatalogSnapshotRecord.builder()
+                .id(resultSet.getLong("id"))
+                .isVisible(resultSet.getBoolean("is_visible"))
+                .version(resultSet.getLong("version"))
+                .updatedAt(resultSet.getTimestamp("updated_at").toInstant());
+
+        if (!resultSet.getBoolean("is_visible"))
+            return builder.build();
+
+        return builder
+                .name(resultSet.getString("name"))
+                .description(resultSet.getString("description"))
+                .price(resultSet.getBigDecimal("min_price"))
+                .basePrice(resultSet.getBigDecimal("min_base_price"))
+                .isPriceEqual(resultSet.getBoolean("prices_equal"))
+                .categoryIds(Set.copyOf(toIds(resultSet.getArray("category_ids"))))
+                .relatedProductIds(List.copyOf(toIds(resultSet.getArray("related_product_ids"))))
+                .build();
+    }
+
+    private void writeLine(OutputStream output, ObjectWriter writer, CatalogSnapshotRecord record) {
+        try {
+            output.write(writer.writeValueAsBytes(record));
+            output.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static Set<Long> toIds(Array array) throws SQLException {
+        if (array == null)
+            return Set.of();
+
+        return Arrays.stream((Long[]) array.getArray())
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+    }
+}
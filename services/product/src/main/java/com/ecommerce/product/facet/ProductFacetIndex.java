@@ -0,0 +1,361 @@
+package com.ecommerce.product.facet;
+
+import com.ecommerce.attribute.AttributeChangedEvent;
+import com.ecommerce.product.ProductChangedEvent;
+import com.ecommerce.product.ProductRepository;
+import com.ecommerce.product.catalog.CatalogImportedEvent;
+import com.ecommerce.variant.VariantRepository;
+import com.ecommerce.variant.bulk.VariantsChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory index of the product catalog used for filtering category listings and counting facets.
+ * Products are stored as bits (the bit index is the product ID) in one bitmap per category
+ * and one bitmap per attribute value, so filter combinations are answered with bitmap AND/OR operations.
+ * Prices are kept in an array sorted by the cheapest variant price to answer price ranges with a binary search.
+ * <p>
+ * The index is built when the application starts and then kept up to date from
+ * {@link ProductChangedEvent}, {@link VariantsChangedEvent} and {@link AttributeChangedEvent} after the changing
+ * transaction commits, and rebuilt after a {@link CatalogImportedEvent}. A bulk change of more products than
+ * {@value #MAX_REFRESHED_PRODUCTS} rebuilds the index instead of refreshing the products one by one.
+ * Changes arriving before the index is ready are recorded and applied by the rebuild before it marks the index
+ * as ready. A failed build is retried on a schedule.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetIndex {
+    private static final int MAX_REFRESHED_PRODUCTS = 200;
+    private static final Comparator<ProductFacetRow> PRICE_ORDER = Comparator
+            .comparing(ProductFacetRow::minPrice)
+            .thenComparing(ProductFacetRow::id);
+
+    private final ProductRepository productRepository;
+    private final VariantRepository variantRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object writeMonitor = new Object();
+
+    private final Map<Long, ProductFacetRow> rows = new HashMap<>();
+    private final Map<Long, BitSet> categories = new HashMap<>();
+    private final Map<Long, BitSet> attributeValues = new HashMap<>();
+    private final BitSet visible = new BitSet();
+    private final BitSet priced = new BitSet();
+    private final List<ProductFacetRow> priceOrder = new ArrayList<>();
+
+    private final Set<Long> pendingProductIds = new HashSet<>();
+    private boolean pendingRebuild;
+
+    private volatile boolean ready;
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            this.rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Facet index could not be built, listings fall back to the database: {}", e.getMessage());
+        }
+    }
+
+    @Scheduled(
+            initialDelayString = "${application.facet.rebuild-retry-interval:PT1M}",
+            fixedDelayString = "${application.facet.rebuild-retry-interval:PT1M}"
+    )
+    public void retryRebuild() {
+        if (ready)
+            return;
+
+        try {
+            this.rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Facet index could not be built, retrying later: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        if (this.deferUntilReady(Set.of(event.productId()), false))
+            return;
+
+        this.refreshProduct(event.productId());
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onVariantsChanged(VariantsChangedEvent event) {
+        boolean tooMany = event.productIds().size() > MAX_REFRESHED_PRODUCTS;
+        if (this.deferUntilReady(event.productIds(), tooMany))
+            return;
+
+        if (tooMany) {
+            this.rebuild();
+        } else {
+            event.productIds().forEach(this::refreshProduct);
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onAttributeChanged(AttributeChangedEvent event) {
+        if (!this.deferUntilReady(Set.of(), true))
+            this.rebuild();
+    }
+
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        if (!this.deferUntilReady(Set.of(), true))
+            this.rebuild();
+    }
+
+    /**
+     * Loads the whole catalog from the database and replaces the content of the index.
+     */
+    public void rebuild() {
+        synchronized (writeMonitor) {
+            do {
+                this.load();
+            } while (!this.applyPendingChanges());
+        }
+    }
+
+    private void load() {
+        log.debug("Rebuilding product facet index");
+        List<ProductFacetRow> loadedRows = productRepository.findAllFacetRows();
+        List<ProductFacetLink> categoryLinks = productRepository.findAllCategoryLinks();
+        List<ProductFacetLink> attributeValueLinks = variantRepository.findAllAttributeValueLinks();
+
+        lock.writeLock().lock();
+        try {
+            rows.clear();
+            categories.clear();
+            attributeValues.clear();
+            visible.clear();
+            priced.clear();
+            priceOrder.clear();
+
+            loadedRows.forEach(this::addRow);
+            loadedRows.stream()
+                    .filter(row -> row.minPrice() != null)
+                    .sorted(PRICE_ORDER)
+                    .forEach(priceOrder::add);
+            categoryLinks.forEach(link -> this.addLink(categories, link));
+            attributeValueLinks.forEach(link -> this.addLink(attributeValues, link));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Product facet index built with {} products", loadedRows.size());
+    }
+
+    /**
+     * Records a change if the index is not ready yet, so the running or next rebuild applies it.
+     *
+     * @param productIds the IDs of the changed products
+     * @param rebuild    whether the change needs the whole index to be loaded again
+     * @return true if the change was recorded, false if the caller has to apply it
+     */
+    private boolean deferUntilReady(Collection<Long> productIds, boolean rebuild) {
+        synchronized (pendingProductIds) {
+            if (ready)
+                return false;
+
+            if (rebuild) {
+                pendingRebuild = true;
+            } else {
+                pendingProductIds.addAll(productIds);
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Refreshes the products changed during the rebuild and marks the index as ready once nothing is left.
+     *
+     * @return false if a change recorded during the rebuild needs the whole index to be loaded again
+     */
+    private boolean applyPendingChanges() {
+        while (true) {
+            List<Long> productIds;
+            synchronized (pendingProductIds) {
+                if (pendingRebuild) {
+                    pendingRebuild = false;
+                    pendingProductIds.clear();
+                    return false;
+                }
+                if (pendingProductIds.isEmpty()) {
+                    ready = true;
+                    return true;
+                }
+                productIds = List.copyOf(pendingProductIds);
+                pendingProductIds.clear();
+            }
+            log.debug("Applying {} product changes recorded during facet index rebuild", productIds.size());
+            productIds.forEach(this::refreshProduct);
+        }
+    }
+
+    /**
+     * Reloads a single product from the database, or removes it from the index if it no longer exists.
+     *
+     * @param productId the ID of the changed product
+     */
+    public void refreshProduct(Long productId) {
+        Objects.requireNonNull(productId, "ID produktu nesmí být prázdné.");
+
+        synchronized (writeMonitor) {
+            log.debug("Refreshing product ID {} in facet index", productId);
+            Optional<ProductFacetRow> loadedRow = productRepository.findFacetRowById(productId);
+            List<ProductFacetLink> categoryLinks = productRepository.findCategoryLinksByProductId(productId);
+            List<ProductFacetLink> attributeValueLinks = variantRepository.findAttributeValueLinksByProductId(productId);
+
+            lock.writeLock().lock();
+            try {
+                this.removeProduct(productId);
+                loadedRow.ifPresent(row -> {
+                    this.addRow(row);
+                    if (row.minPrice() != null) {
+                        int position = Collections.binarySearch(priceOrder, row, PRICE_ORDER);
+                        priceOrder.add(-position - 1, row);
+                    }
+                    categoryLinks.forEach(link -> this.addLink(categories, link));
+                    attributeValueLinks.forEach(link -> this.addLink(attributeValues, link));
+                });
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Finds the visible products of a category that have a price and match the given filters.
+     * Attribute values are combined with OR, the same way as in the database listing.
+     *
+     * @param categoryId        the category ID
+     * @param lowPrice          the lowest cheapest variant price, or null
+     * @param maxPrice          the highest cheapest variant price, or null
+     * @param attributeValueIds attribute values of which at least one variant has to have one, or null
+     * @return bitmap of the matching product IDs
+     */
+    public BitSet filter(Long categoryId, BigDecimal lowPrice, BigDecimal maxPrice, Set<Long> attributeValueIds) {
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) categories.getOrDefault(categoryId, new BitSet()).clone();
+            result.and(visible);
+            result.and(this.priceRange(lowPrice, maxPrice));
+
+            if (attributeValueIds != null && !attributeValueIds.isEmpty()) {
+                BitSet withValues = new BitSet();
+                attributeValueIds.stream()
+                        .map(attributeValues::get)
+                        .filter(Objects::nonNull)
+                        .forEach(withValues::or);
+                result.and(withValues);
+            }
+
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Counts the matching products for every attribute value present among them.
+     *
+     * @param matches bitmap of product IDs returned by {@link #filter}
+     * @return number of matching products per attribute value ID
+     */
+    public Map<Long, Integer> countAttributeValues(BitSet matches) {
+        lock.readLock().lock();
+        try {
+            Map<Long, Integer> counts = new HashMap<>();
+            attributeValues.forEach((attributeValueId, products) -> {
+                if (!products.intersects(matches))
+                    return;
+
+                BitSet intersection = (BitSet) products.clone();
+                intersection.and(matches);
+                counts.put(attributeValueId, intersection.cardinality());
+            });
+            return counts;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet priceRange(BigDecimal lowPrice, BigDecimal maxPrice) {
+        if (lowPrice == null && maxPrice == null)
+            return priced;
+
+        int from = lowPrice == null ? 0 : this.firstPriceIndex(lowPrice, false);
+        int to = maxPrice == null ? priceOrder.size() : this.firstPriceIndex(maxPrice, true);
+
+        BitSet result = new BitSet();
+        for (int i = from; i < to; i++) {
+            result.set(bitOf(priceOrder.get(i).id()));
+        }
+        return result;
+    }
+
+    /**
+     * Binary search for the first position whose price is greater than (or equal to, when not inclusive) the price.
+     */
+    private int firstPriceIndex(BigDecimal price, boolean inclusive) {
+        int low = 0;
+        int high = priceOrder.size();
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            int comparison = priceOrder.get(middle).minPrice().compareTo(price);
+            if (comparison < 0 || (inclusive && comparison == 0)) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void addRow(ProductFacetRow row) {
+        int bit = bitOf(row.id());
+        rows.put(row.id(), row);
+        visible.set(bit, row.isVisible());
+        priced.set(bit, row.minPrice() != null);
+    }
+
+    private void addLink(Map<Long, BitSet> bitmaps, ProductFacetLink link) {
+        bitmaps.computeIfAbsent(link.targetId(), targetId -> new BitSet())
+                .set(bitOf(link.productId()));
+    }
+
+    private void removeProduct(Long productId) {
+        int bit = bitOf(productId);
+        ProductFacetRow previous = rows.remove(productId);
+        if (previous != null && previous.minPrice() != null) {
+            priceOrder.remove(Collections.binarySearch(priceOrder, previous, PRICE_ORDER));
+        }
+
+        visible.clear(bit);
+        priced.clear(bit);
+        categories.values().forEach(products -> products.clear(bit));
+        attributeValues.values().forEach(products -> products.clear(bit));
+        categories.values().removeIf(BitSet::isEmpty);
+        attributeValues.values().removeIf(BitSet::isEmpty);
+    }
+
+    private static int bitOf(Long productId) {
+        return Math.toIntExact(productId);
+    }
+}
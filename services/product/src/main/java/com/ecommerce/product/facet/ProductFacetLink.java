@@ -0,0 +1,9 @@
+package com.ecommerce.product.facet;
+
+/**
+ * Link between a product and a category or an attribute value it belongs to.
+ */
+public record ProductFacetLink(
+        Long productId,
+        Long targetId
+) {}
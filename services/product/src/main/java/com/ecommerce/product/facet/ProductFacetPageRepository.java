@@ -0,0 +1,57 @@
+package com.ecommerce.product.facet;
+
+import com.ecommerce.product.ProductSortKey;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Orders and paginates the products matched by the facet index in the database, on the same stored sort keys
+ * and under the same collation as the database listing, so both listings return the same pages.
+ */
+@Repository
+@RequiredArgsConstructor
+public class ProductFacetPageRepository {
+    private static final String FIND_PAGE = """
+        SELECT product.id FROM product
+        WHERE product.id = ANY(CAST(? AS BIGINT[]))
+        ORDER BY %s
+        LIMIT ? OFFSET ?
+      """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Finds one page of the given products, ordered by the sort key with the ID as a tiebreaker,
+     * matching {@link ProductSortKey#toSort(Sort.Direction)}.
+     *
+     * @param productIds bitmap of the product IDs
+     * @param sortKey    sort key
+     * @param direction  sort direction
+     * @param offset     the number of products before the page
+     * @param pageSize   the number of products in the page
+     * @return the product IDs of the page, in order
+     */
+    public List<Long> findPageIds(BitSet productIds, ProductSortKey sortKey, Sort.Direction direction, long offset, int pageSize) {
+        String order = direction.isDescending() ? "DESC" : "ASC";
+        String orderBy = switch (sortKey) {
+            case ID -> "product.id " + order;
+            case NAME -> "lower(product.name) " + order + ", product.id " + order;
+            case PRICE -> "product.min_price " + order + ", product.id " + order;
+        };
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(String.format(FIND_PAGE, orderBy));
+            statement.setArray(1, connection.createArrayOf("bigint",
+                    productIds.stream().mapToObj(Long::valueOf).toArray(Long[]::new)));
+            statement.setInt(2, pageSize);
+            statement.setLong(3, offset);
+            return statement;
+        }, (resultSet, rowNumber) -> resultSet.getLong(1));
+    }
+}
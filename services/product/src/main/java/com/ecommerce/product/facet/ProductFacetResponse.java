@@ -0,0 +1,11 @@
+package com.ecommerce.product.facet;
+
+import lombok.Builder;
+
+import java.util.Map;
+
+@Builder
+public record ProductFacetResponse(
+        int total,
+        Map<Long, Integer> attributeValueCounts
+) {}
@@ -0,0 +1,13 @@
+package com.ecommerce.product.facet;
+
+import java.math.BigDecimal;
+
+/**
+ * Product columns loaded into the in-memory facet and suggestion indexes.
+ */
+public record ProductFacetRow(
+        Long id,
+        String name,
+        boolean isVisible,
+        BigDecimal minPrice
+) {}
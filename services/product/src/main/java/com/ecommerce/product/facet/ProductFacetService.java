@@ -0,0 +1,90 @@
+package com.ecommerce.product.facet;
+
+import com.ecommerce.exception.FacetIndexNotReadyException;
+import com.ecommerce.product.ProductSortKey;
+import com.ecommerce.product.ProductSpecificationRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductFacetService {
+    private final ProductFacetIndex productFacetIndex;
+    private final ProductFacetPageRepository productFacetPageRepository;
+
+    /**
+     * Finds a page of product IDs of a category using the in-memory facet index.
+     * The index only filters the products, the matching IDs are ordered and paginated by the database,
+     * the same way as the database listing.
+     *
+     * @param categoryId     category ID
+     * @param specifications product specification filter
+     * @param sortKey        sort key
+     * @param direction      sort direction
+     * @param pageRequest    pagination request
+     * @return page of product IDs, or empty if the index has not been built yet
+     */
+    public Optional<Page<Long>> findProductIdsByCategory(
+            Long categoryId,
+            ProductSpecificationRequest specifications,
+            ProductSortKey sortKey,
+            Sort.Direction direction,
+            PageRequest pageRequest
+    ) {
+        Objects.requireNonNull(categoryId, "ID kategorie nesmí být prázdné.");
+        Objects.requireNonNull(pageRequest, "Požadavek na stránkování nesmí být prázdný.");
+
+        if (!productFacetIndex.isReady())
+            return Optional.empty();
+
+        log.debug("Filtering products of category ID {} using the facet index", categoryId);
+        BitSet matches = this.filter(categoryId, specifications);
+        int total = matches.cardinality();
+        if (total == 0 || pageRequest.getOffset() >= total)
+            return Optional.of(new PageImpl<>(Collections.emptyList(), pageRequest, total));
+
+        List<Long> ids = productFacetPageRepository.findPageIds(
+                matches, sortKey, direction, pageRequest.getOffset(), pageRequest.getPageSize());
+        return Optional.of(new PageImpl<>(ids, pageRequest, total));
+    }
+
+    /**
+     * Counts the products of a category matching the filter, in total and per attribute value.
+     *
+     * @param categoryId     category ID
+     * @param specifications product specification filter
+     * @return facet counts
+     * @throws FacetIndexNotReadyException if the index has not been built yet
+     */
+    public ProductFacetResponse getFacetCountsByCategory(Long categoryId, ProductSpecificationRequest specifications) {
+        Objects.requireNonNull(categoryId, "ID kategorie nesmí být prázdné.");
+        log.debug("Counting facets of category ID {}", categoryId);
+
+        if (!productFacetIndex.isReady())
+            throw new FacetIndexNotReadyException("Index filtrů se právě sestavuje, zkuste to prosím později.");
+
+        BitSet matches = this.filter(categoryId, specifications);
+
+        return ProductFacetResponse.builder()
+                .total(matches.cardinality())
+                .attributeValueCounts(productFacetIndex.countAttributeValues(matches))
+                .build();
+    }
+
+    private BitSet filter(Long categoryId, ProductSpecificationRequest specifications) {
+        return productFacetIndex.filter(
+                categoryId,
+                specifications.lowPrice(),
+                specifications.maxPrice(),
+                specifications.attributeValueIds()
+        );
+    }
+}
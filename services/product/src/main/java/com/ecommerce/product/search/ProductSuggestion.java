@@ -0,0 +1,7 @@
+package com.ecommerce.product.search;
+
+public record ProductSuggestion(
+        Long id,
+        String name
+) {
+}
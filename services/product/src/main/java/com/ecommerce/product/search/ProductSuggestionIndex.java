@@ -0,0 +1,147 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.ProductChangedEvent;
+import com.ecommerce.product.ProductRepository;
+import com.ecommerce.product.catalog.CatalogImportedEvent;
+import com.ecommerce.product.facet.ProductFacetRow;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * In-memory prefix index over the normalized names of visible products, used for search-as-you-type.
+ * Every name is indexed from the start of each of its words, so "tri" suggests "Žluté tričko" as well.
+ * Keys are kept in a sorted map and a prefix lookup is a range scan over it, so suggestions are
+ * answered without touching the database.
+ * <p>
+ * The index is built when the application starts and then kept up to date from
+ * {@link ProductChangedEvent} after the changing transaction commits, and rebuilt after a {@link CatalogImportedEvent}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSuggestionIndex {
+    private static final char KEY_SEPARATOR = '\u0000';
+
+    private final ProductRepository productRepository;
+
+    // replaced as a whole by a rebuild, so suggestions never see a partially filled index
+    private volatile Index index = new Index();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        try {
+            this.rebuild();
+        } catch (DataAccessException e) {
+            log.warn("Suggestion index could not be built: {}", e.getMessage());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onProductChanged(ProductChangedEvent event) {
+        this.refreshProduct(event.productId());
+    }
+
+    @EventListener
+    public void onCatalogImported(CatalogImportedEvent event) {
+        this.rebuild();
+    }
+
+    /**
+     * Loads the names of all products and replaces the content of the index.
+     */
+    public synchronized void rebuild() {
+        log.debug("Rebuilding product suggestion index");
+        List<ProductFacetRow> rows = productRepository.findAllFacetRows();
+
+        Index rebuilt = new Index();
+        rows.forEach(rebuilt::addProduct);
+        index = rebuilt;
+        log.info("Product suggestion index built with {} products", rebuilt.suggestions.size());
+    }
+
+    /**
+     * Reloads the name of a single product, or removes it from the index if it no longer exists.
+     *
+     * @param productId the ID of the changed product
+     */
+    public synchronized void refreshProduct(Long productId) {
+        Objects.requireNonNull(productId, "ID produktu nesmí být prázdné.");
+        log.debug("Refreshing product ID {} in suggestion index", productId);
+
+        Optional<ProductFacetRow> row = productRepository.findFacetRowById(productId);
+        Index current = index;
+        current.removeProduct(productId);
+        row.ifPresent(current::addProduct);
+    }
+
+    /**
+     * Finds visible products having a word in their name that starts with the query.
+     * Products are ordered alphabetically by the matched part of the name.
+     *
+     * @param query the typed text
+     * @param limit the maximum number of suggestions
+     * @return the suggestions
+     */
+    public List<ProductSuggestion> suggest(String query, int limit) {
+        String prefix = SearchTextNormalizer.normalize(query);
+        if (prefix.isEmpty() || limit <= 0)
+            return Collections.emptyList();
+
+        Index current = index;
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (Long productId : current.phrases.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            productIds.add(productId);
+            if (productIds.size() == limit)
+                break;
+        }
+
+        return productIds.stream()
+                .map(current.suggestions::get)
+                .filter(Objects::nonNull)
+                .toList();
+    }
+
+    /**
+     * The indexed products: the prefix keys, the suggestions and the keys of every product.
+     */
+    private static final class Index {
+        private final NavigableMap<String, Long> phrases = new ConcurrentSkipListMap<>();
+        private final Map<Long, ProductSuggestion> suggestions = new ConcurrentHashMap<>();
+        private final Map<Long, List<String>> keysByProduct = new HashMap<>();
+
+        private void addProduct(ProductFacetRow row) {
+            if (!row.isVisible())
+                return;
+
+            String name = SearchTextNormalizer.normalize(row.name());
+            List<String> keys = new ArrayList<>();
+            for (int i = 0; i < name.length(); i++) {
+                boolean wordStart = Character.isLetterOrDigit(name.charAt(i))
+                        && (i == 0 || !Character.isLetterOrDigit(name.charAt(i - 1)));
+                if (wordStart)
+                    keys.add(name.substring(i) + KEY_SEPARATOR + row.id());
+            }
+
+            suggestions.put(row.id(), new ProductSuggestion(row.id(), row.name()));
+            keys.forEach(key -> phrases.put(key, row.id()));
+            keysByProduct.put(row.id(), keys);
+        }
+
+        private void removeProduct(Long productId) {
+            List<String> keys = keysByProduct.remove(productId);
+            if (keys != null)
+                keys.forEach(phrases::remove);
+            suggestions.remove(productId);
+        }
+    }
+}
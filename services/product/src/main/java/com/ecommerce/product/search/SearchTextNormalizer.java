@@ -0,0 +1,49 @@
+package com.ecommerce.product.search;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Normalizes search text the same way as the search columns of the product table -
+ * lowercased and with diacritics removed, so "Žluté tričko" and "zlute tricko" match.
+ */
+public final class SearchTextNormalizer {
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private SearchTextNormalizer() {}
+
+    public static String normalize(String text) {
+        if (text == null)
+            return "";
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        return DIACRITICS.matcher(decomposed).replaceAll("")
+                .toLowerCase(Locale.ROOT)
+                .trim();
+    }
+
+    public static List<String> tokens(String text) {
+        return Arrays.stream(TOKEN_SEPARATOR.split(normalize(text)))
+                .filter(token -> !token.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Builds a full-text query matching documents that contain all tokens of the text,
+     * each of them as a prefix of a word, e.g. "zlute tric" becomes "zlute:* &amp; tric:*".
+     * Tokens contain only letters and digits, so the result is always a valid tsquery.
+     *
+     * @param text the search text
+     * @return the tsquery, or an empty string if the text has no tokens
+     */
+    public static String toPrefixTsQuery(String text) {
+        return tokens(text).stream()
+                .map(token -> token + ":*")
+                .collect(Collectors.joining(" & "));
+    }
+}
@@ -0,0 +1,30 @@
+package com.ecommerce.productimage;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * A stored image file, shared by all product images with the same content.
+ * The blob is referenced by {@link ProductImage#getContentHash()}; blobs no product image refers to
+ * are removed by {@link ImageGarbageCollector}.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+@Table(name = "image_blob")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ImageBlob {
+    @Id
+    @EqualsAndHashCode.Include
+    private String contentHash;
+
+    private long sizeBytes;
+
+    private Instant lastReferencedAt;
+}
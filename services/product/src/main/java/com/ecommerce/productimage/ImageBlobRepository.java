@@ -0,0 +1,56 @@
+package com.ecommerce.productimage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ImageBlobRepository extends JpaRepository<ImageBlob, String> {
+
+    /**
+     * Registers a stored blob, or marks an already registered one as referenced again.
+     * A blob touched recently is never collected, which protects blobs of uploads
+     * whose product images have not been saved yet.
+     *
+     * @param contentHash the SHA-256 hash of the blob content.
+     * @param sizeBytes the size of the blob.
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+        INSERT INTO image_blob (content_hash, size_bytes, last_referenced_at)
+        VALUES (:contentHash, :sizeBytes, now())
+        ON CONFLICT (content_hash) DO UPDATE SET last_referenced_at = now()
+      """, nativeQuery = true)
+    void touch(@Param("contentHash") String contentHash, @Param("sizeBytes") long sizeBytes);
+
+    /**
+     * Finds and locks blobs no product image refers to. Blobs locked by another collector run are skipped.
+     *
+     * @param referencedBefore only blobs not touched since this instant are returned.
+     * @param limit the maximum number of returned blobs.
+     * @return the hashes of the unreferenced blobs.
+     */
+    @Query(value = """
+        SELECT blob.content_hash FROM image_blob blob
+        WHERE blob.last_referenced_at < :referencedBefore
+        AND NOT EXISTS (
+            SELECT 1 FROM product_image image WHERE image.content_hash = blob.content_hash
+        )
+        ORDER BY blob.last_referenced_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+      """, nativeQuery = true)
+    List<String> lockUnreferencedHashes(@Param("referencedBefore") Instant referencedBefore, @Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM ImageBlob blob WHERE blob.contentHash IN :contentHashes")
+    int deleteByContentHashes(@Param("contentHashes") Collection<String> contentHashes);
+}
@@ -0,0 +1,174 @@
+package com.ecommerce.productimage;
+
+import com.ecommerce.exception.ImageUploadException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed store of image files. Every distinct content is stored once under its SHA-256 hash
+ * in a two level sharded layout, e.g. {@code blobs/3f/a2/3fa2...}, so no directory grows too large.
+ * Renditions of a blob are stored next to it. Product images refer to the blobs by an image path
+ * consisting of the hash and the original extension, e.g. {@code 3fa2....png}, which lets images be
+ * served without a database lookup.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ImageBlobStore {
+    private static final Pattern IMAGE_PATH = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,10})?");
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,10}");
+
+    private final ImageBlobRepository imageBlobRepository;
+
+    @Value("${upload.directory}")
+    private String uploadDirectory;
+
+    /**
+     * Streams an uploaded file into the store while hashing it. When a blob with the same content
+     * already exists, the new copy is discarded.
+     *
+     * @param file the uploaded file
+     * @return the image path of the stored blob
+     * @throws ImageUploadException if the file could not be stored
+     */
+    public String store(MultipartFile file) {
+        Path blobsDirectory = this.getBlobsDirectory();
+        Path temporaryPath = null;
+        try {
+            Files.createDirectories(blobsDirectory);
+            temporaryPath = Files.createTempFile(blobsDirectory, ".upload-", ".tmp");
+
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (InputStream input = file.getInputStream();
+                 OutputStream output = new DigestOutputStream(Files.newOutputStream(temporaryPath), digest)) {
+                input.transferTo(output);
+            }
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+
+            // registered before the file is checked, so the collector cannot remove an existing blob meanwhile
+            imageBlobRepository.touch(contentHash, Files.size(temporaryPath));
+
+            Path blobPath = this.resolveBlob(contentHash);
+            if (Files.exists(blobPath)) {
+                Files.delete(temporaryPath);
+            } else {
+                this.moveIntoPlace(temporaryPath, blobPath);
+            }
+
+            return contentHash + toExtension(file.getOriginalFilename());
+        } catch (IOException e) {
+            this.deleteQuietly(temporaryPath);
+            throw new ImageUploadException(
+                    String.format("Nepodařilo se uložit obrázek %s.", file.getOriginalFilename()), e);
+        } catch (NoSuchAlgorithmException e) {
+            this.deleteQuietly(temporaryPath);
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    /**
+     * Resolves the path of a blob.
+     *
+     * @param contentHash the SHA-256 hash of the blob content
+     * @return the blob path
+     */
+    public Path resolveBlob(String contentHash) {
+        return this.getBlobsDirectory()
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    /**
+     * Resolves the path of a rendition of a blob, e.g. {@code 3fa2...-thumbnail.jpg} next to the blob.
+     *
+     * @param contentHash the SHA-256 hash of the blob content
+     * @param size the rendition size
+     * @return the rendition path
+     */
+    public Path resolveRendition(String contentHash, ImageSize size) {
+        Path blobPath = this.resolveBlob(contentHash);
+        return blobPath.resolveSibling(contentHash + "-" + size.name().toLowerCase(Locale.ROOT) + ".jpg");
+    }
+
+    /**
+     * Deletes a blob together with its renditions.
+     *
+     * @param contentHash the SHA-256 hash of the blob content
+     */
+    public void delete(String contentHash) {
+        this.deleteQuietly(this.resolveBlob(contentHash));
+        for (ImageSize size : ImageSize.values()) {
+            this.deleteQuietly(this.resolveRendition(contentHash, size));
+        }
+    }
+
+    /**
+     * Extracts the content hash from an image path.
+     *
+     * @param imagePath the image path
+     * @return the hash, or empty for images stored in the product directory
+     */
+    public static Optional<String> contentHashOf(String imagePath) {
+        if (imagePath == null)
+            return Optional.empty();
+
+        Matcher matcher = IMAGE_PATH.matcher(imagePath);
+        return matcher.matches() ? Optional.of(matcher.group(1)) : Optional.empty();
+    }
+
+    private static String toExtension(String originalFilename) {
+        String extension = StringUtils.getFilenameExtension(originalFilename);
+        if (extension == null)
+            return "";
+
+        extension = extension.toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private Path getBlobsDirectory() {
+        return Paths.get(uploadDirectory, "blobs");
+    }
+
+    private void moveIntoPlace(Path temporaryPath, Path blobPath) throws IOException {
+        Files.createDirectories(blobPath.getParent());
+        try {
+            Files.move(temporaryPath, blobPath, StandardCopyOption.ATOMIC_MOVE);
+        } catch (FileAlreadyExistsException e) {
+            // the same content was stored concurrently
+            Files.deleteIfExists(temporaryPath);
+        }
+    }
+
+    private void deleteQuietly(Path path) {
+        if (path == null)
+            return;
+
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete file: {}", path, e);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.productimage;
+
+import com.ecommerce.product.ProductRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Removes stored image files nothing refers to anymore, outside of any request.
+ * Blobs are collected once no product image has referred to them for the grace period,
+ * product directories with images stored before the blob store once their product has been deleted.
+ */
+@Component
+@Slf4j
+public class ImageGarbageCollector {
+    private final ImageBlobRepository imageBlobRepository;
+    private final ImageBlobStore imageBlobStore;
+    private final ProductRepository productRepository;
+    private final ProductImageService productImageService;
+    private final Duration gracePeriod;
+    private final int batchSize;
+
+    @Value("${upload.directory}")
+    private String uploadDirectory;
+
+    public ImageGarbageCollector(
+            ImageBlobRepository imageBlobRepository,
+            ImageBlobStore imageBlobStore,
+            ProductRepository productRepository,
+            ProductImageService productImageService,
+            @Value("${application.image.gc-grace-period:PT1H}") Duration gracePeriod,
+            @Value("${application.image.gc-batch-size:500}") int batchSize
+    ) {
+        this.imageBlobRepository = imageBlobRepository;
+        this.imageBlobStore = imageBlobStore;
+        this.productRepository = productRepository;
+        this.productImageService = productImageService;
+        this.gracePeriod = gracePeriod;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Deletes one batch of unreferenced blobs. The blob rows stay locked until the files are deleted,
+     * so a concurrent upload of the same content waits and then stores the file again.
+     *
+     * @return the number of collected blobs
+     */
+    @Scheduled(
+            initialDelayString = "${application.image.gc-interval:PT15M}",
+            fixedDelayString = "${application.image.gc-interval:PT15M}"
+    )
+    @Transactional
+    public int collectBlobs() {
+        List<String> contentHashes = imageBlobRepository.lockUnreferencedHashes(
+                Instant.now().minus(gracePeriod), batchSize);
+        if (contentHashes.isEmpty())
+            return 0;
+
+        contentHashes.forEach(imageBlobStore::delete);
+        imageBlobRepository.deleteByContentHashes(contentHashes);
+        log.info("Collected {} unreferenced image blobs", contentHashes.size());
+
+        return contentHashes.size();
+    }
+
+    /**
+     * Deletes the image directories of products that no longer exist.
+     */
+    @Scheduled(
+            initialDelayString = "${application.image.gc-interval:PT15M}",
+            fixedDelayString = "${application.image.gc-interval:PT15M}"
+    )
+    public void collectProductDirectories() {
+        Path productsDirectory = Paths.get(uploadDirectory, "products");
+        if (!Files.isDirectory(productsDirectory))
+            return;
+
+        Map<Long, Path> directories;
+        try (Stream<Path> paths = Files.list(productsDirectory)) {
+            directories = paths
+                    .filter(Files::isDirectory)
+                    .filter(path -> path.getFileName().toString().matches("\\d{1,18}"))
+                    .collect(Collectors.toMap(path -> Long.valueOf(path.getFileName().toString()), Function.identity()));
+        } catch (IOException e) {
+            log.error("Failed to list product image directories", e);
+            return;
+        }
+        if (directories.isEmpty())
+            return;
+
+        Set<Long> existingIds = productRepository.findExistingIds(directories.keySet());
+        directories.keySet().stream()
+                .filter(productId -> !existingIds.contains(productId))
+                .forEach(productImageService::deleteDirectory);
+    }
+}
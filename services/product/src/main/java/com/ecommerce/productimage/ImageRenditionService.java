@@ -0,0 +1,164 @@
+package com.ecommerce.productimage;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * Generates downscaled JPEG renditions of uploaded product images in the background,
+ * so listings do not have to download the original photos.
+ */
+@Service
+@Slf4j
+public class ImageRenditionService {
+    private static final float JPEG_QUALITY = 0.8f;
+
+    private final ImageBlobStore imageBlobStore;
+    private final Executor imageRenditionExecutor;
+    private final Set<String> queuedImages = ConcurrentHashMap.newKeySet();
+
+    @Value("${upload.directory}")
+    private String uploadDirectory;
+
+    public ImageRenditionService(
+            ImageBlobStore imageBlobStore,
+            @Qualifier("imageRenditionExecutor") Executor imageRenditionExecutor
+    ) {
+        this.imageBlobStore = imageBlobStore;
+        this.imageRenditionExecutor = imageRenditionExecutor;
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onImagesUploaded(ProductImagesUploadedEvent event) {
+        event.imagePaths().forEach(imagePath -> this.requestRenditions(event.productId(), imagePath));
+    }
+
+    /**
+     * Queues the generation of the renditions of a product image, unless it is already queued.
+     * When the queue is full the request is logged and dropped; the image is queued again
+     * the next time one of its missing renditions is requested.
+     *
+     * @param productId the product ID
+     * @param fileName  the file name of the original image
+     */
+    public void requestRenditions(Long productId, String fileName) {
+        String key = ImageBlobStore.contentHashOf(fileName).orElseGet(() -> productId + "/" + fileName);
+        if (!queuedImages.add(key))
+            return;
+
+        try {
+            imageRenditionExecutor.execute(() -> {
+                try {
+                    this.generateRenditions(productId, fileName);
+                } finally {
+                    queuedImages.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            queuedImages.remove(key);
+            log.warn("Rendition queue is full, renditions of image {} of product ID {} dropped", fileName, productId);
+        }
+    }
+
+    /**
+     * Generates all renditions of a product image. Images ImageIO cannot decode are skipped,
+     * and so are blobs whose renditions were already generated for another product.
+     *
+     * @param productId the product ID
+     * @param fileName  the file name of the original image
+     */
+    public void generateRenditions(Long productId, String fileName) {
+        Optional<String> contentHash = ImageBlobStore.contentHashOf(fileName);
+        Path productDirectory = Paths.get(uploadDirectory, "products", String.valueOf(productId));
+
+        Path source = contentHash.map(imageBlobStore::resolveBlob)
+                .orElseGet(() -> productDirectory.resolve(fileName));
+        Function<ImageSize, Path> target = size -> contentHash
+                .map(hash -> imageBlobStore.resolveRendition(hash, size))
+                .orElseGet(() -> size.resolve(productDirectory, fileName));
+
+        if (contentHash.isPresent() && Arrays.stream(ImageSize.values()).map(target).allMatch(Files::exists))
+            return;
+
+        try {
+            BufferedImage original = ImageIO.read(source.toFile());
+            if (original == null) {
+                log.warn("Image {} of product ID {} has an unsupported format, renditions skipped", fileName, productId);
+                return;
+            }
+
+            for (ImageSize size : ImageSize.values()) {
+                this.writeJpeg(this.scale(original, size.getMaxDimension()), target.apply(size));
+            }
+            log.debug("Renditions of image {} of product ID {} generated", fileName, productId);
+        } catch (IOException e) {
+            log.error("Failed to generate renditions of image {} of product ID {}", fileName, productId, e);
+        }
+    }
+
+    /**
+     * Scales the image down to fit into a square of the given dimension, keeping the aspect ratio.
+     * The result has no alpha channel, transparent areas become white.
+     */
+    private BufferedImage scale(BufferedImage original, int maxDimension) {
+        double ratio = Math.min(1.0, (double) maxDimension / Math.max(original.getWidth(), original.getHeight()));
+        int width = Math.max(1, (int) Math.round(original.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(original.getHeight() * ratio));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(original, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    /**
+     * Writes the image to a temporary file first and moves it into place,
+     * so a partially written rendition is never served.
+     */
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temporary = Files.createTempFile(target.getParent(), "rendition-", ".tmp");
+
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        try (ImageOutputStream output = ImageIO.createImageOutputStream(temporary.toFile())) {
+            ImageWriteParam parameters = writer.getDefaultWriteParam();
+            parameters.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            parameters.setCompressionQuality(JPEG_QUALITY);
+            writer.setOutput(output);
+            writer.write(null, new IIOImage(image, null, null), parameters);
+        } finally {
+            writer.dispose();
+        }
+
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
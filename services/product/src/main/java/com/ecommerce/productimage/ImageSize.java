@@ -0,0 +1,36 @@
+package com.ecommerce.productimage;
+
+import java.nio.file.Path;
+import java.util.Locale;
+
+/**
+ * Renditions generated for every uploaded product image, stored as JPEG next to the original.
+ */
+public enum ImageSize {
+    THUMBNAIL(240),
+    MEDIUM(800);
+
+    private final int maxDimension;
+
+    ImageSize(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    public int getMaxDimension() {
+        return maxDimension;
+    }
+
+    /**
+     * Resolves the path of the rendition of an image, e.g. {@code renditions/thumbnail/photo.png.jpg}.
+     *
+     * @param productDirectory the directory with the original images of the product
+     * @param fileName         the file name of the original image
+     * @return the rendition path
+     */
+    public Path resolve(Path productDirectory, String fileName) {
+        return productDirectory
+                .resolve("renditions")
+                .resolve(this.name().toLowerCase(Locale.ROOT))
+                .resolve(fileName + ".jpg");
+    }
+}
@@ -19,6 +19,12 @@ public class ProductImage {
     private Long id;
     private String imagePath;
 
+    /**
+     * SHA-256 hash of the image content pointing to its {@link ImageBlob}.
+     * Null for images stored in the product directory before the blob store was introduced.
+     */
+    private String contentHash;
+
     private Integer uploadOrder;
 
     @ManyToOne
@@ -0,0 +1,54 @@
+package com.ecommerce.productimage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ProductImageConfig {
+
+    /**
+     * Bounded pool generating image renditions. When the queue is full new work is rejected,
+     * images without renditions are served in the original size and queued again when requested.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageRenditionExecutor(
+            @Value("${application.image.rendition-threads:2}") int threads,
+            @Value("${application.image.rendition-queue-capacity:200}") int queueCapacity
+    ) {
+        return this.createExecutor("image-rendition-", threads, queueCapacity, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Bounded pool writing uploaded image files to disk. When the queue is full the uploading
+     * request thread writes the file itself, which slows down the client instead of losing the file.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor imageUploadExecutor(
+            @Value("${application.image.upload-threads:4}") int threads,
+            @Value("${application.image.upload-queue-capacity:100}") int queueCapacity
+    ) {
+        return this.createExecutor("image-upload-", threads, queueCapacity, new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    private ThreadPoolTaskExecutor createExecutor(
+            String threadNamePrefix,
+            int threads,
+            int queueCapacity,
+            RejectedExecutionHandler rejectedExecutionHandler
+    ) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix(threadNamePrefix);
+        executor.setRejectedExecutionHandler(rejectedExecutionHandler);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.initialize();
+        return executor;
+    }
+}
@@ -2,11 +2,40 @@ package com.ecommerce.productimage;
 
 import com.ecommerce.product.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
     List<ProductImage> findAllByProduct(Product product);
+
+    /**
+     * Retrieves the paths of all images of a product without loading the product.
+     *
+     * @param productId the ID of the product.
+     * @return the image paths.
+     */
+    @Query("SELECT image.imagePath FROM ProductImage image WHERE image.product.id = :productId")
+    List<String> findImagePathsByProductId(@Param("productId") Long productId);
+
+    /**
+     * Retrieves the path of the first uploaded image of each of the given products.
+     *
+     * @param productIds the IDs of the products.
+     * @return the primary image paths; products without images are missing from the result.
+     */
+    @Query("""
+        SELECT new com.ecommerce.productimage.ProductPrimaryImage(image.product.id, image.imagePath)
+        FROM ProductImage image
+        WHERE image.product.id IN :productIds
+        AND image.uploadOrder = (
+            SELECT MIN(firstImage.uploadOrder) FROM ProductImage firstImage
+            WHERE firstImage.product.id = image.product.id
+        )
+      """)
+    List<ProductPrimaryImage> findPrimaryImagesByProductIds(@Param("productIds") Collection<Long> productIds);
 }
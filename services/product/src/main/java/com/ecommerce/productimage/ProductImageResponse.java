@@ -7,5 +7,7 @@ import org.springframework.http.MediaType;
 @Builder
 public record ProductImageResponse(
         Resource resource,
-        MediaType mediaType
+        MediaType mediaType,
+        long lastModified,
+        boolean immutable
 ) {}
@@ -1,12 +1,20 @@
 package com.ecommerce.productimage;
 
+import com.ecommerce.exception.ImageUploadException;
+import com.ecommerce.exception.ProductNotFoundException;
 import com.ecommerce.product.Product;
-import lombok.RequiredArgsConstructor;
+import com.ecommerce.product.ProductChangedEvent;
+import com.ecommerce.product.ProductRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.UrlResource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
@@ -14,145 +22,221 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Objects;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 import static java.io.File.separator;
 
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class ProductImageService {
     private final ProductImageRepository productImageRepository;
+    private final ProductRepository productRepository;
+    private final ImageBlobStore imageBlobStore;
+    private final ImageRenditionService imageRenditionService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Executor imageUploadExecutor;
 
     @Value("${upload.directory}")
     private String uploadDirectory;
 
+    public ProductImageService(
+            ProductImageRepository productImageRepository,
+            ProductRepository productRepository,
+            ImageBlobStore imageBlobStore,
+            ImageRenditionService imageRenditionService,
+            ApplicationEventPublisher eventPublisher,
+            @Qualifier("imageUploadExecutor") Executor imageUploadExecutor
+    ) {
+        this.productImageRepository = productImageRepository;
+        this.productRepository = productRepository;
+        this.imageBlobStore = imageBlobStore;
+        this.imageRenditionService = imageRenditionService;
+        this.eventPublisher = eventPublisher;
+        this.imageUploadExecutor = imageUploadExecutor;
+    }
+
     /**
-     * Retrieves an image for a specific product.
+     * Retrieves an image for a specific product straight from the upload directory, without querying the database.
+     * Content-addressed images are read from the blob store, older images from the product directory.
+     * The media type is resolved from the file extension, so the file content is never probed.
      *
-     * @param product the product entity
+     * @param productId the product ID
      * @param fileName the name of the image file
-     * @return ProductImageResponse containing the resource and media type
+     * @param size the requested rendition, or null for the original; the original is returned
+     *             and the renditions are queued again when the rendition has not been generated
+     * @return ProductImageResponse containing the resource, media type and last modification time,
+     *         or null if the image does not exist
      */
-    public ProductImageResponse getImage(Product product, String fileName) {
-        try {
-            Path filePath = Paths.get(uploadDirectory + "/products/" + product.getId())
-                    .resolve(fileName)
-                    .normalize();
-            UrlResource resource = new UrlResource(filePath.toUri());
+    public ProductImageResponse getImage(Long productId, String fileName, ImageSize size) {
+        Optional<String> contentHash = ImageBlobStore.contentHashOf(fileName);
+        if (contentHash.isPresent()) {
+            File rendition = size == null ? null : imageBlobStore.resolveRendition(contentHash.get(), size).toFile();
+            return this.toResponse(productId, imageBlobStore.resolveBlob(contentHash.get()).toFile(), rendition, fileName, size);
+        }
 
-            if (!resource.exists() || !resource.isReadable()) {
-                return null;
-            }
+        Path productDirectory = Paths.get(uploadDirectory, "products", String.valueOf(productId))
+                .toAbsolutePath()
+                .normalize();
+        Path filePath = productDirectory.resolve(fileName).normalize();
 
-            String contentType = Files.probeContentType(filePath);
-            MediaType mediaType = MediaType.parseMediaType(contentType);
+        if (!productDirectory.equals(filePath.getParent())) {
+            log.warn("Rejected image path outside of the product directory: {}", fileName);
+            return null;
+        }
+
+        File rendition = size == null ? null : size.resolve(productDirectory, filePath.getFileName().toString()).toFile();
+        return this.toResponse(productId, filePath.toFile(), rendition, fileName, size);
+    }
 
-            return ProductImageResponse.builder()
-                    .resource(resource)
-                    .mediaType(mediaType)
-                    .build();
+    private ProductImageResponse toResponse(Long productId, File file, File rendition, String fileName, ImageSize size) {
+        if (rendition != null && rendition.isFile())
+            return this.toResponse(rendition, MediaType.IMAGE_JPEG, true);
 
-        } catch (IOException e) {
+        if (!file.isFile() || !file.canRead()) {
             return null;
         }
+
+        if (size != null)
+            imageRenditionService.requestRenditions(productId, fileName);
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(fileName)
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+
+        // the original served in place of a missing rendition must not be cached as the rendition
+        return this.toResponse(file, mediaType, size == null);
+    }
+
+    private ProductImageResponse toResponse(File file, MediaType mediaType, boolean immutable) {
+        return ProductImageResponse.builder()
+                .resource(new FileSystemResource(file))
+                .mediaType(mediaType)
+                .lastModified(file.lastModified())
+                .immutable(immutable)
+                .build();
+    }
+
+    /**
+     * Streams the uploaded files that the product does not have yet into the content-addressed blob store.
+     * The files are hashed and written concurrently on a bounded executor; content that is already
+     * stored, for this or any other product, is not stored again.
+     * No database transaction is held while the files are being written.
+     *
+     * @param productId the product ID
+     * @param files list of image files in the requested order
+     * @return the image paths of all uploaded files in the requested order, without duplicates
+     * @throws ImageUploadException if any of the files could not be stored; blobs stored by the failed upload
+     *                              are left to {@link ImageGarbageCollector}
+     */
+    public List<String> storeFiles(Long productId, List<MultipartFile> files) {
+        Objects.requireNonNull(productId, "ID produktu nesmí být prázdné.");
+        Objects.requireNonNull(files, "Seznam obrázků nesmí být prázdný.");
+
+        Set<String> existingPaths = new HashSet<>(productImageRepository.findImagePathsByProductId(productId));
+
+        List<CompletableFuture<String>> stores = files.stream()
+                .map(file -> {
+                    String fileName = StringUtils.getFilename(
+                            StringUtils.cleanPath(Objects.requireNonNullElse(file.getOriginalFilename(), "")));
+                    return existingPaths.contains(fileName)
+                            ? CompletableFuture.completedFuture(fileName)
+                            : CompletableFuture.supplyAsync(() -> imageBlobStore.store(file), imageUploadExecutor);
+                })
+                .toList();
+
+        try {
+            return stores.stream()
+                    .map(CompletableFuture::join)
+                    .distinct()
+                    .toList();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw cause instanceof ImageUploadException uploadException
+                    ? uploadException
+                    : new ImageUploadException("Nepodařilo se uložit obrázky produktu.", cause);
+        }
     }
 
     /**
-     * Processes image files for a product, handling new uploads, updates, and deletions.
+     * Replaces the image records of a product with the given, already stored files.
+     * Existing records are reordered, new ones are created and records of images missing
+     * from the list are deleted. Only the database rows are written here; blobs that are no longer referenced
+     * are collected by {@link ImageGarbageCollector}, older files of the removed images have to be deleted
+     * with {@link #deleteFiles(Long, Collection)} once the transaction commits.
      *
-     * @param product the product entity
-     * @param files list of image files to process
+     * @param productId the product ID
+     * @param fileNames the stored file names in the requested order
+     * @return the paths of the images that were removed from the product
      */
-    public void processFilesForProduct(Product product, List<MultipartFile> files) {
-        List<ProductImage> existingProductImages = productImageRepository.findAllByProduct(product);
-        Map<String, ProductImage> existingImagesMap = existingProductImages.stream()
+    @Transactional
+    public List<String> saveImages(Long productId, List<String> fileNames) {
+        Objects.requireNonNull(productId, "ID produktu nesmí být prázdné.");
+        Objects.requireNonNull(fileNames, "Seznam obrázků nesmí být prázdný.");
+
+        Product product = productRepository.findById(productId)
+                .orElseThrow(() -> new ProductNotFoundException(
+                        String.format("Produkt s ID %s nebyl nalezen.", productId)
+                ));
+
+        Map<String, ProductImage> existingImagesMap = productImageRepository.findAllByProduct(product).stream()
                 .collect(Collectors.toMap(
                         ProductImage::getImagePath,
                         image -> image
                 ));
 
         List<ProductImage> imagesToSave = new ArrayList<>();
+        List<String> newImagePaths = new ArrayList<>();
 
         int counter = 0;
-        for (MultipartFile file : files) {
-            String filename = file.getOriginalFilename();
+        for (String fileName : fileNames) {
+            ProductImage existingImage = existingImagesMap.remove(fileName);
 
-            if (existingImagesMap.containsKey(filename)) {
-                ProductImage existingImage = existingImagesMap.get(filename);
+            if (existingImage != null) {
                 existingImage.setUploadOrder(counter);
-
                 imagesToSave.add(existingImage);
-                existingImagesMap.remove(filename);
             } else {
-                ProductImage newImage = this.saveFile(file, counter, product);
-                imagesToSave.add(newImage);
+                imagesToSave.add(ProductImage.builder()
+                        .product(product)
+                        .imagePath(fileName)
+                        .contentHash(ImageBlobStore.contentHashOf(fileName).orElse(null))
+                        .uploadOrder(counter)
+                        .build());
+                newImagePaths.add(fileName);
             }
             counter++;
         }
 
         productImageRepository.saveAll(imagesToSave);
+        if (!existingImagesMap.isEmpty())
+            productImageRepository.deleteAll(List.copyOf(existingImagesMap.values()));
 
-        if (!existingImagesMap.isEmpty()) {
-            existingImagesMap.values().forEach(image -> {
-                String path = uploadDirectory + separator + "products" + separator + product.getId() + separator + image.getImagePath();
-                this.deleteFile(path);
-            });
+        if (!newImagePaths.isEmpty())
+            eventPublisher.publishEvent(new ProductImagesUploadedEvent(productId, newImagePaths));
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, Set.copyOf(product.getCategoryIds())));
 
-            productImageRepository.deleteAll(existingImagesMap.values());
-        }
+        return List.copyOf(existingImagesMap.keySet());
     }
 
     /**
-     * Saves a new image file for a product.
+     * Deletes image files stored in the product directory together with their renditions.
+     * Content-addressed images are skipped, their blobs may be shared and are collected asynchronously.
      *
-     * @param sourceFile the source file to save
-     * @param counter the upload order
-     * @param product the product entity
-     * @return the created ProductImage entity
-     */
-    private ProductImage saveFile(MultipartFile sourceFile, int counter, Product product) {
-        String fileUploadSubPath = "products" + separator + product.getId();
-        String imagePath = this.uploadFile(sourceFile, fileUploadSubPath);
-        return ProductImage.builder()
-                .product(product)
-                .imagePath(imagePath)
-                .uploadOrder(counter)
-                .build();
-    }
-
-    /**
-     * Uploads a file to the specified sub-path.
-     *
-     * @param sourceFile the source file to upload
-     * @param fileUploadSubPath the sub-path to upload to
-     * @return the filename of the uploaded file
+     * @param productId the product ID
+     * @param imagePaths the file names of the images to delete
      */
-    private String uploadFile(MultipartFile sourceFile, String fileUploadSubPath) {
-        String finalUploadPath = uploadDirectory + separator + fileUploadSubPath;
-        File file = new File(finalUploadPath);
-
-        if (!file.exists()) {
-            boolean folderCreated = file.mkdirs();
-            if (!folderCreated) {
-                log.warn("Failed to create the target folder: " + file);
-                return null;
-            }
-        }
-        String targetFilePath = finalUploadPath + separator + sourceFile.getOriginalFilename();
-        Path targetPath = Paths.get(targetFilePath);
-        try {
-            Files.write(targetPath, sourceFile.getBytes());
-            log.info("File saved to: " + targetFilePath);
-            return sourceFile.getOriginalFilename();
-        } catch (IOException e) {
-            log.error("Failed to saved a file: ", e);
-        }
-        return null;
+    public void deleteFiles(Long productId, Collection<String> imagePaths) {
+        Path productDirectory = Paths.get(uploadDirectory, "products", String.valueOf(productId));
+        imagePaths.stream()
+                .filter(imagePath -> ImageBlobStore.contentHashOf(imagePath).isEmpty())
+                .forEach(imagePath -> {
+                    this.deleteFile(productDirectory.resolve(imagePath).toString());
+                    for (ImageSize size : ImageSize.values()) {
+                        this.deleteFile(size.resolve(productDirectory, imagePath).toString());
+                    }
+                });
     }
 
     /**
@@ -172,7 +256,7 @@ public class ProductImageService {
     }
 
     /**
-     * Deletes all product images and the product directory.
+     * Deletes the product directory with the images stored before the blob store was introduced.
      *
      * @param productId the product ID
      */
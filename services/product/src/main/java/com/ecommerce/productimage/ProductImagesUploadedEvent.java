@@ -0,0 +1,15 @@
+package com.ecommerce.productimage;
+
+import java.util.List;
+
+/**
+ * Published when new image files have been stored for a product.
+ *
+ * @param productId  the product ID
+ * @param imagePaths file names of the new images
+ */
+public record ProductImagesUploadedEvent(
+        Long productId,
+        List<String> imagePaths
+) {
+}
@@ -0,0 +1,9 @@
+package com.ecommerce.productimage;
+
+/**
+ * Path of the first uploaded image of a product.
+ */
+public record ProductPrimaryImage(
+        Long productId,
+        String imagePath
+) {}
@@ -6,6 +6,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.NonNull;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -16,12 +17,22 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.util.Arrays;
 import java.util.List;
 
 @Component
 @Slf4j
 public class AuthenticationFilter extends OncePerRequestFilter {
+    private static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+    private static final String SERVICE_ROLE = "ROLE_SERVICE";
+
+    private final String serviceToken;
+
+    public AuthenticationFilter(@Value("${application.security.service-token:}") String serviceToken) {
+        this.serviceToken = serviceToken;
+    }
 
     @Override
     protected void doFilterInternal(
@@ -29,6 +40,12 @@ public class AuthenticationFilter extends OncePerRequestFilter {
             @NonNull HttpServletResponse response,
             @NonNull FilterChain filterChain
     ) throws ServletException, IOException {
+        if (this.isServiceRequest(request)) {
+            this.authenticate(request, "service", List.of(new SimpleGrantedAuthority(SERVICE_ROLE)));
+            filterChain.doFilter(request, response);
+            return;
+        }
+
         String username = request.getHeader("X-User-Username");
         String rolesHeader = request.getHeader("X-User-Roles");
 
@@ -42,15 +59,31 @@ public class AuthenticationFilter extends OncePerRequestFilter {
                     .toList();
 
             log.debug("Created authorities:{} for user: {}", username, authorities);
-
-            UserDetails userDetails = new User(username, "", authorities);
-            UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                    userDetails, null, authorities);
-            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+            this.authenticate(request, username, authorities);
         }
 
         filterChain.doFilter(request, response);
     }
+
+    /**
+     * Checks whether the request comes from another service, which sends the token shared by the services
+     * instead of the user headers set by the gateway. No request is a service request when no token is configured.
+     */
+    private boolean isServiceRequest(HttpServletRequest request) {
+        if (serviceToken == null || serviceToken.isBlank())
+            return false;
+
+        String token = request.getHeader(SERVICE_TOKEN_HEADER);
+        return token != null && MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8), serviceToken.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void authenticate(HttpServletRequest request, String username, List<SimpleGrantedAuthority> authorities) {
+        UserDetails userDetails = new User(username, "", authorities);
+        UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                userDetails, null, authorities);
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+    }
 }
\ No newline at end of file
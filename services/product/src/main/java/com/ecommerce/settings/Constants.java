@@ -6,5 +6,8 @@ public class Constants {
     public static final int PAGE_SIZE = 10;
     public static final String DIRECTION = "DESC";
     public static final String DEFAULT_SORT_ATTRIBUTE = "id";
+    public static final int SUGGESTION_LIMIT = 8;
+    public static final int MAX_SUGGESTION_LIMIT = 20;
+    public static final long IMAGE_CACHE_MAX_AGE_DAYS = 365;
 
 }
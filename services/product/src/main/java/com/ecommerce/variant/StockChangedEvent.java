@@ -0,0 +1,13 @@
+package com.ecommerce.variant;
+
+import java.util.Set;
+
+/**
+ * Published when the stock of variants is taken by a purchase or returned by a released or expired reservation.
+ * Stock changes do not change the product version, so they are published separately from {@code ProductChangedEvent}.
+ *
+ * @param productIds the IDs of the products owning the variants
+ */
+public record StockChangedEvent(
+        Set<Long> productIds
+) {}
@@ -5,6 +5,7 @@ import com.ecommerce.product.Product;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.Min;
 import lombok.*;
+import org.hibernate.annotations.Formula;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
@@ -53,6 +54,12 @@ public class Variant {
     @Builder.Default
     private List<AttributeValue> values = new ArrayList<>();
 
+    /**
+     * Stock held in the shards of a hot variant, see {@link VariantStockRepository}.
+     */
+    @Formula("(SELECT COALESCE(SUM(shard.quantity), 0) FROM variant_stock_shard shard WHERE shard.variant_id = id)")
+    private int shardedQuantity;
+
     /**
      * Returns the effective price of the variant, considering discounts.
      *
@@ -63,4 +70,13 @@ public class Variant {
                 ? discountedPrice : basePrice;
     }
 
+    /**
+     * Returns the exact number of pieces in stock, including the stock held in shards.
+     *
+     * @return the available quantity.
+     */
+    public int getAvailableQuantity() {
+        return quantity + shardedQuantity;
+    }
+
 }
@@ -1,9 +1,16 @@
 package com.ecommerce.variant;
 
+import com.ecommerce.variant.bulk.VariantBulkUpdateRequest;
+import com.ecommerce.variant.bulk.VariantBulkUpdateResponse;
+import com.ecommerce.variant.bulk.VariantBulkUpdateService;
 import com.ecommerce.variant.purchase.CartItemRequest;
 import com.ecommerce.variant.purchase.PurchaseRequest;
 import com.ecommerce.variant.purchase.PurchaseResponse;
 import com.ecommerce.variant.purchase.PurchaseService;
+import com.ecommerce.variant.reservation.StockReservationResponse;
+import com.ecommerce.variant.reservation.StockReservationService;
+import com.ecommerce.variant.stock.VariantStockShardRequest;
+import com.ecommerce.variant.stock.VariantStockShardService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -15,6 +22,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
 import java.util.Set;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/api/v1/variants")
@@ -24,6 +32,9 @@ import java.util.Set;
 public class VariantController {
     private final VariantService variantService;
     private final PurchaseService purchaseService;
+    private final VariantBulkUpdateService variantBulkUpdateService;
+    private final StockReservationService stockReservationService;
+    private final VariantStockShardService variantStockShardService;
 
     @GetMapping("/{id}")
     public ResponseEntity<VariantResponse> getVariantById(@PathVariable Long id) {
@@ -58,6 +69,27 @@ public class VariantController {
         return ResponseEntity.ok(response);
     }
 
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/bulk")
+    public ResponseEntity<VariantBulkUpdateResponse> updateVariants(
+            @RequestBody @Valid List<VariantBulkUpdateRequest> request
+    ) {
+        log.info("Bulk updating {} variants", request.size());
+        VariantBulkUpdateResponse response = variantBulkUpdateService.updateVariants(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @PreAuthorize("hasRole('ADMIN')")
+    @PutMapping("/{id}/stock-shards")
+    public ResponseEntity<Void> setStockShards(
+            @PathVariable Long id,
+            @RequestBody @Valid VariantStockShardRequest request
+    ) {
+        log.info("Setting stock shards of variant with ID: {}", id);
+        variantStockShardService.setStockShards(id, request.shards());
+        return ResponseEntity.noContent().build();
+    }
+
     @PreAuthorize("hasRole('ADMIN')")
     @DeleteMapping("/{id}")
     public ResponseEntity<Variant> deleteVariantById(@PathVariable Long id) {
@@ -81,4 +113,27 @@ public class VariantController {
         Set<PurchaseResponse> response = purchaseService.purchaseVariants(request);
         return ResponseEntity.ok(response);
     }
+
+    @PostMapping("/reservations")
+    public ResponseEntity<StockReservationResponse> reserveVariants(
+            @RequestBody @Valid Set<PurchaseRequest> request
+    ) {
+        log.info("Reserving variants: {}", request);
+        StockReservationResponse response = stockReservationService.reserveVariants(request);
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    @PostMapping("/reservations/{id}/confirm")
+    public ResponseEntity<Void> confirmReservation(@PathVariable UUID id) {
+        log.info("Confirming reservation with ID: {}", id);
+        stockReservationService.confirmReservation(id);
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping("/reservations/{id}")
+    public ResponseEntity<Void> releaseReservation(@PathVariable UUID id) {
+        log.info("Releasing reservation with ID: {}", id);
+        stockReservationService.releaseReservation(id);
+        return ResponseEntity.noContent().build();
+    }
 }
@@ -39,7 +39,7 @@ public class VariantMapper {
                 .sku(variant.getSku())
                 .basePrice(variant.getBasePrice())
                 .discountedPrice(variant.getDiscountedPrice())
-                .quantity(variant.getQuantity())
+                .quantity(variant.getAvailableQuantity())
                 .quantityUnlimited(variant.isQuantityUnlimited())
                 .attributeValues(this.mapAttributeValuesFor(variant))
                 .build();
@@ -54,7 +54,7 @@ public class VariantMapper {
                 .name(variant.getProduct().getName())
                 .price(variant.getPrice())
                 .quantity(quantity)
-                .availableQuantity(variant.getQuantity())
+                .availableQuantity(variant.getAvailableQuantity())
                 .isAvailable(this.mapQuantityAvailableFor(variant, quantity))
                 .totalPrice(variant.getPrice()
                         .multiply(BigDecimal.valueOf(quantity))
@@ -64,7 +64,7 @@ public class VariantMapper {
     }
 
     private boolean mapQuantityAvailableFor(Variant variant, int quantity) {
-        return variant.isQuantityUnlimited() || variant.getQuantity() >= quantity;
+        return variant.isQuantityUnlimited() || variant.getAvailableQuantity() >= quantity;
     }
 
     private Map<Long, AttributeValueResponse> mapAttributeValuesFor(Variant variant) {
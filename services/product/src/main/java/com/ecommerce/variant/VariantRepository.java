@@ -1,11 +1,13 @@
 package com.ecommerce.variant;
 
 import com.ecommerce.product.Product;
+import com.ecommerce.product.facet.ProductFacetLink;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Set;
 
@@ -29,4 +31,48 @@ public interface VariantRepository extends JpaRepository<Variant, Long> {
      */
     @Query("SELECT COUNT(v) FROM Variant v WHERE v.id IN :ids")
     int countByIds(@Param("ids") Set<Long> ids);
+
+    /**
+     * Finds which of the given SKUs are already used by a variant.
+     *
+     * @param skus the SKUs to check.
+     * @return the SKUs that already exist.
+     */
+    @Query("SELECT v.sku FROM Variant v WHERE v.sku IN :skus")
+    Set<String> findExistingSkus(@Param("skus") Collection<String> skus);
+
+    /**
+     * Finds which of the given IDs belong to an existing variant.
+     *
+     * @param ids the IDs to check.
+     * @return the IDs that exist.
+     */
+    @Query("SELECT v.id FROM Variant v WHERE v.id IN :ids")
+    Set<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Retrieves the attribute values of all products, taken from their variants.
+     *
+     * @return distinct pairs of product ID and attribute value ID.
+     */
+    @Query("""
+        SELECT DISTINCT new com.ecommerce.product.facet.ProductFacetLink(variant.product.id, attributeValue.id)
+        FROM Variant variant
+        JOIN variant.values attributeValue
+      """)
+    List<ProductFacetLink> findAllAttributeValueLinks();
+
+    /**
+     * Retrieves the attribute values of a single product, taken from its variants.
+     *
+     * @param productId the ID of the product.
+     * @return distinct pairs of product ID and attribute value ID.
+     */
+    @Query("""
+        SELECT DISTINCT new com.ecommerce.product.facet.ProductFacetLink(variant.product.id, attributeValue.id)
+        FROM Variant variant
+        JOIN variant.values attributeValue
+        WHERE variant.product.id = :productId
+      """)
+    List<ProductFacetLink> findAttributeValueLinksByProductId(@Param("productId") Long productId);
 }
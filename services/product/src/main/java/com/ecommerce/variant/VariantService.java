@@ -3,11 +3,14 @@ package com.ecommerce.variant;
 import com.ecommerce.attributevalue.AttributeValueService;
 import com.ecommerce.exception.VariantNotFoundException;
 import com.ecommerce.product.Product;
+import com.ecommerce.product.ProductChangedEvent;
 import com.ecommerce.product.ProductService;
 import com.ecommerce.variant.purchase.CartItemRequest;
 import com.ecommerce.variant.purchase.PurchaseResponse;
+import com.ecommerce.variant.stock.VariantStockShardService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -26,6 +29,8 @@ public class VariantService {
     private final VariantValidator variantValidator;
     private final AttributeValueService attributeValueService;
     private final ProductService productService;
+    private final VariantStockShardService variantStockShardService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Finds a variant entity by ID.
@@ -95,6 +100,7 @@ public class VariantService {
         variantValidator.validateProductNumberVariants(variant);
 
         Variant savedVariant = variantRepository.save(variant);
+        this.productChanged(savedVariant.getProduct());
         log.info("Variant created successfully with ID: {}", savedVariant.getId());
 
         return savedVariant.getId();
@@ -123,6 +129,9 @@ public class VariantService {
         this.assignVariantDetails(updatedVariant, request);
 
         Variant savedVariant = variantRepository.save(updatedVariant);
+        this.refreshPriceSummaries(existingVariant.getProduct(), savedVariant.getProduct());
+        // the price summary refresh has flushed the new quantity, which becomes the total stock of a hot variant
+        variantStockShardService.resetStockShards(List.of(savedVariant.getId()));
         log.info("Variant updated successfully with ID: ID {}", savedVariant.getId());
 
         return savedVariant.getId();
@@ -141,9 +150,35 @@ public class VariantService {
         Variant variant = this.findVariantEntityById(id);
 
         variantRepository.delete(variant);
+        this.productChanged(variant.getProduct());
         log.info("Variant deleted successfully with ID: {}", id);
     }
 
+    /**
+     * Refreshes the price summary of the products affected by a variant write.
+     * A variant moved to another product changes the prices of both products.
+     *
+     * @param previousProduct the product the variant belonged to
+     * @param currentProduct  the product the variant belongs to now
+     */
+    private void refreshPriceSummaries(Product previousProduct, Product currentProduct) {
+        this.productChanged(currentProduct);
+
+        if (!currentProduct.getId().equals(previousProduct.getId()))
+            this.productChanged(previousProduct);
+    }
+
+    /**
+     * Refreshes the stored price summary of a product after its variants changed
+     * and announces the change to the read models derived from the product.
+     *
+     * @param product the changed product
+     */
+    private void productChanged(Product product) {
+        productService.refreshPriceSummary(product.getId());
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getId(), Set.copyOf(product.getCategoryIds())));
+    }
+
     /**
      * Assigns product and attribute values to the variant.
      *
@@ -0,0 +1,311 @@
+package com.ecommerce.variant;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.*;
+
+/**
+ * Atomic stock changes of variants. Stock is taken with a conditional decrement, so concurrent
+ * purchases of the same variant never read, check and write the quantity separately and cannot oversell,
+ * and no row is locked longer than the purchasing transaction.
+ * <p>
+ * The stock of a hot variant is split into shard rows of {@code variant_stock_shard}. A purchase then takes
+ * the stock from a random shard with enough pieces, skipping shards locked by other purchases, so concurrent
+ * purchases of one variant mostly update different rows. Only when no single shard has enough pieces,
+ * a purchase locks all shards of the variant and takes the stock across them. The quantity on the variant row
+ * is kept as a remainder (stock returned by released reservations) that {@link #rebalanceShards(Collection)}
+ * moves into the shards.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VariantStockRepository {
+    private static final String DECREMENT_STOCK = """
+        UPDATE variant
+        SET quantity = variant.quantity - input.quantity
+        FROM unnest(CAST(? AS BIGINT[]), CAST(? AS INT[])) AS input(id, quantity)
+        WHERE variant.id = input.id
+        AND variant.quantity_unlimited IS NOT TRUE
+        AND variant.quantity >= input.quantity
+        RETURNING variant.id, variant.quantity
+      """;
+
+    private static final String DECREMENT_SHARD = """
+        UPDATE variant_stock_shard shard
+        SET quantity = shard.quantity - picked.quantity
+        FROM (
+            SELECT input.id, input.quantity, (
+                SELECT candidate.shard FROM variant_stock_shard candidate
+                WHERE candidate.variant_id = input.id AND candidate.quantity >= input.quantity
+                ORDER BY random()
+                LIMIT 1
+                FOR UPDATE %s
+            ) AS shard
+            FROM unnest(CAST(? AS BIGINT[]), CAST(? AS INT[])) AS input(id, quantity)
+        ) picked
+        WHERE shard.variant_id = picked.id
+        AND shard.shard = picked.shard
+        AND shard.quantity >= picked.quantity
+        RETURNING shard.variant_id, shard.quantity
+      """;
+
+    // stock is taken from the variant row and then from the shards in shard order, the rows have to be locked first
+    private static final String DECREMENT_ACROSS_SHARDS = """
+        WITH input AS (
+            SELECT requested.id, requested.quantity
+            FROM unnest(CAST(? AS BIGINT[]), CAST(? AS INT[])) AS requested(id, quantity)
+            JOIN variant ON variant.id = requested.id
+            WHERE variant.quantity_unlimited IS NOT TRUE
+        ),
+        stock AS (
+            SELECT variant.id AS variant_id, -1 AS shard, variant.quantity
+            FROM variant
+            JOIN input ON input.id = variant.id
+            UNION ALL
+            SELECT shard.variant_id, shard.shard, shard.quantity
+            FROM variant_stock_shard shard
+            JOIN input ON input.id = shard.variant_id
+        ),
+        taken AS (
+            SELECT stock.variant_id, stock.shard,
+                LEAST(stock.quantity, input.quantity - (SUM(stock.quantity) OVER preceding - stock.quantity)) AS quantity,
+                SUM(stock.quantity) OVER (PARTITION BY stock.variant_id) - input.quantity AS remaining
+            FROM stock
+            JOIN input ON input.id = stock.variant_id
+            WINDOW preceding AS (PARTITION BY stock.variant_id ORDER BY stock.shard)
+        ),
+        covered AS (
+            SELECT taken.variant_id, taken.shard, taken.quantity, taken.remaining
+            FROM taken
+            WHERE taken.remaining >= 0 AND taken.quantity > 0
+        ),
+        taken_from_variants AS (
+            UPDATE variant
+            SET quantity = variant.quantity - covered.quantity
+            FROM covered
+            WHERE covered.shard = -1 AND variant.id = covered.variant_id
+        ),
+        taken_from_shards AS (
+            UPDATE variant_stock_shard shard
+            SET quantity = shard.quantity - covered.quantity
+            FROM covered
+            WHERE covered.shard >= 0 AND shard.variant_id = covered.variant_id AND shard.shard = covered.shard
+        )
+        SELECT DISTINCT covered.variant_id, covered.remaining
+        FROM covered
+      """;
+
+    private static final String LOCK_VARIANTS = """
+        SELECT variant.id FROM variant
+        WHERE variant.id = ANY(CAST(? AS BIGINT[]))
+        ORDER BY variant.id
+        FOR UPDATE
+      """;
+
+    private static final String LOCK_SHARDS = """
+        SELECT shard.variant_id FROM variant_stock_shard shard
+        WHERE shard.variant_id = ANY(CAST(? AS BIGINT[]))
+        ORDER BY shard.variant_id, shard.shard
+        FOR UPDATE
+      """;
+
+    private static final String CREATE_SHARDS = """
+        INSERT INTO variant_stock_shard (variant_id, shard, quantity)
+        SELECT input.id, shard.number, 0
+        FROM unnest(CAST(? AS BIGINT[]), CAST(? AS INT[])) AS input(id, shards)
+        CROSS JOIN LATERAL generate_series(0, input.shards - 1) AS shard(number)
+      """;
+
+    private static final String MERGE_SHARDS = """
+        UPDATE variant
+        SET quantity = variant.quantity + merged.quantity
+        FROM (
+            SELECT shard.variant_id, SUM(shard.quantity) AS quantity
+            FROM variant_stock_shard shard
+            WHERE shard.variant_id = ANY(CAST(? AS BIGINT[]))
+            GROUP BY shard.variant_id
+        ) merged
+        WHERE variant.id = merged.variant_id
+      """;
+
+    private static final String REBALANCE_SHARDS = """
+        UPDATE variant_stock_shard shard
+        SET quantity = totals.total / totals.shards
+            + CASE WHEN shard.shard < totals.total % totals.shards THEN 1 ELSE 0 END
+        FROM (
+            SELECT stock.variant_id, SUM(stock.quantity) + MAX(variant.quantity) AS total, COUNT(*) AS shards
+            FROM variant_stock_shard stock
+            JOIN variant ON variant.id = stock.variant_id
+            WHERE stock.variant_id = ANY(CAST(? AS BIGINT[]))
+            GROUP BY stock.variant_id
+        ) totals
+        WHERE shard.variant_id = totals.variant_id
+      """;
+
+    private static final String CLEAR_REMAINDERS = """
+        UPDATE variant
+        SET quantity = 0
+        WHERE variant.id = ANY(CAST(? AS BIGINT[]))
+        AND variant.quantity <> 0
+        AND EXISTS (SELECT 1 FROM variant_stock_shard shard WHERE shard.variant_id = variant.id)
+      """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Takes the requested quantities from the stock of variants with limited quantity.
+     * The quantities are taken from the variant rows with a single statement; for the variants whose row
+     * does not have enough pieces, from one shard of a hot variant, first skipping shards locked by
+     * concurrent purchases and then waiting for them. A hot variant whose stock is spread so thin that
+     * no single shard covers the quantity is locked whole, in the order {@link #lockStock(Collection)} uses,
+     * and the quantity is taken from its variant row and its shards together.
+     * A variant without enough pieces in total, or with unlimited quantity, is left untouched.
+     *
+     * @param quantities the requested quantity per variant ID
+     * @return the remaining quantity of the row the stock was taken from, per ID of the variants
+     *         whose stock was taken
+     */
+    public Map<Long, Integer> decrementStock(Map<Long, Integer> quantities) {
+        if (quantities.isEmpty())
+            return Map.of();
+
+        Map<Long, Integer> remaining = new HashMap<>(this.decrement(DECREMENT_STOCK, quantities));
+
+        for (String lockMode : List.of("SKIP LOCKED", "")) {
+            Map<Long, Integer> missing = new HashMap<>(quantities);
+            missing.keySet().removeAll(remaining.keySet());
+            if (missing.isEmpty())
+                break;
+
+            remaining.putAll(this.decrement(String.format(DECREMENT_SHARD, lockMode), missing));
+        }
+
+        Map<Long, Integer> missing = new HashMap<>(quantities);
+        missing.keySet().removeAll(remaining.keySet());
+        if (!missing.isEmpty()) {
+            missing.keySet().retainAll(this.lockStock(missing.keySet()).keySet());
+            if (!missing.isEmpty())
+                remaining.putAll(this.decrement(DECREMENT_ACROSS_SHARDS, missing));
+        }
+        return remaining;
+    }
+
+    private Map<Long, Integer> decrement(String sql, Map<Long, Integer> quantities) {
+        // variants are passed in ID order, so concurrent purchases normally lock shared variants in the same order
+        Map<Long, Integer> ordered = new TreeMap<>(quantities);
+
+        Map<Long, Integer> remaining = new HashMap<>();
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, bigintArray(connection, ordered.keySet()));
+            statement.setArray(2, connection.createArrayOf("integer", ordered.values().toArray(Integer[]::new)));
+            return statement;
+        }, resultSet -> {
+            remaining.put(resultSet.getLong(1), resultSet.getInt(2));
+        });
+        return remaining;
+    }
+
+    /**
+     * Locks the variant rows and then the shard rows of the given variants until the transaction ends,
+     * in the same order as purchases do.
+     *
+     * @param variantIds the variant IDs
+     * @return the number of shards per ID of the variants that have shards
+     */
+    public Map<Long, Integer> lockStock(Collection<Long> variantIds) {
+        if (variantIds.isEmpty())
+            return Map.of();
+
+        jdbcTemplate.query(connection -> this.prepare(connection, LOCK_VARIANTS, variantIds), resultSet -> {});
+
+        Map<Long, Integer> shardCounts = new HashMap<>();
+        jdbcTemplate.query(connection -> this.prepare(connection, LOCK_SHARDS, variantIds), resultSet -> {
+            shardCounts.merge(resultSet.getLong(1), 1, Integer::sum);
+        });
+        return shardCounts;
+    }
+
+    /**
+     * Creates empty shards for variants without shards; {@link #rebalanceShards(Collection)} fills them.
+     *
+     * @param shardCounts the number of shards per variant ID
+     */
+    public void createShards(Map<Long, Integer> shardCounts) {
+        if (shardCounts.isEmpty())
+            return;
+
+        jdbcTemplate.update(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CREATE_SHARDS);
+            statement.setArray(1, bigintArray(connection, shardCounts.keySet()));
+            statement.setArray(2, connection.createArrayOf("integer",
+                    shardCounts.keySet().stream().map(shardCounts::get).toArray(Integer[]::new)));
+            return statement;
+        });
+    }
+
+    /**
+     * Moves the stock held in shards back to the variant rows and deletes the shards.
+     * The stock has to be locked with {@link #lockStock(Collection)} first.
+     *
+     * @param variantIds the variant IDs
+     */
+    public void mergeShards(Collection<Long> variantIds) {
+        if (variantIds.isEmpty())
+            return;
+
+        jdbcTemplate.update(connection -> this.prepare(connection, MERGE_SHARDS, variantIds));
+        this.deleteShards(variantIds);
+    }
+
+    /**
+     * Deletes the shards of the given variants together with the stock they hold.
+     *
+     * @param variantIds the variant IDs
+     */
+    public void deleteShards(Collection<Long> variantIds) {
+        if (variantIds.isEmpty())
+            return;
+
+        jdbcTemplate.update(connection -> this.prepare(connection,
+                "DELETE FROM variant_stock_shard WHERE variant_id = ANY(CAST(? AS BIGINT[]))", variantIds));
+    }
+
+    /**
+     * Spreads the whole stock of hot variants, including the remainder on the variant row, evenly over
+     * their shards. The stock has to be locked with {@link #lockStock(Collection)} first.
+     *
+     * @param variantIds the variant IDs
+     */
+    public void rebalanceShards(Collection<Long> variantIds) {
+        if (variantIds.isEmpty())
+            return;
+
+        jdbcTemplate.update(connection -> this.prepare(connection, REBALANCE_SHARDS, variantIds));
+        jdbcTemplate.update(connection -> this.prepare(connection, CLEAR_REMAINDERS, variantIds));
+    }
+
+    /**
+     * Finds the variants whose stock is split into shards.
+     *
+     * @return the variant IDs
+     */
+    public List<Long> findShardedVariantIds() {
+        return jdbcTemplate.queryForList(
+                "SELECT DISTINCT variant_id FROM variant_stock_shard ORDER BY variant_id", Long.class);
+    }
+
+    private PreparedStatement prepare(Connection connection, String sql, Collection<Long> variantIds) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql);
+        statement.setArray(1, bigintArray(connection, variantIds));
+        return statement;
+    }
+
+    private static java.sql.Array bigintArray(Connection connection, Collection<Long> ids) throws SQLException {
+        return connection.createArrayOf("bigint", ids.toArray(Long[]::new));
+    }
+}
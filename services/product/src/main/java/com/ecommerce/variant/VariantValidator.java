@@ -1,7 +1,6 @@
 package com.ecommerce.variant;
 
 import com.ecommerce.attribute.Attribute;
-import com.ecommerce.exception.QuantityOutOfStockException;
 import com.ecommerce.exception.VariantNotFoundException;
 import com.ecommerce.variant.purchase.PurchaseRequest;
 import lombok.RequiredArgsConstructor;
@@ -41,18 +40,6 @@ public class VariantValidator {
         }
     }
 
-    
-    public void validateAvailableQuantity(Variant variant, PurchaseRequest request) {
-        log.debug("Validating available quantity for variant: {}, requested: {}", variant.getId(), request.quantity());
-        if (variant.isQuantityUnlimited())
-            return;
-
-        if (variant.getQuantity() < request.quantity())
-            throw new QuantityOutOfStockException(
-                    String.format("Nedostatečný počet kusů pro %s", variant.getId())
-            );
-    }
-
     public void validateSetNotEmpty(Set<PurchaseRequest> request) {
         log.debug("Validating request is not empty: {}", request);
         if (request == null || request.isEmpty())
@@ -0,0 +1,96 @@
+package com.ecommerce.variant.bulk;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.util.List;
+
+/**
+ * Set-based update of variant prices and stock. A whole batch is sent as arrays and applied by one
+ * statement; only variants with an actual change are written and returned. The requested quantity is compared
+ * with the whole stock of a variant, including the stock held in shards, as the variant row keeps only a remainder.
+ */
+@Repository
+@RequiredArgsConstructor
+public class VariantBulkUpdateRepository {
+    private static final String BULK_UPDATE = """
+        UPDATE variant
+        SET base_price = COALESCE(input.base_price, variant.base_price),
+            discounted_price = COALESCE(input.discounted_price, variant.discounted_price),
+            quantity = COALESCE(input.quantity, variant.quantity),
+            quantity_unlimited = COALESCE(input.quantity_unlimited, variant.quantity_unlimited)
+        FROM unnest(
+            CAST(? AS BIGINT[]), CAST(? AS TEXT[]), CAST(? AS NUMERIC[]),
+            CAST(? AS NUMERIC[]), CAST(? AS INT[]), CAST(? AS BOOLEAN[])
+        ) AS input(id, sku, base_price, discounted_price, quantity, quantity_unlimited)
+        WHERE %s
+        AND (
+            input.base_price IS NOT NULL AND input.base_price <> variant.base_price
+            OR input.discounted_price IS NOT NULL AND input.discounted_price IS DISTINCT FROM variant.discounted_price
+            OR input.quantity IS NOT NULL AND input.quantity <> variant.quantity + COALESCE((
+                SELECT SUM(shard.quantity) FROM variant_stock_shard shard WHERE shard.variant_id = variant.id
+            ), 0)
+            OR input.quantity_unlimited IS NOT NULL AND input.quantity_unlimited IS DISTINCT FROM variant.quantity_unlimited
+        )
+        RETURNING variant.id, variant.product_id, variant.sku, variant.base_price, variant.discounted_price,
+            CASE WHEN input.quantity IS NOT NULL THEN variant.quantity ELSE variant.quantity + COALESCE((
+                SELECT SUM(shard.quantity) FROM variant_stock_shard shard WHERE shard.variant_id = variant.id
+            ), 0) END AS quantity,
+            variant.quantity_unlimited
+      """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Applies the changes to the variants with the given IDs.
+     *
+     * @param requests changes with an ID, at most one per variant
+     * @return the variants that changed
+     */
+    public List<VariantChange> updateByIds(List<VariantBulkUpdateRequest> requests) {
+        return this.update(String.format(BULK_UPDATE, "variant.id = input.id"), requests);
+    }
+
+    /**
+     * Applies the changes to the variants with the given SKUs.
+     *
+     * @param requests changes with a SKU, at most one per variant
+     * @return the variants that changed
+     */
+    public List<VariantChange> updateBySkus(List<VariantBulkUpdateRequest> requests) {
+        return this.update(String.format(BULK_UPDATE, "variant.sku = input.sku"), requests);
+    }
+
+    private List<VariantChange> update(String sql, List<VariantBulkUpdateRequest> requests) {
+        if (requests.isEmpty())
+            return List.of();
+
+        return jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            statement.setArray(1, connection.createArrayOf("bigint",
+                    requests.stream().map(VariantBulkUpdateRequest::id).toArray(Long[]::new)));
+            statement.setArray(2, connection.createArrayOf("text",
+                    requests.stream().map(VariantBulkUpdateRequest::sku).toArray(String[]::new)));
+            statement.setArray(3, connection.createArrayOf("numeric",
+                    requests.stream().map(VariantBulkUpdateRequest::basePrice).toArray(BigDecimal[]::new)));
+            statement.setArray(4, connection.createArrayOf("numeric",
+                    requests.stream().map(VariantBulkUpdateRequest::discountedPrice).toArray(BigDecimal[]::new)));
+            statement.setArray(5, connection.createArrayOf("integer",
+                    requests.stream().map(VariantBulkUpdateRequest::quantity).toArray(Integer[]::new)));
+            statement.setArray(6, connection.createArrayOf("boolean",
+                    requests.stream().map(VariantBulkUpdateRequest::quantityUnlimited).toArray(Boolean[]::new)));
+            return statement;
+        }, (resultSet, rowNumber) -> new VariantChange(
+                resultSet.getLong("id"),
+                resultSet.getLong("product_id"),
+                resultSet.getString("sku"),
+                resultSet.getBigDecimal("base_price"),
+                resultSet.getBigDecimal("discounted_price"),
+                resultSet.getInt("quantity"),
+                resultSet.getBoolean("quantity_unlimited")
+        ));
+    }
+}
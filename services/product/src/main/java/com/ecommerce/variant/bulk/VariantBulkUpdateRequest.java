@@ -0,0 +1,29 @@
+package com.ecommerce.variant.bulk;
+
+import jakarta.validation.constraints.AssertTrue;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+import java.math.BigDecimal;
+
+/**
+ * Price and stock change of one variant, identified either by its ID or by its SKU.
+ * Fields left out keep their current value; a discounted price of 0 means no discount.
+ */
+public record VariantBulkUpdateRequest(
+        Long id,
+        @Size(max = 50, message = "SKU nesmí být delší než 50 znaků.")
+        String sku,
+        @Min(value = 0, message = "Základní cena musí být kladné číslo.")
+        BigDecimal basePrice,
+        @Min(value = 0, message = "Zlevněná cena musí být kladné číslo.")
+        BigDecimal discountedPrice,
+        @Min(value = 0, message = "Počet kusů musí být kladné číslo.")
+        Integer quantity,
+        Boolean quantityUnlimited
+) {
+    @AssertTrue(message = "Varianta musí být určena buď ID, nebo SKU.")
+    public boolean isIdentified() {
+        return (id == null) != (sku == null);
+    }
+}
@@ -0,0 +1,19 @@
+package com.ecommerce.variant.bulk;
+
+import lombok.Builder;
+
+import java.util.List;
+
+/**
+ * Result of a bulk variant update.
+ *
+ * @param updated   the number of variants whose values changed
+ * @param unchanged the number of variants that already had the requested values
+ * @param notFound  IDs or SKUs of the requested variants that do not exist
+ */
+@Builder
+public record VariantBulkUpdateResponse(
+        int updated,
+        int unchanged,
+        List<String> notFound
+) {}
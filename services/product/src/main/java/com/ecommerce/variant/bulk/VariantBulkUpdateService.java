@@ -0,0 +1,133 @@
+package com.ecommerce.variant.bulk;
+
+import com.ecommerce.product.ProductRepository;
+import com.ecommerce.variant.VariantRepository;
+import com.ecommerce.variant.stock.VariantStockShardService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@Slf4j
+public class VariantBulkUpdateService {
+    private final VariantBulkUpdateRepository variantBulkUpdateRepository;
+    private final VariantRepository variantRepository;
+    private final ProductRepository productRepository;
+    private final VariantStockShardService variantStockShardService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final int batchSize;
+
+    public VariantBulkUpdateService(
+            VariantBulkUpdateRepository variantBulkUpdateRepository,
+            VariantRepository variantRepository,
+            ProductRepository productRepository,
+            VariantStockShardService variantStockShardService,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${application.variant.bulk-batch-size:1000}") int batchSize
+    ) {
+        this.variantBulkUpdateRepository = variantBulkUpdateRepository;
+        this.variantRepository = variantRepository;
+        this.productRepository = productRepository;
+        this.variantStockShardService = variantStockShardService;
+        this.eventPublisher = eventPublisher;
+        this.batchSize = batchSize;
+    }
+
+    /**
+     * Updates prices and stock of many variants at once. The changes are applied in batches,
+     * each with a single statement, and variants that already have the requested values are not written.
+     * When a variant is listed more than once, its last change wins.
+     * Price summaries of the affected products are refreshed and a single {@link VariantsChangedEvent}
+     * describing the changed variants is published.
+     *
+     * @param requests the changes, each identified by a variant ID or SKU
+     * @return the number of updated and unchanged variants and the keys of the variants that do not exist
+     */
+    @Transactional
+    public VariantBulkUpdateResponse updateVariants(List<VariantBulkUpdateRequest> requests) {
+        if (requests == null || requests.isEmpty())
+            throw new IllegalArgumentException("Požadavek na hromadnou úpravu variant nesmí být prázdný.");
+
+        log.debug("Processing bulk update of {} variants", requests.size());
+
+        Map<Long, VariantBulkUpdateRequest> requestsById = requests.stream()
+                .filter(request -> request.id() != null)
+                .collect(Collectors.toMap(VariantBulkUpdateRequest::id, Function.identity(),
+                        (previous, next) -> next, LinkedHashMap::new));
+        Map<String, VariantBulkUpdateRequest> requestsBySku = requests.stream()
+                .filter(request -> request.id() == null)
+                .collect(Collectors.toMap(VariantBulkUpdateRequest::sku, Function.identity(),
+                        (previous, next) -> next, LinkedHashMap::new));
+
+        List<VariantChange> changes = new ArrayList<>();
+        Set<Long> missingIds = new HashSet<>(requestsById.keySet());
+        Set<String> missingSkus = new HashSet<>(requestsBySku.keySet());
+
+        for (List<VariantBulkUpdateRequest> batch : partition(List.copyOf(requestsById.values()), batchSize)) {
+            List<VariantChange> batchChanges = variantBulkUpdateRepository.updateByIds(batch);
+            batchChanges.forEach(change -> missingIds.remove(change.id()));
+            changes.addAll(batchChanges);
+        }
+        for (List<VariantBulkUpdateRequest> batch : partition(List.copyOf(requestsBySku.values()), batchSize)) {
+            List<VariantChange> batchChanges = variantBulkUpdateRepository.updateBySkus(batch);
+            batchChanges.forEach(change -> missingSkus.remove(change.sku()));
+            changes.addAll(batchChanges);
+        }
+
+        // variants that were not returned either do not exist or already had the requested values
+        if (!missingIds.isEmpty())
+            missingIds.removeAll(variantRepository.findExistingIds(missingIds));
+        if (!missingSkus.isEmpty())
+            missingSkus.removeAll(variantRepository.findExistingSkus(missingSkus));
+
+        List<String> notFound = new ArrayList<>();
+        requestsById.keySet().stream()
+                .filter(missingIds::contains)
+                .map(String::valueOf)
+                .forEach(notFound::add);
+        requestsBySku.keySet().stream()
+                .filter(missingSkus::contains)
+                .forEach(notFound::add);
+
+        List<Long> restockedIds = changes.stream()
+                .filter(change -> {
+                    VariantBulkUpdateRequest request = requestsById.getOrDefault(change.id(), requestsBySku.get(change.sku()));
+                    return request != null && request.quantity() != null;
+                })
+                .map(VariantChange::id)
+                .toList();
+        if (!restockedIds.isEmpty())
+            variantStockShardService.resetStockShards(restockedIds);
+
+        if (!changes.isEmpty()) {
+            Set<Long> productIds = changes.stream()
+                    .map(VariantChange::productId)
+                    .collect(Collectors.toUnmodifiableSet());
+            productRepository.refreshPriceSummaries(productIds);
+            eventPublisher.publishEvent(new VariantsChangedEvent(productIds, List.copyOf(changes)));
+        }
+
+        int requested = requestsById.size() + requestsBySku.size();
+        log.info("Bulk update changed {} of {} variants, {} were not found", changes.size(), requested, notFound.size());
+
+        return VariantBulkUpdateResponse.builder()
+                .updated(changes.size())
+                .unchanged(requested - changes.size() - notFound.size())
+                .notFound(notFound)
+                .build();
+    }
+
+    private static <T> List<List<T>> partition(List<T> items, int size) {
+        List<List<T>> batches = new ArrayList<>();
+        for (int from = 0; from < items.size(); from += size) {
+            batches.add(items.subList(from, Math.min(from + size, items.size())));
+        }
+        return batches;
+    }
+}
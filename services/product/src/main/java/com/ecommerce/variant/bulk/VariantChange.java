@@ -0,0 +1,16 @@
+package com.ecommerce.variant.bulk;
+
+import java.math.BigDecimal;
+
+/**
+ * The price and stock of a variant after a bulk update.
+ */
+public record VariantChange(
+        Long id,
+        Long productId,
+        String sku,
+        BigDecimal basePrice,
+        BigDecimal discountedPrice,
+        int quantity,
+        boolean quantityUnlimited
+) {}
@@ -0,0 +1,16 @@
+package com.ecommerce.variant.bulk;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Published once per bulk update of variant prices and stock, instead of one
+ * {@code ProductChangedEvent} per product. Only variants whose values actually changed are included.
+ *
+ * @param productIds the IDs of the products owning the changed variants
+ * @param changes    the new price and stock of the changed variants
+ */
+public record VariantsChangedEvent(
+        Set<Long> productIds,
+        List<VariantChange> changes
+) {}
@@ -1,11 +1,15 @@
 package com.ecommerce.variant.purchase;
 
+import com.ecommerce.exception.QuantityOutOfStockException;
+import com.ecommerce.variant.StockChangedEvent;
 import com.ecommerce.variant.Variant;
 import com.ecommerce.variant.VariantMapper;
 import com.ecommerce.variant.VariantRepository;
+import com.ecommerce.variant.VariantStockRepository;
 import com.ecommerce.variant.VariantValidator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -21,17 +25,22 @@ import java.util.stream.Collectors;
 @Slf4j
 public class PurchaseService {
     private final VariantRepository variantRepository;
+    private final VariantStockRepository variantStockRepository;
     private final VariantMapper variantMapper;
     private final VariantValidator variantValidator;
+    private final ApplicationEventPublisher eventPublisher;
 
 
     private static final BigDecimal TOTAL_PRICE = BigDecimal.valueOf(100_000.0);
 
     /**
      * Processes the purchase of variants.
+     * The stock is taken with one conditional decrement before the variants are loaded,
+     * so concurrent purchases cannot oversell; any failed check rolls the decrement back.
      *
      * @param request the set of purchase requests
      * @return a set of purchase responses
+     * @throws QuantityOutOfStockException if any of the variants does not have enough pieces in stock
      */
     @Transactional
     public Set<PurchaseResponse> purchaseVariants(Set<PurchaseRequest> request) {
@@ -45,36 +54,39 @@ public class PurchaseService {
         Set<Long> RequestVariantIds = variantRequests.keySet();
         variantValidator.validateAllVariantsExist(RequestVariantIds);
 
+        Map<Long, Integer> remainingQuantities = variantStockRepository.decrementStock(variantRequests.values().stream()
+                .collect(Collectors.toMap(PurchaseRequest::id, PurchaseRequest::quantity)));
+
+        // loaded after the decrement, so the variants carry the remaining quantities
         List<Variant> existingVariants = variantRepository.findAllById(RequestVariantIds);
+        existingVariants.forEach(variant -> this.validateStockTaken(variant, remainingQuantities));
 
         variantValidator.validateTotalPriceIsNotOver(existingVariants, variantRequests, TOTAL_PRICE);
 
-        Set<PurchaseResponse> response = existingVariants.stream().map(variant -> {
-                    PurchaseRequest currentRequest = variantRequests.get(variant.getId());
-
-                    if (!variant.isQuantityUnlimited()) {
-                        variant.setQuantity(this.calculateUpdatedQuantity(variant, currentRequest));
-                    }
-                    return variantMapper.toPurchaseResponse(variant, currentRequest.quantity());
-                })
+        Set<PurchaseResponse> response = existingVariants.stream()
+                .map(variant -> variantMapper.toPurchaseResponse(variant, variantRequests.get(variant.getId()).quantity()))
                 .collect(Collectors.toSet());
-        
-        variantRepository.saveAll(existingVariants);
+
+        eventPublisher.publishEvent(new StockChangedEvent(existingVariants.stream()
+                .map(variant -> variant.getProduct().getId())
+                .collect(Collectors.toSet())));
+
         log.info("Purchase transaction completed successfully for {} variants.", response.size());
         return response;
     }
 
     /**
-     * Calculates the updated quantity for a variant after a purchase.
+     * Checks that the stock of a variant with limited quantity was taken by the decrement.
      *
-     * @param variant the variant entity
-     * @param request the purchase request
-     * @return the new quantity
+     * @param variant             the purchased variant
+     * @param remainingQuantities the remaining quantity per ID of the variants whose stock was taken
      */
-    private int calculateUpdatedQuantity(Variant variant, PurchaseRequest request) {
-        variantValidator.validateAvailableQuantity(variant, request);
-        int newQuantity = variant.getQuantity() - request.quantity();
-        log.debug("Updated quantity for variant ID {}: new quantity {}", variant.getId(), newQuantity);
-        return newQuantity;
+    private void validateStockTaken(Variant variant, Map<Long, Integer> remainingQuantities) {
+        if (variant.isQuantityUnlimited() || remainingQuantities.containsKey(variant.getId()))
+            return;
+
+        throw new QuantityOutOfStockException(
+                String.format("Nedostatečný počet kusů pro %s", variant.getId())
+        );
     }
 }
@@ -0,0 +1,8 @@
+package com.ecommerce.variant.reservation;
+
+public enum ReservationStatus {
+    RESERVED,
+    CONFIRMED,
+    RELEASED,
+    EXPIRED
+}
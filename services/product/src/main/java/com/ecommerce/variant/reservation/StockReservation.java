@@ -0,0 +1,41 @@
+package com.ecommerce.variant.reservation;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Stock held for a pending checkout. The stock is taken when the reservation is created;
+ * confirming the reservation keeps it taken, releasing or expiring it returns the stock.
+ */
+@Entity
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+@Builder
+@Table(name = "stock_reservation")
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class StockReservation {
+    @Id
+    @EqualsAndHashCode.Include
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReservationStatus status;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @ElementCollection
+    @CollectionTable(name = "stock_reservation_item", joinColumns = @JoinColumn(name = "reservation_id"))
+    @Builder.Default
+    private List<StockReservationItem> items = new ArrayList<>();
+}
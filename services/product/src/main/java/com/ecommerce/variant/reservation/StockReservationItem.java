@@ -0,0 +1,19 @@
+package com.ecommerce.variant.reservation;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Embeddable
+@AllArgsConstructor
+@NoArgsConstructor
+@Data
+public class StockReservationItem {
+    @Column(nullable = false)
+    private Long variantId;
+
+    @Column(nullable = false)
+    private int quantity;
+}
@@ -0,0 +1,98 @@
+package com.ecommerce.variant.reservation;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Status changes of reservations are conditional updates, so a reservation is confirmed, released
+ * or expired exactly once even when the requests and the expiry job race each other.
+ */
+@Repository
+public interface StockReservationRepository extends JpaRepository<StockReservation, UUID> {
+
+    /**
+     * Confirms a pending reservation that has not expired yet.
+     *
+     * @param id the reservation ID.
+     * @param now the current time.
+     * @return 1 if the reservation was confirmed, 0 otherwise.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE stock_reservation
+        SET status = 'CONFIRMED'
+        WHERE id = :id AND status = 'RESERVED' AND expires_at > :now
+      """, nativeQuery = true)
+    int confirm(@Param("id") UUID id, @Param("now") Instant now);
+
+    /**
+     * Releases a pending reservation.
+     *
+     * @param id the reservation ID.
+     * @return 1 if the reservation was released, 0 otherwise.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE stock_reservation
+        SET status = 'RELEASED'
+        WHERE id = :id AND status = 'RESERVED'
+      """, nativeQuery = true)
+    int release(@Param("id") UUID id);
+
+    /**
+     * Finds and locks pending reservations that have expired. Reservations locked by another run are skipped.
+     *
+     * @param now the current time.
+     * @param limit the maximum number of returned reservations.
+     * @return the IDs of the expired reservations.
+     */
+    @Query(value = """
+        SELECT reservation.id FROM stock_reservation reservation
+        WHERE reservation.status = 'RESERVED' AND reservation.expires_at <= :now
+        ORDER BY reservation.expires_at
+        LIMIT :limit
+        FOR UPDATE SKIP LOCKED
+      """, nativeQuery = true)
+    List<UUID> lockExpiredIds(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE stock_reservation SET status = 'EXPIRED' WHERE id IN (:ids)", nativeQuery = true)
+    int markExpired(@Param("ids") Collection<UUID> ids);
+
+    /**
+     * Returns the stock held by the reservations to their variants with limited quantity, with a single statement.
+     *
+     * @param ids the IDs of the released or expired reservations.
+     * @return the number of variants whose stock was returned.
+     */
+    @Modifying(flushAutomatically = true)
+    @Query(value = """
+        UPDATE variant
+        SET quantity = variant.quantity + returned.quantity
+        FROM (
+            SELECT item.variant_id, SUM(item.quantity) AS quantity
+            FROM stock_reservation_item item
+            WHERE item.reservation_id IN (:ids)
+            GROUP BY item.variant_id
+        ) returned
+        WHERE variant.id = returned.variant_id
+        AND variant.quantity_unlimited IS NOT TRUE
+      """, nativeQuery = true)
+    int returnStock(@Param("ids") Collection<UUID> ids);
+
+    @Query(value = """
+        SELECT DISTINCT variant.product_id FROM stock_reservation_item item
+        JOIN variant ON variant.id = item.variant_id
+        WHERE item.reservation_id IN (:ids)
+      """, nativeQuery = true)
+    Set<Long> findProductIds(@Param("ids") Collection<UUID> ids);
+}
@@ -0,0 +1,15 @@
+package com.ecommerce.variant.reservation;
+
+import com.ecommerce.variant.purchase.PurchaseResponse;
+import lombok.Builder;
+
+import java.time.Instant;
+import java.util.Set;
+import java.util.UUID;
+
+@Builder
+public record StockReservationResponse(
+        UUID id,
+        Instant expiresAt,
+        Set<PurchaseResponse> items
+) {}
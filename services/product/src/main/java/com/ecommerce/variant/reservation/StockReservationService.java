@@ -0,0 +1,146 @@
+package com.ecommerce.variant.reservation;
+
+import com.ecommerce.exception.ReservationNotFoundException;
+import com.ecommerce.variant.StockChangedEvent;
+import com.ecommerce.variant.purchase.PurchaseRequest;
+import com.ecommerce.variant.purchase.PurchaseResponse;
+import com.ecommerce.variant.purchase.PurchaseService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Holds stock for pending checkouts. Creating a reservation takes the stock the same way as a purchase;
+ * the reservation is then confirmed, or released, or it expires after its time to live and
+ * the expiry job returns the stock.
+ */
+@Service
+@Slf4j
+public class StockReservationService {
+    private final StockReservationRepository stockReservationRepository;
+    private final PurchaseService purchaseService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration timeToLive;
+    private final int expiryBatchSize;
+
+    public StockReservationService(
+            StockReservationRepository stockReservationRepository,
+            PurchaseService purchaseService,
+            ApplicationEventPublisher eventPublisher,
+            @Value("${application.reservation.ttl:PT15M}") Duration timeToLive,
+            @Value("${application.reservation.expiry-batch-size:500}") int expiryBatchSize
+    ) {
+        this.stockReservationRepository = stockReservationRepository;
+        this.purchaseService = purchaseService;
+        this.eventPublisher = eventPublisher;
+        this.timeToLive = timeToLive;
+        this.expiryBatchSize = expiryBatchSize;
+    }
+
+    /**
+     * Takes the stock of the requested variants and holds it until the reservation is confirmed,
+     * released or expires.
+     *
+     * @param request the set of purchase requests
+     * @return the reservation ID, its expiry and the reserved variants
+     */
+    @Transactional
+    public StockReservationResponse reserveVariants(Set<PurchaseRequest> request) {
+        Set<PurchaseResponse> items = purchaseService.purchaseVariants(request);
+
+        Instant now = Instant.now();
+        StockReservation reservation = StockReservation.builder()
+                .id(UUID.randomUUID())
+                .status(ReservationStatus.RESERVED)
+                .createdAt(now)
+                .expiresAt(now.plus(timeToLive))
+                .items(request.stream()
+                        .map(item -> new StockReservationItem(item.id(), item.quantity()))
+                        .toList())
+                .build();
+
+        StockReservation savedReservation = stockReservationRepository.save(reservation);
+        log.info("Stock reserved with reservation ID: {}", savedReservation.getId());
+
+        return StockReservationResponse.builder()
+                .id(savedReservation.getId())
+                .expiresAt(savedReservation.getExpiresAt())
+                .items(items)
+                .build();
+    }
+
+    /**
+     * Confirms a pending reservation, the reserved stock stays taken.
+     *
+     * @param id the reservation ID
+     * @throws ReservationNotFoundException if there is no pending reservation with the ID or it has expired
+     */
+    @Transactional
+    public void confirmReservation(UUID id) {
+        Objects.requireNonNull(id, "ID rezervace nesmí být prázdné.");
+        log.debug("Confirming reservation ID: {}", id);
+
+        if (stockReservationRepository.confirm(id, Instant.now()) == 0)
+            throw new ReservationNotFoundException(
+                    String.format("Rezervace s ID %s neexistuje nebo již vypršela.", id)
+            );
+        log.info("Reservation confirmed with ID: {}", id);
+    }
+
+    /**
+     * Releases a pending reservation and returns its stock.
+     *
+     * @param id the reservation ID
+     * @throws ReservationNotFoundException if there is no pending reservation with the ID
+     */
+    @Transactional
+    public void releaseReservation(UUID id) {
+        Objects.requireNonNull(id, "ID rezervace nesmí být prázdné.");
+        log.debug("Releasing reservation ID: {}", id);
+
+        if (stockReservationRepository.release(id) == 0)
+            throw new ReservationNotFoundException(
+                    String.format("Rezervace s ID %s neexistuje nebo již byla uzavřena.", id)
+            );
+
+        this.returnStock(List.of(id));
+        log.info("Reservation released with ID: {}", id);
+    }
+
+    /**
+     * Expires one batch of pending reservations past their time to live and returns their stock.
+     *
+     * @return the number of expired reservations
+     */
+    @Scheduled(
+            initialDelayString = "${application.reservation.expiry-interval:PT1M}",
+            fixedDelayString = "${application.reservation.expiry-interval:PT1M}"
+    )
+    @Transactional
+    public int expireReservations() {
+        List<UUID> ids = stockReservationRepository.lockExpiredIds(Instant.now(), expiryBatchSize);
+        if (ids.isEmpty())
+            return 0;
+
+        stockReservationRepository.markExpired(ids);
+        this.returnStock(ids);
+        log.info("Expired {} stock reservations", ids.size());
+
+        return ids.size();
+    }
+
+    private void returnStock(List<UUID> ids) {
+        stockReservationRepository.returnStock(ids);
+        eventPublisher.publishEvent(new StockChangedEvent(stockReservationRepository.findProductIds(ids)));
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.variant.stock;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+
+public record VariantStockShardRequest(
+        @Min(value = 0, message = "Počet částí zásob nesmí být záporný.")
+        @Max(value = 64, message = "Počet částí zásob nesmí přesáhnout 64.")
+        int shards
+) {}
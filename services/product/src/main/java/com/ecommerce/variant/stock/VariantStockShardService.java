@@ -0,0 +1,95 @@
+package com.ecommerce.variant.stock;
+
+import com.ecommerce.exception.VariantNotFoundException;
+import com.ecommerce.variant.Variant;
+import com.ecommerce.variant.VariantRepository;
+import com.ecommerce.variant.VariantStockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Manages the opt-in "hot variant" mode, in which the stock of a variant is split into shards
+ * that concurrent purchases take from independently, see {@link VariantStockRepository}.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class VariantStockShardService {
+    private final VariantStockRepository variantStockRepository;
+    private final VariantRepository variantRepository;
+
+    /**
+     * Splits the stock of a variant into the given number of shards, or merges it back into the variant
+     * when the number is 0. The total stock does not change.
+     *
+     * @param id     the variant ID
+     * @param shards the number of shards, 0 to turn the mode off
+     */
+    @Transactional
+    public void setStockShards(Long id, int shards) {
+        Objects.requireNonNull(id, "ID varianty nesmí být prázdné.");
+        log.debug("Setting {} stock shards of variant ID: {}", shards, id);
+
+        Variant variant = variantRepository.findById(id)
+                .orElseThrow(() -> new VariantNotFoundException(
+                        String.format("Varianta s ID %s nebyl nalezen.", id)
+                ));
+        if (shards > 0 && variant.isQuantityUnlimited())
+            throw new IllegalArgumentException("Zásoby varianty s neomezeným počtem kusů nelze rozdělit.");
+
+        List<Long> variantIds = List.of(id);
+        variantStockRepository.lockStock(variantIds);
+        variantStockRepository.mergeShards(variantIds);
+        if (shards > 0) {
+            variantStockRepository.createShards(Map.of(id, shards));
+            variantStockRepository.rebalanceShards(variantIds);
+        }
+        log.info("Stock of variant ID {} split into {} shards", id, shards);
+    }
+
+    /**
+     * Replaces the stock held in the shards of hot variants with the quantity just written to their
+     * variant rows, keeping the number of shards. Called after the quantity of variants was set
+     * to a new total; variants without shards are skipped.
+     *
+     * @param variantIds the IDs of variants whose quantity was set
+     */
+    @Transactional
+    public void resetStockShards(Collection<Long> variantIds) {
+        Map<Long, Integer> shardCounts = variantStockRepository.lockStock(variantIds);
+        if (shardCounts.isEmpty())
+            return;
+
+        variantStockRepository.deleteShards(shardCounts.keySet());
+        variantStockRepository.createShards(shardCounts);
+        variantStockRepository.rebalanceShards(shardCounts.keySet());
+        log.debug("Reset stock shards of {} variants", shardCounts.size());
+    }
+
+    /**
+     * Spreads the stock of every hot variant evenly over its shards again, so purchases keep finding
+     * a shard with enough pieces and returned stock gets back into the shards.
+     */
+    @Scheduled(
+            initialDelayString = "${application.variant.stock-rebalance-interval:PT10S}",
+            fixedDelayString = "${application.variant.stock-rebalance-interval:PT10S}"
+    )
+    @Transactional
+    public void rebalanceStockShards() {
+        List<Long> variantIds = variantStockRepository.findShardedVariantIds();
+        if (variantIds.isEmpty())
+            return;
+
+        variantStockRepository.lockStock(variantIds);
+        variantStockRepository.rebalanceShards(variantIds);
+        log.debug("Rebalanced stock shards of {} variants", variantIds.size());
+    }
+}
@@ -0,0 +1,6 @@
+-- rows only mark products whose state has to be published, the relay reads the state when it sends the event
+CREATE TABLE IF NOT EXISTS product_event_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
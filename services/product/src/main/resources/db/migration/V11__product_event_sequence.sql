@@ -0,0 +1,4 @@
+-- sequences of product events are taken when the relay sends them, so they follow the order in which states are read;
+-- the sequence continues from the outbox IDs that served as sequences before
+CREATE SEQUENCE IF NOT EXISTS product_event_sequence;
+SELECT setval('product_event_sequence', (SELECT last_value FROM product_event_outbox_id_seq));
@@ -0,0 +1,26 @@
+-- deleted products are kept as tombstones, so incremental catalog snapshots can tell consumers to drop them;
+-- a trigger records every delete, whichever code path runs it, stamped like updated_at with the transaction start
+CREATE TABLE IF NOT EXISTS product_tombstone
+(
+    id         BIGINT PRIMARY KEY,
+    version    BIGINT                   NOT NULL,
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_tombstone_deleted_at_id ON product_tombstone (deleted_at, id);
+
+CREATE OR REPLACE FUNCTION record_product_tombstone() RETURNS trigger
+    LANGUAGE plpgsql
+AS $$
+BEGIN
+    INSERT INTO product_tombstone (id, version, deleted_at)
+    VALUES (OLD.id, OLD.version + 1, now())
+    ON CONFLICT (id) DO UPDATE SET version = EXCLUDED.version, deleted_at = EXCLUDED.deleted_at;
+    RETURN OLD;
+END;
+$$;
+
+DROP TRIGGER IF EXISTS trg_product_tombstone ON product;
+CREATE TRIGGER trg_product_tombstone
+    AFTER DELETE ON product
+    FOR EACH ROW EXECUTE FUNCTION record_product_tombstone();
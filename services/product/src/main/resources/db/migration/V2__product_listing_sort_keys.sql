@@ -0,0 +1,17 @@
+ALTER TABLE product ADD COLUMN IF NOT EXISTS min_price DECIMAL(10, 2);
+
+UPDATE product
+SET min_price = (
+    SELECT MIN(CASE WHEN variant.discounted_price > 0 THEN variant.discounted_price ELSE variant.base_price END)
+    FROM variant
+    WHERE variant.product_id = product.id
+);
+
+
+CREATE INDEX IF NOT EXISTS idx_product_category_category_id ON product_category (category_id, product_id);
+
+CREATE INDEX IF NOT EXISTS idx_product_min_price_id ON product (min_price, id);
+
+CREATE INDEX IF NOT EXISTS idx_product_lower_name_id ON product (lower(name), id);
+
+CREATE INDEX IF NOT EXISTS idx_variant_product_id ON variant (product_id);
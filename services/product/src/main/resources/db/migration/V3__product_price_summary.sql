@@ -0,0 +1,22 @@
+ALTER TABLE product ADD COLUMN IF NOT EXISTS min_base_price DECIMAL(10, 2);
+ALTER TABLE product ADD COLUMN IF NOT EXISTS max_price DECIMAL(10, 2);
+ALTER TABLE product ADD COLUMN IF NOT EXISTS prices_equal BOOLEAN NOT NULL DEFAULT FALSE;
+
+UPDATE product
+SET min_base_price = (
+        SELECT variant.base_price
+        FROM variant
+        WHERE variant.product_id = product.id
+        ORDER BY CASE WHEN variant.discounted_price > 0 THEN variant.discounted_price ELSE variant.base_price END, variant.id
+        LIMIT 1
+    ),
+    max_price = (
+        SELECT MAX(CASE WHEN variant.discounted_price > 0 THEN variant.discounted_price ELSE variant.base_price END)
+        FROM variant
+        WHERE variant.product_id = product.id
+    ),
+    prices_equal = (
+        SELECT COUNT(DISTINCT CASE WHEN variant.discounted_price > 0 THEN variant.discounted_price ELSE variant.base_price END) = 1
+        FROM variant
+        WHERE variant.product_id = product.id
+    );
@@ -0,0 +1,21 @@
+CREATE EXTENSION IF NOT EXISTS unaccent;
+
+-- unaccent() is only STABLE, an IMMUTABLE wrapper with a fixed dictionary is required for generated columns and indexes
+CREATE OR REPLACE FUNCTION f_unaccent(text) RETURNS text
+    LANGUAGE sql IMMUTABLE PARALLEL SAFE STRICT
+AS $$
+    SELECT public.unaccent('public.unaccent'::regdictionary, $1)
+$$;
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS search_name TEXT
+    GENERATED ALWAYS AS (lower(f_unaccent(name))) STORED;
+
+ALTER TABLE product ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', lower(f_unaccent(coalesce(name, '')))), 'A') ||
+        setweight(to_tsvector('simple', lower(f_unaccent(coalesce(description, '')))), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_product_search_vector ON product USING GIN (search_vector);
+
+CREATE INDEX IF NOT EXISTS idx_product_search_name_trgm ON product USING GIN (search_name gin_trgm_ops);
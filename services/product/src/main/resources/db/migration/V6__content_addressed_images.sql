@@ -0,0 +1,13 @@
+CREATE TABLE IF NOT EXISTS image_blob (
+    content_hash VARCHAR(64) PRIMARY KEY,
+    size_bytes BIGINT NOT NULL,
+    last_referenced_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now()
+);
+
+-- images uploaded before the blob store keep a NULL hash and stay in the per-product directory
+ALTER TABLE product_image ADD COLUMN IF NOT EXISTS content_hash VARCHAR(64);
+ALTER TABLE product_image ADD CONSTRAINT fk_product_image_blob
+    FOREIGN KEY (content_hash) REFERENCES image_blob (content_hash);
+
+CREATE INDEX IF NOT EXISTS idx_product_image_content_hash ON product_image (content_hash);
+CREATE INDEX IF NOT EXISTS idx_image_blob_last_referenced_at ON image_blob (last_referenced_at);
@@ -0,0 +1,24 @@
+CREATE TABLE IF NOT EXISTS stock_reservation (
+    id UUID PRIMARY KEY,
+    status VARCHAR(20) NOT NULL,
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL DEFAULT now(),
+    expires_at TIMESTAMP WITH TIME ZONE NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS stock_reservation_item (
+    reservation_id UUID NOT NULL,
+    variant_id BIGINT NOT NULL,
+    quantity INT NOT NULL,
+
+    PRIMARY KEY (reservation_id, variant_id),
+    FOREIGN KEY (reservation_id)
+    REFERENCES stock_reservation(id)
+    ON DELETE CASCADE,
+    FOREIGN KEY (variant_id)
+    REFERENCES variant(id)
+    ON DELETE CASCADE
+);
+
+-- only pending reservations are ever looked up by their expiry
+CREATE INDEX IF NOT EXISTS idx_stock_reservation_expires_at ON stock_reservation (expires_at)
+    WHERE status = 'RESERVED';
@@ -0,0 +1,11 @@
+-- stock of hot variants split into several rows, so concurrent purchases do not all wait on the variant row
+CREATE TABLE IF NOT EXISTS variant_stock_shard (
+    variant_id BIGINT NOT NULL,
+    shard INT NOT NULL,
+    quantity INT NOT NULL CHECK (quantity >= 0),
+
+    PRIMARY KEY (variant_id, shard),
+    FOREIGN KEY (variant_id)
+    REFERENCES variant(id)
+    ON DELETE CASCADE
+);
@@ -0,0 +1,2 @@
+-- incremental catalog snapshots read products changed since a watermark
+CREATE INDEX IF NOT EXISTS idx_product_updated_at_id ON product (updated_at, id);
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.util.*;
 
@@ -32,6 +33,9 @@ class AttributeServiceTest {
     @Mock
     private AttributeValueService attributeValueService;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private AttributeService attributeService;
 
@@ -239,6 +243,7 @@ class AttributeServiceTest {
         verify(attributeMapper).toAttribute(testAttributeRequest);
         verify(attributeRepository).save(updatedAttribute);
         verify(attributeValueService).manageAttributeValues(updatedAttribute, testAttributeRequest.values());
+        verify(eventPublisher).publishEvent(new AttributeChangedEvent(1L));
     }
 
     @Test
@@ -274,6 +279,7 @@ class AttributeServiceTest {
         // Assert
         verify(attributeRepository).findById(1L);
         verify(attributeRepository).delete(testAttribute);
+        verify(eventPublisher).publishEvent(new AttributeChangedEvent(1L));
     }
 
     @Test
@@ -286,15 +292,13 @@ class AttributeServiceTest {
     }
 
     @Test
-    void getAttributesByProducts_WithValidProducts_ReturnsAttributeResponses() {
+    void getAttributesByCategory_WithValidCategoryId_ReturnsAttributeResponses() {
         // Arrange
-        Product product = new Product();
-        product.setAttributes(Set.of(testAttribute));
-
+        when(attributeRepository.findAllWithValuesByVisibleProductsInCategory(1L)).thenReturn(List.of(testAttribute));
         when(attributeMapper.toResponse(testAttribute)).thenReturn(testAttributeResponse);
 
         // Act
-        Set<AttributeResponse> result = attributeService.getAttributesByProducts(List.of(product));
+        Set<AttributeResponse> result = attributeService.getAttributesByCategory(1L);
 
         // Assert
         assertNotNull(result);
@@ -304,13 +308,23 @@ class AttributeServiceTest {
     }
 
     @Test
-    void getAttributesByProducts_WithEmptyProducts_ReturnsEmptySet() {
+    void getAttributesByCategory_WithNoAttributes_ReturnsEmptySet() {
+        // Arrange
+        when(attributeRepository.findAllWithValuesByVisibleProductsInCategory(1L)).thenReturn(Collections.emptyList());
+
         // Act
-        Set<AttributeResponse> result = attributeService.getAttributesByProducts(Collections.emptyList());
+        Set<AttributeResponse> result = attributeService.getAttributesByCategory(1L);
 
         // Assert
         assertNotNull(result);
         assertTrue(result.isEmpty());
         verify(attributeMapper, never()).toResponse(any());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAttributesByCategory_WithNullCategoryId_ThrowsNullPointerException() {
+        // Act & Assert
+        assertThrows(NullPointerException.class,
+                () -> attributeService.getAttributesByCategory(null));
+    }
+}
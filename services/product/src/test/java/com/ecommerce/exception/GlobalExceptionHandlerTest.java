@@ -101,6 +101,20 @@ class GlobalExceptionHandlerTest {
         assertEquals(errorMessage, problemDetail.getDetail());
     }
 
+    @Test
+    void handleFacetIndexNotReadyException_ReturnsServiceUnavailableStatus() {
+        // Arrange
+        String errorMessage = "Facet index is not ready";
+        FacetIndexNotReadyException exception = new FacetIndexNotReadyException(errorMessage);
+
+        // Act
+        ProblemDetail problemDetail = exceptionHandler.handleFacetIndexNotReadyException(exception);
+
+        // Assert
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE.value(), problemDetail.getStatus());
+        assertEquals(errorMessage, problemDetail.getDetail());
+    }
+
     @Test
     void handleNullPointerException_ReturnsInternalServerErrorStatus() {
         // Arrange
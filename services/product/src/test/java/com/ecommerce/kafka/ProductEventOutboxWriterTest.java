@@ -0,0 +1,58 @@
+package com.ecommerce.kafka;
+
+import com.ecommerce.product.ProductChangedEvent;
+import com.ecommerce.product.catalog.CatalogImportedEvent;
+import com.ecommerce.variant.StockChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductEventOutboxWriterTest {
+    @Mock
+    private ProductEventOutboxRepository productEventOutboxRepository;
+
+    @InjectMocks
+    private ProductEventOutboxWriter productEventOutboxWriter;
+
+    @Test
+    void onProductChanged_WritesEntryOfProduct() {
+        // Act
+        productEventOutboxWriter.onProductChanged(new ProductChangedEvent(1L, Set.of(2L)));
+
+        // Assert
+        verify(productEventOutboxRepository).insertEntries(Set.of(1L));
+    }
+
+    @Test
+    void onStockChanged_WithoutProducts_WritesNothing() {
+        // Act
+        productEventOutboxWriter.onStockChanged(new StockChangedEvent(Set.of()));
+
+        // Assert
+        verify(productEventOutboxRepository, never()).insertEntries(anyCollection());
+    }
+
+    @Test
+    void onCatalogImported_WritesEntriesInBatches() {
+        // Arrange
+        List<Long> productIds = LongStream.rangeClosed(1, 2500).boxed().toList();
+
+        // Act
+        productEventOutboxWriter.onCatalogImported(new CatalogImportedEvent(productIds));
+
+        // Assert
+        verify(productEventOutboxRepository).insertEntries(productIds.subList(0, 1000));
+        verify(productEventOutboxRepository).insertEntries(productIds.subList(1000, 2000));
+        verify(productEventOutboxRepository).insertEntries(productIds.subList(2000, 2500));
+    }
+}
@@ -0,0 +1,138 @@
+package com.ecommerce.kafka;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductEventRelayTest {
+    @Mock
+    private ProductEventOutboxRepository productEventOutboxRepository;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    private ProductEventRelay productEventRelay;
+
+    @BeforeEach
+    void setUp() {
+        productEventRelay = new ProductEventRelay(
+                productEventOutboxRepository,
+                kafkaTemplate,
+                objectMapper,
+                "product-events",
+                100,
+                Duration.ofSeconds(1)
+        );
+    }
+
+    @Test
+    void relayEvents_SendsLatestStatePerProductAndDeletesEntries() throws Exception {
+        // Arrange
+        Instant now = Instant.now();
+        when(productEventOutboxRepository.tryLockRelay()).thenReturn(true);
+        when(productEventOutboxRepository.findOldest(100)).thenReturn(List.of(
+                new ProductEventOutboxEntry(1L, 10L, now),
+                new ProductEventOutboxEntry(2L, 20L, now),
+                new ProductEventOutboxEntry(3L, 10L, now)
+        ));
+        when(productEventOutboxRepository.findStates(Set.of(10L, 20L)))
+                .thenReturn(List.of(state(10L, 4L, "{\"isVisible\":true}")));
+        when(productEventOutboxRepository.nextSequences(2)).thenReturn(List.of(41L, 42L));
+        when(kafkaTemplate.send(eq("product-events"), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(null));
+
+        // Act
+        int sent = productEventRelay.relayEvents();
+
+        // Assert
+        assertEquals(2, sent);
+        ArgumentCaptor<String> updated = ArgumentCaptor.forClass(String.class);
+        ArgumentCaptor<String> deleted = ArgumentCaptor.forClass(String.class);
+        verify(kafkaTemplate).send(eq("product-events"), eq("10"), updated.capture());
+        verify(kafkaTemplate).send(eq("product-events"), eq("20"), deleted.capture());
+
+        JsonNode updatedEvent = objectMapper.readTree(updated.getValue());
+        assertEquals("PRODUCT_UPDATED", updatedEvent.get("type").asText());
+        assertEquals(41L, updatedEvent.get("sequence").asLong());
+        assertEquals(4L, updatedEvent.get("version").asLong());
+        assertTrue(updatedEvent.get("product").get("isVisible").asBoolean());
+
+        JsonNode deletedEvent = objectMapper.readTree(deleted.getValue());
+        assertEquals("PRODUCT_DELETED", deletedEvent.get("type").asText());
+        assertEquals(42L, deletedEvent.get("sequence").asLong());
+        assertTrue(deletedEvent.get("product").isNull());
+
+        verify(productEventOutboxRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+    }
+
+    @Test
+    void relayEvents_WithFailedSend_KeepsEntries() {
+        // Arrange
+        when(productEventOutboxRepository.tryLockRelay()).thenReturn(true);
+        when(productEventOutboxRepository.findOldest(100))
+                .thenReturn(List.of(new ProductEventOutboxEntry(1L, 10L, Instant.now())));
+        when(productEventOutboxRepository.findStates(Set.of(10L)))
+                .thenReturn(List.of(state(10L, 1L, "{}")));
+        when(productEventOutboxRepository.nextSequences(1)).thenReturn(List.of(1L));
+        when(kafkaTemplate.send(eq("product-events"), eq("10"), anyString()))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")));
+
+        // Act & Assert
+        assertThrows(KafkaException.class, () -> productEventRelay.relayEvents());
+        verify(productEventOutboxRepository, never()).deleteAllByIdInBatch(anyIterable());
+    }
+
+    @Test
+    void relayEvents_WhenAnotherRelayHoldsLock_DoesNothing() {
+        // Arrange
+        when(productEventOutboxRepository.tryLockRelay()).thenReturn(false);
+
+        // Act
+        int sent = productEventRelay.relayEvents();
+
+        // Assert
+        assertEquals(0, sent);
+        verify(productEventOutboxRepository, never()).findOldest(anyInt());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    private static ProductEventState state(Long productId, Long version, String state) {
+        return new ProductEventState() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+
+            @Override
+            public String getState() {
+                return state;
+            }
+        };
+    }
+}
@@ -0,0 +1,152 @@
+package com.ecommerce.product;
+
+import com.ecommerce.attribute.AttributeChangedEvent;
+import com.ecommerce.attribute.AttributeResponse;
+import com.ecommerce.attribute.AttributeService;
+import com.ecommerce.product.catalog.CatalogImportedEvent;
+import com.ecommerce.product.facet.ProductFacetLink;
+import com.ecommerce.variant.bulk.VariantsChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FilterRangesServiceTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private AttributeService attributeService;
+
+    @InjectMocks
+    private FilterRangesService filterRangesService;
+
+    private Set<AttributeResponse> attributes;
+
+    @BeforeEach
+    void setUp() {
+        attributes = Set.of(AttributeResponse.builder().id(1L).name("Color").build());
+    }
+
+    @Test
+    void getFilterRangesByCategory_FirstRequest_ComputesSnapshot() {
+        // Arrange
+        when(productRepository.findPriceRangeByCategory(1L))
+                .thenReturn(new ProductPriceRange(new BigDecimal("10.00"), new BigDecimal("100.00")));
+        when(attributeService.getAttributesByCategory(1L)).thenReturn(attributes);
+
+        // Act
+        FilterRangesResponse result = filterRangesService.getFilterRangesByCategory(1L);
+
+        // Assert
+        assertEquals(new BigDecimal("10.00"), result.lowPrice());
+        assertEquals(new BigDecimal("100.00"), result.maxPrice());
+        assertEquals(attributes, result.attributes());
+        assertEquals(1, result.version());
+    }
+
+    @Test
+    void getFilterRangesByCategory_RepeatedRequest_ServesSnapshotFromMemory() {
+        // Arrange
+        when(productRepository.findPriceRangeByCategory(1L)).thenReturn(new ProductPriceRange(null, null));
+        when(attributeService.getAttributesByCategory(1L)).thenReturn(attributes);
+
+        // Act
+        FilterRangesResponse first = filterRangesService.getFilterRangesByCategory(1L);
+        FilterRangesResponse second = filterRangesService.getFilterRangesByCategory(1L);
+
+        // Assert
+        assertSame(first, second);
+        verify(productRepository, times(1)).findPriceRangeByCategory(1L);
+        verify(attributeService, times(1)).getAttributesByCategory(1L);
+    }
+
+    @Test
+    void onProductChanged_InvalidatesOnlyAffectedCategories() {
+        // Arrange
+        when(productRepository.findPriceRangeByCategory(anyLong())).thenReturn(new ProductPriceRange(null, null));
+        when(attributeService.getAttributesByCategory(anyLong())).thenReturn(attributes);
+        FilterRangesResponse category1 = filterRangesService.getFilterRangesByCategory(1L);
+        FilterRangesResponse category2 = filterRangesService.getFilterRangesByCategory(2L);
+
+        // Act
+        filterRangesService.onProductChanged(new ProductChangedEvent(5L, Set.of(1L)));
+
+        // Assert
+        FilterRangesResponse recomputed = filterRangesService.getFilterRangesByCategory(1L);
+        assertNotSame(category1, recomputed);
+        assertTrue(recomputed.version() > category2.version());
+        assertSame(category2, filterRangesService.getFilterRangesByCategory(2L));
+    }
+
+    @Test
+    void onVariantsChanged_InvalidatesCategoriesOfChangedProducts() {
+        // Arrange
+        when(productRepository.findPriceRangeByCategory(anyLong())).thenReturn(new ProductPriceRange(null, null));
+        when(attributeService.getAttributesByCategory(anyLong())).thenReturn(attributes);
+        when(productRepository.findCategoryLinksByProductIds(Set.of(5L)))
+                .thenReturn(List.of(new ProductFacetLink(5L, 1L)));
+        FilterRangesResponse category1 = filterRangesService.getFilterRangesByCategory(1L);
+        FilterRangesResponse category2 = filterRangesService.getFilterRangesByCategory(2L);
+
+        // Act
+        filterRangesService.onVariantsChanged(new VariantsChangedEvent(Set.of(5L), List.of()));
+
+        // Assert
+        assertNotSame(category1, filterRangesService.getFilterRangesByCategory(1L));
+        assertSame(category2, filterRangesService.getFilterRangesByCategory(2L));
+    }
+
+    @Test
+    void onAttributeChanged_InvalidatesAllCategories() {
+        // Arrange
+        when(productRepository.findPriceRangeByCategory(anyLong())).thenReturn(new ProductPriceRange(null, null));
+        when(attributeService.getAttributesByCategory(anyLong())).thenReturn(attributes);
+        filterRangesService.getFilterRangesByCategory(1L);
+        filterRangesService.getFilterRangesByCategory(2L);
+
+        // Act
+        filterRangesService.onAttributeChanged(new AttributeChangedEvent(1L));
+        filterRangesService.getFilterRangesByCategory(1L);
+        filterRangesService.getFilterRangesByCategory(2L);
+
+        // Assert
+        verify(productRepository, times(2)).findPriceRangeByCategory(1L);
+        verify(productRepository, times(2)).findPriceRangeByCategory(2L);
+    }
+
+    @Test
+    void onCatalogImported_InvalidatesAllCategories() {
+        // Arrange
+        when(productRepository.findPriceRangeByCategory(anyLong())).thenReturn(new ProductPriceRange(null, null));
+        when(attributeService.getAttributesByCategory(anyLong())).thenReturn(attributes);
+        filterRangesService.getFilterRangesByCategory(1L);
+        filterRangesService.getFilterRangesByCategory(2L);
+
+        // Act
+        filterRangesService.onCatalogImported(new CatalogImportedEvent(List.of(10L, 11L)));
+        filterRangesService.getFilterRangesByCategory(1L);
+        filterRangesService.getFilterRangesByCategory(2L);
+
+        // Assert
+        verify(productRepository, times(2)).findPriceRangeByCategory(1L);
+        verify(productRepository, times(2)).findPriceRangeByCategory(2L);
+    }
+
+    @Test
+    void getFilterRangesByCategory_WithNullCategoryId_ThrowsNullPointerException() {
+        // Act & Assert
+        assertThrows(NullPointerException.class, () -> filterRangesService.getFilterRangesByCategory(null));
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.product;
+
+import com.ecommerce.product.facet.ProductFacetLink;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductBatchServiceTest {
+    @Mock
+    private ProductOverviewRepository productOverviewRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductBatchService productBatchService;
+
+    @BeforeEach
+    void setUp() {
+        ProductOverviewCache cache = new ProductOverviewCache(new SimpleMeterRegistry(), 100);
+        productBatchService = new ProductBatchService(cache, productOverviewRepository, productRepository);
+    }
+
+    private ProductOverviewResponse overview(Long id, boolean isVisible) {
+        return ProductOverviewResponse.builder().id(id).name("P" + id).isVisible(isVisible).build();
+    }
+
+    @Test
+    void getProductsByIds_WithValidIds_ReturnsProductsInRequestedOrder() {
+        // Arrange
+        when(productOverviewRepository.findOverviews(Set.of(3L, 1L, 2L)))
+                .thenReturn(List.of(overview(1L, true), overview(2L, true), overview(3L, true)));
+
+        // Act
+        List<ProductOverviewResponse> result = productBatchService.getProductsByIds(List.of(3L, 1L, 2L, 1L));
+
+        // Assert
+        assertEquals(List.of(3L, 1L, 2L), result.stream().map(ProductOverviewResponse::id).toList());
+    }
+
+    @Test
+    void getProductsByIds_WithInvisibleProducts_FiltersThemOut() {
+        // Arrange
+        when(productOverviewRepository.findOverviews(Set.of(1L, 2L)))
+                .thenReturn(List.of(overview(1L, true), overview(2L, false)));
+
+        // Act
+        List<ProductOverviewResponse> result = productBatchService.getProductsByIds(List.of(1L, 2L));
+
+        // Assert
+        assertEquals(1, result.size());
+        assertEquals(1L, result.get(0).id());
+    }
+
+    @Test
+    void getProductsByIds_WithEmptyList_ReturnsEmptyList() {
+        // Act
+        List<ProductOverviewResponse> result = productBatchService.getProductsByIds(Collections.emptyList());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(productOverviewRepository, never()).findOverviews(anyCollection());
+    }
+
+    @Test
+    void getProductsByIds_WithCachedProducts_QueriesOnlyMisses() {
+        // Arrange
+        when(productOverviewRepository.findOverviews(Set.of(1L, 2L)))
+                .thenReturn(List.of(overview(1L, true), overview(2L, false)));
+        when(productOverviewRepository.findOverviews(Set.of(3L)))
+                .thenReturn(List.of(overview(3L, true)));
+        productBatchService.getProductsByIds(List.of(1L, 2L));
+
+        // Act
+        List<ProductOverviewResponse> result = productBatchService.getProductsByIds(List.of(2L, 3L, 1L));
+
+        // Assert
+        assertEquals(List.of(3L, 1L), result.stream().map(ProductOverviewResponse::id).toList());
+        verify(productOverviewRepository).findOverviews(Set.of(3L));
+    }
+
+    @Test
+    void getRelatedProducts_ResolvesRelatedProductsOfPageWithOneLoad() {
+        // Arrange
+        when(productRepository.findRelatedProductLinksByProductIds(Set.of(1L, 2L))).thenReturn(List.of(
+                new ProductFacetLink(1L, 3L),
+                new ProductFacetLink(2L, 3L),
+                new ProductFacetLink(2L, 4L)
+        ));
+        when(productOverviewRepository.findOverviews(Set.of(3L, 4L)))
+                .thenReturn(List.of(overview(3L, true), overview(4L, false)));
+
+        // Act
+        Map<Long, Set<ProductOverviewResponse>> result = productBatchService.getRelatedProducts(Set.of(1L, 2L));
+
+        // Assert
+        assertEquals(Set.of(overview(3L, true)), result.get(1L));
+        assertEquals(Set.of(overview(3L, true), overview(4L, false)), result.get(2L));
+        verify(productOverviewRepository, times(1)).findOverviews(anyCollection());
+    }
+
+    @Test
+    void getRelatedProducts_WithoutRelatedProducts_DoesNotLoadOverviews() {
+        // Arrange
+        when(productRepository.findRelatedProductLinksByProductIds(Set.of(1L))).thenReturn(List.of());
+
+        // Act
+        Map<Long, Set<ProductOverviewResponse>> result = productBatchService.getRelatedProducts(Set.of(1L));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(productOverviewRepository, never()).findOverviews(anyCollection());
+    }
+}
@@ -1,6 +1,8 @@
 package com.ecommerce.product;
 
 import com.ecommerce.exception.ProductNotFoundException;
+import com.ecommerce.product.facet.ProductFacetResponse;
+import com.ecommerce.product.search.ProductSuggestion;
 import com.ecommerce.productimage.ProductImageResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -15,11 +17,16 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -33,15 +40,20 @@ class ProductControllerTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private ProductBatchService productBatchService;
+
     @InjectMocks
     private ProductController productController;
 
     private ProductResponse testProductResponse;
     private ProductOverviewResponse testProductOverviewResponse;
     private ProductRequest testProductRequest;
+    private ProductVersion testProductVersion;
 
     @BeforeEach
     void setUp() {
+        testProductVersion = new ProductVersion(1L, 3L, Instant.parse("2024-01-01T00:00:00Z"), 0x2a);
         testProductResponse = ProductResponse.builder()
                 .id(1L)
                 .name("Test Product")
@@ -74,29 +86,73 @@ class ProductControllerTest {
         );
     }
 
+    private ServletWebRequest webRequest() {
+        return new ServletWebRequest(new MockHttpServletRequest("GET", "/"), new MockHttpServletResponse());
+    }
+
     @Test
     void getProductById_WithValidId_ReturnsOkWithProduct() {
         // Arrange
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        when(productService.getProductVersion(1L)).thenReturn(testProductVersion);
         when(productService.getProductById(1L)).thenReturn(testProductResponse);
 
         // Act
-        ResponseEntity<ProductResponse> response = productController.getProductById(1L);
+        ResponseEntity<ProductResponse> response = productController.getProductById(
+                1L, new ServletWebRequest(new MockHttpServletRequest("GET", "/"), servletResponse));
 
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(testProductResponse, response.getBody());
+        assertEquals("\"1-3-2a\"", servletResponse.getHeader("ETag"));
+        verify(productService).getProductById(1L);
+    }
+
+    @Test
+    void getProductById_WithMatchingETag_ReturnsNotModifiedWithoutMapping() {
+        // Arrange
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
+        servletRequest.addHeader("If-None-Match", "\"1-3-2a\"");
+        when(productService.getProductVersion(1L)).thenReturn(testProductVersion);
+
+        // Act
+        ResponseEntity<ProductResponse> response = productController.getProductById(
+                1L, new ServletWebRequest(servletRequest, new MockHttpServletResponse()));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        assertNull(response.getBody());
+        verify(productService, never()).getProductById(any());
+    }
+
+    @Test
+    void getProductById_WithIfModifiedSinceOnly_ReturnsOkWithoutLastModified() {
+        // Arrange
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
+        servletRequest.addHeader("If-Modified-Since", "Wed, 01 Jan 2025 00:00:00 GMT");
+        MockHttpServletResponse servletResponse = new MockHttpServletResponse();
+        when(productService.getProductVersion(1L)).thenReturn(testProductVersion);
+        when(productService.getProductById(1L)).thenReturn(testProductResponse);
+
+        // Act
+        ResponseEntity<ProductResponse> response = productController.getProductById(
+                1L, new ServletWebRequest(servletRequest, servletResponse));
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertNull(servletResponse.getHeader("Last-Modified"));
         verify(productService).getProductById(1L);
     }
 
     @Test
     void getProductById_WithInvalidId_ThrowsProductNotFoundException() {
         // Arrange
-        when(productService.getProductById(999L)).thenThrow(new ProductNotFoundException("Product not found"));
+        when(productService.getProductVersion(999L)).thenThrow(new ProductNotFoundException("Product not found"));
 
         // Act & Assert
-        assertThrows(ProductNotFoundException.class, () -> productController.getProductById(999L));
-        verify(productService).getProductById(999L);
+        assertThrows(ProductNotFoundException.class, () -> productController.getProductById(999L, webRequest()));
+        verify(productService, never()).getProductById(any());
     }
 
     @Test
@@ -124,7 +180,7 @@ class ProductControllerTest {
 
         // Act
         ResponseEntity<Page<ProductOverviewResponse>> response = productController.getProductsByCategory(
-                0, 10, "ASC", "id", null, null, null, 1L);
+                0, 10, "ASC", "id", null, null, null, 1L, webRequest());
 
         // Assert
         assertNotNull(response);
@@ -133,6 +189,57 @@ class ProductControllerTest {
         verify(productService).getProductsByCategory(eq(1L), any(ProductSpecificationRequest.class), any(PageRequest.class));
     }
 
+    @Test
+    void getProductsByCategory_WithMatchingETag_ReturnsNotModified() {
+        // Arrange
+        MockHttpServletRequest servletRequest = new MockHttpServletRequest("GET", "/");
+        servletRequest.addHeader("If-None-Match", "\"1-abc\"");
+        when(productService.getCategoryListingETag(1L)).thenReturn("\"1-abc\"");
+
+        // Act
+        ResponseEntity<Page<ProductOverviewResponse>> response = productController.getProductsByCategory(
+                0, 10, "ASC", "id", null, null, null, 1L,
+                new ServletWebRequest(servletRequest, new MockHttpServletResponse()));
+
+        // Assert
+        assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+        verify(productService, never()).getProductsByCategory(any(), any(), any());
+    }
+
+    @Test
+    void suggestProducts_ReturnsOkWithSuggestions() {
+        // Arrange
+        List<ProductSuggestion> suggestions = List.of(new ProductSuggestion(1L, "Tričko"));
+        when(productService.suggestProducts("tri", 5)).thenReturn(suggestions);
+
+        // Act
+        ResponseEntity<List<ProductSuggestion>> response = productController.suggestProducts("tri", 5);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(suggestions, response.getBody());
+    }
+
+    @Test
+    void getFacetCountsByCategory_ReturnsOkWithFacets() {
+        // Arrange
+        ProductSpecificationRequest specifications = new ProductSpecificationRequest(null, new BigDecimal("100.00"), Set.of(1L));
+        ProductFacetResponse facetResponse = ProductFacetResponse.builder()
+                .total(2)
+                .attributeValueCounts(Map.of(1L, 2))
+                .build();
+        when(productService.getFacetCountsByCategory(1L, specifications)).thenReturn(facetResponse);
+
+        // Act
+        ResponseEntity<ProductFacetResponse> response = productController.getFacetCountsByCategory(
+                null, new BigDecimal("100.00"), Set.of(1L), 1L);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(facetResponse, response.getBody());
+        verify(productService).getFacetCountsByCategory(1L, specifications);
+    }
+
     @Test
     void getFilterRangesByCategory_ReturnsOkWithRanges() {
         // Arrange
@@ -157,7 +264,7 @@ class ProductControllerTest {
         // Arrange
         List<Long> ids = List.of(1L, 2L);
         List<ProductOverviewResponse> products = List.of(testProductOverviewResponse);
-        when(productService.getProductsByIds(ids)).thenReturn(products);
+        when(productBatchService.getProductsByIds(ids)).thenReturn(products);
 
         // Act
         ResponseEntity<List<ProductOverviewResponse>> response = productController.getProductsByIds(ids);
@@ -166,7 +273,24 @@ class ProductControllerTest {
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(products, response.getBody());
-        verify(productService).getProductsByIds(ids);
+        verify(productBatchService).getProductsByIds(ids);
+    }
+
+    @Test
+    void getProductsByIdList_WithValidIds_ReturnsOkWithProducts() {
+        // Arrange
+        List<Long> ids = List.of(1L, 2L);
+        List<ProductOverviewResponse> products = List.of(testProductOverviewResponse);
+        when(productBatchService.getProductsByIds(ids)).thenReturn(products);
+
+        // Act
+        ResponseEntity<List<ProductOverviewResponse>> response = productController.getProductsByIdList(ids);
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(products, response.getBody());
+        verify(productBatchService).getProductsByIds(ids);
     }
 
     @Test
@@ -259,19 +383,21 @@ class ProductControllerTest {
         Long productId = 1L;
         String fileName = "image.jpg";
         Resource mockResource = mock(Resource.class);
-        ProductImageResponse imageResponse = new ProductImageResponse(mockResource, MediaType.IMAGE_JPEG);
+        ProductImageResponse imageResponse = new ProductImageResponse(mockResource, MediaType.IMAGE_JPEG, 1_700_000_000_000L, true);
 
-        when(productService.getImage(productId, fileName)).thenReturn(imageResponse);
+        when(productService.getImage(productId, fileName, null)).thenReturn(imageResponse);
 
         // Act
-        ResponseEntity<Resource> response = productController.getImage(productId, fileName);
+        ResponseEntity<Resource> response = productController.getImage(productId, fileName, null);
 
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals(mockResource, response.getBody());
         assertEquals(MediaType.IMAGE_JPEG, response.getHeaders().getContentType());
-        verify(productService).getImage(productId, fileName);
+        assertEquals(1_700_000_000_000L, response.getHeaders().getLastModified());
+        assertEquals("max-age=31536000, public, immutable", response.getHeaders().getCacheControl());
+        verify(productService).getImage(productId, fileName, null);
     }
 
     @Test
@@ -280,14 +406,14 @@ class ProductControllerTest {
         Long productId = 1L;
         String fileName = "nonexistent.jpg";
 
-        when(productService.getImage(productId, fileName)).thenReturn(null);
+        when(productService.getImage(productId, fileName, null)).thenReturn(null);
 
         // Act
-        ResponseEntity<Resource> response = productController.getImage(productId, fileName);
+        ResponseEntity<Resource> response = productController.getImage(productId, fileName, null);
 
         // Assert
         assertNotNull(response);
         assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
-        verify(productService).getImage(productId, fileName);
+        verify(productService).getImage(productId, fileName, null);
     }
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package com.ecommerce.product;
+
+import com.ecommerce.exception.InvalidCursorException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductCursorTest {
+
+    @Test
+    void encode_ThenDecode_ReturnsSameCursor() {
+        // Arrange
+        ProductCursor cursor = new ProductCursor(42L, "Tričko: modré");
+
+        // Act
+        ProductCursor result = ProductCursor.decode(cursor.encode());
+
+        // Assert
+        assertEquals(cursor, result);
+    }
+
+    @Test
+    void of_WithPriceSortKey_UsesStoredMinPrice() {
+        // Arrange
+        Product product = Product.builder()
+                .id(7L)
+                .name("Product")
+                .minPrice(new BigDecimal("19.90"))
+                .build();
+
+        // Act
+        ProductCursor result = ProductCursor.of(product, ProductSortKey.PRICE);
+
+        // Assert
+        assertEquals(new ProductCursor(7L, "19.90"), result);
+    }
+
+    @Test
+    void decode_WithMalformedCursor_ThrowsInvalidCursorException() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode("%%%"));
+        assertThrows(InvalidCursorException.class, () -> ProductCursor.decode("YWJj"));
+    }
+}
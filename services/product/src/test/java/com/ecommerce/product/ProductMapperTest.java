@@ -112,91 +112,6 @@ class ProductMapperTest {
         assertThrows(NullPointerException.class, () -> productMapper.toProduct(null));
     }
 
-    @Test
-    void toOverviewResponse_WithValidProduct_MapsCorrectly() {
-        // Arrange
-        testProduct.setVariants(List.of(testVariant));
-
-        List<ProductImage> images = new ArrayList<>();
-        images.add(testProductImage);
-        testProduct.setImages(images);
-
-        Product relatedProduct = Product.builder().id(2L).name("Related Product").build();
-        testProduct.setRelatedProducts(Set.of(relatedProduct));
-
-        when(productPriceService.getCheapestVariantPrice(testProduct)).thenReturn(new BigDecimal("100.00"));
-        when(productPriceService.getCheapestVariantBasePrice(testProduct)).thenReturn(new BigDecimal("120.00"));
-        when(productPriceService.isVariantsPricesEqual(testProduct)).thenReturn(true);
-
-        // Act
-        ProductOverviewResponse result = productMapper.toOverviewResponse(testProduct);
-
-        // Assert
-        assertNotNull(result);
-        assertEquals(testProduct.getId(), result.id());
-        assertEquals(testProduct.getName(), result.name());
-        assertEquals(new BigDecimal("100.00"), result.price());
-        assertEquals(new BigDecimal("120.00"), result.basePrice());
-        assertTrue(result.isPriceEqual());
-        assertEquals(testProduct.isVisible(), result.isVisible());
-        assertEquals(testProduct.getCategoryIds(), result.categoryIds());
-        assertEquals(1, result.relatedProductIds().size());
-        assertTrue(result.relatedProductIds().contains(2L));
-        assertEquals("/images/products/1/image1.jpg", result.primaryImagePath());
-
-        verify(productPriceService).getCheapestVariantPrice(testProduct);
-        verify(productPriceService).getCheapestVariantBasePrice(testProduct);
-        verify(productPriceService).isVariantsPricesEqual(testProduct);
-    }
-
-    @Test
-    void toOverviewResponse_WithNoVariants_MapsCorrectly() {
-        // Arrange
-        testProduct.setVariants(Collections.emptyList());
-
-        when(productPriceService.getCheapestVariantPrice(testProduct)).thenReturn(null);
-        when(productPriceService.getCheapestVariantBasePrice(testProduct)).thenReturn(null);
-        when(productPriceService.isVariantsPricesEqual(testProduct)).thenReturn(true);
-
-        // Act
-        ProductOverviewResponse result = productMapper.toOverviewResponse(testProduct);
-
-        // Assert
-        assertNotNull(result);
-        assertEquals(testProduct.getId(), result.id());
-        assertEquals(testProduct.getName(), result.name());
-        assertNull(result.price());
-        assertNull(result.basePrice());
-        assertTrue(result.isPriceEqual());
-
-        verify(productPriceService).getCheapestVariantPrice(testProduct);
-        verify(productPriceService).getCheapestVariantBasePrice(testProduct);
-        verify(productPriceService).isVariantsPricesEqual(testProduct);
-    }
-
-    @Test
-    void toOverviewResponse_WithNoImages_MapsCorrectly() {
-        // Arrange
-        testProduct.setImages(Collections.emptyList());
-
-        when(productPriceService.getCheapestVariantPrice(testProduct)).thenReturn(new BigDecimal("100.00"));
-        when(productPriceService.getCheapestVariantBasePrice(testProduct)).thenReturn(new BigDecimal("120.00"));
-        when(productPriceService.isVariantsPricesEqual(testProduct)).thenReturn(true);
-
-        // Act
-        ProductOverviewResponse result = productMapper.toOverviewResponse(testProduct);
-
-        // Assert
-        assertNotNull(result);
-        assertNull(result.primaryImagePath());
-    }
-
-    @Test
-    void toOverviewResponse_WithNullRequest_ThrowsNullPointerException() {
-        // Act & Assert
-        assertThrows(NullPointerException.class, () -> productMapper.toOverviewResponse(null));
-    }
-
     @Test
     void toResponse_WithValidProduct_MapsCorrectly() {
         // Arrange
@@ -207,20 +122,16 @@ class ProductMapperTest {
         images.add(testProductImage);
         testProduct.setImages(images);
 
-        Product relatedProduct = Product.builder().id(2L).name("Related Product").build();
-        testProduct.setRelatedProducts(Set.of(relatedProduct));
+        ProductOverviewResponse relatedProduct = ProductOverviewResponse.builder().id(2L).name("Related Product").build();
 
         when(productPriceService.getCheapestVariantPrice(testProduct)).thenReturn(new BigDecimal("100.00"));
         when(productPriceService.getCheapestVariantBasePrice(testProduct)).thenReturn(new BigDecimal("120.00"));
         when(productPriceService.isVariantsPricesEqual(testProduct)).thenReturn(true);
         when(variantMapper.toResponse(testVariant)).thenReturn(testVariantResponse);
         when(attributeMapper.toResponse(testAttribute)).thenReturn(testAttributeResponse);
-        when(productPriceService.getCheapestVariantPrice(relatedProduct)).thenReturn(new BigDecimal("150.00"));
-        when(productPriceService.getCheapestVariantBasePrice(relatedProduct)).thenReturn(new BigDecimal("170.00"));
-        when(productPriceService.isVariantsPricesEqual(relatedProduct)).thenReturn(true);
 
         // Act
-        ProductResponse result = productMapper.toResponse(testProduct);
+        ProductResponse result = productMapper.toResponse(testProduct, Set.of(relatedProduct));
 
         // Assert
         assertNotNull(result);
@@ -238,7 +149,7 @@ class ProductMapperTest {
         assertTrue(result.variants().contains(testVariantResponse));
 
         assertNotNull(result.relatedProducts());
-        assertEquals(1, result.relatedProducts().size());
+        assertEquals(Set.of(relatedProduct), result.relatedProducts());
 
         assertNotNull(result.attributes());
         assertEquals(1, result.attributes().size());
@@ -265,7 +176,7 @@ class ProductMapperTest {
         when(productPriceService.isVariantsPricesEqual(testProduct)).thenReturn(true);
 
         // Act
-        ProductResponse result = productMapper.toResponse(testProduct);
+        ProductResponse result = productMapper.toResponse(testProduct, Set.of());
 
         // Assert
         assertNotNull(result);
@@ -279,14 +190,13 @@ class ProductMapperTest {
     @Test
     void toResponse_WithNoRelatedProducts_MapsCorrectly() {
         // Arrange
-        testProduct.setRelatedProducts(Collections.emptySet());
 
         when(productPriceService.getCheapestVariantPrice(testProduct)).thenReturn(new BigDecimal("100.00"));
         when(productPriceService.getCheapestVariantBasePrice(testProduct)).thenReturn(new BigDecimal("120.00"));
         when(productPriceService.isVariantsPricesEqual(testProduct)).thenReturn(true);
 
         // Act
-        ProductResponse result = productMapper.toResponse(testProduct);
+        ProductResponse result = productMapper.toResponse(testProduct, Set.of());
 
         // Assert
         assertNotNull(result);
@@ -304,7 +214,7 @@ class ProductMapperTest {
         when(productPriceService.isVariantsPricesEqual(testProduct)).thenReturn(true);
 
         // Act
-        ProductResponse result = productMapper.toResponse(testProduct);
+        ProductResponse result = productMapper.toResponse(testProduct, Set.of());
 
         // Assert
         assertNotNull(result);
@@ -322,7 +232,7 @@ class ProductMapperTest {
         when(productPriceService.isVariantsPricesEqual(testProduct)).thenReturn(true);
 
         // Act
-        ProductResponse result = productMapper.toResponse(testProduct);
+        ProductResponse result = productMapper.toResponse(testProduct, Set.of());
 
         // Assert
         assertNotNull(result);
@@ -332,6 +242,6 @@ class ProductMapperTest {
     @Test
     void toResponse_WithNullRequest_ThrowsNullPointerException() {
         // Act & Assert
-        assertThrows(NullPointerException.class, () -> productMapper.toResponse(null));
+        assertThrows(NullPointerException.class, () -> productMapper.toResponse(null, Set.of()));
     }
 }
\ No newline at end of file
@@ -0,0 +1,110 @@
+package com.ecommerce.product;
+
+import com.ecommerce.product.catalog.CatalogImportedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductOverviewCacheTest {
+    private SimpleMeterRegistry meterRegistry;
+    private ProductOverviewCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ProductOverviewCache(meterRegistry, 3);
+    }
+
+    private ProductOverviewResponse overview(Long id, Long... relatedIds) {
+        return ProductOverviewResponse.builder()
+                .id(id)
+                .isVisible(true)
+                .relatedProductIds(List.of(relatedIds))
+                .build();
+    }
+
+    private double gets(String result) {
+        return meterRegistry.get("cache.gets").tag("result", result).counter().count();
+    }
+
+    @Test
+    void getAll_LoadsOnlyMissingProductsWithOneCall() {
+        // Arrange
+        cache.getAll(List.of(1L), missing -> List.of(overview(1L)));
+        List<Set<Long>> loads = new ArrayList<>();
+
+        // Act
+        Map<Long, ProductOverviewResponse> result = cache.getAll(List.of(1L, 2L, 3L), missing -> {
+            loads.add(Set.copyOf(missing));
+            return List.of(overview(2L));
+        });
+
+        // Assert
+        assertEquals(List.of(Set.of(2L, 3L)), loads);
+        assertEquals(Set.of(1L, 2L), result.keySet());
+        assertEquals(1, gets("hit"));
+        assertEquals(3, gets("miss"));
+        assertEquals(2, meterRegistry.get("product.overview.batch.size").summary().count());
+    }
+
+    @Test
+    void getAll_OverLimit_EvictsLeastRecentlyUsed() {
+        // Arrange
+        cache.getAll(List.of(1L, 2L, 3L), missing -> List.of(overview(1L), overview(2L), overview(3L)));
+        cache.getAll(List.of(1L), missing -> List.of());
+
+        // Act
+        cache.getAll(List.of(4L), missing -> List.of(overview(4L)));
+
+        // Assert
+        assertTrue(cache.contains(1L));
+        assertFalse(cache.contains(2L));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void onProductChanged_InvalidatesProductAndProductsRelatedToIt() {
+        // Arrange
+        cache.getAll(List.of(1L, 2L, 3L), missing -> List.of(overview(1L, 2L), overview(2L), overview(3L)));
+
+        // Act
+        cache.onProductChanged(new ProductChangedEvent(2L, Set.of()));
+
+        // Assert
+        assertFalse(cache.contains(1L));
+        assertFalse(cache.contains(2L));
+        assertTrue(cache.contains(3L));
+    }
+
+    @Test
+    void onCatalogImported_InvalidatesImportedProducts() {
+        // Arrange
+        cache.getAll(List.of(1L, 2L), missing -> List.of(overview(1L), overview(2L)));
+
+        // Act
+        cache.onCatalogImported(new CatalogImportedEvent(List.of(1L)));
+
+        // Assert
+        assertFalse(cache.contains(1L));
+        assertTrue(cache.contains(2L));
+    }
+
+    @Test
+    void getAll_WithInvalidationDuringLoad_DoesNotCacheLoadedOverviews() {
+        // Act
+        cache.getAll(List.of(1L), missing -> {
+            cache.onProductChanged(new ProductChangedEvent(5L, Set.of()));
+            return List.of(overview(1L));
+        });
+
+        // Assert
+        assertFalse(cache.contains(1L));
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.product;
+
+import com.ecommerce.product.facet.ProductFacetLink;
+import com.ecommerce.productimage.ProductImageRepository;
+import com.ecommerce.productimage.ProductPrimaryImage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductOverviewReaderTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductImageRepository productImageRepository;
+
+    @InjectMocks
+    private ProductOverviewReader productOverviewReader;
+
+    private Product product1;
+    private Product product2;
+
+    @BeforeEach
+    void setUp() {
+        product1 = Product.builder()
+                .id(1L)
+                .name("Product 1")
+                .isVisible(true)
+                .minPrice(new BigDecimal("80.00"))
+                .minBasePrice(new BigDecimal("100.00"))
+                .pricesEqual(true)
+                .build();
+        product2 = Product.builder()
+                .id(2L)
+                .name("Product 2")
+                .isVisible(true)
+                .minPrice(new BigDecimal("50.00"))
+                .minBasePrice(new BigDecimal("50.00"))
+                .build();
+    }
+
+    @Test
+    void toOverviewResponses_WithProducts_MapsInOrderUsingBatchedQueries() {
+        // Arrange
+        Set<Long> ids = Set.of(1L, 2L);
+        when(productRepository.findCategoryLinksByProductIds(ids)).thenReturn(List.of(
+                new ProductFacetLink(1L, 10L),
+                new ProductFacetLink(1L, 11L),
+                new ProductFacetLink(2L, 10L)
+        ));
+        when(productRepository.findRelatedProductLinksByProductIds(ids)).thenReturn(List.of(
+                new ProductFacetLink(2L, 1L)
+        ));
+        when(productImageRepository.findPrimaryImagesByProductIds(ids)).thenReturn(List.of(
+                new ProductPrimaryImage(1L, "1/first.jpg")
+        ));
+
+        // Act
+        List<ProductOverviewResponse> result = productOverviewReader.toOverviewResponses(List.of(product2, product1));
+
+        // Assert
+        assertEquals(2, result.size());
+
+        ProductOverviewResponse first = result.get(0);
+        assertEquals(2L, first.id());
+        assertEquals(new BigDecimal("50.00"), first.price());
+        assertFalse(first.isPriceEqual());
+        assertEquals(Set.of(10L), first.categoryIds());
+        assertEquals(List.of(1L), first.relatedProductIds());
+        assertNull(first.primaryImagePath());
+
+        ProductOverviewResponse second = result.get(1);
+        assertEquals(1L, second.id());
+        assertEquals("Product 1", second.name());
+        assertEquals(new BigDecimal("80.00"), second.price());
+        assertEquals(new BigDecimal("100.00"), second.basePrice());
+        assertTrue(second.isPriceEqual());
+        assertTrue(second.isVisible());
+        assertEquals(Set.of(10L, 11L), second.categoryIds());
+        assertEquals(Collections.emptyList(), second.relatedProductIds());
+        assertEquals("1/first.jpg", second.primaryImagePath());
+
+        verify(productRepository, times(1)).findCategoryLinksByProductIds(anyCollection());
+        verify(productRepository, times(1)).findRelatedProductLinksByProductIds(anyCollection());
+        verify(productImageRepository, times(1)).findPrimaryImagesByProductIds(anyCollection());
+    }
+
+    @Test
+    void toOverviewResponses_WithPage_KeepsPagination() {
+        // Arrange
+        PageRequest pageRequest = PageRequest.of(1, 1);
+        Page<Product> page = new PageImpl<>(List.of(product1), pageRequest, 5);
+
+        // Act
+        Page<ProductOverviewResponse> result = productOverviewReader.toOverviewResponses(page);
+
+        // Assert
+        assertEquals(5, result.getTotalElements());
+        assertEquals(pageRequest, result.getPageable());
+        assertEquals(1L, result.getContent().getFirst().id());
+    }
+
+    @Test
+    void toOverviewResponses_WithNoProducts_DoesNotQuery() {
+        // Act
+        List<ProductOverviewResponse> result = productOverviewReader.toOverviewResponses(Collections.<Product>emptyList());
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(productRepository, productImageRepository);
+    }
+}
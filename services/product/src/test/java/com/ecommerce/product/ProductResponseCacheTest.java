@@ -0,0 +1,149 @@
+package com.ecommerce.product;
+
+import com.ecommerce.attribute.AttributeChangedEvent;
+import com.ecommerce.attribute.AttributeResponse;
+import com.ecommerce.attributevalue.AttributeValueResponse;
+import com.ecommerce.variant.StockChangedEvent;
+import com.ecommerce.variant.VariantResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProductResponseCacheTest {
+    private ProductResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ProductResponseCache(10);
+    }
+
+    private ProductResponse response(Long id, Set<Long> relatedIds, Set<Long> attributeIds) {
+        return ProductResponse.builder()
+                .id(id)
+                .relatedProducts(relatedIds.stream()
+                        .map(relatedId -> ProductOverviewResponse.builder().id(relatedId).build())
+                        .collect(Collectors.toSet()))
+                .attributes(attributeIds.stream()
+                        .map(attributeId -> AttributeResponse.builder().id(attributeId).values(List.of()).build())
+                        .collect(Collectors.toSet()))
+                .build();
+    }
+
+    @Test
+    void get_WithCachedProduct_DoesNotLoadAgain() {
+        // Arrange
+        AtomicInteger loads = new AtomicInteger();
+        ProductResponse response = response(1L, Set.of(), Set.of());
+
+        // Act
+        cache.get(1L, () -> { loads.incrementAndGet(); return response; });
+        ProductResponse result = cache.get(1L, () -> { loads.incrementAndGet(); return response; });
+
+        // Assert
+        assertEquals(response, result);
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void get_WithInvalidationDuringLoad_DoesNotCacheResponse() {
+        // Act
+        cache.get(1L, () -> {
+            cache.onProductChanged(new ProductChangedEvent(2L, Set.of()));
+            return response(1L, Set.of(), Set.of());
+        });
+
+        // Assert
+        assertFalse(cache.contains(1L));
+    }
+
+    @Test
+    void onProductChanged_InvalidatesProductAndProductsRelatedToIt() {
+        // Arrange
+        cache.get(1L, () -> response(1L, Set.of(2L), Set.of()));
+        cache.get(2L, () -> response(2L, Set.of(), Set.of()));
+        cache.get(3L, () -> response(3L, Set.of(), Set.of()));
+
+        // Act
+        cache.onProductChanged(new ProductChangedEvent(2L, Set.of()));
+
+        // Assert
+        assertFalse(cache.contains(1L));
+        assertFalse(cache.contains(2L));
+        assertTrue(cache.contains(3L));
+    }
+
+    @Test
+    void onStockChanged_InvalidatesOnlyProductsWithChangedStock() {
+        // Arrange
+        cache.get(1L, () -> response(1L, Set.of(2L), Set.of()));
+        cache.get(2L, () -> response(2L, Set.of(), Set.of()));
+        cache.get(3L, () -> response(3L, Set.of(), Set.of()));
+
+        // Act
+        cache.onStockChanged(new StockChangedEvent(Set.of(2L, 3L)));
+
+        // Assert
+        assertTrue(cache.contains(1L));
+        assertFalse(cache.contains(2L));
+        assertFalse(cache.contains(3L));
+    }
+
+    @Test
+    void onAttributeChanged_InvalidatesOnlyProductsUsingAttribute() {
+        // Arrange
+        VariantResponse variant = VariantResponse.builder()
+                .attributeValues(Map.of(5L, AttributeValueResponse.builder().id(5L).attributeId(20L).build()))
+                .build();
+        cache.get(1L, () -> response(1L, Set.of(), Set.of(10L)));
+        cache.get(2L, () -> ProductResponse.builder().id(2L).variants(Set.of(variant)).build());
+        cache.get(3L, () -> response(3L, Set.of(), Set.of()));
+
+        // Act
+        cache.onAttributeChanged(new AttributeChangedEvent(10L));
+        cache.onAttributeChanged(new AttributeChangedEvent(20L));
+
+        // Assert
+        assertFalse(cache.contains(1L));
+        assertFalse(cache.contains(2L));
+        assertTrue(cache.contains(3L));
+    }
+
+    @Test
+    void get_WithWeightOverLimit_EvictsLeastRecentlyUsed() {
+        // Arrange
+        cache.get(1L, () -> response(1L, Set.of(11L, 12L, 13L), Set.of()));
+        cache.get(2L, () -> response(2L, Set.of(21L, 22L, 23L), Set.of()));
+        cache.get(1L, () -> response(1L, Set.of(), Set.of()));
+
+        // Act
+        cache.get(3L, () -> response(3L, Set.of(31L, 32L, 33L), Set.of()));
+
+        // Assert
+        assertTrue(cache.contains(1L));
+        assertFalse(cache.contains(2L));
+        assertTrue(cache.contains(3L));
+        assertEquals(8, cache.getTotalWeight());
+    }
+
+    @Test
+    void weightOf_CountsNestedObjects() {
+        // Arrange
+        VariantResponse variant = VariantResponse.builder()
+                .attributeValues(Map.of(5L, AttributeValueResponse.builder().id(5L).build()))
+                .build();
+        ProductResponse response = ProductResponse.builder()
+                .variants(Set.of(variant))
+                .imagePaths(List.of("a.jpg", "b.jpg"))
+                .build();
+
+        // Act & Assert
+        assertEquals(5, ProductResponseCache.weightOf(response));
+    }
+}
@@ -3,8 +3,13 @@ package com.ecommerce.product;
 import com.ecommerce.attribute.Attribute;
 import com.ecommerce.attribute.AttributeResponse;
 import com.ecommerce.attribute.AttributeService;
+import com.ecommerce.exception.InvalidCursorException;
 import com.ecommerce.exception.ProductNotFoundException;
 import com.ecommerce.feignclient.category.CategoryClient;
+import com.ecommerce.product.facet.ProductFacetResponse;
+import com.ecommerce.product.facet.ProductFacetService;
+import com.ecommerce.product.search.ProductSuggestion;
+import com.ecommerce.product.search.ProductSuggestionIndex;
 import com.ecommerce.productimage.ProductImageResponse;
 import com.ecommerce.productimage.ProductImageService;
 import com.ecommerce.relatedproduct.RelatedProductService;
@@ -12,20 +17,26 @@ import com.ecommerce.settings.Constants;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.MediaType;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -41,13 +52,16 @@ class ProductServiceTest {
     private ProductMapper productMapper;
 
     @Mock
-    private ProductImageService productImageService;
+    private ProductOverviewReader productOverviewReader;
 
     @Mock
-    private RelatedProductService relatedProductService;
+    private ProductBatchService productBatchService;
+
+    @Mock
+    private ProductImageService productImageService;
 
     @Mock
-    private ProductPriceService productPriceService;
+    private RelatedProductService relatedProductService;
 
     @Mock
     private AttributeService attributeService;
@@ -55,6 +69,21 @@ class ProductServiceTest {
     @Mock
     private CategoryClient categoryClient;
 
+    @Mock
+    private ProductFacetService productFacetService;
+
+    @Mock
+    private FilterRangesService filterRangesService;
+
+    @Mock
+    private ProductSuggestionIndex productSuggestionIndex;
+
+    @Mock
+    private ProductResponseCache productResponseCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private ProductService productService;
 
@@ -160,8 +189,10 @@ class ProductServiceTest {
     @Test
     void getProductById_WithValidId_ReturnsProductResponse() {
         // Arrange
+        when(productResponseCache.get(eq(testProductId), any()))
+                .thenAnswer(invocation -> invocation.<Supplier<ProductResponse>>getArgument(1).get());
         when(productRepository.findById(testProductId)).thenReturn(Optional.of(testProduct));
-        when(productMapper.toResponse(testProduct)).thenReturn(testProductResponse);
+        when(productMapper.toResponse(testProduct, Set.of())).thenReturn(testProductResponse);
 
         // Act
         ProductResponse result = productService.getProductById(testProductId);
@@ -170,7 +201,69 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals(testProductResponse, result);
         verify(productRepository).findById(testProductId);
-        verify(productMapper).toResponse(testProduct);
+        verify(productMapper).toResponse(testProduct, Set.of());
+    }
+
+    @Test
+    void getProductById_WithCachedResponse_SkipsMapping() {
+        // Arrange
+        when(productResponseCache.get(eq(testProductId), any())).thenReturn(testProductResponse);
+
+        // Act
+        ProductResponse result = productService.getProductById(testProductId);
+
+        // Assert
+        assertEquals(testProductResponse, result);
+        verifyNoInteractions(productRepository, productMapper);
+    }
+
+    @Test
+    void getProductVersion_WithValidId_ReturnsVersion() {
+        // Arrange
+        ProductVersion version = new ProductVersion(testProductId, 2L, Instant.now());
+        when(productRepository.findVersionById(testProductId)).thenReturn(Optional.of(version));
+        when(productRepository.findStockDigest(testProductId)).thenReturn(42);
+
+        // Act
+        ProductVersion result = productService.getProductVersion(testProductId);
+
+        // Assert
+        assertEquals(version.withStockDigest(42), result);
+        assertNotEquals(version.toETag(), result.toETag());
+        verifyNoInteractions(productMapper, productResponseCache);
+    }
+
+    @Test
+    void getProductVersion_WithInvalidId_ThrowsProductNotFoundException() {
+        // Arrange
+        when(productRepository.findVersionById(999L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> productService.getProductVersion(999L));
+    }
+
+    @Test
+    void getCategoryListingETag_WithProducts_ReturnsQuotedDigest() {
+        // Arrange
+        when(productRepository.findListingDigestByCategory(1L)).thenReturn("abc");
+
+        // Act
+        String result = productService.getCategoryListingETag(1L);
+
+        // Assert
+        assertEquals("\"1-abc\"", result);
+    }
+
+    @Test
+    void getCategoryListingETag_WithEmptyCategory_ReturnsEmptyTag() {
+        // Arrange
+        when(productRepository.findListingDigestByCategory(1L)).thenReturn(null);
+
+        // Act
+        String result = productService.getCategoryListingETag(1L);
+
+        // Assert
+        assertEquals("\"1-empty\"", result);
     }
 
     @Test
@@ -180,7 +273,7 @@ class ProductServiceTest {
         Page<Product> productPage = new PageImpl<>(List.of(testProduct));
 
         when(productRepository.findAll(pageRequest)).thenReturn(productPage);
-        when(productMapper.toOverviewResponse(testProduct)).thenReturn(testProductOverviewResponse);
+        when(productOverviewReader.toOverviewResponses(productPage)).thenReturn(new PageImpl<>(List.of(testProductOverviewResponse)));
 
         // Act
         Page<ProductOverviewResponse> result = productService.getAllProducts(pageRequest);
@@ -190,7 +283,7 @@ class ProductServiceTest {
         assertEquals(1, result.getContent().size());
         assertEquals(testProductOverviewResponse, result.getContent().get(0));
         verify(productRepository).findAll(pageRequest);
-        verify(productMapper).toOverviewResponse(testProduct);
+        verify(productOverviewReader).toOverviewResponses(productPage);
     }
 
     @Test
@@ -211,9 +304,10 @@ class ProductServiceTest {
         );
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("id"));
 
-        List<Product> products = List.of(testProduct);
-        when(productRepository.findAll(any(Specification.class))).thenReturn(products);
-        when(productMapper.toOverviewResponse(testProduct)).thenReturn(testProductOverviewResponse);
+        Page<Product> productPage = new PageImpl<>(List.of(testProduct), pageRequest, 1);
+        when(productRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(productPage);
+        when(productOverviewReader.toOverviewResponses(productPage))
+                .thenReturn(new PageImpl<>(List.of(testProductOverviewResponse), pageRequest, 1));
 
         // Act
         Page<ProductOverviewResponse> result = productService.getProductsByCategory(categoryId, specifications, pageRequest);
@@ -221,209 +315,170 @@ class ProductServiceTest {
         // Assert
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
+        assertEquals(1, result.getTotalElements());
         assertEquals(testProductOverviewResponse, result.getContent().get(0));
-        verify(productRepository).findAll(any(Specification.class));
-        verify(productMapper).toOverviewResponse(testProduct);
+        verify(productRepository).findAll(any(Specification.class), any(PageRequest.class));
+        verify(productOverviewReader).toOverviewResponses(productPage);
     }
 
     @Test
-    void getProductsByCategory_WithSortById_SortsCorrectly() {
+    void getProductsByCategory_WithSortById_SortsInDatabaseById() {
         // Arrange
-        Long categoryId = 1L;
-        ProductSpecificationRequest specifications = new ProductSpecificationRequest(null, null, null);
-        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("id"));
-
-        Product product1 = Product.builder().id(1L).name("A").isVisible(true).build();
-        Product product2 = Product.builder().id(2L).name("B").isVisible(true).build();
-        List<Product> products = List.of(product2, product1);  // Unsorted order
-
-        when(productRepository.findAll(any(Specification.class))).thenReturn(products);
-        when(productMapper.toOverviewResponse(product1)).thenReturn(ProductOverviewResponse.builder().id(1L).name("A").build());
-        when(productMapper.toOverviewResponse(product2)).thenReturn(ProductOverviewResponse.builder().id(2L).name("B").build());
+        PageRequest pageRequest = PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "id"));
+        when(productRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(Page.empty());
 
         // Act
-        Page<ProductOverviewResponse> result = productService.getProductsByCategory(categoryId, specifications, pageRequest);
+        productService.getProductsByCategory(1L, new ProductSpecificationRequest(null, null, null), pageRequest);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.getContent().size());
-        assertEquals(1L, result.getContent().get(0).id()); // Should be sorted by ID
-        assertEquals(2L, result.getContent().get(1).id());
-        verify(productRepository).findAll(any(Specification.class));
+        PageRequest expected = PageRequest.of(2, 10, Sort.by(Sort.Direction.DESC, "id"));
+        verify(productRepository).findAll(any(Specification.class), eq(expected));
     }
 
     @Test
-    void getProductsByCategory_WithSortByName_SortsCorrectly() {
+    void getProductsByCategory_WithSortByName_SortsInDatabaseByNameIgnoringCase() {
         // Arrange
-        Long categoryId = 1L;
-        ProductSpecificationRequest specifications = new ProductSpecificationRequest(null, null, null);
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("name"));
-
-        Product product1 = Product.builder().id(1L).name("B").isVisible(true).build();
-        Product product2 = Product.builder().id(2L).name("A").isVisible(true).build();
-        List<Product> products = List.of(product1, product2);  // Unsorted order
-
-        when(productRepository.findAll(any(Specification.class))).thenReturn(products);
-        when(productMapper.toOverviewResponse(product1)).thenReturn(ProductOverviewResponse.builder().id(1L).name("B").build());
-        when(productMapper.toOverviewResponse(product2)).thenReturn(ProductOverviewResponse.builder().id(2L).name("A").build());
+        when(productRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(Page.empty());
 
         // Act
-        Page<ProductOverviewResponse> result = productService.getProductsByCategory(categoryId, specifications, pageRequest);
+        productService.getProductsByCategory(1L, new ProductSpecificationRequest(null, null, null), pageRequest);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.getContent().size());
-        assertEquals("A", result.getContent().get(0).name()); // Should be sorted by name
-        assertEquals("B", result.getContent().get(1).name());
-        verify(productRepository).findAll(any(Specification.class));
+        PageRequest expected = PageRequest.of(0, 10, Sort.by(
+                Sort.Order.asc("name").ignoreCase(),
+                Sort.Order.asc("id")
+        ));
+        verify(productRepository).findAll(any(Specification.class), eq(expected));
     }
 
     @Test
-    void getProductsByCategory_WithSortByPrice_SortsCorrectly() {
+    void getProductsByCategory_WithSortByPrice_SortsInDatabaseByStoredMinPrice() {
         // Arrange
-        Long categoryId = 1L;
-        ProductSpecificationRequest specifications = new ProductSpecificationRequest(null, null, null);
-        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("price"));
-
-        Product product1 = Product.builder().id(1L).name("A").isVisible(true).build();
-        Product product2 = Product.builder().id(2L).name("B").isVisible(true).build();
-        List<Product> products = List.of(product1, product2);
-
-        BigDecimal price1 = new BigDecimal("200.00");
-        BigDecimal price2 = new BigDecimal("100.00");
-
-        when(productRepository.findAll(any(Specification.class))).thenReturn(products);
-        when(productPriceService.getCheapestVariantPrice(product1)).thenReturn(price1);
-        when(productPriceService.getCheapestVariantPrice(product2)).thenReturn(price2);
-
-        when(productMapper.toOverviewResponse(product1)).thenReturn(
-                ProductOverviewResponse.builder().id(1L).name("A").price(price1).build());
-        when(productMapper.toOverviewResponse(product2)).thenReturn(
-                ProductOverviewResponse.builder().id(2L).name("B").price(price2).build());
+        PageRequest pageRequest = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "price"));
+        when(productRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(Page.empty());
 
         // Act
-        Page<ProductOverviewResponse> result = productService.getProductsByCategory(categoryId, specifications, pageRequest);
+        productService.getProductsByCategory(1L, new ProductSpecificationRequest(null, null, null), pageRequest);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.getContent().size());
-        assertEquals(2L, result.getContent().get(0).id()); // Product with cheaper price should be first
-        assertEquals(1L, result.getContent().get(1).id());
-        verify(productRepository).findAll(any(Specification.class));
-        verify(productPriceService, times(2)).getCheapestVariantPrice(any(Product.class));
+        PageRequest expected = PageRequest.of(0, 10, Sort.by(
+                Sort.Order.desc("minPrice"),
+                Sort.Order.desc("id")
+        ));
+        verify(productRepository).findAll(any(Specification.class), eq(expected));
     }
 
     @Test
-    void getProductsByCategory_WithInvalidSortProperty_ReturnsUnsortedList() {
+    void getProductsByCategory_WithInvalidSortProperty_FallsBackToId() {
         // Arrange
-        Long categoryId = 1L;
-        ProductSpecificationRequest specifications = new ProductSpecificationRequest(null, null, null);
         PageRequest pageRequest = PageRequest.of(0, 10, Sort.by("invalid_property"));
-
-        List<Product> products = List.of(testProduct);
-        when(productRepository.findAll(any(Specification.class))).thenReturn(products);
-        when(productMapper.toOverviewResponse(testProduct)).thenReturn(testProductOverviewResponse);
+        when(productRepository.findAll(any(Specification.class), any(PageRequest.class))).thenReturn(Page.empty());
+        when(productOverviewReader.toOverviewResponses(any(Page.class))).thenReturn(Page.empty());
 
         // Act
-        Page<ProductOverviewResponse> result = productService.getProductsByCategory(categoryId, specifications, pageRequest);
+        Page<ProductOverviewResponse> result = productService.getProductsByCategory(1L, new ProductSpecificationRequest(null, null, null), pageRequest);
 
         // Assert
         assertNotNull(result);
-        assertEquals(1, result.getContent().size());
-        verify(productRepository).findAll(any(Specification.class));
+        verify(productRepository).findAll(any(Specification.class), eq(PageRequest.of(0, 10, Sort.by("id"))));
     }
 
     @Test
-    void getProductsByIds_WithValidIds_ReturnsProductResponses() {
+    void getProductsByCategory_WithReadyFacetIndex_LoadsPageOfIndexedIds() {
         // Arrange
-        List<Long> ids = List.of(1L, 2L);
-        Product product1 = Product.builder().id(1L).name("A").isVisible(true).build();
-        Product product2 = Product.builder().id(2L).name("B").isVisible(true).build();
+        Product product2 = Product.builder().id(2L).name("Product 2").build();
+        ProductOverviewResponse overview2 = ProductOverviewResponse.builder().id(2L).build();
+        ProductSpecificationRequest specifications = new ProductSpecificationRequest(null, null, Set.of(5L));
+        PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "price"));
 
-        when(productRepository.findAllById(ids)).thenReturn(List.of(product1, product2));
-        when(productMapper.toOverviewResponse(product1)).thenReturn(
-                ProductOverviewResponse.builder().id(1L).name("A").build());
-        when(productMapper.toOverviewResponse(product2)).thenReturn(
-                ProductOverviewResponse.builder().id(2L).name("B").build());
+        when(productFacetService.findProductIdsByCategory(1L, specifications, ProductSortKey.PRICE, Sort.Direction.ASC, pageRequest))
+                .thenReturn(Optional.of(new PageImpl<>(List.of(2L, testProductId), pageRequest, 7)));
+        when(productRepository.findAllById(List.of(2L, testProductId))).thenReturn(List.of(testProduct, product2));
+        when(productOverviewReader.toOverviewResponses(List.of(product2, testProduct)))
+                .thenReturn(List.of(overview2, testProductOverviewResponse));
 
         // Act
-        List<ProductOverviewResponse> result = productService.getProductsByIds(ids);
+        Page<ProductOverviewResponse> result = productService.getProductsByCategory(1L, specifications, pageRequest);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(2, result.size());
-        assertEquals(1L, result.get(0).id()); // Should maintain original order
-        assertEquals(2L, result.get(1).id());
-        verify(productRepository).findAllById(ids);
-        verify(productMapper, times(2)).toOverviewResponse(any(Product.class));
+        assertEquals(List.of(overview2, testProductOverviewResponse), result.getContent());
+        assertEquals(7, result.getTotalElements());
+        verify(productRepository, never()).findAll(any(Specification.class), any(PageRequest.class));
     }
 
     @Test
-    void getProductsByIds_WithInvisibleProducts_FiltersThemOut() {
+    void getFacetCountsByCategory_DelegatesToFacetService() {
         // Arrange
-        List<Long> ids = List.of(1L, 2L);
-        Product product1 = Product.builder().id(1L).name("A").isVisible(true).build();
-        Product product2 = Product.builder().id(2L).name("B").isVisible(false).build(); // Invisible
-
-        when(productRepository.findAllById(ids)).thenReturn(List.of(product1, product2));
-        when(productMapper.toOverviewResponse(product1)).thenReturn(
-                ProductOverviewResponse.builder().id(1L).name("A").build());
+        ProductSpecificationRequest specifications = new ProductSpecificationRequest(null, null, null);
+        ProductFacetResponse facets = ProductFacetResponse.builder()
+                .total(3)
+                .attributeValueCounts(Map.of(5L, 2))
+                .build();
+        when(productFacetService.getFacetCountsByCategory(1L, specifications)).thenReturn(facets);
 
         // Act
-        List<ProductOverviewResponse> result = productService.getProductsByIds(ids);
+        ProductFacetResponse result = productService.getFacetCountsByCategory(1L, specifications);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(1, result.size()); // Only the visible product
-        assertEquals(1L, result.get(0).id());
-        verify(productRepository).findAllById(ids);
-        verify(productMapper).toOverviewResponse(product1);
-        verify(productMapper, never()).toOverviewResponse(product2);
+        assertEquals(facets, result);
     }
 
     @Test
-    void getProductsByIds_WithEmptyList_ReturnsEmptyList() {
+    void scrollProductsByCategory_WithMoreProductsThanPageSize_ReturnsNextCursor() {
         // Arrange
-        List<Long> ids = Collections.emptyList();
+        Product product1 = Product.builder().id(1L).name("A").minPrice(new BigDecimal("10.00")).build();
+        Product product2 = Product.builder().id(2L).name("B").minPrice(new BigDecimal("20.00")).build();
+        Product product3 = Product.builder().id(3L).name("C").minPrice(new BigDecimal("30.00")).build();
+
+        when(productRepository.findBy(any(Specification.class), any())).thenReturn(List.of(product1, product2, product3));
+        when(productOverviewReader.toOverviewResponses(List.of(product1, product2)))
+                .thenReturn(List.of(testProductOverviewResponse, testProductOverviewResponse));
 
         // Act
-        List<ProductOverviewResponse> result = productService.getProductsByIds(ids);
+        ProductSliceResponse result = productService.scrollProductsByCategory(
+                1L, new ProductSpecificationRequest(null, null, null), Sort.by("price"), 2, null);
 
         // Assert
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(productRepository).findAllById(ids);
-        verify(productMapper, never()).toOverviewResponse(any());
+        assertTrue(result.hasNext());
+        assertEquals(2, result.content().size());
+        assertEquals(new ProductCursor(2L, "20.00"), ProductCursor.decode(result.nextCursor()));
     }
 
     @Test
-    void getProductsByIds_WithNoVisibleProducts_ReturnsEmptyList() {
+    void scrollProductsByCategory_WithLastSlice_ReturnsNoCursor() {
         // Arrange
-        List<Long> ids = List.of(1L, 2L);
-        Product product1 = Product.builder().id(1L).name("A").isVisible(false).build();
-        Product product2 = Product.builder().id(2L).name("B").isVisible(false).build();
-
-        when(productRepository.findAllById(ids)).thenReturn(List.of(product1, product2));
+        String cursor = new ProductCursor(2L, "B").encode();
+        when(productRepository.findBy(any(Specification.class), any())).thenReturn(List.of(testProduct));
+        when(productOverviewReader.toOverviewResponses(List.of(testProduct))).thenReturn(List.of(testProductOverviewResponse));
 
         // Act
-        List<ProductOverviewResponse> result = productService.getProductsByIds(ids);
+        ProductSliceResponse result = productService.scrollProductsByCategory(
+                1L, new ProductSpecificationRequest(null, null, null), Sort.by("name"), 2, cursor);
 
         // Assert
-        assertNotNull(result);
-        assertTrue(result.isEmpty());
-        verify(productRepository).findAllById(ids);
-        verify(productMapper, never()).toOverviewResponse(any());
+        assertFalse(result.hasNext());
+        assertNull(result.nextCursor());
+        assertEquals(List.of(testProductOverviewResponse), result.content());
+    }
+
+    @Test
+    void scrollProductsByCategory_WithMalformedCursor_ThrowsInvalidCursorException() {
+        // Act & Assert
+        assertThrows(InvalidCursorException.class, () -> productService.scrollProductsByCategory(
+                1L, new ProductSpecificationRequest(null, null, null), Sort.by("id"), 2, "not-a-cursor"));
+        verify(productRepository, never()).findBy(any(Specification.class), any());
     }
 
     @Test
     void searchProductsByQuery_WithValidParameters_ReturnsProductResponses() {
         // Arrange
-        String query = "test";
+        String query = "Žluté Tričko";
         PageRequest pageRequest = PageRequest.of(0, 10);
         Page<Product> productPage = new PageImpl<>(List.of(testProduct));
 
-        when(productRepository.findAllVisibleBySimilarity(eq(query), anyDouble(), eq(pageRequest))).thenReturn(productPage);
-        when(productMapper.toOverviewResponse(testProduct)).thenReturn(testProductOverviewResponse);
+        when(productRepository.searchVisible("zlute tricko", "zlute:* & tricko:*", pageRequest)).thenReturn(productPage);
+        when(productOverviewReader.toOverviewResponses(productPage)).thenReturn(new PageImpl<>(List.of(testProductOverviewResponse)));
 
         // Act
         Page<ProductOverviewResponse> result = productService.searchProductsByQuery(query, pageRequest);
@@ -432,8 +487,22 @@ class ProductServiceTest {
         assertNotNull(result);
         assertEquals(1, result.getContent().size());
         assertEquals(testProductOverviewResponse, result.getContent().get(0));
-        verify(productRepository).findAllVisibleBySimilarity(eq(query), anyDouble(), eq(pageRequest));
-        verify(productMapper).toOverviewResponse(testProduct);
+        verify(productRepository).setSimilarityThreshold(anyDouble());
+        verify(productRepository).searchVisible("zlute tricko", "zlute:* & tricko:*", pageRequest);
+        verify(productOverviewReader).toOverviewResponses(productPage);
+    }
+
+    @Test
+    void searchProductsByQuery_WithBlankQuery_ReturnsEmptyPage() {
+        // Arrange
+        PageRequest pageRequest = PageRequest.of(0, 10);
+
+        // Act
+        Page<ProductOverviewResponse> result = productService.searchProductsByQuery(" -- ", pageRequest);
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(productRepository, never()).searchVisible(any(), any(), any());
     }
 
     @Test
@@ -443,14 +512,54 @@ class ProductServiceTest {
 
         // Act & Assert
         assertThrows(NullPointerException.class, () -> productService.searchProductsByQuery(null, pageRequest));
-        verify(productRepository, never()).findAllVisibleBySimilarity(any(), anyDouble(), any());
+        verify(productRepository, never()).searchVisible(any(), any(), any());
     }
 
     @Test
     void searchProductsByQuery_WithNullPageRequest_ThrowsNullPointerException() {
         // Act & Assert
         assertThrows(NullPointerException.class, () -> productService.searchProductsByQuery("test", null));
-        verify(productRepository, never()).findAllVisibleBySimilarity(any(), anyDouble(), any());
+        verify(productRepository, never()).searchVisible(any(), any(), any());
+    }
+
+    @Test
+    void searchProductsSliceByQuery_WithValidParameters_ReturnsSlice() {
+        // Arrange
+        PageRequest pageRequest = PageRequest.of(0, 1);
+        Slice<Product> productSlice = new SliceImpl<>(List.of(testProduct), pageRequest, true);
+        Slice<ProductOverviewResponse> responseSlice = new SliceImpl<>(List.of(testProductOverviewResponse), pageRequest, true);
+
+        when(productRepository.searchVisibleSlice("test", "test:*", pageRequest)).thenReturn(productSlice);
+        when(productOverviewReader.toOverviewResponses(productSlice)).thenReturn(responseSlice);
+
+        // Act
+        Slice<ProductOverviewResponse> result = productService.searchProductsSliceByQuery("Test", pageRequest);
+
+        // Assert
+        assertTrue(result.hasNext());
+        assertEquals(testProductOverviewResponse, result.getContent().get(0));
+        verify(productRepository, never()).searchVisible(any(), any(), any());
+    }
+
+    @Test
+    void suggestProducts_WithLimitAboveMaximum_CapsLimit() {
+        // Arrange
+        List<ProductSuggestion> suggestions = List.of(new ProductSuggestion(1L, "Tričko"));
+        when(productSuggestionIndex.suggest("tri", Constants.MAX_SUGGESTION_LIMIT)).thenReturn(suggestions);
+
+        // Act
+        List<ProductSuggestion> result = productService.suggestProducts("tri", 1000);
+
+        // Assert
+        assertEquals(suggestions, result);
+        verifyNoInteractions(productRepository);
+    }
+
+    @Test
+    void suggestProducts_WithNullQuery_ThrowsNullPointerException() {
+        // Act & Assert
+        assertThrows(NullPointerException.class, () -> productService.suggestProducts(null, 5));
+        verifyNoInteractions(productSuggestionIndex);
     }
 
     @Test
@@ -471,6 +580,7 @@ class ProductServiceTest {
         verify(attributeService).processProductAttributes(testProductRequest);
         verify(relatedProductService).processRelatedProducts(testProduct, testProductRequest);
         verify(productRepository).save(testProduct);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(testProductId, testCategoryIds));
 
         // Verify the product was properly set up
         assertEquals(testCategoryIds, testProduct.getCategoryIds());
@@ -492,6 +602,7 @@ class ProductServiceTest {
         Product existingProduct = Product.builder()
                 .id(testProductId)
                 .name("Old Name")
+                .categoryIds(Set.of(3L))
                 .build();
 
         when(productRepository.findById(testProductId)).thenReturn(Optional.of(existingProduct));
@@ -511,6 +622,7 @@ class ProductServiceTest {
         verify(attributeService).processProductAttributes(testProductRequest);
         verify(relatedProductService).processRelatedProducts(testProduct, testProductRequest);
         verify(productRepository).save(testProduct);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(testProductId, Set.of(1L, 2L, 3L)));
 
         // Verify the product was properly updated
         assertEquals(existingProduct.getId(), testProduct.getId());
@@ -542,7 +654,6 @@ class ProductServiceTest {
         // Arrange
         when(productRepository.findById(testProductId)).thenReturn(Optional.of(testProduct));
         doNothing().when(productRepository).delete(testProduct);
-        doNothing().when(productImageService).deleteDirectory(testProductId);
 
         // Act
         productService.deleteProductById(testProductId);
@@ -550,7 +661,8 @@ class ProductServiceTest {
         // Assert
         verify(productRepository).findById(testProductId);
         verify(productRepository).delete(testProduct);
-        verify(productImageService).deleteDirectory(testProductId);
+        verify(productImageService, never()).deleteDirectory(any());
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(testProductId, testCategoryIds));
     }
 
     @Test
@@ -558,23 +670,37 @@ class ProductServiceTest {
         // Act & Assert
         assertThrows(NullPointerException.class, () -> productService.deleteProductById(null));
         verify(productRepository, never()).findById(any());
-        verify(productRepository, never()).delete(any());
+        verify(productRepository, never()).delete(any(Product.class));
         verify(productImageService, never()).deleteDirectory(any());
     }
 
     @Test
-    void uploadProductImages_WithValidIdAndFiles_ProcessesFiles() {
+    void uploadProductImages_WithValidIdAndFiles_StoresFilesBeforeSavingImages() {
         // Arrange
         List<MultipartFile> files = List.of(mock(MultipartFile.class));
-        when(productRepository.findById(testProductId)).thenReturn(Optional.of(testProduct));
-        doNothing().when(productImageService).processFilesForProduct(testProduct, files);
+        when(productRepository.existsById(testProductId)).thenReturn(true);
+        when(productImageService.storeFiles(testProductId, files)).thenReturn(List.of("image.jpg"));
+        when(productImageService.saveImages(testProductId, List.of("image.jpg"))).thenReturn(List.of("old.jpg"));
 
         // Act
         productService.uploadProductImages(testProductId, files);
 
         // Assert
-        verify(productRepository).findById(testProductId);
-        verify(productImageService).processFilesForProduct(testProduct, files);
+        InOrder inOrder = inOrder(productImageService);
+        inOrder.verify(productImageService).storeFiles(testProductId, files);
+        inOrder.verify(productImageService).saveImages(testProductId, List.of("image.jpg"));
+        inOrder.verify(productImageService).deleteFiles(testProductId, List.of("old.jpg"));
+    }
+
+    @Test
+    void uploadProductImages_WithNonExistentProduct_ThrowsProductNotFoundException() {
+        // Arrange
+        List<MultipartFile> files = List.of(mock(MultipartFile.class));
+        when(productRepository.existsById(testProductId)).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> productService.uploadProductImages(testProductId, files));
+        verify(productImageService, never()).storeFiles(any(), any());
     }
 
     @Test
@@ -582,46 +708,37 @@ class ProductServiceTest {
         // Arrange
         String fileName = "image.jpg";
         Resource mockResource = mock(Resource.class);
-        ProductImageResponse imageResponse = new ProductImageResponse(mockResource, MediaType.IMAGE_JPEG);
+        ProductImageResponse imageResponse = new ProductImageResponse(mockResource, MediaType.IMAGE_JPEG, 0L, true);
 
-        when(productRepository.findById(testProductId)).thenReturn(Optional.of(testProduct));
-        when(productImageService.getImage(testProduct, fileName)).thenReturn(imageResponse);
+        when(productImageService.getImage(testProductId, fileName, null)).thenReturn(imageResponse);
 
         // Act
-        ProductImageResponse result = productService.getImage(testProductId, fileName);
+        ProductImageResponse result = productService.getImage(testProductId, fileName, null);
 
         // Assert
         assertNotNull(result);
         assertEquals(imageResponse, result);
-        verify(productRepository).findById(testProductId);
-        verify(productImageService).getImage(testProduct, fileName);
+        verify(productImageService).getImage(testProductId, fileName, null);
+        verifyNoInteractions(productRepository);
     }
 
     @Test
     void getFilterRangesByCategory_WithValidCategoryId_ReturnsFilterRangesResponse() {
         // Arrange
         Long categoryId = 1L;
-        List<Product> products = List.of(testProduct);
-        BigDecimal lowPrice = new BigDecimal("10.00");
-        BigDecimal maxPrice = new BigDecimal("100.00");
-        Set<AttributeResponse> attributes = Set.of(mock(AttributeResponse.class));
-
-        when(productRepository.findAllVisibleByCategory(categoryId)).thenReturn(products);
-        when(productPriceService.getCheapestVariantPrice(products)).thenReturn(lowPrice);
-        when(productPriceService.getHighestVariantPrice(products)).thenReturn(maxPrice);
-        when(attributeService.getAttributesByProducts(products)).thenReturn(attributes);
+        FilterRangesResponse ranges = FilterRangesResponse.builder()
+                .lowPrice(new BigDecimal("10.00"))
+                .maxPrice(new BigDecimal("100.00"))
+                .attributes(Set.of(mock(AttributeResponse.class)))
+                .version(3)
+                .build();
+        when(filterRangesService.getFilterRangesByCategory(categoryId)).thenReturn(ranges);
 
         // Act
         FilterRangesResponse result = productService.getFilterRangesByCategory(categoryId);
 
         // Assert
-        assertNotNull(result);
-        assertEquals(lowPrice, result.lowPrice());
-        assertEquals(maxPrice, result.maxPrice());
-        assertEquals(attributes, result.attributes());
-        verify(productRepository).findAllVisibleByCategory(categoryId);
-        verify(productPriceService).getCheapestVariantPrice(products);
-        verify(productPriceService).getHighestVariantPrice(products);
-        verify(attributeService).getAttributesByProducts(products);
-    }
-}
\ No newline at end of file
+        assertEquals(ranges, result);
+        verify(filterRangesService).getFilterRangesByCategory(categoryId);
+    }
+}
@@ -15,7 +15,9 @@ import java.math.BigDecimal;
 import java.util.Collections;
 import java.util.Set;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
@@ -32,14 +34,11 @@ class ProductSpecificationTest {
     @Mock
     private CriteriaBuilder criteriaBuilder;
 
-    @Mock
-    private Join<Product, Variant> productVariantJoin;
-
     @Mock
     private Join<Variant, AttributeValue> variantAttributeValueJoin;
 
     @Mock
-    private Subquery<BigDecimal> subquery;
+    private Subquery<Long> subquery;
 
     @Mock
     private Root<Variant> variantRoot;
@@ -51,7 +50,7 @@ class ProductSpecificationTest {
     private Predicate andPredicate;
 
     @Mock
-    private Path<BigDecimal> pricePath;
+    private Path<BigDecimal> minPricePath;
 
     @Mock
     private Path<Long> idPath;
@@ -61,45 +60,34 @@ class ProductSpecificationTest {
 
     @BeforeEach
     void setUp() {
-        // Setup common mock behaviors
-        when(criteriaBuilder.conjunction()).thenReturn(predicate);
+        when(root.get("minPrice")).thenReturn((Path) minPricePath);
+        when(criteriaBuilder.isNotNull(minPricePath)).thenReturn(predicate);
         when(criteriaBuilder.and(any(Predicate.class), any(Predicate.class))).thenReturn(andPredicate);
 
-        // Update to match the actual method call without JoinType parameter
-        when(root.join("variants")).thenReturn((Join) productVariantJoin);
-
-        // Fix the path generic types
-        when(productVariantJoin.get("discountedPrice")).thenReturn((Path) pricePath);
-
-        // Fix type casting for nested join
-        when(productVariantJoin.join("values")).thenReturn((Join) variantAttributeValueJoin);
-        when(variantAttributeValueJoin.get("id")).thenReturn((Path) idPath);
-
-        when(query.subquery(BigDecimal.class)).thenReturn(subquery);
+        when(query.subquery(Long.class)).thenReturn(subquery);
         when(subquery.from(Variant.class)).thenReturn(variantRoot);
-
-        // Mock equal to return andPredicate for any arguments
-        when(criteriaBuilder.equal(any(), any())).thenReturn(andPredicate);
+        when(subquery.select(any())).thenReturn(subquery);
+        when(variantRoot.join("values")).thenReturn((Join) variantAttributeValueJoin);
+        when(variantAttributeValueJoin.get("id")).thenReturn((Path) idPath);
+        when(criteriaBuilder.equal(any(), any(Expression.class))).thenReturn(andPredicate);
     }
 
     @Test
-    void toPredicate_WithNoFilters_ReturnsBasicPredicate() {
+    void toPredicate_WithNoFilters_ReturnsOnlyPricedProducts() {
         // Arrange
         request = new ProductSpecificationRequest(null, null, null);
         specification = new ProductSpecification(request);
 
-        when(criteriaBuilder.min(any())).thenReturn(mock(Expression.class));
-
         // Act
-        specification.toPredicate(root, query, criteriaBuilder);
+        Predicate result = specification.toPredicate(root, query, criteriaBuilder);
 
         // Assert
-        verify(criteriaBuilder).conjunction();
-        verify(root).join("variants");
+        assertEquals(predicate, result);
+        verify(criteriaBuilder).isNotNull(minPricePath);
+        verify(root, never()).join(anyString());
         verify(criteriaBuilder, never()).greaterThanOrEqualTo(any(Expression.class), any(BigDecimal.class));
         verify(criteriaBuilder, never()).lessThanOrEqualTo(any(Expression.class), any(BigDecimal.class));
-        // Changed verification to atLeastOnce() since the method is called multiple times
-        verify(criteriaBuilder, atLeastOnce()).equal(any(), any());
+        verify(query, never()).subquery(any());
     }
 
     @Test
@@ -109,19 +97,15 @@ class ProductSpecificationTest {
         request = new ProductSpecificationRequest(lowPrice, null, null);
         specification = new ProductSpecification(request);
 
-        when(criteriaBuilder.greaterThanOrEqualTo(any(Expression.class), eq(lowPrice))).thenReturn(predicate);
-        when(criteriaBuilder.min(any())).thenReturn(mock(Expression.class));
+        when(criteriaBuilder.greaterThanOrEqualTo(minPricePath, lowPrice)).thenReturn(predicate);
 
         // Act
         specification.toPredicate(root, query, criteriaBuilder);
 
         // Assert
-        verify(criteriaBuilder).conjunction();
-        verify(root).join("variants");
-        verify(criteriaBuilder).greaterThanOrEqualTo(any(Expression.class), eq(lowPrice));
+        verify(criteriaBuilder).greaterThanOrEqualTo(minPricePath, lowPrice);
         verify(criteriaBuilder, never()).lessThanOrEqualTo(any(Expression.class), any(BigDecimal.class));
-        // Changed verification to atLeastOnce() since the method is called multiple times
-        verify(criteriaBuilder, atLeastOnce()).equal(any(), any());
+        verify(query, never()).subquery(any());
     }
 
     @Test
@@ -131,44 +115,36 @@ class ProductSpecificationTest {
         request = new ProductSpecificationRequest(null, maxPrice, null);
         specification = new ProductSpecification(request);
 
-        when(criteriaBuilder.lessThanOrEqualTo(any(Expression.class), eq(maxPrice))).thenReturn(predicate);
-        when(criteriaBuilder.min(any())).thenReturn(mock(Expression.class));
+        when(criteriaBuilder.lessThanOrEqualTo(minPricePath, maxPrice)).thenReturn(predicate);
 
         // Act
         specification.toPredicate(root, query, criteriaBuilder);
 
         // Assert
-        verify(criteriaBuilder).conjunction();
-        verify(root).join("variants");
         verify(criteriaBuilder, never()).greaterThanOrEqualTo(any(Expression.class), any(BigDecimal.class));
-        verify(criteriaBuilder).lessThanOrEqualTo(any(Expression.class), eq(maxPrice));
-        // Changed verification to atLeastOnce() since the method is called multiple times
-        verify(criteriaBuilder, atLeastOnce()).equal(any(), any());
+        verify(criteriaBuilder).lessThanOrEqualTo(minPricePath, maxPrice);
+        verify(query, never()).subquery(any());
     }
 
     @Test
-    void toPredicate_WithAttributeValueIds_AppliesAttributeValueFilter() {
+    void toPredicate_WithAttributeValueIds_AppliesExistsSubquery() {
         // Arrange
         Set<Long> attributeValueIds = Set.of(1L, 2L);
         request = new ProductSpecificationRequest(null, null, attributeValueIds);
         specification = new ProductSpecification(request);
 
-        when(criteriaBuilder.min(any())).thenReturn(mock(Expression.class));
         when(idPath.in(attributeValueIds)).thenReturn(predicate);
 
         // Act
         specification.toPredicate(root, query, criteriaBuilder);
 
         // Assert
-        verify(criteriaBuilder).conjunction();
-        verify(root).join("variants");
-        verify(productVariantJoin).join("values");
-        verify(variantAttributeValueJoin).get("id");
+        verify(query).subquery(Long.class);
+        verify(variantRoot).join("values");
         verify(idPath).in(attributeValueIds);
-        verify(criteriaBuilder, never()).greaterThanOrEqualTo(any(Expression.class), any(BigDecimal.class));
-        verify(criteriaBuilder, never()).lessThanOrEqualTo(any(Expression.class), any(BigDecimal.class));
-        // Changed verification to atLeastOnce() since the method is called multiple times
-        verify(criteriaBuilder, atLeastOnce()).equal(any(), any());
+        verify(criteriaBuilder).equal(any(), eq(root));
+        verify(criteriaBuilder).exists(subquery);
+        verify(root, never()).join(anyString());
     }
 
     @Test
@@ -177,19 +153,12 @@ class ProductSpecificationTest {
         request = new ProductSpecificationRequest(null, null, Collections.emptySet());
         specification = new ProductSpecification(request);
 
-        when(criteriaBuilder.min(any())).thenReturn(mock(Expression.class));
-
         // Act
         specification.toPredicate(root, query, criteriaBuilder);
 
         // Assert
-        verify(criteriaBuilder).conjunction();
-        verify(root).join("variants");
-        verify(productVariantJoin, never()).join("values");
-        verify(criteriaBuilder, never()).greaterThanOrEqualTo(any(Expression.class), any(BigDecimal.class));
-        verify(criteriaBuilder, never()).lessThanOrEqualTo(any(Expression.class), any(BigDecimal.class));
-        // Changed verification to atLeastOnce() since the method is called multiple times
-        verify(criteriaBuilder, atLeastOnce()).equal(any(), any());
+        verify(query, never()).subquery(any());
+        verify(criteriaBuilder, never()).exists(any());
     }
 
     @Test
@@ -201,23 +170,17 @@ class ProductSpecificationTest {
         request = new ProductSpecificationRequest(lowPrice, maxPrice, attributeValueIds);
         specification = new ProductSpecification(request);
 
-        when(criteriaBuilder.greaterThanOrEqualTo(any(Expression.class), eq(lowPrice))).thenReturn(predicate);
-        when(criteriaBuilder.lessThanOrEqualTo(any(Expression.class), eq(maxPrice))).thenReturn(predicate);
-        when(criteriaBuilder.min(any())).thenReturn(mock(Expression.class));
+        when(criteriaBuilder.greaterThanOrEqualTo(minPricePath, lowPrice)).thenReturn(predicate);
+        when(criteriaBuilder.lessThanOrEqualTo(minPricePath, maxPrice)).thenReturn(predicate);
         when(idPath.in(attributeValueIds)).thenReturn(predicate);
 
         // Act
         specification.toPredicate(root, query, criteriaBuilder);
 
         // Assert
-        verify(criteriaBuilder).conjunction();
-        verify(root).join("variants");
-        verify(productVariantJoin).join("values");
-        verify(variantAttributeValueJoin).get("id");
+        verify(criteriaBuilder).greaterThanOrEqualTo(minPricePath, lowPrice);
+        verify(criteriaBuilder).lessThanOrEqualTo(minPricePath, maxPrice);
         verify(idPath).in(attributeValueIds);
-        verify(criteriaBuilder).greaterThanOrEqualTo(any(Expression.class), eq(lowPrice));
-        verify(criteriaBuilder).lessThanOrEqualTo(any(Expression.class), eq(maxPrice));
-        // Changed verification to atLeastOnce() since the method is called multiple times
-        verify(criteriaBuilder, atLeastOnce()).equal(any(), any());
+        verify(criteriaBuilder).exists(subquery);
     }
-}
\ No newline at end of file
+}
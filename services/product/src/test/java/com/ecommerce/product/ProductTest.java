@@ -5,6 +5,8 @@ import com.ecommerce.productimage.ProductImage;
 import com.ecommerce.variant.Variant;
 import org.junit.jupiter.api.Test;
 
+import java.math.BigDecimal;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
@@ -44,6 +46,12 @@ class ProductTest {
         String name = "Test Product";
         String description = "Test Description";
         boolean isVisible = true;
+        BigDecimal minPrice = new BigDecimal("100.00");
+        BigDecimal minBasePrice = new BigDecimal("120.00");
+        BigDecimal maxPrice = new BigDecimal("150.00");
+        boolean pricesEqual = false;
+        long version = 3L;
+        Instant updatedAt = Instant.parse("2024-01-01T00:00:00Z");
         Set<Long> categoryIds = new HashSet<>();
         List<ProductImage> images = new ArrayList<>();
         List<Variant> variants = new ArrayList<>();
@@ -51,7 +59,8 @@ class ProductTest {
         Set<Attribute> attributes = new HashSet<>();
 
         // Act
-        Product product = new Product(id, name, description, isVisible, categoryIds, images, variants, relatedProducts, attributes);
+        Product product = new Product(id, name, description, isVisible, minPrice, minBasePrice, maxPrice, pricesEqual,
+                version, updatedAt, categoryIds, images, variants, relatedProducts, attributes);
 
         // Assert
         assertNotNull(product);
@@ -59,6 +68,12 @@ class ProductTest {
         assertEquals(name, product.getName());
         assertEquals(description, product.getDescription());
         assertEquals(isVisible, product.isVisible());
+        assertEquals(minPrice, product.getMinPrice());
+        assertEquals(minBasePrice, product.getMinBasePrice());
+        assertEquals(maxPrice, product.getMaxPrice());
+        assertEquals(pricesEqual, product.isPricesEqual());
+        assertEquals(version, product.getVersion());
+        assertEquals(updatedAt, product.getUpdatedAt());
         assertEquals(categoryIds, product.getCategoryIds());
         assertEquals(images, product.getImages());
         assertEquals(variants, product.getVariants());
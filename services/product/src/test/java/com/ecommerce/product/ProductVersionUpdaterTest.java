@@ -0,0 +1,51 @@
+package com.ecommerce.product;
+
+import com.ecommerce.attribute.AttributeChangedEvent;
+import com.ecommerce.variant.bulk.VariantsChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductVersionUpdaterTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductVersionUpdater productVersionUpdater;
+
+    @Test
+    void onProductChanged_IncrementsVersionOfProduct() {
+        // Act
+        productVersionUpdater.onProductChanged(new ProductChangedEvent(1L, Set.of(10L)));
+
+        // Assert
+        verify(productRepository).incrementVersion(1L);
+    }
+
+    @Test
+    void onAttributeChanged_IncrementsVersionOfProductsUsingAttribute() {
+        // Act
+        productVersionUpdater.onAttributeChanged(new AttributeChangedEvent(5L));
+
+        // Assert
+        verify(productRepository).incrementVersionByAttribute(5L);
+    }
+
+    @Test
+    void onVariantsChanged_IncrementsVersionsOfAllChangedProducts() {
+        // Act
+        productVersionUpdater.onVariantsChanged(new VariantsChangedEvent(Set.of(1L, 2L), List.of()));
+
+        // Assert
+        verify(productRepository).incrementVersions(Set.of(1L, 2L));
+    }
+}
@@ -0,0 +1,51 @@
+package com.ecommerce.product.catalog;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogControllerTest {
+
+    @Mock
+    private CatalogImportService catalogImportService;
+
+    @Mock
+    private CatalogExportService catalogExportService;
+
+    @Mock
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @InjectMocks
+    private CatalogController catalogController;
+
+    @Test
+    void getCatalogSnapshot_SetsWatermarkTakenBeforeStreaming() throws Exception {
+        // Arrange
+        Instant updatedSince = Instant.parse("2024-05-01T09:55:00Z");
+        Instant before = Instant.now();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        ResponseEntity<StreamingResponseBody> response = catalogController.getCatalogSnapshot(updatedSince);
+        response.getBody().writeTo(output);
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        Instant watermark = Instant.parse(response.getHeaders().getFirst("X-Snapshot-Watermark"));
+        assertFalse(watermark.isBefore(before));
+        assertFalse(watermark.isAfter(Instant.now()));
+        verify(catalogSnapshotService).writeSnapshot(updatedSince, output);
+    }
+}
@@ -0,0 +1,214 @@
+package com.ecommerce.product.catalog;
+
+import com.ecommerce.attribute.AttributeRepository;
+import com.ecommerce.attributevalue.AttributeValueRepository;
+import com.ecommerce.feignclient.category.CategoryClient;
+import com.ecommerce.feignclient.category.CategoryResponse;
+import com.ecommerce.product.ProductRepository;
+import com.ecommerce.variant.VariantRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.FeignException;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CatalogImportServiceTest {
+    @Mock
+    private CategoryClient categoryClient;
+
+    @Mock
+    private AttributeRepository attributeRepository;
+
+    @Mock
+    private AttributeValueRepository attributeValueRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private VariantRepository variantRepository;
+
+    @Mock
+    private CatalogImportWriter catalogImportWriter;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private CatalogImportService catalogImportService;
+
+    @BeforeEach
+    void setUp() {
+        catalogImportService = new CatalogImportService(
+                new ObjectMapper(),
+                Validation.buildDefaultValidatorFactory().getValidator(),
+                categoryClient,
+                attributeRepository,
+                attributeValueRepository,
+                productRepository,
+                variantRepository,
+                catalogImportWriter,
+                eventPublisher,
+                2
+        );
+
+        when(attributeRepository.findAllIds()).thenReturn(Set.of(1L));
+        when(attributeValueRepository.findAllIds()).thenReturn(Set.of(10L));
+        when(categoryClient.getCategoriesByIds(anySet())).thenAnswer(invocation -> {
+            Set<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(CategoryResponse::new).collect(Collectors.toSet());
+        });
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(Set.of());
+        when(variantRepository.findExistingSkus(anyCollection())).thenReturn(Set.of());
+        when(catalogImportWriter.insert(anyList())).thenAnswer(invocation -> {
+            List<CatalogProductRecord> records = invocation.getArgument(0);
+            return records.stream().map(record -> (long) record.name().hashCode()).toList();
+        });
+    }
+
+    @Test
+    void importCatalog_WithValidLines_InsertsInBatchesAndPublishesOneEvent() {
+        // Arrange
+        InputStream input = ndjson(
+                product("A", "SKU-A"),
+                product("B", "SKU-B"),
+                "",
+                product("C", "SKU-C")
+        );
+
+        // Act
+        CatalogImportResponse response = catalogImportService.importCatalog(input);
+
+        // Assert
+        assertEquals(3, response.imported());
+        assertEquals(0, response.rejected());
+        verify(catalogImportWriter, times(2)).insert(anyList());
+        verify(categoryClient, times(1)).getCategoriesByIds(Set.of(5L));
+        verify(eventPublisher).publishEvent(any(CatalogImportedEvent.class));
+    }
+
+    @Test
+    void importCatalog_WithInvalidLines_ReportsThemAndImportsTheRest() {
+        // Arrange
+        InputStream input = ndjson(
+                "{not json",
+                product("", "SKU-A"),
+                "{\"name\":\"B\",\"categoryIds\":[5],\"attributeIds\":[99]}",
+                product("C", "SKU-C")
+        );
+
+        // Act
+        CatalogImportResponse response = catalogImportService.importCatalog(input);
+
+        // Assert
+        assertEquals(1, response.imported());
+        assertEquals(3, response.rejected());
+        assertEquals(List.of(1, 2, 3), response.errors().stream().map(CatalogImportError::line).sorted().toList());
+        assertTrue(response.errors().stream().anyMatch(error -> error.message().contains("atributů")));
+    }
+
+    @Test
+    void importCatalog_WithDuplicateSkus_RejectsExistingAndRepeatedOnes() {
+        // Arrange
+        when(variantRepository.findExistingSkus(anyCollection())).thenReturn(Set.of("SKU-TAKEN"));
+        InputStream input = ndjson(
+                product("A", "SKU-TAKEN"),
+                product("B", "SKU-B"),
+                product("C", "SKU-B")
+        );
+
+        // Act
+        CatalogImportResponse response = catalogImportService.importCatalog(input);
+
+        // Assert
+        assertEquals(1, response.imported());
+        assertEquals(List.of(1, 3), response.errors().stream().map(CatalogImportError::line).sorted().toList());
+    }
+
+    @Test
+    void importCatalog_WithMissingCategory_ChecksCategoriesOneByOne() {
+        // Arrange
+        FeignException.NotFound notFound = mock(FeignException.NotFound.class);
+        when(categoryClient.getCategoriesByIds(anySet())).thenAnswer(invocation -> {
+            Set<Long> ids = invocation.getArgument(0);
+            if (ids.contains(6L))
+                throw notFound;
+            return Set.of(new CategoryResponse(5L));
+        });
+        InputStream input = ndjson(
+                product("A", "SKU-A"),
+                "{\"name\":\"B\",\"categoryIds\":[6]}"
+        );
+
+        // Act
+        CatalogImportResponse response = catalogImportService.importCatalog(input);
+
+        // Assert
+        assertEquals(1, response.imported());
+        assertEquals(2, response.errors().getFirst().line());
+    }
+
+    @Test
+    void importCatalog_WhenBatchInsertFails_RejectsBatchAndContinues() {
+        // Arrange
+        when(catalogImportWriter.insert(anyList()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key"))
+                .thenReturn(List.of(3L));
+        InputStream input = ndjson(
+                product("A", "SKU-A"),
+                product("B", "SKU-B"),
+                product("C", "SKU-A")
+        );
+
+        // Act
+        CatalogImportResponse response = catalogImportService.importCatalog(input);
+
+        // Assert
+        assertEquals(1, response.imported());
+        assertEquals(2, response.rejected());
+        ArgumentCaptor<CatalogImportedEvent> eventCaptor = ArgumentCaptor.forClass(CatalogImportedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(List.of(3L), eventCaptor.getValue().productIds());
+    }
+
+    @Test
+    void importCatalog_WithNoValidLines_DoesNotPublishEvent() {
+        // Act
+        CatalogImportResponse response = catalogImportService.importCatalog(ndjson("{not json"));
+
+        // Assert
+        assertEquals(0, response.imported());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    private static String product(String name, String sku) {
+        return """
+                {"name":"%s","isVisible":true,"categoryIds":[5],"attributeIds":[1],\
+                "variants":[{"sku":"%s","basePrice":10.5,"quantity":3,"attributeValueIds":[10]}]}"""
+                .formatted(name, sku);
+    }
+
+    private static InputStream ndjson(String... lines) {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,163 @@
+package com.ecommerce.product.catalog;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogSnapshotServiceTest {
+    private static final Instant UPDATED_AT = Instant.parse("2024-05-01T10:00:00Z");
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement statement;
+
+    private CatalogSnapshotService catalogSnapshotService;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        catalogSnapshotService = new CatalogSnapshotService(jdbcTemplate, objectMapper, 250);
+    }
+
+    @Test
+    void writeSnapshot_WithoutWatermark_QueriesVisibleProductsWithCursor() throws Exception {
+        // Arrange
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        // Act
+        catalogSnapshotService.writeSnapshot(null, new ByteArrayOutputStream());
+
+        // Assert
+        String sql = this.prepareCapturedStatement();
+        assertTrue(sql.contains("WHERE product.is_visible"));
+        assertTrue(sql.contains("ORDER BY product.id"));
+        verify(statement).setFetchSize(250);
+        verify(statement, never()).setTimestamp(anyInt(), any());
+    }
+
+    @Test
+    void writeSnapshot_WithWatermark_QueriesProductsChangedSinceWatermark() throws Exception {
+        // Arrange
+        Instant watermark = Instant.parse("2024-05-01T09:55:00Z");
+        when(connection.prepareStatement(anyString())).thenReturn(statement);
+
+        // Act
+        catalogSnapshotService.writeSnapshot(watermark, new ByteArrayOutputStream());
+
+        // Assert
+        String sql = this.prepareCapturedStatement();
+        assertTrue(sql.contains("product.updated_at >= ?"));
+        assertTrue(sql.contains("FROM product_tombstone tombstone"));
+        assertFalse(sql.contains("WHERE product.is_visible"));
+        verify(statement).setTimestamp(1, Timestamp.from(watermark));
+        verify(statement).setTimestamp(2, Timestamp.from(watermark));
+    }
+
+    @Test
+    void writeSnapshot_WithVisibleProduct_WritesFullRecordLine() throws Exception {
+        // Arrange
+        ResultSet resultSet = this.productRow(1L, true);
+        when(resultSet.getString("name")).thenReturn("Triko");
+        when(resultSet.getString("description")).thenReturn("Bavlněné triko");
+        when(resultSet.getBigDecimal("min_price")).thenReturn(new BigDecimal("199.00"));
+        when(resultSet.getBigDecimal("min_base_price")).thenReturn(new BigDecimal("249.00"));
+        when(resultSet.getBoolean("prices_equal")).thenReturn(false);
+        Array categoryIds = mock(Array.class);
+        when(categoryIds.getArray()).thenReturn(new Long[]{5L});
+        Array relatedProductIds = mock(Array.class);
+        when(relatedProductIds.getArray()).thenReturn(new Long[]{3L, 2L});
+        when(resultSet.getArray("category_ids")).thenReturn(categoryIds);
+        when(resultSet.getArray("related_product_ids")).thenReturn(relatedProductIds);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        this.writeRows(output, resultSet);
+
+        // Assert
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(1, lines.length);
+        JsonNode record = objectMapper.readTree(lines[0]);
+        assertEquals(1L, record.get("id").asLong());
+        assertEquals("Triko", record.get("name").asText());
+        assertEquals(199.00, record.get("price").asDouble());
+        assertTrue(record.get("isVisible").asBoolean());
+        assertEquals("[5]", record.get("categoryIds").toString());
+        assertEquals("[3,2]", record.get("relatedProductIds").toString());
+    }
+
+    @Test
+    void writeSnapshot_WithHiddenProduct_WritesTombstone() throws Exception {
+        // Arrange
+        ResultSet resultSet = this.productRow(2L, false);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // Act
+        this.writeRows(output, resultSet);
+
+        // Assert
+        JsonNode record = objectMapper.readTree(output.toString(StandardCharsets.UTF_8).trim());
+        assertEquals(2L, record.get("id").asLong());
+        assertFalse(record.get("isVisible").asBoolean());
+        assertEquals(7L, record.get("version").asLong());
+        assertFalse(record.has("name"));
+        assertFalse(record.has("categoryIds"));
+        verify(resultSet, never()).getArray(anyString());
+    }
+
+    private String prepareCapturedStatement() throws SQLException {
+        ArgumentCaptor<PreparedStatementCreator> creator = ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), any(RowCallbackHandler.class));
+        creator.getValue().createPreparedStatement(connection);
+
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(connection).prepareStatement(sql.capture());
+        return sql.getValue();
+    }
+
+    private void writeRows(ByteArrayOutputStream output, ResultSet... rows) {
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(1);
+            for (ResultSet row : rows) {
+                handler.processRow(row);
+            }
+            return null;
+        }).when(jdbcTemplate).query(any(PreparedStatementCreator.class), any(RowCallbackHandler.class));
+
+        catalogSnapshotService.writeSnapshot(null, output);
+    }
+
+    private ResultSet productRow(long id, boolean isVisible) throws SQLException {
+        ResultSet resultSet = mock(ResultSet.class);
+        when(resultSet.getLong("id")).thenReturn(id);
+        when(resultSet.getBoolean("is_visible")).thenReturn(isVisible);
+        when(resultSet.getLong("version")).thenReturn(7L);
+        when(resultSet.getTimestamp("updated_at")).thenReturn(Timestamp.from(UPDATED_AT));
+        return resultSet;
+    }
+}
@@ -0,0 +1,238 @@
+package com.ecommerce.product.facet;
+
+import com.ecommerce.attribute.AttributeChangedEvent;
+import com.ecommerce.product.ProductChangedEvent;
+import com.ecommerce.product.ProductRepository;
+import com.ecommerce.variant.VariantRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.math.BigDecimal;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private VariantRepository variantRepository;
+
+    @InjectMocks
+    private ProductFacetIndex productFacetIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findAllFacetRows()).thenReturn(List.of(
+                new ProductFacetRow(1L, "Alpha", true, new BigDecimal("50.00")),
+                new ProductFacetRow(2L, "Beta", true, new BigDecimal("150.00")),
+                new ProductFacetRow(3L, "Gamma", false, new BigDecimal("80.00")),
+                new ProductFacetRow(4L, "Delta", true, null),
+                new ProductFacetRow(5L, "Epsilon", true, new BigDecimal("100.00"))
+        ));
+        when(productRepository.findAllCategoryLinks()).thenReturn(List.of(
+                new ProductFacetLink(1L, 10L),
+                new ProductFacetLink(2L, 10L),
+                new ProductFacetLink(3L, 10L),
+                new ProductFacetLink(4L, 10L),
+                new ProductFacetLink(5L, 10L),
+                new ProductFacetLink(5L, 20L)
+        ));
+        when(variantRepository.findAllAttributeValueLinks()).thenReturn(List.of(
+                new ProductFacetLink(1L, 100L),
+                new ProductFacetLink(2L, 100L),
+                new ProductFacetLink(2L, 200L),
+                new ProductFacetLink(5L, 200L)
+        ));
+
+        productFacetIndex.rebuild();
+    }
+
+    @Test
+    void rebuild_MarksIndexReady() {
+        // Assert
+        assertTrue(productFacetIndex.isReady());
+    }
+
+    @Test
+    void filter_WithNoFilters_ReturnsVisiblePricedProductsOfCategory() {
+        // Act
+        BitSet result = productFacetIndex.filter(10L, null, null, null);
+
+        // Assert
+        assertEquals(bits(1, 2, 5), result);
+    }
+
+    @Test
+    void filter_WithUnknownCategory_ReturnsNoProducts() {
+        // Act
+        BitSet result = productFacetIndex.filter(99L, null, null, null);
+
+        // Assert
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void filter_WithPriceRange_ReturnsProductsWithinInclusiveRange() {
+        // Act
+        BitSet result = productFacetIndex.filter(10L, new BigDecimal("50.00"), new BigDecimal("100.00"), null);
+
+        // Assert
+        assertEquals(bits(1, 5), result);
+    }
+
+    @Test
+    void filter_WithAttributeValues_CombinesValuesWithOr() {
+        // Act
+        BitSet result = productFacetIndex.filter(10L, null, null, Set.of(100L, 200L));
+        BitSet onlySecondValue = productFacetIndex.filter(10L, null, new BigDecimal("120.00"), Set.of(200L));
+
+        // Assert
+        assertEquals(bits(1, 2, 5), result);
+        assertEquals(bits(5), onlySecondValue);
+    }
+
+    @Test
+    void countAttributeValues_CountsMatchingProductsPerValue() {
+        // Arrange
+        BitSet matches = productFacetIndex.filter(10L, new BigDecimal("60.00"), null, null);
+
+        // Act
+        Map<Long, Integer> result = productFacetIndex.countAttributeValues(matches);
+
+        // Assert
+        assertEquals(Map.of(100L, 1, 200L, 2), result);
+    }
+
+    @Test
+    void onProductChanged_WithChangedProduct_ReplacesItsEntries() {
+        // Arrange
+        when(productRepository.findFacetRowById(1L))
+                .thenReturn(Optional.of(new ProductFacetRow(1L, "Alpha", true, new BigDecimal("300.00"))));
+        when(productRepository.findCategoryLinksByProductId(1L)).thenReturn(List.of(new ProductFacetLink(1L, 20L)));
+        when(variantRepository.findAttributeValueLinksByProductId(1L)).thenReturn(List.of(new ProductFacetLink(1L, 200L)));
+
+        // Act
+        productFacetIndex.onProductChanged(new ProductChangedEvent(1L, Set.of(10L)));
+
+        // Assert
+        assertEquals(bits(2, 5), productFacetIndex.filter(10L, null, null, null));
+        assertEquals(bits(1), productFacetIndex.filter(20L, new BigDecimal("200.00"), null, Set.of(200L)));
+        assertTrue(productFacetIndex.filter(20L, null, null, Set.of(100L)).isEmpty());
+    }
+
+    @Test
+    void onProductChanged_WithDeletedProduct_RemovesIt() {
+        // Arrange
+        when(productRepository.findFacetRowById(2L)).thenReturn(Optional.empty());
+
+        // Act
+        productFacetIndex.onProductChanged(new ProductChangedEvent(2L, Set.of(10L)));
+
+        // Assert
+        assertEquals(bits(1, 5), productFacetIndex.filter(10L, null, null, null));
+        assertEquals(bits(5), productFacetIndex.filter(10L, new BigDecimal("90.00"), null, null));
+        assertFalse(productFacetIndex.countAttributeValues(bits(1, 2, 5)).containsKey(300L));
+    }
+
+    @Test
+    void onAttributeChanged_RebuildsWholeIndex() {
+        // Act
+        productFacetIndex.onAttributeChanged(new AttributeChangedEvent(1L));
+
+        // Assert
+        verify(productRepository, times(2)).findAllFacetRows();
+        verify(variantRepository, times(2)).findAllAttributeValueLinks();
+    }
+
+    @Test
+    void onApplicationReady_WithDatabaseFailure_KeepsPreviousState() {
+        // Arrange
+        when(productRepository.findAllFacetRows()).thenThrow(new DataAccessResourceFailureException("down"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> productFacetIndex.onApplicationReady());
+        assertEquals(bits(1, 2, 5), productFacetIndex.filter(10L, null, null, null));
+    }
+
+    @Test
+    void onProductChanged_BeforeIndexIsReady_IsAppliedByRebuild() {
+        // Arrange
+        ProductFacetIndex notReadyIndex = new ProductFacetIndex(productRepository, variantRepository);
+        when(productRepository.findFacetRowById(1L))
+                .thenReturn(Optional.of(new ProductFacetRow(1L, "Alpha", true, new BigDecimal("300.00"))));
+        when(productRepository.findCategoryLinksByProductId(1L)).thenReturn(List.of(new ProductFacetLink(1L, 20L)));
+        when(variantRepository.findAttributeValueLinksByProductId(1L)).thenReturn(List.of());
+
+        // Act
+        notReadyIndex.onProductChanged(new ProductChangedEvent(1L, Set.of(10L)));
+        verify(productRepository, never()).findFacetRowById(1L);
+        notReadyIndex.rebuild();
+
+        // Assert
+        assertTrue(notReadyIndex.isReady());
+        assertEquals(bits(2, 5), notReadyIndex.filter(10L, null, null, null));
+        assertEquals(bits(1, 5), notReadyIndex.filter(20L, null, null, null));
+    }
+
+    @Test
+    void rebuild_WithAttributeChangedDuringLoad_LoadsIndexAgain() {
+        // Arrange
+        ProductFacetIndex notReadyIndex = new ProductFacetIndex(productRepository, variantRepository);
+        when(productRepository.findAllCategoryLinks()).then(invocation -> {
+            if (!notReadyIndex.isReady())
+                notReadyIndex.onAttributeChanged(new AttributeChangedEvent(1L));
+            return List.of();
+        }).thenReturn(List.of());
+
+        // Act
+        notReadyIndex.rebuild();
+
+        // Assert
+        assertTrue(notReadyIndex.isReady());
+        verify(productRepository, times(3)).findAllFacetRows();
+    }
+
+    @Test
+    void retryRebuild_WithReadyIndex_DoesNothing() {
+        // Act
+        productFacetIndex.retryRebuild();
+
+        // Assert
+        verify(productRepository, times(1)).findAllFacetRows();
+    }
+
+    @Test
+    void retryRebuild_WithIndexNotReady_BuildsIndex() {
+        // Arrange
+        ProductFacetIndex notReadyIndex = new ProductFacetIndex(productRepository, variantRepository);
+
+        // Act
+        notReadyIndex.retryRebuild();
+
+        // Assert
+        assertTrue(notReadyIndex.isReady());
+        assertEquals(bits(1, 2, 5), notReadyIndex.filter(10L, null, null, null));
+    }
+
+    private static BitSet bits(int... ids) {
+        BitSet bits = new BitSet();
+        for (int id : ids) {
+            bits.set(id);
+        }
+        return bits;
+    }
+}
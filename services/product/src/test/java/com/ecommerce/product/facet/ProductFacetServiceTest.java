@@ -0,0 +1,121 @@
+package com.ecommerce.product.facet;
+
+import com.ecommerce.exception.FacetIndexNotReadyException;
+import com.ecommerce.product.ProductSortKey;
+import com.ecommerce.product.ProductSpecificationRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductFacetServiceTest {
+
+    @Mock
+    private ProductFacetIndex productFacetIndex;
+
+    @Mock
+    private ProductFacetPageRepository productFacetPageRepository;
+
+    @InjectMocks
+    private ProductFacetService productFacetService;
+
+    private ProductSpecificationRequest specifications;
+    private BitSet matches;
+
+    @BeforeEach
+    void setUp() {
+        specifications = new ProductSpecificationRequest(null, null, null);
+        matches = new BitSet();
+        matches.set(1);
+        matches.set(2);
+        matches.set(3);
+    }
+
+    @Test
+    void findProductIdsByCategory_WithIndexNotReady_ReturnsEmpty() {
+        // Arrange
+        when(productFacetIndex.isReady()).thenReturn(false);
+
+        // Act
+        Optional<Page<Long>> result = productFacetService.findProductIdsByCategory(
+                1L, specifications, ProductSortKey.ID, Sort.Direction.ASC, PageRequest.of(0, 10));
+
+        // Assert
+        assertTrue(result.isEmpty());
+        verify(productFacetIndex, never()).filter(any(), any(), any(), any());
+    }
+
+    @Test
+    void findProductIdsByCategory_SortedByPriceDescending_ReturnsPageOrderedByDatabase() {
+        // Arrange
+        when(productFacetIndex.isReady()).thenReturn(true);
+        when(productFacetIndex.filter(1L, null, null, null)).thenReturn(matches);
+        when(productFacetPageRepository.findPageIds(matches, ProductSortKey.PRICE, Sort.Direction.DESC, 0L, 2))
+                .thenReturn(List.of(2L, 3L));
+
+        // Act
+        Page<Long> result = productFacetService.findProductIdsByCategory(
+                1L, specifications, ProductSortKey.PRICE, Sort.Direction.DESC, PageRequest.of(0, 2)).orElseThrow();
+
+        // Assert
+        assertEquals(List.of(2L, 3L), result.getContent());
+        assertEquals(3, result.getTotalElements());
+    }
+
+    @Test
+    void findProductIdsByCategory_WithPageBeyondMatches_SkipsDatabase() {
+        // Arrange
+        when(productFacetIndex.isReady()).thenReturn(true);
+        when(productFacetIndex.filter(1L, null, null, null)).thenReturn(matches);
+
+        // Act
+        Page<Long> result = productFacetService.findProductIdsByCategory(
+                1L, specifications, ProductSortKey.NAME, Sort.Direction.ASC, PageRequest.of(2, 2)).orElseThrow();
+
+        // Assert
+        assertTrue(result.getContent().isEmpty());
+        assertEquals(3, result.getTotalElements());
+        verifyNoInteractions(productFacetPageRepository);
+    }
+
+    @Test
+    void getFacetCountsByCategory_WithIndexNotReady_ThrowsFacetIndexNotReadyException() {
+        // Arrange
+        when(productFacetIndex.isReady()).thenReturn(false);
+
+        // Act & Assert
+        assertThrows(FacetIndexNotReadyException.class,
+                () -> productFacetService.getFacetCountsByCategory(1L, specifications));
+        verify(productFacetIndex, never()).rebuild();
+        verify(productFacetIndex, never()).filter(any(), any(), any(), any());
+    }
+
+    @Test
+    void getFacetCountsByCategory_WithReadyIndex_ReturnsCounts() {
+        // Arrange
+        when(productFacetIndex.isReady()).thenReturn(true);
+        when(productFacetIndex.filter(1L, null, null, null)).thenReturn(matches);
+        when(productFacetIndex.countAttributeValues(matches)).thenReturn(Map.of(7L, 2));
+
+        // Act
+        ProductFacetResponse result = productFacetService.getFacetCountsByCategory(1L, specifications);
+
+        // Assert
+        assertEquals(3, result.total());
+        assertEquals(Map.of(7L, 2), result.attributeValueCounts());
+    }
+}
@@ -0,0 +1,117 @@
+package com.ecommerce.product.search;
+
+import com.ecommerce.product.ProductChangedEvent;
+import com.ecommerce.product.ProductRepository;
+import com.ecommerce.product.facet.ProductFacetRow;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProductSuggestionIndexTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @InjectMocks
+    private ProductSuggestionIndex productSuggestionIndex;
+
+    @BeforeEach
+    void setUp() {
+        when(productRepository.findAllFacetRows()).thenReturn(List.of(
+                new ProductFacetRow(1L, "Žluté tričko", true, new BigDecimal("100.00")),
+                new ProductFacetRow(2L, "Triko s límečkem", true, null),
+                new ProductFacetRow(3L, "Tričko skryté", false, new BigDecimal("80.00")),
+                new ProductFacetRow(4L, "Mikina", true, new BigDecimal("500.00"))
+        ));
+        productSuggestionIndex.rebuild();
+    }
+
+    @Test
+    void suggest_WithWordPrefix_ReturnsVisibleProductsIgnoringDiacritics() {
+        // Act
+        List<ProductSuggestion> result = productSuggestionIndex.suggest("TRI", 10);
+
+        // Assert
+        assertEquals(List.of(
+                new ProductSuggestion(1L, "Žluté tričko"),
+                new ProductSuggestion(2L, "Triko s límečkem")
+        ), result);
+    }
+
+    @Test
+    void suggest_WithMultipleWords_MatchesPhrase() {
+        // Act
+        List<ProductSuggestion> result = productSuggestionIndex.suggest("zlute tri", 10);
+
+        // Assert
+        assertEquals(List.of(new ProductSuggestion(1L, "Žluté tričko")), result);
+    }
+
+    @Test
+    void suggest_WithLimit_ReturnsAtMostLimitProducts() {
+        // Act
+        List<ProductSuggestion> result = productSuggestionIndex.suggest("t", 1);
+
+        // Assert
+        assertEquals(1, result.size());
+    }
+
+    @Test
+    void suggest_WithBlankQuery_ReturnsEmptyList() {
+        // Act & Assert
+        assertTrue(productSuggestionIndex.suggest("  ", 10).isEmpty());
+    }
+
+    @Test
+    void onProductChanged_WithRenamedProduct_ReplacesOldName() {
+        // Arrange
+        when(productRepository.findFacetRowById(4L))
+                .thenReturn(Optional.of(new ProductFacetRow(4L, "Bunda", true, new BigDecimal("900.00"))));
+
+        // Act
+        productSuggestionIndex.onProductChanged(new ProductChangedEvent(4L, Set.of()));
+
+        // Assert
+        assertTrue(productSuggestionIndex.suggest("mik", 10).isEmpty());
+        assertEquals(List.of(new ProductSuggestion(4L, "Bunda")), productSuggestionIndex.suggest("bun", 10));
+    }
+
+    @Test
+    void onProductChanged_WithDeletedProduct_RemovesProduct() {
+        // Arrange
+        when(productRepository.findFacetRowById(1L)).thenReturn(Optional.empty());
+
+        // Act
+        productSuggestionIndex.onProductChanged(new ProductChangedEvent(1L, Set.of()));
+
+        // Assert
+        assertTrue(productSuggestionIndex.suggest("zlute", 10).isEmpty());
+    }
+
+    @Test
+    void rebuild_ReplacesWholeIndex() {
+        // Arrange
+        when(productRepository.findAllFacetRows()).thenReturn(List.of(
+                new ProductFacetRow(5L, "Tričko nové", true, new BigDecimal("150.00"))
+        ));
+
+        // Act
+        productSuggestionIndex.rebuild();
+
+        // Assert
+        assertEquals(List.of(new ProductSuggestion(5L, "Tričko nové")), productSuggestionIndex.suggest("tri", 10));
+        assertTrue(productSuggestionIndex.suggest("mikina", 10).isEmpty());
+    }
+}
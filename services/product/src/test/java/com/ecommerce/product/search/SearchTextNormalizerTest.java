@@ -0,0 +1,52 @@
+package com.ecommerce.product.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SearchTextNormalizerTest {
+
+    @Test
+    void normalize_WithCzechDiacritics_FoldsAndLowercases() {
+        // Act
+        String result = SearchTextNormalizer.normalize("  Příliš ŽLUŤOUČKÝ kůň ");
+
+        // Assert
+        assertEquals("prilis zlutoucky kun", result);
+    }
+
+    @Test
+    void normalize_WithNull_ReturnsEmptyString() {
+        // Act & Assert
+        assertEquals("", SearchTextNormalizer.normalize(null));
+    }
+
+    @Test
+    void tokens_WithPunctuation_SplitsIntoWords() {
+        // Act
+        List<String> result = SearchTextNormalizer.tokens("T-shirt (bavlna), 100%");
+
+        // Assert
+        assertEquals(List.of("t", "shirt", "bavlna", "100"), result);
+    }
+
+    @Test
+    void toPrefixTsQuery_WithMultipleWords_JoinsPrefixesWithAnd() {
+        // Act
+        String result = SearchTextNormalizer.toPrefixTsQuery("Žluté tričko");
+
+        // Assert
+        assertEquals("zlute:* & tricko:*", result);
+    }
+
+    @Test
+    void toPrefixTsQuery_WithOnlyOperators_ReturnsEmptyString() {
+        // Act
+        String result = SearchTextNormalizer.toPrefixTsQuery("!& |:*");
+
+        // Assert
+        assertEquals("", result);
+    }
+}
@@ -0,0 +1,110 @@
+package com.ecommerce.productimage;
+
+import com.ecommerce.exception.ImageUploadException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageBlobStoreTest {
+    // SHA-256 of "hello"
+    private static final String HELLO_HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    private ImageBlobStore imageBlobStore;
+    private Path uploadDirectory;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        uploadDirectory = tempDir;
+        imageBlobStore = new ImageBlobStore(imageBlobRepository);
+        ReflectionTestUtils.setField(imageBlobStore, "uploadDirectory", tempDir.toString());
+    }
+
+    @Test
+    void store_WithNewContent_WritesShardedBlob() throws IOException {
+        // Arrange
+        MultipartFile file = new MockMultipartFile("files", "Photo.JPEG", "image/jpeg", "hello".getBytes());
+
+        // Act
+        String imagePath = imageBlobStore.store(file);
+
+        // Assert
+        assertEquals(HELLO_HASH + ".jpeg", imagePath);
+        Path blob = uploadDirectory.resolve("blobs").resolve("2c").resolve("f2").resolve(HELLO_HASH);
+        assertEquals(blob, imageBlobStore.resolveBlob(HELLO_HASH));
+        assertEquals("hello", Files.readString(blob));
+        verify(imageBlobRepository).touch(HELLO_HASH, 5L);
+    }
+
+    @Test
+    void store_WithExistingContent_KeepsSingleBlob() throws IOException {
+        // Arrange
+        MultipartFile first = new MockMultipartFile("files", "a.png", "image/png", "hello".getBytes());
+        MultipartFile second = new MockMultipartFile("files", "b.png", "image/png", "hello".getBytes());
+
+        // Act
+        imageBlobStore.store(first);
+        String imagePath = imageBlobStore.store(second);
+
+        // Assert
+        assertEquals(HELLO_HASH + ".png", imagePath);
+        verify(imageBlobRepository, times(2)).touch(HELLO_HASH, 5L);
+        try (var files = Files.list(uploadDirectory.resolve("blobs"))) {
+            assertEquals(1, files.count()); // only the shard directory, no temporary files
+        }
+    }
+
+    @Test
+    void store_WithUnreadableUpload_ThrowsImageUploadException() throws IOException {
+        // Arrange
+        MultipartFile file = mock(MultipartFile.class);
+        when(file.getOriginalFilename()).thenReturn("broken.jpg");
+        when(file.getInputStream()).thenThrow(new IOException("connection reset"));
+
+        // Act & Assert
+        assertThrows(ImageUploadException.class, () -> imageBlobStore.store(file));
+        verifyNoInteractions(imageBlobRepository);
+    }
+
+    @Test
+    void delete_RemovesBlobAndRenditions() throws IOException {
+        // Arrange
+        Path blob = imageBlobStore.resolveBlob(HELLO_HASH);
+        Files.createDirectories(blob.getParent());
+        Files.writeString(blob, "hello");
+        Files.writeString(imageBlobStore.resolveRendition(HELLO_HASH, ImageSize.THUMBNAIL), "thumbnail");
+
+        // Act
+        imageBlobStore.delete(HELLO_HASH);
+
+        // Assert
+        assertFalse(Files.exists(blob));
+        assertFalse(Files.exists(imageBlobStore.resolveRendition(HELLO_HASH, ImageSize.THUMBNAIL)));
+    }
+
+    @Test
+    void contentHashOf_DistinguishesBlobsFromLegacyImages() {
+        assertEquals(Optional.of(HELLO_HASH), ImageBlobStore.contentHashOf(HELLO_HASH + ".png"));
+        assertEquals(Optional.of(HELLO_HASH), ImageBlobStore.contentHashOf(HELLO_HASH));
+        assertEquals(Optional.empty(), ImageBlobStore.contentHashOf("photo.png"));
+        assertEquals(Optional.empty(), ImageBlobStore.contentHashOf("../" + HELLO_HASH + ".png"));
+        assertEquals(Optional.empty(), ImageBlobStore.contentHashOf(null));
+    }
+}
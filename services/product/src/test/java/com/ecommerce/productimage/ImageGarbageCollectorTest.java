@@ -0,0 +1,107 @@
+package com.ecommerce.productimage;
+
+import com.ecommerce.product.ProductRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ImageGarbageCollectorTest {
+    private static final String CONTENT_HASH = "ab".repeat(32);
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ProductImageService productImageService;
+
+    private ImageBlobStore imageBlobStore;
+    private ImageGarbageCollector imageGarbageCollector;
+    private Path uploadDirectory;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) {
+        uploadDirectory = tempDir;
+        imageBlobStore = new ImageBlobStore(imageBlobRepository);
+        ReflectionTestUtils.setField(imageBlobStore, "uploadDirectory", tempDir.toString());
+
+        imageGarbageCollector = new ImageGarbageCollector(imageBlobRepository, imageBlobStore, productRepository,
+                productImageService, Duration.ofHours(1), 100);
+        ReflectionTestUtils.setField(imageGarbageCollector, "uploadDirectory", tempDir.toString());
+    }
+
+    @Test
+    void collectBlobs_WithUnreferencedBlob_DeletesFileAndRow() throws IOException {
+        // Arrange
+        Path blob = imageBlobStore.resolveBlob(CONTENT_HASH);
+        Files.createDirectories(blob.getParent());
+        Files.writeString(blob, "unreferenced");
+        when(imageBlobRepository.lockUnreferencedHashes(any(Instant.class), eq(100))).thenReturn(List.of(CONTENT_HASH));
+
+        // Act
+        int collected = imageGarbageCollector.collectBlobs();
+
+        // Assert
+        assertEquals(1, collected);
+        assertFalse(Files.exists(blob));
+        verify(imageBlobRepository).deleteByContentHashes(List.of(CONTENT_HASH));
+    }
+
+    @Test
+    void collectBlobs_WithGracePeriod_OnlyCollectsBlobsUnreferencedLongEnough() {
+        // Arrange
+        when(imageBlobRepository.lockUnreferencedHashes(any(Instant.class), anyInt())).thenReturn(List.of());
+        Instant before = Instant.now().minus(Duration.ofHours(1));
+
+        // Act
+        int collected = imageGarbageCollector.collectBlobs();
+
+        // Assert
+        assertEquals(0, collected);
+        verify(imageBlobRepository).lockUnreferencedHashes(argThat(cutoff -> !cutoff.isBefore(before)), eq(100));
+        verify(imageBlobRepository, never()).deleteByContentHashes(any());
+    }
+
+    @Test
+    void collectProductDirectories_DeletesDirectoriesOfDeletedProducts() throws IOException {
+        // Arrange
+        Files.createDirectories(uploadDirectory.resolve("products").resolve("1"));
+        Files.createDirectories(uploadDirectory.resolve("products").resolve("2"));
+        when(productRepository.findExistingIds(Set.of(1L, 2L))).thenReturn(Set.of(1L));
+
+        // Act
+        imageGarbageCollector.collectProductDirectories();
+
+        // Assert
+        verify(productImageService).deleteDirectory(2L);
+        verify(productImageService, never()).deleteDirectory(1L);
+    }
+
+    @Test
+    void collectProductDirectories_WithoutProductsDirectory_DoesNothing() {
+        // Act
+        imageGarbageCollector.collectProductDirectories();
+
+        // Assert
+        verifyNoInteractions(productRepository, productImageService);
+    }
+}
@@ -0,0 +1,150 @@
+package com.ecommerce.productimage;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class ImageRenditionServiceTest {
+    private ImageRenditionService imageRenditionService;
+    private ImageBlobStore imageBlobStore;
+    private Path productDirectory;
+
+    @BeforeEach
+    void setUp(@TempDir Path tempDir) throws IOException {
+        imageBlobStore = new ImageBlobStore(mock(ImageBlobRepository.class));
+        ReflectionTestUtils.setField(imageBlobStore, "uploadDirectory", tempDir.toString());
+        imageRenditionService = new ImageRenditionService(imageBlobStore, Runnable::run);
+        ReflectionTestUtils.setField(imageRenditionService, "uploadDirectory", tempDir.toString());
+
+        productDirectory = tempDir.resolve("products").resolve("1");
+        Files.createDirectories(productDirectory);
+    }
+
+    @Test
+    void onImagesUploaded_WithLargeImage_GeneratesDownscaledRenditions() throws IOException {
+        // Arrange
+        ImageIO.write(new BufferedImage(1600, 800, BufferedImage.TYPE_INT_ARGB), "png",
+                productDirectory.resolve("photo.png").toFile());
+
+        // Act
+        imageRenditionService.onImagesUploaded(new ProductImagesUploadedEvent(1L, List.of("photo.png")));
+
+        // Assert
+        BufferedImage thumbnail = ImageIO.read(ImageSize.THUMBNAIL.resolve(productDirectory, "photo.png").toFile());
+        assertEquals(ImageSize.THUMBNAIL.getMaxDimension(), thumbnail.getWidth());
+        assertEquals(ImageSize.THUMBNAIL.getMaxDimension() / 2, thumbnail.getHeight());
+
+        BufferedImage medium = ImageIO.read(ImageSize.MEDIUM.resolve(productDirectory, "photo.png").toFile());
+        assertEquals(ImageSize.MEDIUM.getMaxDimension(), medium.getWidth());
+    }
+
+    @Test
+    void requestRenditions_WithImageAlreadyQueued_QueuesItOnce() {
+        // Arrange
+        List<Runnable> queue = new ArrayList<>();
+        ImageRenditionService queuingService = new ImageRenditionService(imageBlobStore, queue::add);
+
+        // Act
+        queuingService.requestRenditions(1L, "photo.png");
+        queuingService.requestRenditions(1L, "photo.png");
+
+        // Assert
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void requestRenditions_WithFullQueue_AllowsRequestingAgain() {
+        // Arrange
+        List<Runnable> queue = new ArrayList<>();
+        AtomicBoolean full = new AtomicBoolean(true);
+        ImageRenditionService queuingService = new ImageRenditionService(imageBlobStore, task -> {
+            if (full.get())
+                throw new RejectedExecutionException("full");
+            queue.add(task);
+        });
+
+        // Act
+        assertDoesNotThrow(() -> queuingService.requestRenditions(1L, "photo.png"));
+        full.set(false);
+        queuingService.requestRenditions(1L, "photo.png");
+
+        // Assert
+        assertEquals(1, queue.size());
+    }
+
+    @Test
+    void generateRenditions_WithSmallImage_KeepsOriginalDimensions() throws IOException {
+        // Arrange
+        ImageIO.write(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), "jpg",
+                productDirectory.resolve("small.jpg").toFile());
+
+        // Act
+        imageRenditionService.generateRenditions(1L, "small.jpg");
+
+        // Assert
+        BufferedImage thumbnail = ImageIO.read(ImageSize.THUMBNAIL.resolve(productDirectory, "small.jpg").toFile());
+        assertEquals(100, thumbnail.getWidth());
+        assertEquals(50, thumbnail.getHeight());
+    }
+
+    @Test
+    void generateRenditions_WithUnsupportedFormat_SkipsRenditions() throws IOException {
+        // Arrange
+        Files.write(productDirectory.resolve("image.webp"), "not decodable".getBytes());
+
+        // Act
+        imageRenditionService.generateRenditions(1L, "image.webp");
+
+        // Assert
+        assertFalse(Files.exists(ImageSize.THUMBNAIL.resolve(productDirectory, "image.webp")));
+    }
+
+    @Test
+    void generateRenditions_WithBlob_StoresRenditionsNextToBlob() throws IOException {
+        // Arrange
+        String contentHash = "ab".repeat(32);
+        Path blob = imageBlobStore.resolveBlob(contentHash);
+        Files.createDirectories(blob.getParent());
+        ImageIO.write(new BufferedImage(1000, 1000, BufferedImage.TYPE_INT_RGB), "png", blob.toFile());
+
+        // Act
+        imageRenditionService.generateRenditions(1L, contentHash + ".png");
+
+        // Assert
+        BufferedImage medium = ImageIO.read(imageBlobStore.resolveRendition(contentHash, ImageSize.MEDIUM).toFile());
+        assertEquals(ImageSize.MEDIUM.getMaxDimension(), medium.getWidth());
+        assertFalse(Files.exists(productDirectory.resolve("renditions")));
+    }
+
+    @Test
+    void generateRenditions_WithExistingBlobRenditions_DoesNotRegenerateThem() throws IOException {
+        // Arrange
+        String contentHash = "cd".repeat(32);
+        Path blob = imageBlobStore.resolveBlob(contentHash);
+        Files.createDirectories(blob.getParent());
+        Files.write(blob, "not decodable".getBytes());
+        for (ImageSize size : ImageSize.values()) {
+            Files.write(imageBlobStore.resolveRendition(contentHash, size), "rendition".getBytes());
+        }
+
+        // Act
+        imageRenditionService.generateRenditions(2L, contentHash + ".jpg");
+
+        // Assert
+        assertEquals("rendition", Files.readString(imageBlobStore.resolveRendition(contentHash, ImageSize.THUMBNAIL)));
+    }
+}
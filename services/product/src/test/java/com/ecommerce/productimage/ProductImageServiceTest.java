@@ -1,18 +1,23 @@
 package com.ecommerce.productimage;
 
+import com.ecommerce.exception.ImageUploadException;
+import com.ecommerce.exception.ProductNotFoundException;
 import com.ecommerce.product.Product;
+import com.ecommerce.product.ProductChangedEvent;
+import com.ecommerce.product.ProductRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.io.TempDir;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mockito.junit.jupiter.MockitoSettings;
 import org.mockito.quality.Strictness;
-import org.springframework.core.io.UrlResource;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -21,6 +26,9 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Collections;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -33,7 +41,19 @@ class ProductImageServiceTest {
     @Mock
     private ProductImageRepository productImageRepository;
 
-    @InjectMocks
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private ImageBlobRepository imageBlobRepository;
+
+    @Mock
+    private ImageRenditionService imageRenditionService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private ImageBlobStore imageBlobStore;
     private ProductImageService productImageService;
 
     private Product testProduct;
@@ -42,12 +62,18 @@ class ProductImageServiceTest {
     @BeforeEach
     void setUp(@TempDir Path tempDir) {
         String testUploadDirectory = tempDir.toString();
+        imageBlobStore = new ImageBlobStore(imageBlobRepository);
+        ReflectionTestUtils.setField(imageBlobStore, "uploadDirectory", testUploadDirectory);
+        productImageService = new ProductImageService(
+                productImageRepository, productRepository, imageBlobStore, imageRenditionService, eventPublisher, Runnable::run);
         ReflectionTestUtils.setField(productImageService, "uploadDirectory", testUploadDirectory);
 
         testProduct = Product.builder()
                 .id(1L)
                 .name("Test Product")
+                .categoryIds(Set.of(5L))
                 .build();
+        when(productRepository.findById(1L)).thenReturn(Optional.of(testProduct));
 
         testProductDir = tempDir.resolve("products").resolve("1");
     }
@@ -63,13 +89,27 @@ class ProductImageServiceTest {
         Files.write(testFilePath, "test image content".getBytes());
 
         // Act
-        ProductImageResponse response = productImageService.getImage(testProduct, fileName);
+        ProductImageResponse response = productImageService.getImage(testProduct.getId(), fileName, null);
 
         // Assert
         assertNotNull(response);
         assertEquals(MediaType.IMAGE_JPEG, response.mediaType());
-        assertInstanceOf(UrlResource.class, response.resource());
+        assertInstanceOf(FileSystemResource.class, response.resource());
         assertTrue(response.resource().exists());
+        assertEquals(Files.getLastModifiedTime(testFilePath).toMillis(), response.lastModified());
+    }
+
+    @Test
+    void getImage_WithPathOutsideProductDirectory_ReturnsNull() throws IOException {
+        // Arrange
+        Files.createDirectories(testProductDir.resolveSibling("2"));
+        Files.write(testProductDir.resolveSibling("2").resolve("secret.jpg"), "other product".getBytes());
+
+        // Act
+        ProductImageResponse response = productImageService.getImage(testProduct.getId(), "../2/secret.jpg", null);
+
+        // Assert
+        assertNull(response);
     }
 
     @Test
@@ -78,33 +118,154 @@ class ProductImageServiceTest {
         String fileName = "non-existent-image.jpg";
 
         // Act
-        ProductImageResponse response = productImageService.getImage(testProduct, fileName);
+        ProductImageResponse response = productImageService.getImage(testProduct.getId(), fileName, null);
 
         // Assert
         assertNull(response);
     }
 
     @Test
-    void processFilesForProduct_WithNewFiles_SavesFiles() throws IOException {
+    void getImage_WithGeneratedRendition_ReturnsRendition() throws IOException {
+        // Arrange
+        Files.createDirectories(testProductDir);
+        Files.write(testProductDir.resolve("photo.png"), "original".getBytes());
+        Path renditionPath = ImageSize.THUMBNAIL.resolve(testProductDir, "photo.png");
+        Files.createDirectories(renditionPath.getParent());
+        Files.write(renditionPath, "thumbnail".getBytes());
+
+        // Act
+        ProductImageResponse response = productImageService.getImage(testProduct.getId(), "photo.png", ImageSize.THUMBNAIL);
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(MediaType.IMAGE_JPEG, response.mediaType());
+        assertEquals(renditionPath.toFile(), response.resource().getFile());
+        assertTrue(response.immutable());
+        verifyNoInteractions(imageRenditionService);
+    }
+
+    @Test
+    void getImage_WithMissingRendition_ReturnsOriginal() throws IOException {
+        // Arrange
+        Files.createDirectories(testProductDir);
+        Files.write(testProductDir.resolve("photo.png"), "original".getBytes());
+
+        // Act
+        ProductImageResponse response = productImageService.getImage(testProduct.getId(), "photo.png", ImageSize.MEDIUM);
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(MediaType.IMAGE_PNG, response.mediaType());
+        assertEquals(testProductDir.resolve("photo.png").toFile(), response.resource().getFile());
+        assertFalse(response.immutable());
+        verify(imageRenditionService).requestRenditions(testProduct.getId(), "photo.png");
+    }
+
+    @Test
+    void getImage_WithContentAddressedImage_ReturnsBlob() throws IOException {
+        // Arrange
+        String contentHash = "ab".repeat(32);
+        Path blob = imageBlobStore.resolveBlob(contentHash);
+        Files.createDirectories(blob.getParent());
+        Files.write(blob, "blob content".getBytes());
+
+        // Act
+        ProductImageResponse response = productImageService.getImage(testProduct.getId(), contentHash + ".png", null);
+
+        // Assert
+        assertNotNull(response);
+        assertEquals(MediaType.IMAGE_PNG, response.mediaType());
+        assertEquals(blob.toFile(), response.resource().getFile());
+        assertTrue(response.immutable());
+    }
+
+    @Test
+    void storeFiles_WithNewFiles_StoresContentAddressedBlobs() throws IOException {
+        // Arrange
+        MultipartFile file1 = new MockMultipartFile("files", "image1.JPG", "image/jpeg", "test image 1".getBytes());
+        MultipartFile file2 = new MockMultipartFile("files", "image2.png", "image/png", "test image 2".getBytes());
+
+        when(productImageRepository.findImagePathsByProductId(1L)).thenReturn(Collections.emptyList());
+
+        // Act
+        List<String> imagePaths = productImageService.storeFiles(1L, List.of(file1, file2));
+
+        // Assert
+        assertEquals(2, imagePaths.size());
+        assertTrue(imagePaths.get(0).endsWith(".jpg"));
+        assertTrue(imagePaths.get(1).endsWith(".png"));
+
+        String contentHash = ImageBlobStore.contentHashOf(imagePaths.get(0)).orElseThrow();
+        assertEquals("test image 1", Files.readString(imageBlobStore.resolveBlob(contentHash)));
+        verify(imageBlobRepository).touch(contentHash, 12L);
+        assertFalse(Files.exists(testProductDir));
+        verify(productImageRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void storeFiles_WithSameContentTwice_StoresSingleBlob() throws IOException {
+        // Arrange
+        MultipartFile file1 = new MockMultipartFile("files", "front.jpg", "image/jpeg", "same image".getBytes());
+        MultipartFile file2 = new MockMultipartFile("files", "copy.jpg", "image/jpeg", "same image".getBytes());
+
+        when(productImageRepository.findImagePathsByProductId(1L)).thenReturn(Collections.emptyList());
+
+        // Act
+        List<String> imagePaths = productImageService.storeFiles(1L, List.of(file1, file2));
+
+        // Assert
+        assertEquals(1, imagePaths.size());
+        Path shard = imageBlobStore.resolveBlob(ImageBlobStore.contentHashOf(imagePaths.getFirst()).orElseThrow()).getParent();
+        try (Stream<Path> files = Files.list(shard)) {
+            assertEquals(1, files.count()); // no temporary files left behind
+        }
+    }
+
+    @Test
+    void storeFiles_WithExistingImage_DoesNotStoreItAgain() throws IOException {
         // Arrange
+        String existingPath = "ef".repeat(32) + ".jpg";
         MultipartFile file1 = mock(MultipartFile.class);
-        when(file1.getOriginalFilename()).thenReturn("image1.jpg");
-        when(file1.getBytes()).thenReturn("test image 1".getBytes());
+        when(file1.getOriginalFilename()).thenReturn(existingPath);
+        MultipartFile file2 = new MockMultipartFile("files", "image2.jpg", "image/jpeg", "test image 2".getBytes());
+
+        when(productImageRepository.findImagePathsByProductId(1L)).thenReturn(List.of(existingPath));
+
+        // Act
+        List<String> imagePaths = productImageService.storeFiles(1L, List.of(file1, file2));
 
+        // Assert
+        assertEquals(existingPath, imagePaths.get(0));
+        assertEquals(2, imagePaths.size());
+        verify(file1, never()).getInputStream();
+    }
+
+    @Test
+    void storeFiles_WhenWriteFails_ThrowsImageUploadException() throws IOException {
+        // Arrange
+        MultipartFile file1 = new MockMultipartFile("files", "image1.jpg", "image/jpeg", "test image 1".getBytes());
         MultipartFile file2 = mock(MultipartFile.class);
         when(file2.getOriginalFilename()).thenReturn("image2.jpg");
-        when(file2.getBytes()).thenReturn("test image 2".getBytes());
+        when(file2.getInputStream()).thenThrow(new IOException("connection reset"));
+
+        when(productImageRepository.findImagePathsByProductId(1L)).thenReturn(Collections.emptyList());
 
-        List<MultipartFile> files = List.of(file1, file2);
+        // Act & Assert
+        assertThrows(ImageUploadException.class, () -> productImageService.storeFiles(1L, List.of(file1, file2)));
+        try (Stream<Path> files = Files.list(imageBlobStore.resolveBlob("00".repeat(32)).getParent().getParent().getParent())) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().endsWith(".tmp")));
+        }
+    }
 
+    @Test
+    void saveImages_WithNewImages_SavesRecordsAndPublishesEvents() {
+        // Arrange
         when(productImageRepository.findAllByProduct(testProduct)).thenReturn(Collections.emptyList());
 
         // Act
-        productImageService.processFilesForProduct(testProduct, files);
+        List<String> removed = productImageService.saveImages(1L, List.of("image1.jpg", "image2.jpg"));
 
         // Assert
-        verify(productImageRepository).findAllByProduct(testProduct);
-
         ArgumentCaptor<List<ProductImage>> savedImagesCaptor = ArgumentCaptor.forClass(List.class);
         verify(productImageRepository).saveAll(savedImagesCaptor.capture());
 
@@ -119,62 +280,106 @@ class ProductImageServiceTest {
         assertEquals(1, savedImages.get(1).getUploadOrder());
         assertEquals(testProduct, savedImages.get(1).getProduct());
 
-        // Verify files were created
-        assertTrue(Files.exists(testProductDir.resolve("image1.jpg")));
-        assertTrue(Files.exists(testProductDir.resolve("image2.jpg")));
-
-        // Verify no deletes since there were no existing images
-        verify(productImageRepository, never()).deleteAll(anyList());
+        assertTrue(removed.isEmpty());
+        verify(eventPublisher).publishEvent(new ProductImagesUploadedEvent(1L, List.of("image1.jpg", "image2.jpg")));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L, Set.of(5L)));
     }
 
     @Test
-    void processFilesForProduct_WithExistingAndNewFiles_UpdatesAndSavesFiles() throws IOException {
+    void saveImages_WithExistingAndRemovedImages_ReordersAndReturnsRemovedPaths() {
         // Arrange
-        // Create existing product image
         ProductImage existingImage = ProductImage.builder()
                 .id(1L)
                 .imagePath("image1.jpg")
+                .uploadOrder(1)
+                .product(testProduct)
+                .build();
+        ProductImage removedImage = ProductImage.builder()
+                .id(2L)
+                .imagePath("old.jpg")
                 .uploadOrder(0)
                 .product(testProduct)
                 .build();
 
-        when(productImageRepository.findAllByProduct(testProduct)).thenReturn(List.of(existingImage));
-
-        // Set up files - one existing, one new
-        MultipartFile file1 = mock(MultipartFile.class);
-        when(file1.getOriginalFilename()).thenReturn("image1.jpg"); // Same name as existing
-        when(file1.getBytes()).thenReturn("updated image 1".getBytes());
-
-        MultipartFile file2 = mock(MultipartFile.class);
-        when(file2.getOriginalFilename()).thenReturn("image2.jpg"); // New file
-        when(file2.getBytes()).thenReturn("test image 2".getBytes());
-
-        List<MultipartFile> files = List.of(file1, file2);
+        when(productImageRepository.findAllByProduct(testProduct)).thenReturn(List.of(existingImage, removedImage));
 
         // Act
-        productImageService.processFilesForProduct(testProduct, files);
+        List<String> removed = productImageService.saveImages(1L, List.of("image1.jpg", "image2.jpg"));
 
         // Assert
-        verify(productImageRepository).findAllByProduct(testProduct);
-
         ArgumentCaptor<List<ProductImage>> savedImagesCaptor = ArgumentCaptor.forClass(List.class);
         verify(productImageRepository).saveAll(savedImagesCaptor.capture());
 
         List<ProductImage> savedImages = savedImagesCaptor.getValue();
         assertEquals(2, savedImages.size());
 
-        // First image should be the existing one with updated order
         assertEquals(existingImage.getId(), savedImages.get(0).getId());
-        assertEquals("image1.jpg", savedImages.get(0).getImagePath());
-        assertEquals(0, savedImages.get(0).getUploadOrder()); // Order updated
+        assertEquals(0, savedImages.get(0).getUploadOrder());
 
-        // Second should be new
-        assertNull(savedImages.get(1).getId()); // New image, no ID yet
+        assertNull(savedImages.get(1).getId());
         assertEquals("image2.jpg", savedImages.get(1).getImagePath());
         assertEquals(1, savedImages.get(1).getUploadOrder());
 
-        // Verify no deletes since all existing images were used
-        verify(productImageRepository, never()).deleteAll(anyList());
+        verify(productImageRepository).deleteAll(List.of(removedImage));
+        assertEquals(List.of("old.jpg"), removed);
+        verify(eventPublisher).publishEvent(new ProductImagesUploadedEvent(1L, List.of("image2.jpg")));
+    }
+
+    @Test
+    void saveImages_WithNonExistentProduct_ThrowsProductNotFoundException() {
+        // Arrange
+        when(productRepository.findById(2L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ProductNotFoundException.class, () -> productImageService.saveImages(2L, List.of("image1.jpg")));
+        verify(productImageRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void deleteFiles_DeletesImagesWithRenditions() throws IOException {
+        // Arrange
+        Files.createDirectories(testProductDir);
+        Files.writeString(testProductDir.resolve("old.jpg"), "old image");
+        Path rendition = ImageSize.THUMBNAIL.resolve(testProductDir, "old.jpg");
+        Files.createDirectories(rendition.getParent());
+        Files.writeString(rendition, "old thumbnail");
+
+        // Act
+        productImageService.deleteFiles(1L, List.of("old.jpg"));
+
+        // Assert
+        assertFalse(Files.exists(testProductDir.resolve("old.jpg")));
+        assertFalse(Files.exists(rendition));
+    }
+
+    @Test
+    void saveImages_WithContentAddressedImage_StoresContentHash() {
+        // Arrange
+        String contentHash = "ab".repeat(32);
+        when(productImageRepository.findAllByProduct(testProduct)).thenReturn(Collections.emptyList());
+
+        // Act
+        productImageService.saveImages(1L, List.of(contentHash + ".jpg"));
+
+        // Assert
+        ArgumentCaptor<List<ProductImage>> savedImagesCaptor = ArgumentCaptor.forClass(List.class);
+        verify(productImageRepository).saveAll(savedImagesCaptor.capture());
+        assertEquals(contentHash, savedImagesCaptor.getValue().getFirst().getContentHash());
+    }
+
+    @Test
+    void deleteFiles_WithContentAddressedImage_LeavesBlobToCollector() throws IOException {
+        // Arrange
+        String contentHash = "ab".repeat(32);
+        Path blob = imageBlobStore.resolveBlob(contentHash);
+        Files.createDirectories(blob.getParent());
+        Files.write(blob, "shared image".getBytes());
+
+        // Act
+        productImageService.deleteFiles(1L, List.of(contentHash + ".jpg"));
+
+        // Assert
+        assertTrue(Files.exists(blob));
     }
 
     @Test
@@ -29,12 +29,13 @@ class ProductImageTest {
         Product product = Product.builder().id(1L).name("Test Product").build();
 
         // Act
-        ProductImage productImage = new ProductImage(id, imagePath, uploadOrder, product);
+        ProductImage productImage = new ProductImage(id, imagePath, null, uploadOrder, product);
 
         // Assert
         assertNotNull(productImage);
         assertEquals(id, productImage.getId());
         assertEquals(imagePath, productImage.getImagePath());
+        assertNull(productImage.getContentHash());
         assertEquals(uploadOrder, productImage.getUploadOrder());
         assertEquals(product, productImage.getProduct());
     }
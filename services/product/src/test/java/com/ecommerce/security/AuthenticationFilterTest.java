@@ -173,4 +173,38 @@ class AuthenticationFilterTest {
         // Verify filter chain still continues despite the exception
         verify(filterChain, times(1)).doFilter(request, response);
     }
+
+    @Test
+    void doFilterInternal_WithMatchingServiceToken_SetsServiceAuthentication() throws ServletException, IOException {
+        // Arrange
+        AuthenticationFilter serviceFilter = new AuthenticationFilter("service-secret");
+        when(request.getHeader("X-Service-Token")).thenReturn("service-secret");
+
+        // Act
+        serviceFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        ArgumentCaptor<Authentication> authCaptor = ArgumentCaptor.forClass(Authentication.class);
+        verify(securityContext).setAuthentication(authCaptor.capture());
+        UserDetails userDetails = (UserDetails) authCaptor.getValue().getPrincipal();
+        assertEquals("service", userDetails.getUsername());
+        assertTrue(userDetails.getAuthorities().contains(new SimpleGrantedAuthority("ROLE_SERVICE")));
+        verify(filterChain, times(1)).doFilter(request, response);
+    }
+
+    @Test
+    void doFilterInternal_WithWrongServiceToken_DoesNotSetAuthentication() throws ServletException, IOException {
+        // Arrange
+        AuthenticationFilter serviceFilter = new AuthenticationFilter("service-secret");
+        when(request.getHeader("X-Service-Token")).thenReturn("guessed");
+        when(request.getHeader("X-User-Username")).thenReturn(null);
+        when(request.getHeader("X-User-Roles")).thenReturn(null);
+
+        // Act
+        serviceFilter.doFilterInternal(request, response, filterChain);
+
+        // Assert
+        verify(securityContext, never()).setAuthentication(any(Authentication.class));
+        verify(filterChain, times(1)).doFilter(request, response);
+    }
 }
\ No newline at end of file
@@ -3,19 +3,23 @@ package com.ecommerce.variant;
 import com.ecommerce.attributevalue.AttributeValueService;
 import com.ecommerce.exception.VariantNotFoundException;
 import com.ecommerce.product.Product;
+import com.ecommerce.product.ProductChangedEvent;
 import com.ecommerce.product.ProductService;
 import com.ecommerce.variant.purchase.CartItemRequest;
 import com.ecommerce.variant.purchase.PurchaseResponse;
+import com.ecommerce.variant.stock.VariantStockShardService;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -39,6 +43,12 @@ public class VariantServiceTest {
     @Mock
     private ProductService productService;
 
+    @Mock
+    private VariantStockShardService variantStockShardService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private VariantService variantService;
 
@@ -117,7 +127,7 @@ public class VariantServiceTest {
         );
 
         Variant mockVariant = new Variant();
-        Product mockProduct = new Product();
+        Product mockProduct = Product.builder().id(1L).build();
 
         when(productService.findProductEntityById(request.productId())).thenReturn(mockProduct);
         when(variantMapper.toVariant(request)).thenReturn(mockVariant);
@@ -134,6 +144,8 @@ public class VariantServiceTest {
         assertNotNull(result);
         verify(variantValidator).validateProductNumberVariants(mockVariant);
         verify(variantRepository).save(mockVariant);
+        verify(productService).refreshPriceSummary(1L);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L, Set.of()));
     }
 
     @Test
@@ -152,14 +164,18 @@ public class VariantServiceTest {
                 null
         );
 
+        Product product = Product.builder().id(1L).build();
+
         Variant existingVariant = new Variant();
         existingVariant.setId(variantId);
+        existingVariant.setProduct(product);
 
         Variant updatedVariant = new Variant();
         updatedVariant.setId(variantId);
 
         when(variantRepository.findById(variantId)).thenReturn(Optional.of(existingVariant));
         when(variantMapper.toVariant(request)).thenReturn(updatedVariant);
+        when(productService.findProductEntityById(request.productId())).thenReturn(product);
         when(variantRepository.save(any(Variant.class))).thenAnswer(invocation -> {
             Variant savedVariant = invocation.getArgument(0);
             savedVariant.setId(variantId);
@@ -173,6 +189,46 @@ public class VariantServiceTest {
         assertNotNull(result);
         assertEquals(variantId, result);
         verify(variantRepository).save(updatedVariant);
+        verify(productService).refreshPriceSummary(1L);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L, Set.of()));
+    }
+
+    @Test
+    @DisplayName("Update Variant - Moved To Another Product Refreshes Both Products")
+    void updateVariant_MovedToAnotherProduct_RefreshesBothProducts() {
+        // Arrange
+        Long variantId = 1L;
+        VariantRequest request = new VariantRequest(
+                1L,
+                2L,
+                "SKU-001",
+                BigDecimal.TEN,
+                BigDecimal.TEN,
+                1,
+                false,
+                null
+        );
+
+        Variant existingVariant = new Variant();
+        existingVariant.setId(variantId);
+        existingVariant.setProduct(Product.builder().id(1L).build());
+
+        Variant updatedVariant = new Variant();
+        updatedVariant.setId(variantId);
+
+        when(variantRepository.findById(variantId)).thenReturn(Optional.of(existingVariant));
+        when(variantMapper.toVariant(request)).thenReturn(updatedVariant);
+        when(productService.findProductEntityById(2L)).thenReturn(Product.builder().id(2L).build());
+        when(variantRepository.save(any(Variant.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        variantService.updateVariant(variantId, request);
+
+        // Assert
+        verify(productService).refreshPriceSummary(1L);
+        verify(productService).refreshPriceSummary(2L);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L, Set.of()));
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(2L, Set.of()));
     }
 
     @Test
@@ -181,6 +237,7 @@ public class VariantServiceTest {
         // Arrange
         Long variantId = 1L;
         Variant mockVariant = new Variant();
+        mockVariant.setProduct(Product.builder().id(1L).build());
 
         when(variantRepository.findById(variantId)).thenReturn(Optional.of(mockVariant));
 
@@ -189,6 +246,8 @@ public class VariantServiceTest {
 
         // Assert
         verify(variantRepository).delete(mockVariant);
+        verify(productService).refreshPriceSummary(1L);
+        verify(eventPublisher).publishEvent(new ProductChangedEvent(1L, Set.of()));
     }
 
     @Test
@@ -43,7 +43,7 @@ class VariantTest {
         List<AttributeValue> values = new ArrayList<>();
 
         // Act
-        Variant variant = new Variant(id, sku, basePrice, discountedPrice, quantity, quantityUnlimited, product, values);
+        Variant variant = new Variant(id, sku, basePrice, discountedPrice, quantity, quantityUnlimited, product, values, 0);
 
         // Assert
         assertNotNull(variant);
@@ -2,7 +2,6 @@ package com.ecommerce.variant;
 
 import com.ecommerce.attribute.Attribute;
 import com.ecommerce.attributevalue.AttributeValue;
-import com.ecommerce.exception.QuantityOutOfStockException;
 import com.ecommerce.exception.VariantNotFoundException;
 import com.ecommerce.product.Product;
 import com.ecommerce.variant.purchase.PurchaseRequest;
@@ -31,7 +30,6 @@ class VariantValidatorTest {
     private Set<Long> validVariantIds;
     private Variant testVariant;
     private Product testProduct;
-    private PurchaseRequest testPurchaseRequest;
 
     @BeforeEach
     void setUp() {
@@ -50,8 +48,6 @@ class VariantValidatorTest {
                 .quantityUnlimited(false)
                 .product(testProduct)
                 .build();
-
-        testPurchaseRequest = new PurchaseRequest(1L, 5); // Requesting 5 of 10 available
     }
 
     @Test
@@ -194,44 +190,6 @@ class VariantValidatorTest {
         assertDoesNotThrow(() -> variantValidator.validateProductNumberVariants(testVariant));
     }
 
-    @Test
-    void validateAvailableQuantity_WithSufficientQuantity_NoExceptionThrown() {
-        // Arrange - testVariant has 10, requesting 5
-
-        // Act & Assert
-        assertDoesNotThrow(() -> variantValidator.validateAvailableQuantity(testVariant, testPurchaseRequest));
-    }
-
-    @Test
-    void validateAvailableQuantity_WithExactQuantity_NoExceptionThrown() {
-        // Arrange
-        PurchaseRequest exactRequest = new PurchaseRequest(1L, 10); // Exactly what's available
-
-        // Act & Assert
-        assertDoesNotThrow(() -> variantValidator.validateAvailableQuantity(testVariant, exactRequest));
-    }
-
-    @Test
-    void validateAvailableQuantity_WithInsufficientQuantity_ThrowsQuantityOutOfStockException() {
-        // Arrange
-        PurchaseRequest excessRequest = new PurchaseRequest(1L, 15); // More than available
-
-        // Act & Assert
-        assertThrows(QuantityOutOfStockException.class,
-                () -> variantValidator.validateAvailableQuantity(testVariant, excessRequest));
-    }
-
-    @Test
-    void validateAvailableQuantity_WithUnlimitedQuantity_NoExceptionThrown() {
-        // Arrange
-        testVariant.setQuantityUnlimited(true);
-        testVariant.setQuantity(0);
-        PurchaseRequest largeRequest = new PurchaseRequest(1L, 5); // Should be fine with unlimited
-
-        // Act & Assert
-        assertDoesNotThrow(() -> variantValidator.validateAvailableQuantity(testVariant, largeRequest));
-    }
-
     @Test
     void validateSetNotEmpty_WithValidSet_NoExceptionThrown() {
         // Arrange
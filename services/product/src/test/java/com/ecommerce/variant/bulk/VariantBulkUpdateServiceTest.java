@@ -0,0 +1,167 @@
+package com.ecommerce.variant.bulk;
+
+import com.ecommerce.product.ProductRepository;
+import com.ecommerce.variant.VariantRepository;
+import com.ecommerce.variant.stock.VariantStockShardService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class VariantBulkUpdateServiceTest {
+    @Mock
+    private VariantBulkUpdateRepository variantBulkUpdateRepository;
+
+    @Mock
+    private VariantRepository variantRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private VariantStockShardService variantStockShardService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private VariantBulkUpdateService variantBulkUpdateService;
+
+    @BeforeEach
+    void setUp() {
+        variantBulkUpdateService = new VariantBulkUpdateService(
+                variantBulkUpdateRepository,
+                variantRepository,
+                productRepository,
+                variantStockShardService,
+                eventPublisher,
+                2
+        );
+
+        when(variantBulkUpdateRepository.updateByIds(anyList())).thenReturn(List.of());
+        when(variantBulkUpdateRepository.updateBySkus(anyList())).thenReturn(List.of());
+        when(variantRepository.findExistingIds(anyCollection())).thenReturn(Set.of());
+        when(variantRepository.findExistingSkus(anyCollection())).thenReturn(Set.of());
+    }
+
+    @Test
+    void updateVariants_WithChanges_UpdatesInBatchesAndPublishesOneEvent() {
+        // Arrange
+        List<VariantBulkUpdateRequest> requests = List.of(
+                byId(1L, 100), byId(2L, 200), byId(3L, 300), bySku("SKU-4", 400)
+        );
+        when(variantBulkUpdateRepository.updateByIds(anyList())).thenAnswer(invocation -> {
+            List<VariantBulkUpdateRequest> batch = invocation.getArgument(0);
+            return batch.stream().map(request -> change(request.id(), 10L, "SKU-" + request.id())).toList();
+        });
+        when(variantBulkUpdateRepository.updateBySkus(anyList()))
+                .thenReturn(List.of(change(4L, 20L, "SKU-4")));
+
+        // Act
+        VariantBulkUpdateResponse response = variantBulkUpdateService.updateVariants(requests);
+
+        // Assert
+        assertEquals(4, response.updated());
+        assertEquals(0, response.unchanged());
+        assertTrue(response.notFound().isEmpty());
+        verify(variantBulkUpdateRepository, times(2)).updateByIds(anyList());
+        verify(variantBulkUpdateRepository, times(1)).updateBySkus(anyList());
+        verify(productRepository).refreshPriceSummaries(Set.of(10L, 20L));
+
+        ArgumentCaptor<VariantsChangedEvent> event = ArgumentCaptor.forClass(VariantsChangedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(event.capture());
+        assertEquals(Set.of(10L, 20L), event.getValue().productIds());
+        assertEquals(4, event.getValue().changes().size());
+    }
+
+    @Test
+    void updateVariants_WithUnchangedAndMissingVariants_ReportsThem() {
+        // Arrange
+        List<VariantBulkUpdateRequest> requests = List.of(
+                byId(1L, 100), byId(2L, 200), bySku("SKU-3", 300), bySku("SKU-4", 400)
+        );
+        when(variantRepository.findExistingIds(anyCollection())).thenReturn(Set.of(1L));
+        when(variantRepository.findExistingSkus(anyCollection())).thenReturn(Set.of("SKU-3"));
+
+        // Act
+        VariantBulkUpdateResponse response = variantBulkUpdateService.updateVariants(requests);
+
+        // Assert
+        assertEquals(0, response.updated());
+        assertEquals(2, response.unchanged());
+        assertEquals(List.of("2", "SKU-4"), response.notFound());
+        verify(productRepository, never()).refreshPriceSummaries(anyCollection());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void updateVariants_WithDuplicateKeys_SendsOnlyLastChange() {
+        // Arrange
+        List<VariantBulkUpdateRequest> requests = List.of(byId(1L, 100), byId(1L, 150));
+
+        // Act
+        variantBulkUpdateService.updateVariants(requests);
+
+        // Assert
+        verify(variantBulkUpdateRepository).updateByIds(List.of(byId(1L, 150)));
+        verify(variantBulkUpdateRepository, never()).updateBySkus(anyList());
+    }
+
+    @Test
+    void updateVariants_WithQuantityChange_ResetsStockShardsOfRestockedVariantsOnly() {
+        // Arrange
+        List<VariantBulkUpdateRequest> requests = List.of(
+                new VariantBulkUpdateRequest(1L, null, null, null, 50, null),
+                byId(2L, 200)
+        );
+        when(variantBulkUpdateRepository.updateByIds(anyList()))
+                .thenReturn(List.of(change(1L, 10L, "SKU-1"), change(2L, 10L, "SKU-2")));
+
+        // Act
+        variantBulkUpdateService.updateVariants(requests);
+
+        // Assert
+        verify(variantStockShardService).resetStockShards(List.of(1L));
+    }
+
+    @Test
+    void updateVariants_WithEmptyRequest_ThrowsException() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> variantBulkUpdateService.updateVariants(List.of()));
+    }
+
+    @Test
+    void isIdentified_RequiresExactlyOneKey() {
+        // Assert
+        assertTrue(byId(1L, 100).isIdentified());
+        assertTrue(bySku("SKU-1", 100).isIdentified());
+        assertFalse(new VariantBulkUpdateRequest(1L, "SKU-1", null, null, 5, null).isIdentified());
+        assertFalse(new VariantBulkUpdateRequest(null, null, null, null, 5, null).isIdentified());
+    }
+
+    private static VariantBulkUpdateRequest byId(Long id, int price) {
+        return new VariantBulkUpdateRequest(id, null, BigDecimal.valueOf(price), null, null, null);
+    }
+
+    private static VariantBulkUpdateRequest bySku(String sku, int price) {
+        return new VariantBulkUpdateRequest(null, sku, BigDecimal.valueOf(price), null, null, null);
+    }
+
+    private static VariantChange change(Long id, Long productId, String sku) {
+        return new VariantChange(id, productId, sku, BigDecimal.TEN, null, 5, false);
+    }
+}
@@ -1,8 +1,12 @@
 package com.ecommerce.variant.purchase;
 
+import com.ecommerce.exception.QuantityOutOfStockException;
+import com.ecommerce.product.Product;
+import com.ecommerce.variant.StockChangedEvent;
 import com.ecommerce.variant.Variant;
 import com.ecommerce.variant.VariantMapper;
 import com.ecommerce.variant.VariantRepository;
+import com.ecommerce.variant.VariantStockRepository;
 import com.ecommerce.variant.VariantValidator;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -10,13 +14,16 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.math.BigDecimal;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,12 +32,18 @@ public class PurchaseServiceTest {
     @Mock
     private VariantRepository variantRepository;
 
+    @Mock
+    private VariantStockRepository variantStockRepository;
+
     @Mock
     private VariantMapper variantMapper;
 
     @Mock
     private VariantValidator variantValidator;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private PurchaseService purchaseService;
 
@@ -44,12 +57,14 @@ public class PurchaseServiceTest {
 
         Variant variant1 = new Variant();
         variant1.setId(1L);
-        variant1.setQuantity(10);
+        variant1.setProduct(Product.builder().id(101L).build());
+        variant1.setQuantity(8);
         variant1.setQuantityUnlimited(false);
 
         Variant variant2 = new Variant();
         variant2.setId(2L);
-        variant2.setQuantity(15);
+        variant2.setProduct(Product.builder().id(102L).build());
+        variant2.setQuantity(12);
         variant2.setQuantityUnlimited(false);
 
         PurchaseResponse response1 = new PurchaseResponse(1L, 1L, "response", "/", BigDecimal.TEN, 2, 3, false, BigDecimal.TEN, null);
@@ -57,12 +72,11 @@ public class PurchaseServiceTest {
 
         // Mock method calls
         doNothing().when(variantValidator).validateSetNotEmpty(purchaseRequests);
+        when(variantStockRepository.decrementStock(Map.of(1L, 2, 2L, 3))).thenReturn(Map.of(1L, 8, 2L, 12));
         when(variantRepository.findAllById(Set.of(1L, 2L))).thenReturn(List.of(variant1, variant2));
         doNothing().when(variantValidator).validateAllVariantsExist(Set.of(1L, 2L));
         doNothing().when(variantValidator).validateTotalPriceIsNotOver(
                 any(), any(), any());
-        doNothing().when(variantValidator).validateAvailableQuantity(variant1, request1);
-        doNothing().when(variantValidator).validateAvailableQuantity(variant2, request2);
 
         when(variantMapper.toPurchaseResponse(variant1, 2))
                 .thenReturn(response1);
@@ -76,12 +90,10 @@ public class PurchaseServiceTest {
         assertNotNull(result);
         assertEquals(2, result.size());
 
-        // Verify variant quantities are updated
-        assertEquals(8, variant1.getQuantity());
-        assertEquals(12, variant2.getQuantity());
-
-        // Verify interactions
-        verify(variantRepository).saveAll(List.of(variant1, variant2));
+        // Verify the stock is taken atomically instead of saving the loaded variants
+        verify(variantStockRepository).decrementStock(Map.of(1L, 2, 2L, 3));
+        verify(variantRepository, never()).saveAll(any());
+        verify(eventPublisher).publishEvent(new StockChangedEvent(Set.of(101L, 102L)));
     }
 
     @Test
@@ -93,6 +105,7 @@ public class PurchaseServiceTest {
 
         Variant variant1 = new Variant();
         variant1.setId(1L);
+        variant1.setProduct(Product.builder().id(101L).build());
         variant1.setQuantity(10);
         variant1.setQuantityUnlimited(true);
 
@@ -100,6 +113,7 @@ public class PurchaseServiceTest {
 
         // Mock method calls
         doNothing().when(variantValidator).validateSetNotEmpty(purchaseRequests);
+        when(variantStockRepository.decrementStock(Map.of(1L, 2))).thenReturn(Map.of());
         when(variantRepository.findAllById(Set.of(1L))).thenReturn(List.of(variant1));
         doNothing().when(variantValidator).validateAllVariantsExist(Set.of(1L));
         doNothing().when(variantValidator).validateTotalPriceIsNotOver(
@@ -117,9 +131,6 @@ public class PurchaseServiceTest {
 
         // Verify variant quantity remains unchanged for unlimited quantity
         assertEquals(10, variant1.getQuantity());
-
-        // Verify interactions
-        verify(variantRepository).saveAll(List.of(variant1));
     }
 
     @Test
@@ -147,11 +158,13 @@ public class PurchaseServiceTest {
 
         Variant variant1 = new Variant();
         variant1.setId(1L);
+        variant1.setProduct(Product.builder().id(101L).build());
         variant1.setQuantity(10);
         variant1.setQuantityUnlimited(false);
 
         // Mock method calls
         doNothing().when(variantValidator).validateSetNotEmpty(purchaseRequests);
+        when(variantStockRepository.decrementStock(Map.of(1L, 2))).thenReturn(Map.of(1L, 8));
         when(variantRepository.findAllById(Set.of(1L))).thenReturn(List.of(variant1));
         doNothing().when(variantValidator).validateAllVariantsExist(Set.of(1L));
 
@@ -176,53 +189,21 @@ public class PurchaseServiceTest {
 
         Variant variant1 = new Variant();
         variant1.setId(1L);
+        variant1.setProduct(Product.builder().id(101L).build());
         variant1.setQuantity(10);
         variant1.setQuantityUnlimited(false);
 
         // Mock method calls
         doNothing().when(variantValidator).validateSetNotEmpty(purchaseRequests);
+        when(variantStockRepository.decrementStock(Map.of(1L, 20))).thenReturn(Map.of());
         when(variantRepository.findAllById(Set.of(1L))).thenReturn(List.of(variant1));
         doNothing().when(variantValidator).validateAllVariantsExist(Set.of(1L));
-        doNothing().when(variantValidator).validateTotalPriceIsNotOver(
-                any(), any(), any());
-
-        doThrow(new IllegalArgumentException("Insufficient quantity"))
-                .when(variantValidator).validateAvailableQuantity(variant1, request1);
 
         // Act & Assert
-        assertThrows(IllegalArgumentException.class,
+        assertThrows(QuantityOutOfStockException.class,
                 () -> purchaseService.purchaseVariants(purchaseRequests));
 
-        verify(variantValidator).validateAvailableQuantity(variant1, request1);
-    }
-
-    @Test
-    @DisplayName("Calculate Updated Quantity - Normal Scenario")
-    void calculateUpdatedQuantity_Normal() {
-        // Arrange
-        Variant variant = new Variant();
-        variant.setId(1L);
-        variant.setQuantity(10);
-        variant.setQuantityUnlimited(false);
-
-        PurchaseRequest request = new PurchaseRequest(1L, 3);
-
-        // Use reflection to access the private method
-        try {
-            java.lang.reflect.Method method = PurchaseService.class
-                    .getDeclaredMethod("calculateUpdatedQuantity", Variant.class, PurchaseRequest.class);
-            method.setAccessible(true);
-
-            doNothing().when(variantValidator).validateAvailableQuantity(variant, request);
-
-            // Act
-            int result = (int) method.invoke(purchaseService, variant, request);
-
-            // Assert
-            assertEquals(7, result);
-            verify(variantValidator).validateAvailableQuantity(variant, request);
-        } catch (Exception e) {
-            fail("Failed to test calculateUpdatedQuantity", e);
-        }
+        verify(variantValidator, never()).validateTotalPriceIsNotOver(any(), any(), any());
+        verify(variantMapper, never()).toPurchaseResponse(any(), anyInt());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,137 @@
+package com.ecommerce.variant.reservation;
+
+import com.ecommerce.exception.ReservationNotFoundException;
+import com.ecommerce.variant.StockChangedEvent;
+import com.ecommerce.variant.purchase.PurchaseRequest;
+import com.ecommerce.variant.purchase.PurchaseResponse;
+import com.ecommerce.variant.purchase.PurchaseService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+    @Mock
+    private StockReservationRepository stockReservationRepository;
+
+    @Mock
+    private PurchaseService purchaseService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    private StockReservationService stockReservationService;
+
+    @BeforeEach
+    void setUp() {
+        stockReservationService = new StockReservationService(
+                stockReservationRepository,
+                purchaseService,
+                eventPublisher,
+                Duration.ofMinutes(15),
+                100
+        );
+    }
+
+    @Test
+    void reserveVariants_TakesStockAndStoresPendingReservation() {
+        // Arrange
+        Set<PurchaseRequest> request = Set.of(new PurchaseRequest(1L, 2));
+        PurchaseResponse item = new PurchaseResponse(10L, 1L, "name", "/", BigDecimal.TEN, 2, 8, true, BigDecimal.TEN, null);
+        when(purchaseService.purchaseVariants(request)).thenReturn(Set.of(item));
+        when(stockReservationRepository.save(any(StockReservation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        StockReservationResponse response = stockReservationService.reserveVariants(request);
+
+        // Assert
+        ArgumentCaptor<StockReservation> saved = ArgumentCaptor.forClass(StockReservation.class);
+        verify(stockReservationRepository).save(saved.capture());
+        assertEquals(ReservationStatus.RESERVED, saved.getValue().getStatus());
+        assertEquals(List.of(new StockReservationItem(1L, 2)), saved.getValue().getItems());
+        assertEquals(Duration.ofMinutes(15), Duration.between(saved.getValue().getCreatedAt(), response.expiresAt()));
+        assertEquals(saved.getValue().getId(), response.id());
+        assertEquals(Set.of(item), response.items());
+    }
+
+    @Test
+    void confirmReservation_WithExpiredReservation_ThrowsException() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(stockReservationRepository.confirm(eq(id), any(Instant.class))).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ReservationNotFoundException.class, () -> stockReservationService.confirmReservation(id));
+    }
+
+    @Test
+    void releaseReservation_WithPendingReservation_ReturnsStock() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(stockReservationRepository.release(id)).thenReturn(1);
+        when(stockReservationRepository.findProductIds(List.of(id))).thenReturn(Set.of(5L));
+
+        // Act
+        stockReservationService.releaseReservation(id);
+
+        // Assert
+        verify(stockReservationRepository).returnStock(List.of(id));
+        verify(eventPublisher).publishEvent(new StockChangedEvent(Set.of(5L)));
+    }
+
+    @Test
+    void releaseReservation_WithClosedReservation_DoesNotReturnStockTwice() {
+        // Arrange
+        UUID id = UUID.randomUUID();
+        when(stockReservationRepository.release(id)).thenReturn(0);
+
+        // Act & Assert
+        assertThrows(ReservationNotFoundException.class, () -> stockReservationService.releaseReservation(id));
+        verify(stockReservationRepository, never()).returnStock(anyCollection());
+        verify(eventPublisher, never()).publishEvent(any(StockChangedEvent.class));
+    }
+
+    @Test
+    void expireReservations_ReturnsStockOfExpiredReservations() {
+        // Arrange
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID());
+        when(stockReservationRepository.lockExpiredIds(any(Instant.class), eq(100))).thenReturn(ids);
+
+        // Act
+        int expired = stockReservationService.expireReservations();
+
+        // Assert
+        assertEquals(2, expired);
+        verify(stockReservationRepository).markExpired(ids);
+        verify(stockReservationRepository).returnStock(ids);
+    }
+
+    @Test
+    void expireReservations_WithNothingExpired_DoesNothing() {
+        // Arrange
+        when(stockReservationRepository.lockExpiredIds(any(Instant.class), eq(100))).thenReturn(List.of());
+
+        // Act
+        int expired = stockReservationService.expireReservations();
+
+        // Assert
+        assertEquals(0, expired);
+        verify(stockReservationRepository, never()).returnStock(anyCollection());
+        verify(eventPublisher, never()).publishEvent(any(StockChangedEvent.class));
+    }
+}
@@ -0,0 +1,112 @@
+package com.ecommerce.variant.stock;
+
+import com.ecommerce.exception.VariantNotFoundException;
+import com.ecommerce.variant.Variant;
+import com.ecommerce.variant.VariantRepository;
+import com.ecommerce.variant.VariantStockRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class VariantStockShardServiceTest {
+    @Mock
+    private VariantStockRepository variantStockRepository;
+
+    @Mock
+    private VariantRepository variantRepository;
+
+    @InjectMocks
+    private VariantStockShardService variantStockShardService;
+
+    @Test
+    void setStockShards_SplitsMergedStockIntoNewShards() {
+        // Arrange
+        Variant variant = Variant.builder().id(1L).quantity(100).build();
+        when(variantRepository.findById(1L)).thenReturn(Optional.of(variant));
+
+        // Act
+        variantStockShardService.setStockShards(1L, 8);
+
+        // Assert
+        InOrder inOrder = inOrder(variantStockRepository);
+        inOrder.verify(variantStockRepository).lockStock(List.of(1L));
+        inOrder.verify(variantStockRepository).mergeShards(List.of(1L));
+        inOrder.verify(variantStockRepository).createShards(Map.of(1L, 8));
+        inOrder.verify(variantStockRepository).rebalanceShards(List.of(1L));
+    }
+
+    @Test
+    void setStockShards_WithZero_OnlyMergesShards() {
+        // Arrange
+        Variant variant = Variant.builder().id(1L).quantity(0).build();
+        when(variantRepository.findById(1L)).thenReturn(Optional.of(variant));
+
+        // Act
+        variantStockShardService.setStockShards(1L, 0);
+
+        // Assert
+        verify(variantStockRepository).mergeShards(List.of(1L));
+        verify(variantStockRepository, never()).createShards(anyMap());
+    }
+
+    @Test
+    void setStockShards_WithUnlimitedQuantity_ThrowsException() {
+        // Arrange
+        Variant variant = Variant.builder().id(1L).quantityUnlimited(true).build();
+        when(variantRepository.findById(1L)).thenReturn(Optional.of(variant));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> variantStockShardService.setStockShards(1L, 4));
+        verifyNoInteractions(variantStockRepository);
+    }
+
+    @Test
+    void setStockShards_WithMissingVariant_ThrowsException() {
+        // Arrange
+        when(variantRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(VariantNotFoundException.class, () -> variantStockShardService.setStockShards(1L, 4));
+    }
+
+    @Test
+    void resetStockShards_ReplacesShardsOfHotVariantsOnly() {
+        // Arrange
+        when(variantStockRepository.lockStock(List.of(1L, 2L))).thenReturn(Map.of(1L, 4));
+
+        // Act
+        variantStockShardService.resetStockShards(List.of(1L, 2L));
+
+        // Assert
+        verify(variantStockRepository).deleteShards(Set.of(1L));
+        verify(variantStockRepository).createShards(Map.of(1L, 4));
+        verify(variantStockRepository).rebalanceShards(Set.of(1L));
+    }
+
+    @Test
+    void rebalanceStockShards_LocksAndRebalancesAllHotVariants() {
+        // Arrange
+        when(variantStockRepository.findShardedVariantIds()).thenReturn(List.of(1L, 2L));
+
+        // Act
+        variantStockShardService.rebalanceStockShards();
+
+        // Assert
+        InOrder inOrder = inOrder(variantStockRepository);
+        inOrder.verify(variantStockRepository).lockStock(List.of(1L, 2L));
+        inOrder.verify(variantStockRepository).rebalanceShards(List.of(1L, 2L));
+    }
+}
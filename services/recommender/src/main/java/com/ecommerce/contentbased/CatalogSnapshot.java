@@ -0,0 +1,17 @@
+package com.ecommerce.contentbased;
+
+import com.ecommerce.feignclient.product.ProductOverviewResponse;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Products read from a catalog snapshot of product-service.
+ *
+ * @param products  the products of the snapshot
+ * @param watermark the time product-service started the snapshot, by its own clock
+ */
+record CatalogSnapshot(
+        List<ProductOverviewResponse> products,
+        Instant watermark
+) {}
@@ -2,64 +2,306 @@ package com.ecommerce.contentbased;
 
 import com.ecommerce.feignclient.product.ProductClient;
 import com.ecommerce.feignclient.product.ProductOverviewResponse;
-import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Response;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
-import java.util.concurrent.*;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.concurrent.atomic.AtomicInteger;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
 
+/**
+ * Serves content-based recommendations, the most similar products of every product of the catalog.
+ * <p>
+ * The recommendations are recomputed from the whole catalog by {@link #refreshRecommendations()} and kept
+ * up to date in between by {@link #updateRecommendations()}, which reads the products changed since the previous
+ * read and re-scores only those against the catalog. Updates and refreshes run one at a time, recommendations
+ * are read without locking: every product has an immutable list that is replaced as a whole.
+ */
 @Service
-@RequiredArgsConstructor
+@Slf4j
 public class ContentBasedService {
     private final SimilarityService similarityService;
     private final ProductClient productClient;
+    private final ObjectMapper objectMapper;
+    private final TopKSimilarityEngine topKSimilarityEngine;
+    private final MinHashLsh minHashLsh;
+    private final Duration updateOverlap;
 
-    private final Map<Long, List<ProductSimilarity>> contentBasedMap = new ConcurrentHashMap<>();
+    private volatile Map<Long, List<ProductSimilarity>> contentBasedMap = Map.of();
+
+    // the catalog the recommendations were computed from and the watermark of its next update, guarded by this
+    private Catalog catalog;
+    private Instant watermark;
 
     private static final double MIN_SIMILARITY = 0.2;
+    private static final String SNAPSHOT_WATERMARK_HEADER = "X-Snapshot-Watermark";
+
+    public ContentBasedService(
+            SimilarityService similarityService,
+            ProductClient productClient,
+            ObjectMapper objectMapper,
+            TopKSimilarityEngine topKSimilarityEngine,
+            MinHashLsh minHashLsh,
+            @Value("${application.recommendation.update-overlap:PT5M}") Duration updateOverlap
+    ) {
+        this.similarityService = similarityService;
+        this.productClient = productClient;
+        this.objectMapper = objectMapper;
+        this.topKSimilarityEngine = topKSimilarityEngine;
+        this.minHashLsh = minHashLsh;
+        this.updateOverlap = updateOverlap;
+    }
+
+    /**
+     * Recomputes the most similar products of the whole catalog. The recommendations being served
+     * are replaced only once the new ones are complete.
+     */
+    public synchronized void refreshRecommendations() {
+        CatalogSnapshot snapshot = this.fetchCatalog(null);
+        List<ProductOverviewResponse> products = snapshot.products();
+        Map<String, Integer> dictionary = new HashMap<>();
+        ProductFeatures[] features = similarityService.extractFeatures(products, dictionary);
+        Catalog refreshed = new Catalog(products, features, dictionary);
+
+        TopKSimilarityEngine.PairScorer scorer = this.scorer(refreshed);
+        TopKSimilarityEngine.Result result = topKSimilarityEngine.findTopK(
+                refreshed.size(), minHashLsh.buildCandidates(features), scorer, MIN_SIMILARITY);
+        if (minHashLsh.isEnabled() && minHashLsh.getRecallSampleSize() > 0)
+            this.reportRecall(refreshed.size(), scorer, result);
+
+        Map<Long, List<ProductSimilarity>> similarities = new ConcurrentHashMap<>(refreshed.size() * 2);
+        for (int source = 0; source < refreshed.size(); source++) {
+            similarities.put(refreshed.products.get(source).id(), this.toSimilarities(refreshed, result, source));
+        }
+        contentBasedMap = similarities;
+        catalog = refreshed;
+        watermark = snapshot.watermark().minus(updateOverlap);
+    }
 
+    /**
+     * Applies the products changed since the previous refresh or update to the recommendations.
+     * A changed product is re-scored against the whole catalog, and it is added to, moved in or removed from
+     * the recommendations of every other product. A product whose full list of recommendations lost a product
+     * it cannot replace from the list alone is re-scored against the whole catalog too.
+     * The next update reads the changes since the watermark of this snapshot, taken by the clock of product-service,
+     * minus the overlap. Products are stamped with the start of their changing transaction, so the overlap has to
+     * cover the longest write transaction. The watermark advances only after the changes are applied,
+     * so failed updates are retried.
+     */
+    public synchronized void updateRecommendations() {
+        if (catalog == null)
+            return;
 
-    public void refreshRecommendations() {
-        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1);
-        List<ProductOverviewResponse> allProducts = Collections.synchronizedList(new ArrayList<>());
-        AtomicInteger page = new AtomicInteger(0);
-        AtomicBoolean hasMorePages = new AtomicBoolean(true);
+        CatalogSnapshot snapshot = this.fetchCatalog(watermark);
+        Map<Long, ProductOverviewResponse> latestChanges = new LinkedHashMap<>();
+        for (ProductOverviewResponse product : snapshot.products()) {
+            latestChanges.put(product.id(), product);
+        }
 
-        Runnable fetchTask = () -> {
-            if (hasMorePages.get()) {
-                Page<ProductOverviewResponse> response = productClient.getAllProducts(page.get(), 10, "ASC", "id");
-                allProducts.addAll(response.getContent());
-                page.incrementAndGet();
-                hasMorePages.set(!response.isLast());
+        Set<Long> changedProductIds = new HashSet<>();
+        List<ProductOverviewResponse> visibleChanges = new ArrayList<>();
+        for (ProductOverviewResponse product : latestChanges.values()) {
+            Integer slot = catalog.slots.get(product.id());
+            if (!product.isVisible()) {
+                if (slot != null) {
+                    catalog.remove(slot);
+                    contentBasedMap.remove(product.id());
+                    changedProductIds.add(product.id());
+                }
+            } else if (slot == null || !product.equals(catalog.products.get(slot))) {
+                visibleChanges.add(product);
+                changedProductIds.add(product.id());
             }
+        }
+
+        if (!changedProductIds.isEmpty()) {
+            ProductFeatures[] features = similarityService.extractFeatures(visibleChanges, catalog.dictionary);
+            int[] changedSlots = new int[visibleChanges.size()];
+            for (int i = 0; i < changedSlots.length; i++) {
+                changedSlots[i] = catalog.put(visibleChanges.get(i), features[i]);
+            }
+            this.applyChanges(changedProductIds, changedSlots);
+        }
+        watermark = snapshot.watermark().minus(updateOverlap);
+    }
+
+    private void applyChanges(Set<Long> changedProductIds, int[] changedSlots) {
+        TopKSimilarityEngine.PairScorer scorer = this.scorer(catalog);
+        BitSet rescored = new BitSet(catalog.size());
+        for (int slot : changedSlots) {
+            rescored.set(slot);
+        }
+
+        for (int source = 0; source < catalog.size(); source++) {
+            ProductOverviewResponse product = catalog.products.get(source);
+            if (product == null || rescored.get(source))
+                continue;
+
+            List<ProductSimilarity> current = contentBasedMap.getOrDefault(product.id(), List.of());
+            List<ProductSimilarity> patched = this.patchSimilarities(
+                    source, current, changedProductIds, changedSlots, scorer);
+            if (patched == null)
+                rescored.set(source);
+            else if (patched != current)
+                contentBasedMap.put(product.id(), patched);
+        }
+
+        int[] rescoredSlots = rescored.stream().toArray();
+        if (rescoredSlots.length > 0) {
+            TopKSimilarityEngine.Result result = topKSimilarityEngine.findTopK(catalog.size(), rescoredSlots,
+                    TopKSimilarityEngine.allPairs(catalog.size()), scorer, MIN_SIMILARITY);
+            for (int row = 0; row < rescoredSlots.length; row++) {
+                contentBasedMap.put(catalog.products.get(rescoredSlots[row]).id(), this.toSimilarities(catalog, result, row));
+            }
+        }
+
+        log.info("Applied changes of {} products to recommendations, {} products re-scored against the catalog",
+                changedProductIds.size(), rescored.cardinality());
+    }
+
+    /**
+     * Replaces the changed products in the recommendations of an unchanged product by their new scores.
+     *
+     * @return the patched recommendations, the current ones if nothing changed,
+     *         or null if the product must be re-scored against the whole catalog
+     */
+    private List<ProductSimilarity> patchSimilarities(
+            int source,
+            List<ProductSimilarity> current,
+            Set<Long> changedProductIds,
+            int[] changedSlots,
+            TopKSimilarityEngine.PairScorer scorer
+    ) {
+        List<ProductSimilarity> patched = new ArrayList<>(current.size() + changedSlots.length);
+        for (ProductSimilarity similarity : current) {
+            if (!changedProductIds.contains(similarity.productId()))
+                patched.add(similarity);
+        }
+        boolean removed = patched.size() < current.size();
+
+        for (int candidate : changedSlots) {
+            double score = scorer.score(source, candidate);
+            if (score > MIN_SIMILARITY)
+                patched.add(ProductSimilarity.builder()
+                        .productId(catalog.products.get(candidate).id())
+                        .similarity(score)
+                        .build());
+        }
+        if (!removed && patched.size() == current.size())
+            return current;
+
+        int topK = topKSimilarityEngine.getTopK();
+        patched.sort(Comparator.comparingDouble(ProductSimilarity::similarity).reversed());
+        if (patched.size() > topK)
+            patched = patched.subList(0, topK);
+
+        // unchanged products cut off a full list score at most its last similarity and may now belong to it
+        if (removed && current.size() >= topK) {
+            double cutOff = current.get(current.size() - 1).similarity();
+            if (patched.size() < topK || patched.get(patched.size() - 1).similarity() < cutOff)
+                return null;
+        }
+        return List.copyOf(patched);
+    }
+
+    private TopKSimilarityEngine.PairScorer scorer(Catalog scored) {
+        return (source, candidate) -> {
+            ProductFeatures candidateFeatures = scored.features.get(candidate);
+            if (candidateFeatures == null
+                    || scored.relatedProductIds.get(source).contains(scored.products.get(candidate).id()))
+                return -1;
+
+            return similarityService.calculateSimilarity(scored.features.get(source), candidateFeatures);
         };
+    }
+
+    private List<ProductSimilarity> toSimilarities(Catalog scored, TopKSimilarityEngine.Result result, int row) {
+        int[] candidates = result.candidates()[row];
+        double[] scores = result.scores()[row];
+        List<ProductSimilarity> similarProducts = new ArrayList<>(candidates.length);
+        for (int position = 0; position < candidates.length; position++) {
+            similarProducts.add(ProductSimilarity.builder()
+                    .productId(scored.products.get(candidates[position]).id())
+                    .similarity(scores[position])
+                    .build());
+        }
+        return List.copyOf(similarProducts);
+    }
 
-        ScheduledFuture<?> future = scheduler.scheduleAtFixedRate(fetchTask, 0, 500, TimeUnit.MILLISECONDS);
+    /**
+     * Estimates the share of the true most similar products found through the hashed candidates
+     * by scoring a sample of products against the whole catalog.
+     */
+    private void reportRecall(int size, TopKSimilarityEngine.PairScorer scorer, TopKSimilarityEngine.Result result) {
+        int step = Math.max(1, size / minHashLsh.getRecallSampleSize());
+        int[] sampled = IntStream.iterate(0, source -> source < size, source -> source + step).toArray();
+        TopKSimilarityEngine.Result exact = topKSimilarityEngine.findTopK(
+                size, sampled, TopKSimilarityEngine.allPairs(size), scorer, MIN_SIMILARITY);
 
-        while (!future.isDone()) {
-            if (!hasMorePages.get()) {
-                future.cancel(false);
-                scheduler.shutdown();
+        long expected = 0;
+        long found = 0;
+        for (int row = 0; row < sampled.length; row++) {
+            int[] hashed = result.candidates()[sampled[row]];
+            for (int candidate : exact.candidates()[row]) {
+                expected++;
+                for (int hashedCandidate : hashed) {
+                    if (hashedCandidate == candidate) {
+                        found++;
+                        break;
+                    }
+                }
             }
         }
+        log.info("Recall of hashed candidates estimated on {} products: {} of {} most similar products found ({}%)",
+                sampled.length, found, expected, expected == 0 ? 100 : Math.round(1000.0 * found / expected) / 10.0);
+    }
+
+    /**
+     * Reads products from the catalog snapshot stream of product-service in one request.
+     *
+     * @param updatedSince null for all visible products, or the watermark of the products changed since,
+     *                     including the ones hidden
+     * @return the products and the watermark of the snapshot
+     */
+    CatalogSnapshot fetchCatalog(Instant updatedSince) {
+        try (Response response = productClient.getCatalogSnapshot(updatedSince);
+             BufferedReader reader = new BufferedReader(
+                     new InputStreamReader(response.body().asInputStream(), StandardCharsets.UTF_8))) {
+            if (response.status() != 200)
+                throw new IllegalStateException("Katalog produktů se nepodařilo načíst, stav odpovědi: " + response.status());
 
-        contentBasedMap.clear();
+            Collection<String> watermarks = response.headers().get(SNAPSHOT_WATERMARK_HEADER);
+            if (watermarks == null || watermarks.isEmpty())
+                throw new IllegalStateException("Odpověď katalogu produktů neobsahuje hlavičku " + SNAPSHOT_WATERMARK_HEADER + ".");
 
-        for (ProductOverviewResponse product : allProducts) {
-            List<ProductSimilarity> similarities = this.findSimilarProducts(product, allProducts);
-            contentBasedMap.put(product.id(), similarities);
+            List<ProductOverviewResponse> products = new ArrayList<>();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isBlank())
+                    products.add(objectMapper.readValue(line, ProductOverviewResponse.class));
+            }
+            return new CatalogSnapshot(products, Instant.parse(watermarks.iterator().next()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
         }
     }
 
     public List<ProductOverviewResponse> getRecommendations(Long productId, int limit) {
-        if (!contentBasedMap.containsKey(productId))
+        List<ProductSimilarity> similarProducts = contentBasedMap.get(productId);
+        if (similarProducts == null)
             return Collections.emptyList();
 
-        List<Long> productIds = contentBasedMap.get(productId).stream()
+        List<Long> productIds = similarProducts.stream()
                 .limit(limit)
                 .map(ProductSimilarity::productId)
                 .toList();
@@ -67,22 +309,54 @@ public class ContentBasedService {
         return productClient.getProductsByIds(productIds);
     }
 
-    List<ProductSimilarity> findSimilarProducts(ProductOverviewResponse targetProduct, List<ProductOverviewResponse> allProducts) {
-        return allProducts.stream()
-                .filter(product ->
-                        !product.id().equals(targetProduct.id())
-                                && !targetProduct.relatedProductIds().contains(product.id())
-                )
-                .map(product -> {
-                    double similarity = similarityService.calculateSimilarity(targetProduct, product);
-                    return ProductSimilarity.builder()
-                            .productId(product.id())
-                            .similarity(similarity)
-                            .build();
-                })
-                .filter(product -> product.similarity() > MIN_SIMILARITY)
-                .sorted(Comparator.comparing(ProductSimilarity::similarity).reversed())
-                .collect(Collectors.toList());
-    }
+    /**
+     * The products the recommendations were computed from, addressed by slot. A product keeps its slot
+     * until the next refresh; a removed product leaves an empty slot.
+     */
+    private static final class Catalog {
+        private final List<ProductOverviewResponse> products;
+        private final List<ProductFeatures> features;
+        private final List<Set<Long>> relatedProductIds;
+        private final Map<Long, Integer> slots;
+        private final Map<String, Integer> dictionary;
+
+        private Catalog(List<ProductOverviewResponse> products, ProductFeatures[] features, Map<String, Integer> dictionary) {
+            this.products = new ArrayList<>(products.size());
+            this.features = new ArrayList<>(products.size());
+            this.relatedProductIds = new ArrayList<>(products.size());
+            this.slots = new HashMap<>(products.size() * 2);
+            this.dictionary = dictionary;
+            for (int i = 0; i < products.size(); i++) {
+                this.put(products.get(i), features[i]);
+            }
+        }
+
+        private int size() {
+            return products.size();
+        }
 
+        private int put(ProductOverviewResponse product, ProductFeatures productFeatures) {
+            Set<Long> related = product.relatedProductIds() == null ? Set.of() : Set.copyOf(product.relatedProductIds());
+            Integer slot = slots.get(product.id());
+            if (slot == null) {
+                slots.put(product.id(), products.size());
+                products.add(product);
+                features.add(productFeatures);
+                relatedProductIds.add(related);
+                return products.size() - 1;
+            }
+
+            products.set(slot, product);
+            features.set(slot, productFeatures);
+            relatedProductIds.set(slot, related);
+            return slot;
+        }
+
+        private void remove(int slot) {
+            slots.remove(products.get(slot).id());
+            products.set(slot, null);
+            features.set(slot, null);
+            relatedProductIds.set(slot, Set.of());
+        }
+    }
 }
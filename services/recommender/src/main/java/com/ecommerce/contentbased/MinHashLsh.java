@@ -0,0 +1,187 @@
+package com.ecommerce.contentbased;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.IntStream;
+
+/**
+ * Generates candidate pairs for the similarity refresh with locality-sensitive hashing, so products are scored
+ * only against products likely to be similar instead of the whole catalog.
+ * <p>
+ * Every product gets a MinHash signature of {@code bands * rows} values over the words of its name and description.
+ * Products whose signatures agree on all rows of any band share a bucket; the probability of that grows steeply
+ * with the Jaccard similarity of their words. Products of the same category share a bucket as well, as the category
+ * carries the largest weight of the similarity. More bands or fewer rows per band raise the recall and the number
+ * of scored pairs. Buckets larger than {@code maxBucketSize} are split into chunks of products with close prices.
+ */
+@Component
+@Slf4j
+public class MinHashLsh {
+    private final boolean enabled;
+    private final int bands;
+    private final int rows;
+    private final int maxBucketSize;
+    private final int recallSampleSize;
+    private final long[] seeds;
+
+    public MinHashLsh(
+            @Value("${application.recommendation.lsh.enabled:true}") boolean enabled,
+            @Value("${application.recommendation.lsh.bands:16}") int bands,
+            @Value("${application.recommendation.lsh.rows:4}") int rows,
+            @Value("${application.recommendation.lsh.max-bucket-size:1000}") int maxBucketSize,
+            @Value("${application.recommendation.lsh.recall-sample-size:100}") int recallSampleSize
+    ) {
+        this.enabled = enabled;
+        this.bands = bands;
+        this.rows = rows;
+        this.maxBucketSize = Math.max(2, maxBucketSize);
+        this.recallSampleSize = recallSampleSize;
+        this.seeds = new SplittableRandom(0x5EED).longs(bands * rows).toArray();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the number of products whose candidates are compared with an exact scan to estimate the recall
+     */
+    public int getRecallSampleSize() {
+        return recallSampleSize;
+    }
+
+    /**
+     * Builds the candidates of every product, or all pairs when hashing is disabled.
+     *
+     * @param features the features of the products
+     * @return the candidates of every product
+     */
+    public TopKSimilarityEngine.Candidates buildCandidates(ProductFeatures[] features) {
+        if (!enabled)
+            return TopKSimilarityEngine.allPairs(features.length);
+
+        long start = System.nanoTime();
+        long[][] signatures = IntStream.range(0, features.length)
+                .parallel()
+                .mapToObj(product -> this.signature(features[product]))
+                .toArray(long[][]::new);
+
+        Map<Long, List<Integer>> bandBuckets = new HashMap<>();
+        Map<Long, List<Integer>> categoryBuckets = new HashMap<>();
+        for (int product = 0; product < features.length; product++) {
+            if (signatures[product] != null) {
+                for (int band = 0; band < bands; band++) {
+                    bandBuckets.computeIfAbsent(this.bandKey(signatures[product], band), key -> new ArrayList<>())
+                            .add(product);
+                }
+            }
+            for (long categoryId : features[product].categoryIds()) {
+                categoryBuckets.computeIfAbsent(categoryId, key -> new ArrayList<>()).add(product);
+            }
+        }
+
+        List<int[]> buckets = new ArrayList<>();
+        bandBuckets.values().forEach(bucket -> this.addBucket(buckets, bucket, features));
+        categoryBuckets.values().forEach(bucket -> this.addBucket(buckets, bucket, features));
+
+        int[][] productBuckets = this.indexBuckets(buckets, features.length);
+        log.info("Built {} candidate buckets of {} products in {} ms ({} bands of {} rows, max bucket size {})",
+                buckets.size(), features.length, (System.nanoTime() - start) / 1_000_000, bands, rows, maxBucketSize);
+
+        int[][] bucketMembers = buckets.toArray(int[][]::new);
+        return (source, consumer) -> {
+            for (int bucket : productBuckets[source]) {
+                for (int candidate : bucketMembers[bucket]) {
+                    consumer.accept(candidate);
+                }
+            }
+        };
+    }
+
+    /**
+     * @return the MinHash signature of the words of the product, or null if it has no words
+     */
+    long[] signature(ProductFeatures features) {
+        if (features.nameTokens().length == 0 && features.descriptionTokens().length == 0)
+            return null;
+
+        long[] signature = new long[seeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        this.updateSignature(signature, features.nameTokens());
+        this.updateSignature(signature, features.descriptionTokens());
+        return signature;
+    }
+
+    private void updateSignature(long[] signature, int[] tokens) {
+        for (int token : tokens) {
+            for (int hash = 0; hash < seeds.length; hash++) {
+                long value = mix(token ^ seeds[hash]);
+                if (value < signature[hash])
+                    signature[hash] = value;
+            }
+        }
+    }
+
+    private long bandKey(long[] signature, int band) {
+        long key = band;
+        for (int row = band * rows; row < (band + 1) * rows; row++) {
+            key = mix(key * 31 + signature[row]);
+        }
+        return key;
+    }
+
+    /**
+     * Adds a bucket of at least two products; a bucket over the size limit is split into chunks
+     * of products ordered by price, so products with close prices stay candidates of each other.
+     */
+    private void addBucket(List<int[]> buckets, List<Integer> bucket, ProductFeatures[] features) {
+        if (bucket.size() < 2)
+            return;
+
+        if (bucket.size() <= maxBucketSize) {
+            buckets.add(bucket.stream().mapToInt(Integer::intValue).toArray());
+            return;
+        }
+
+        int[] byPrice = bucket.stream()
+                .sorted(Comparator.comparingDouble((Integer product) -> features[product].price()))
+                .mapToInt(Integer::intValue)
+                .toArray();
+        for (int from = 0; from < byPrice.length - 1; from += maxBucketSize) {
+            buckets.add(Arrays.copyOfRange(byPrice, from, Math.min(from + maxBucketSize, byPrice.length)));
+        }
+    }
+
+    private int[][] indexBuckets(List<int[]> buckets, int size) {
+        int[] counts = new int[size];
+        buckets.forEach(bucket -> {
+            for (int product : bucket) {
+                counts[product]++;
+            }
+        });
+
+        int[][] productBuckets = new int[size][];
+        for (int product = 0; product < size; product++) {
+            productBuckets[product] = new int[counts[product]];
+        }
+        int[] filled = new int[size];
+        for (int bucket = 0; bucket < buckets.size(); bucket++) {
+            for (int product : buckets.get(bucket)) {
+                productBuckets[product][filled[product]++] = bucket;
+            }
+        }
+        return productBuckets;
+    }
+
+    /**
+     * The finalizer of SplitMix64, spreads the bits of the value over the whole hash.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+}
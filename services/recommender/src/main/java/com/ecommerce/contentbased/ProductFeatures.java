@@ -0,0 +1,17 @@
+package com.ecommerce.contentbased;
+
+/**
+ * Features of a product extracted once per refresh by {@link SimilarityService#extractFeatures},
+ * so comparing two products needs no parsing and no allocation.
+ *
+ * @param nameTokens        the distinct word IDs of the name, sorted
+ * @param descriptionTokens the distinct word IDs of the description, sorted
+ * @param categoryIds       the distinct category IDs, sorted
+ * @param price             the price, or 0 if the product has no positive price
+ */
+record ProductFeatures(
+        int[] nameTokens,
+        int[] descriptionTokens,
+        long[] categoryIds,
+        double price
+) {}
@@ -4,11 +4,15 @@ import com.ecommerce.feignclient.product.ProductOverviewResponse;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
-import java.util.stream.Collectors;
-
+import java.util.*;
+
+/**
+ * Content similarity of products, a weighted sum of the Jaccard similarity of their name words, description words
+ * and categories and of the squared ratio of their prices.
+ * <p>
+ * Products are compared through {@link ProductFeatures}: every product is tokenized once, its words are interned
+ * to integer IDs stored as sorted arrays, so a pair of products is compared with allocation-free merge loops.
+ */
 @Service
 public class SimilarityService {
     private static final double NAME_WEIGHT = 0.2;
@@ -16,10 +20,51 @@ public class SimilarityService {
     private static final double CATEGORY_WEIGHT = 0.4;
     private static final double PRICE_WEIGHT = 0.25;
 
-    public double calculateSimilarity(ProductOverviewResponse product1, ProductOverviewResponse product2) {
-        double nameSimilarity = this.calculateTextSimilarity(product1.name(), product2.name());
-        double descriptionSimilarity = this.calculateTextSimilarity(product1.description(), product2.description());
-        double categorySimilarity = this.calculateCategorySimilarity(product1.categoryIds(), product2.categoryIds());
+    private static final int[] NO_TOKENS = new int[0];
+
+    /**
+     * Extracts the features of products. Words of all the products share one dictionary,
+     * so features are comparable only with features extracted by the same call.
+     *
+     * @param products the products
+     * @return the features, in the order of the products
+     */
+    ProductFeatures[] extractFeatures(List<ProductOverviewResponse> products) {
+        return this.extractFeatures(products, new HashMap<>());
+    }
+
+    /**
+     * Extracts the features of products, interning their words to the given dictionary,
+     * so the features are comparable with all features extracted with the same dictionary.
+     *
+     * @param products   the products
+     * @param dictionary the word IDs, new words are added to it
+     * @return the features, in the order of the products
+     */
+    ProductFeatures[] extractFeatures(List<ProductOverviewResponse> products, Map<String, Integer> dictionary) {
+        return products.stream()
+                .map(product -> this.extractFeatures(product, dictionary))
+                .toArray(ProductFeatures[]::new);
+    }
+
+    private ProductFeatures extractFeatures(ProductOverviewResponse product, Map<String, Integer> dictionary) {
+        long[] categoryIds = product.categoryIds() == null
+                ? new long[0]
+                : product.categoryIds().stream().mapToLong(Long::longValue).distinct().sorted().toArray();
+        BigDecimal price = product.price();
+
+        return new ProductFeatures(
+                tokenize(product.name(), dictionary),
+                tokenize(product.description(), dictionary),
+                categoryIds,
+                price == null || price.compareTo(BigDecimal.ZERO) <= 0 ? 0 : price.doubleValue()
+        );
+    }
+
+    double calculateSimilarity(ProductFeatures product1, ProductFeatures product2) {
+        double nameSimilarity = jaccard(product1.nameTokens(), product2.nameTokens());
+        double descriptionSimilarity = jaccard(product1.descriptionTokens(), product2.descriptionTokens());
+        double categorySimilarity = jaccard(product1.categoryIds(), product2.categoryIds());
         double priceSimilarity = this.calculatePriceSimilarity(product1.price(), product2.price());
 
         return (nameSimilarity * NAME_WEIGHT) +
@@ -28,45 +73,100 @@ public class SimilarityService {
                 (priceSimilarity * PRICE_WEIGHT);
     }
 
+    public double calculateSimilarity(ProductOverviewResponse product1, ProductOverviewResponse product2) {
+        ProductFeatures[] features = this.extractFeatures(List.of(product1, product2));
+        return this.calculateSimilarity(features[0], features[1]);
+    }
+
     double calculateTextSimilarity(String text1, String text2) {
         if (text1 == null || text2 == null)
             return 0.0;
 
-        Set<String> words1 = Arrays.stream(text1.toLowerCase().split("\\W+"))
-                .filter(word -> word.length() > 2).collect(Collectors.toSet());
-
-        Set<String> words2 = Arrays.stream(text2.toLowerCase().split("\\W+"))
-                .filter(word -> word.length() > 2).collect(Collectors.toSet());
+        Map<String, Integer> dictionary = new HashMap<>();
+        return jaccard(tokenize(text1, dictionary), tokenize(text2, dictionary));
+    }
 
-        Set<String> intersection = new HashSet<>(words1);
-        intersection.retainAll(words2);
+    double calculateCategorySimilarity(Set<Long> categories1, Set<Long> categories2) {
+        return jaccard(
+                categories1.stream().mapToLong(Long::longValue).sorted().toArray(),
+                categories2.stream().mapToLong(Long::longValue).sorted().toArray()
+        );
+    }
 
-        Set<String> union = new HashSet<>(words1);
-        union.addAll(words2);
+    double calculatePriceSimilarity(BigDecimal price1, BigDecimal price2) {
+        if (price1 == null || price2 == null)
+            return 0.0;
 
-        return union.isEmpty() ? 0 : (double) intersection.size() / union.size();
+        return this.calculatePriceSimilarity(price1.doubleValue(), price2.doubleValue());
     }
 
-    double calculateCategorySimilarity(Set<Long> categories1, Set<Long> categories2) {
-        if (categories1.isEmpty() || categories2.isEmpty())
+    private double calculatePriceSimilarity(double price1, double price2) {
+        if (price1 <= 0 || price2 <= 0)
             return 0.0;
 
-        Set<Long> intersection = new HashSet<>(categories1);
-        intersection.retainAll(categories2);
+        double ratio = Math.min(price1, price2) / Math.max(price1, price2);
+        return ratio * ratio;
+    }
 
-        return (double) intersection.size() / (categories1.size() + categories2.size() - intersection.size());
+    /**
+     * Splits a text into its lower-case words longer than two characters and interns them.
+     *
+     * @return the distinct word IDs, sorted
+     */
+    private static int[] tokenize(String text, Map<String, Integer> dictionary) {
+        if (text == null)
+            return NO_TOKENS;
+
+        return Arrays.stream(text.toLowerCase().split("\\W+"))
+                .filter(word -> word.length() > 2)
+                .mapToInt(word -> dictionary.computeIfAbsent(word, key -> dictionary.size()))
+                .distinct()
+                .sorted()
+                .toArray();
     }
 
-    double calculatePriceSimilarity(BigDecimal price1, BigDecimal price2) {
-        if (price1 == null || price2 == null ||
-                price1.compareTo(BigDecimal.ZERO) <= 0 ||
-                price2.compareTo(BigDecimal.ZERO) <= 0) {
+    /**
+     * Jaccard similarity of two sets given as sorted arrays of distinct values, 0 if either set is empty.
+     */
+    static double jaccard(int[] values1, int[] values2) {
+        if (values1.length == 0 || values2.length == 0)
             return 0.0;
+
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < values1.length && j < values2.length) {
+            if (values1[i] < values2[j]) {
+                i++;
+            } else if (values1[i] > values2[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
         }
-        BigDecimal min = price1.min(price2);
-        BigDecimal max = price1.max(price2);
-        double ratio = min.doubleValue() / max.doubleValue();
+        return (double) intersection / (values1.length + values2.length - intersection);
+    }
 
-        return Math.pow(ratio, 2);
+    static double jaccard(long[] values1, long[] values2) {
+        if (values1.length == 0 || values2.length == 0)
+            return 0.0;
+
+        int intersection = 0;
+        int i = 0;
+        int j = 0;
+        while (i < values1.length && j < values2.length) {
+            if (values1[i] < values2[j]) {
+                i++;
+            } else if (values1[i] > values2[j]) {
+                j++;
+            } else {
+                intersection++;
+                i++;
+                j++;
+            }
+        }
+        return (double) intersection / (values1.length + values2.length - intersection);
     }
 }
@@ -0,0 +1,95 @@
+package com.ecommerce.contentbased;
+
+/**
+ * Bounded min-heap over primitive arrays keeping the {@code capacity} best scored candidates.
+ * The worst kept candidate is at the root, so a candidate that does not beat it is rejected in constant time.
+ * Equal scores are ordered by the candidate index, which keeps the result independent of the insertion order.
+ */
+final class TopKHeap {
+    private final int[] candidates;
+    private final double[] scores;
+    private int size;
+
+    TopKHeap(int capacity) {
+        this.candidates = new int[capacity];
+        this.scores = new double[capacity];
+    }
+
+    void clear() {
+        size = 0;
+    }
+
+    void offer(int candidate, double score) {
+        if (candidates.length == 0)
+            return;
+
+        if (size < candidates.length) {
+            candidates[size] = candidate;
+            scores[size] = score;
+            this.siftUp(size++);
+        } else if (isWorse(candidates[0], scores[0], candidate, score)) {
+            candidates[0] = candidate;
+            scores[0] = score;
+            this.siftDown(0);
+        }
+    }
+
+    /**
+     * Empties the heap into arrays ordered from the best candidate.
+     *
+     * @param sortedCandidates receives the candidate indices, has to have the length of {@link #size()}
+     * @param sortedScores     receives the scores, has to have the length of {@link #size()}
+     */
+    void drainTo(int[] sortedCandidates, double[] sortedScores) {
+        for (int position = size - 1; position >= 0; position--) {
+            sortedCandidates[position] = candidates[0];
+            sortedScores[position] = scores[0];
+            candidates[0] = candidates[--size];
+            scores[0] = scores[size];
+            this.siftDown(0);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void siftUp(int position) {
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (!isWorse(candidates[position], scores[position], candidates[parent], scores[parent]))
+                return;
+            this.swap(position, parent);
+            position = parent;
+        }
+    }
+
+    private void siftDown(int position) {
+        while (true) {
+            int worst = position;
+            int left = 2 * position + 1;
+            int right = left + 1;
+            if (left < size && isWorse(candidates[left], scores[left], candidates[worst], scores[worst]))
+                worst = left;
+            if (right < size && isWorse(candidates[right], scores[right], candidates[worst], scores[worst]))
+                worst = right;
+            if (worst == position)
+                return;
+            this.swap(position, worst);
+            position = worst;
+        }
+    }
+
+    private void swap(int first, int second) {
+        int candidate = candidates[first];
+        candidates[first] = candidates[second];
+        candidates[second] = candidate;
+        double score = scores[first];
+        scores[first] = scores[second];
+        scores[second] = score;
+    }
+
+    private static boolean isWorse(int candidate, double score, int otherCandidate, double otherScore) {
+        return score < otherScore || (score == otherScore && candidate > otherCandidate);
+    }
+}
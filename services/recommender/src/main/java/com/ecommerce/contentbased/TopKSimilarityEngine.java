@@ -0,0 +1,188 @@
+package com.ecommerce.contentbased;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Finds the most similar products of every product of the catalog in parallel.
+ * Products are addressed by their index in the catalog; every product is scored against its candidates,
+ * all the other products or the ones given by {@link MinHashLsh}, by one fork/join task, which keeps only
+ * the {@code topK} best candidates in a bounded {@link TopKHeap}, so no object is created per pair and
+ * no candidate list is sorted. Rows are independent, so the run scales with the number of cores.
+ * Progress of a run over the whole catalog is logged every tenth of the catalog. A run over selected rows,
+ * as done by incremental updates, is logged only once at debug level.
+ */
+@Component
+@Slf4j
+public class TopKSimilarityEngine {
+    private static final int PROGRESS_STEPS = 10;
+
+    private final int parallelism;
+    @Getter
+    private final int topK;
+
+    public TopKSimilarityEngine(
+            @Value("${application.recommendation.parallelism:0}") int parallelism,
+            @Value("${application.recommendation.top-k:50}") int topK
+    ) {
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.topK = topK;
+    }
+
+    /**
+     * Scores a pair of products given by their catalog indices.
+     */
+    @FunctionalInterface
+    public interface PairScorer {
+        /**
+         * @return the similarity of the candidate to the source product, or a negative value
+         *         if the candidate must not be recommended for the source product
+         */
+        double score(int source, int candidate);
+    }
+
+    /**
+     * Enumerates the candidates a product is scored against. A candidate may be given more than once
+     * and may be the product itself, the engine scores each other product at most once per row.
+     */
+    @FunctionalInterface
+    public interface Candidates {
+        void forEach(int source, IntConsumer consumer);
+    }
+
+    /**
+     * The best candidates of every product, ordered from the most similar.
+     *
+     * @param candidates  the candidate indices per product index
+     * @param scores      the similarities per product index, aligned with the candidates
+     * @param scoredPairs the number of scored pairs
+     */
+    public record Result(int[][] candidates, double[][] scores, long scoredPairs) {}
+
+    /**
+     * @return candidates making every product a candidate of every other product
+     */
+    public static Candidates allPairs(int size) {
+        return (source, consumer) -> {
+            for (int candidate = 0; candidate < size; candidate++) {
+                consumer.accept(candidate);
+            }
+        };
+    }
+
+    /**
+     * Scores every product against all other products and keeps the best candidates of each.
+     *
+     * @param size          the number of products
+     * @param scorer        scores a pair of products
+     * @param minSimilarity candidates with a similarity not above this value are left out
+     * @return the best candidates of every product
+     */
+    public Result findTopK(int size, PairScorer scorer, double minSimilarity) {
+        return this.findTopK(size, allPairs(size), scorer, minSimilarity);
+    }
+
+    /**
+     * Scores every product against its candidates and keeps the best candidates of each.
+     *
+     * @param size          the number of products
+     * @param candidates    the candidates of every product
+     * @param scorer        scores a pair of products
+     * @param minSimilarity candidates with a similarity not above this value are left out
+     * @return the best candidates of every product
+     */
+    public Result findTopK(int size, Candidates candidates, PairScorer scorer, double minSimilarity) {
+        return this.score(size, IntStream.range(0, size).toArray(), candidates, scorer, minSimilarity, true);
+    }
+
+    /**
+     * Scores only the given products against their candidates and keeps the best candidates of each.
+     *
+     * @param size          the number of products
+     * @param sources       the indices of the products to score
+     * @param candidates    the candidates of every product
+     * @param scorer        scores a pair of products
+     * @param minSimilarity candidates with a similarity not above this value are left out
+     * @return the best candidates of the given products, aligned with the sources
+     */
+    public Result findTopK(int size, int[] sources, Candidates candidates, PairScorer scorer, double minSimilarity) {
+        return this.score(size, sources, candidates, scorer, minSimilarity, false);
+    }
+
+    private Result score(
+            int size,
+            int[] sources,
+            Candidates candidates,
+            PairScorer scorer,
+            double minSimilarity,
+            boolean wholeCatalog
+    ) {
+        int rows = sources.length;
+        int[][] topCandidates = new int[rows][];
+        double[][] topScores = new double[rows][];
+        AtomicInteger completed = new AtomicInteger();
+        LongAdder scoredPairs = new LongAdder();
+        int progressStep = Math.max(1, rows / PROGRESS_STEPS);
+        ThreadLocal<TopKHeap> heaps = ThreadLocal.withInitial(() -> new TopKHeap(topK));
+        // per thread, the row that last scored each product; rows are numbered from 1 so a fresh array marks none
+        ThreadLocal<int[]> scoredInRow = ThreadLocal.withInitial(() -> new int[size]);
+        // a few rows do not need a thread, and the per-thread array, for every core
+        int threads = Math.max(1, Math.min(parallelism, rows));
+
+        long start = System.nanoTime();
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.submit(() -> IntStream.range(0, rows).parallel().forEach(position -> {
+                int source = sources[position];
+                TopKHeap heap = heaps.get();
+                int[] scored = scoredInRow.get();
+                int row = position + 1;
+                int[] rowPairs = new int[1];
+                heap.clear();
+
+                candidates.forEach(source, candidate -> {
+                    if (candidate == source || scored[candidate] == row)
+                        return;
+
+                    scored[candidate] = row;
+                    rowPairs[0]++;
+                    double score = scorer.score(source, candidate);
+                    if (score > minSimilarity)
+                        heap.offer(candidate, score);
+                });
+
+                topCandidates[position] = new int[heap.size()];
+                topScores[position] = new double[heap.size()];
+                heap.drainTo(topCandidates[position], topScores[position]);
+                scoredPairs.add(rowPairs[0]);
+
+                int done = completed.incrementAndGet();
+                if (wholeCatalog && done % progressStep == 0 && done < rows)
+                    log.info("Similarity refresh at {}% ({} of {} products)", 100L * done / rows, done, rows);
+            })).join();
+        } finally {
+            pool.shutdown();
+        }
+
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - start);
+        if (wholeCatalog) {
+            long allPairs = (long) size * Math.max(0, size - 1);
+            log.info("Similarity refresh of {} products finished in {} ms on {} threads, scored {} of {} pairs ({}%)",
+                    size, elapsed.toMillis(), threads, scoredPairs.sum(), allPairs,
+                    allPairs == 0 ? 0 : Math.round(1000.0 * scoredPairs.sum() / allPairs) / 10.0);
+        } else {
+            log.debug("Similarity of {} of {} products re-scored in {} ms on {} threads, scored {} pairs",
+                    rows, size, elapsed.toMillis(), threads, scoredPairs.sum());
+        }
+        return new Result(topCandidates, topScores, scoredPairs.sum());
+    }
+}
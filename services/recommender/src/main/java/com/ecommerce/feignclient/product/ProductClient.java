@@ -1,25 +1,33 @@
 package com.ecommerce.feignclient.product;
 
+import feign.Response;
 import org.springframework.cloud.openfeign.FeignClient;
-import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.time.Instant;
 import java.util.List;
 
-@FeignClient(name = "product-service", url = "${application.config.product-url}")
+@FeignClient(name = "product-service", url = "${application.config.product-url}", configuration = ProductClientConfig.class)
 public interface ProductClient {
-    @GetMapping
-    Page<ProductOverviewResponse> getAllProducts(
-            @RequestParam("pageNumber") int pageNumber,
-            @RequestParam("pageSize") int pageSize,
-            @RequestParam("direction") String direction,
-            @RequestParam("attribute") String attribute
+    /**
+     * Streams the catalog as NDJSON, one product per line; the caller reads and closes the response body.
+     *
+     * @param updatedSince only products changed since this instant, or null for all visible products
+     */
+    @GetMapping(value = "/snapshot", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    Response getCatalogSnapshot(
+            @RequestParam(value = "updatedSince", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant updatedSince
     );
 
-    @GetMapping("/batch")
-    List<ProductOverviewResponse> getProductsByIds(@RequestParam List<Long> ids);
+    @PostMapping("/batch")
+    List<ProductOverviewResponse> getProductsByIds(@RequestBody List<Long> ids);
 
     @GetMapping("/{id}")
     ProductOverviewResponse getProductById(@PathVariable Long id);
@@ -0,0 +1,19 @@
+package com.ecommerce.feignclient.product;
+
+import feign.RequestInterceptor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Configuration of {@link ProductClient} only, not picked up by component scanning.
+ * Requests are authenticated as a service by the token shared with product-service,
+ * which the catalog snapshot requires.
+ */
+public class ProductClientConfig {
+    private static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
+    @Bean
+    public RequestInterceptor serviceTokenInterceptor(@Value("${application.security.service-token}") String serviceToken) {
+        return template -> template.header(SERVICE_TOKEN_HEADER, serviceToken);
+    }
+}
@@ -1,9 +1,12 @@
 package com.ecommerce.feignclient.product;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.Set;
 
+@JsonIgnoreProperties(ignoreUnknown = true)
 public record ProductOverviewResponse(
         Long id,
         String name,
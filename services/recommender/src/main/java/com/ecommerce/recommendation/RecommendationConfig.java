@@ -20,4 +20,12 @@ public class RecommendationConfig {
     public void scheduledRefreshRecommendations() {
         recommenderService.refreshRecommendations();
     }
+
+    @Scheduled(
+            initialDelayString = "${application.recommendation.update-interval:PT1M}",
+            fixedDelayString = "${application.recommendation.update-interval:PT1M}"
+    )
+    public void scheduledUpdateRecommendations() {
+        recommenderService.updateRecommendations();
+    }
 }
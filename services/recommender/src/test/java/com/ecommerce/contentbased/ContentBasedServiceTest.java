@@ -2,6 +2,9 @@ package com.ecommerce.contentbased;
 
 import com.ecommerce.feignclient.product.ProductClient;
 import com.ecommerce.feignclient.product.ProductOverviewResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import feign.Request;
+import feign.Response;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -9,6 +12,9 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -18,6 +24,8 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 public class ContentBasedServiceTest {
 
+    private static final Instant WATERMARK = Instant.parse("2024-01-01T00:00:00Z");
+
     @Mock
     private SimilarityService similarityService;
 
@@ -28,7 +36,7 @@ public class ContentBasedServiceTest {
 
     @BeforeEach
     public void setUp() {
-        contentBasedService = new ContentBasedService(similarityService, productClient);
+        contentBasedService = new ContentBasedService(similarityService, productClient, new ObjectMapper(), new TopKSimilarityEngine(2, 2), new MinHashLsh(false, 16, 4, 1000, 0), Duration.ofSeconds(10));
     }
 
     @Test
@@ -44,41 +52,197 @@ public class ContentBasedServiceTest {
     }
 
     @Test
-    public void testFindSimilarProducts() {
+    public void testFetchCatalog_ReadsNdjsonSnapshot() {
+        // Prepare test data
+        String snapshot = """
+                {"id":1,"name":"First","description":"First product","price":10.5,"isVisible":true,"categoryIds":[5],"relatedProductIds":[2],"version":3}
+
+                {"id":2,"name":"Second","price":20,"isVisible":true,"categoryIds":[],"relatedProductIds":[]}
+                """;
+        when(productClient.getCatalogSnapshot(null)).thenReturn(snapshotResponse(200, snapshot));
+
+        // Perform the test
+        CatalogSnapshot catalogSnapshot = contentBasedService.fetchCatalog(null);
+        List<ProductOverviewResponse> products = catalogSnapshot.products();
+
+        // Assertions
+        assertEquals(2, products.size());
+        assertEquals("First product", products.get(0).description());
+        assertEquals(Set.of(5L), products.get(0).categoryIds());
+        assertEquals(List.of(2L), products.get(0).relatedProductIds());
+        assertEquals(new BigDecimal("20"), products.get(1).price());
+        assertEquals(WATERMARK, catalogSnapshot.watermark());
+    }
+
+    @Test
+    public void testFetchCatalog_WithoutWatermark() {
+        // Prepare test data
+        when(productClient.getCatalogSnapshot(null)).thenReturn(snapshotResponse(200, "", Map.of()));
+
+        // Perform the test and assertions
+        assertThrows(IllegalStateException.class, () -> contentBasedService.fetchCatalog(null));
+    }
+
+    @Test
+    public void testFetchCatalog_FailedResponse() {
+        // Prepare test data
+        when(productClient.getCatalogSnapshot(null)).thenReturn(snapshotResponse(503, ""));
+
+        // Perform the test and assertions
+        assertThrows(IllegalStateException.class, () -> contentBasedService.fetchCatalog(null));
+    }
+
+    @Test
+    public void testRefreshRecommendations_KeepsTopSimilarProductsInOrder() throws Exception {
         // Prepare test data
         ProductOverviewResponse targetProduct = createProductOverviewResponse(
                 1L, "Target Product", "Target Description", BigDecimal.valueOf(50),
-                new HashSet<>(Arrays.asList(1L, 2L))
+                new HashSet<>(Arrays.asList(1L, 2L)), List.of(4L)
         );
-
         ProductOverviewResponse similarProduct1 = createProductOverviewResponse(
                 2L, "Similar Product 1", "Similar Description", BigDecimal.valueOf(55),
                 new HashSet<>(Arrays.asList(2L, 3L))
         );
-
         ProductOverviewResponse similarProduct2 = createProductOverviewResponse(
                 3L, "Similar Product 2", "Another Description", BigDecimal.valueOf(45),
                 new HashSet<>(Arrays.asList(3L, 4L))
         );
+        ProductOverviewResponse relatedProduct = createProductOverviewResponse(
+                4L, "Related Product", "Related Description", BigDecimal.valueOf(50),
+                new HashSet<>(Arrays.asList(1L, 2L))
+        );
+        ProductOverviewResponse dissimilarProduct = createProductOverviewResponse(
+                5L, "Other", "Other", BigDecimal.valueOf(5000),
+                new HashSet<>(List.of(9L))
+        );
+        List<ProductOverviewResponse> catalog = List.of(
+                targetProduct, similarProduct1, similarProduct2, relatedProduct, dissimilarProduct);
+
+        when(productClient.getCatalogSnapshot(null)).thenReturn(snapshot(catalog));
+        ProductFeatures[] features = catalog.stream()
+                .map(product -> new ProductFeatures(new int[0], new int[0], new long[0], product.price().doubleValue()))
+                .toArray(ProductFeatures[]::new);
+        when(similarityService.extractFeatures(eq(catalog), anyMap())).thenReturn(features);
+        when(similarityService.calculateSimilarity(any(ProductFeatures.class), any(ProductFeatures.class))).thenReturn(0.1);
+        when(similarityService.calculateSimilarity(features[0], features[1])).thenReturn(0.75);
+        when(similarityService.calculateSimilarity(features[0], features[2])).thenReturn(0.3);
+        when(productClient.getProductsByIds(List.of(2L, 3L))).thenReturn(List.of(similarProduct1, similarProduct2));
+
+        // Perform the test
+        contentBasedService.refreshRecommendations();
+        List<ProductOverviewResponse> recommendations = contentBasedService.getRecommendations(1L, 5);
+
+        // Assertions
+        assertEquals(List.of(similarProduct1, similarProduct2), recommendations);
+        verify(similarityService, never()).calculateSimilarity(features[0], features[3]);
+        assertTrue(contentBasedService.getRecommendations(5L, 5).isEmpty());
+    }
+
+    @Test
+    public void testUpdateRecommendations_BeforeRefresh() {
+        // Perform the test
+        contentBasedService.updateRecommendations();
 
-        List<ProductOverviewResponse> allProducts = Arrays.asList(targetProduct, similarProduct1, similarProduct2);
+        // Assertions
+        verifyNoInteractions(productClient);
+    }
 
-        // Mock similarity calculations
-        when(similarityService.calculateSimilarity(eq(targetProduct), eq(similarProduct1)))
-                .thenReturn(0.75);
-        when(similarityService.calculateSimilarity(eq(targetProduct), eq(similarProduct2)))
-                .thenReturn(0.3);
+    @Test
+    public void testUpdateRecommendations_NewProductEntersRecommendations() throws Exception {
+        // Prepare test data
+        ContentBasedService service = createServiceWithSimilarity(2);
+        ProductOverviewResponse redShoes = createProductOverviewResponse(
+                1L, "Red running shoes", "Shoes", BigDecimal.valueOf(100), Set.of(1L));
+        ProductOverviewResponse blueShoes = createProductOverviewResponse(
+                2L, "Blue running shoes", "Shoes", BigDecimal.valueOf(100), Set.of(1L));
+        ProductOverviewResponse knife = createProductOverviewResponse(
+                3L, "Kitchen knife", "Knife", BigDecimal.valueOf(20), Set.of(9L));
+        ProductOverviewResponse greenShoes = createProductOverviewResponse(
+                4L, "Green running shoes", "Shoes", BigDecimal.valueOf(100), Set.of(1L));
+        stubProductsByIds(redShoes, blueShoes, knife, greenShoes);
+        when(productClient.getCatalogSnapshot(null)).thenReturn(snapshot(List.of(redShoes, blueShoes, knife)));
+        when(productClient.getCatalogSnapshot(WATERMARK.minusSeconds(10))).thenReturn(snapshot(List.of(greenShoes)));
+        service.refreshRecommendations();
 
-        // Use reflection to call the private method
-        List<ProductSimilarity> similarities = contentBasedService.findSimilarProducts(targetProduct, allProducts);
+        // Perform the test
+        service.updateRecommendations();
 
         // Assertions
-        assertNotNull(similarities);
-        assertEquals(2, similarities.size());
-        assertEquals(similarProduct1.id(), similarities.get(0).productId());
-        assertEquals(0.75, similarities.get(0).similarity(), 0.01);
-        assertEquals(similarProduct2.id(), similarities.get(1).productId());
-        assertEquals(0.3, similarities.get(1).similarity(), 0.01);
+        assertEquals(Set.of(blueShoes, greenShoes), Set.copyOf(service.getRecommendations(1L, 5)));
+        assertEquals(Set.of(redShoes, blueShoes), Set.copyOf(service.getRecommendations(4L, 5)));
+        assertTrue(service.getRecommendations(3L, 5).isEmpty());
+    }
+
+    @Test
+    public void testUpdateRecommendations_HiddenProductLeavesRecommendations() throws Exception {
+        // Prepare test data
+        ContentBasedService service = createServiceWithSimilarity(2);
+        ProductOverviewResponse redShoes = createProductOverviewResponse(
+                1L, "Red running shoes", "Shoes", BigDecimal.valueOf(100), Set.of(1L));
+        ProductOverviewResponse blueShoes = createProductOverviewResponse(
+                2L, "Blue running shoes", "Shoes", BigDecimal.valueOf(100), Set.of(1L));
+        stubProductsByIds(redShoes, blueShoes);
+        when(productClient.getCatalogSnapshot(null)).thenReturn(snapshot(List.of(redShoes, blueShoes)));
+        when(productClient.getCatalogSnapshot(notNull()))
+                .thenReturn(snapshotResponse(200, "{\"id\":2,\"isVisible\":false}\n"));
+        service.refreshRecommendations();
+
+        // Perform the test
+        service.updateRecommendations();
+
+        // Assertions
+        assertTrue(service.getRecommendations(1L, 5).isEmpty());
+        assertTrue(service.getRecommendations(2L, 5).isEmpty());
+    }
+
+    @Test
+    public void testUpdateRecommendations_FullListLosingProductIsRescored() throws Exception {
+        // Prepare test data
+        ContentBasedService service = createServiceWithSimilarity(1);
+        ProductOverviewResponse redShoes = createProductOverviewResponse(
+                1L, "Red running shoes", "Shoes", BigDecimal.valueOf(100), Set.of(1L));
+        ProductOverviewResponse sameShoes = createProductOverviewResponse(
+                2L, "Red running shoes", "Shoes", BigDecimal.valueOf(100), Set.of(1L));
+        ProductOverviewResponse blueShoes = createProductOverviewResponse(
+                3L, "Blue running shoes", "Shoes", BigDecimal.valueOf(100), Set.of(1L));
+        ProductOverviewResponse changedShoes = createProductOverviewResponse(
+                2L, "Kitchen knife", "Knife", BigDecimal.valueOf(20), Set.of(9L));
+        stubProductsByIds(redShoes, blueShoes, changedShoes);
+        when(productClient.getCatalogSnapshot(null)).thenReturn(snapshot(List.of(redShoes, sameShoes, blueShoes)));
+        when(productClient.getCatalogSnapshot(notNull())).thenReturn(snapshot(List.of(changedShoes)));
+        service.refreshRecommendations();
+
+        // Perform the test
+        service.updateRecommendations();
+
+        // Assertions
+        assertEquals(List.of(blueShoes), service.getRecommendations(1L, 5));
+        assertTrue(service.getRecommendations(2L, 5).isEmpty());
+    }
+
+    private ContentBasedService createServiceWithSimilarity(int topK) {
+        return new ContentBasedService(new SimilarityService(), productClient, new ObjectMapper(),
+                new TopKSimilarityEngine(2, topK), new MinHashLsh(false, 16, 4, 1000, 0), Duration.ofSeconds(10));
+    }
+
+    private void stubProductsByIds(ProductOverviewResponse... products) {
+        Map<Long, ProductOverviewResponse> productsById = new HashMap<>();
+        for (ProductOverviewResponse product : products) {
+            productsById.put(product.id(), product);
+        }
+        lenient().when(productClient.getProductsByIds(anyList())).thenAnswer(invocation -> {
+            List<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(productsById::get).toList();
+        });
+    }
+
+    private Response snapshot(List<ProductOverviewResponse> products) throws Exception {
+        ObjectMapper objectMapper = new ObjectMapper();
+        StringBuilder body = new StringBuilder();
+        for (ProductOverviewResponse product : products) {
+            body.append(objectMapper.writeValueAsString(product)).append('\n');
+        }
+        return snapshotResponse(200, body.toString());
     }
 
     // Helper method to create ProductOverviewResponse with safe related product ids
@@ -117,4 +281,17 @@ public class ContentBasedServiceTest {
                 null   // Assuming last param might be null
         );
     }
-}
\ No newline at end of file
+
+    private Response snapshotResponse(int status, String body) {
+        return snapshotResponse(status, body, Map.of("X-Snapshot-Watermark", List.of(WATERMARK.toString())));
+    }
+
+    private Response snapshotResponse(int status, String body, Map<String, Collection<String>> headers) {
+        return Response.builder()
+                .status(status)
+                .headers(headers)
+                .request(Request.create(Request.HttpMethod.GET, "/snapshot", Map.of(), Request.Body.empty(), null))
+                .body(body, StandardCharsets.UTF_8)
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.ecommerce.contentbased;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MinHashLshTest {
+
+    private ProductFeatures features(int[] tokens, long[] categoryIds, double price) {
+        return new ProductFeatures(tokens, new int[0], categoryIds, price);
+    }
+
+    private Set<Integer> candidatesOf(TopKSimilarityEngine.Candidates candidates, int source) {
+        Set<Integer> result = new TreeSet<>();
+        candidates.forEach(source, result::add);
+        result.remove(source);
+        return result;
+    }
+
+    @Test
+    public void testBuildCandidates_SimilarWordsShareBucket() {
+        // Prepare test data
+        MinHashLsh lsh = new MinHashLsh(true, 16, 2, 1000, 0);
+        ProductFeatures[] products = {
+                features(new int[]{1, 2, 3, 4, 5}, new long[0], 10),
+                features(new int[]{1, 2, 3, 4, 5}, new long[0], 20),
+                features(new int[]{100, 101, 102}, new long[0], 10)
+        };
+
+        // Perform the test
+        TopKSimilarityEngine.Candidates candidates = lsh.buildCandidates(products);
+
+        // Assertions
+        assertEquals(Set.of(1), candidatesOf(candidates, 0));
+        assertEquals(Set.of(), candidatesOf(candidates, 2));
+    }
+
+    @Test
+    public void testBuildCandidates_SameCategorySharesBucket() {
+        // Prepare test data
+        MinHashLsh lsh = new MinHashLsh(true, 16, 4, 1000, 0);
+        ProductFeatures[] products = {
+                features(new int[]{1}, new long[]{7}, 10),
+                features(new int[]{2}, new long[]{7, 8}, 10),
+                features(new int[]{3}, new long[]{8}, 10)
+        };
+
+        // Perform the test
+        TopKSimilarityEngine.Candidates candidates = lsh.buildCandidates(products);
+
+        // Assertions
+        assertEquals(Set.of(1), candidatesOf(candidates, 0));
+        assertEquals(Set.of(0, 2), candidatesOf(candidates, 1));
+    }
+
+    @Test
+    public void testBuildCandidates_SplitsOversizedBucketByPrice() {
+        // Prepare test data
+        MinHashLsh lsh = new MinHashLsh(true, 16, 4, 2, 0);
+        ProductFeatures[] products = {
+                features(new int[0], new long[]{7}, 100),
+                features(new int[0], new long[]{7}, 1),
+                features(new int[0], new long[]{7}, 101),
+                features(new int[0], new long[]{7}, 2)
+        };
+
+        // Perform the test
+        TopKSimilarityEngine.Candidates candidates = lsh.buildCandidates(products);
+
+        // Assertions
+        assertEquals(Set.of(3), candidatesOf(candidates, 1));
+        assertEquals(Set.of(2), candidatesOf(candidates, 0));
+    }
+
+    @Test
+    public void testBuildCandidates_DisabledGivesAllPairs() {
+        // Prepare test data
+        MinHashLsh lsh = new MinHashLsh(false, 16, 4, 1000, 0);
+        ProductFeatures[] products = {
+                features(new int[]{1}, new long[0], 10),
+                features(new int[]{2}, new long[0], 10),
+                features(new int[]{3}, new long[0], 10)
+        };
+
+        // Perform the test and assertions
+        assertEquals(Set.of(1, 2), candidatesOf(lsh.buildCandidates(products), 0));
+    }
+}
@@ -7,6 +7,7 @@ import org.junit.jupiter.api.Test;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -165,4 +166,24 @@ public class SimilarityServiceTest {
                 "/"
         );
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCalculateSimilarity_FeaturesMatchProductComparison() {
+        ProductOverviewResponse product1 = new ProductOverviewResponse(1L, "Red running shoes", "Light shoes for running",
+                BigDecimal.valueOf(80), BigDecimal.valueOf(80), true, true, Set.of(1L, 2L), List.of(), null);
+        ProductOverviewResponse product2 = new ProductOverviewResponse(2L, "Blue running shoes", null,
+                BigDecimal.valueOf(100), BigDecimal.valueOf(100), true, true, Set.of(2L, 3L), List.of(), null);
+
+        ProductFeatures[] features = similarityService.extractFeatures(List.of(product1, product2));
+
+        double expected = 0.2 * (2.0 / 4) + 0.4 * (1.0 / 3) + 0.25 * (0.8 * 0.8);
+        assertEquals(expected, similarityService.calculateSimilarity(features[0], features[1]), 1e-9);
+        assertEquals(expected, similarityService.calculateSimilarity(product1, product2), 1e-9);
+    }
+
+    @Test
+    public void testJaccard_SortedArrays() {
+        assertEquals(2.0 / 5, SimilarityService.jaccard(new int[]{1, 3, 5, 7}, new int[]{3, 4, 7}), 1e-9);
+        assertEquals(0.0, SimilarityService.jaccard(new long[]{}, new long[]{1L}), 1e-9);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.contentbased;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TopKSimilarityEngineTest {
+
+    @Test
+    public void testFindTopK_KeepsBestCandidatesOrderedFromMostSimilar() {
+        // Prepare test data: candidates closer by index are more similar
+        TopKSimilarityEngine engine = new TopKSimilarityEngine(4, 3);
+
+        // Perform the test
+        TopKSimilarityEngine.Result result = engine.findTopK(100,
+                (source, candidate) -> 1.0 / (1 + Math.abs(source - candidate)), 0.0);
+
+        // Assertions
+        assertArrayEquals(new int[]{49, 51, 48}, result.candidates()[50]);
+        assertArrayEquals(new double[]{0.5, 0.5, 1.0 / 3}, result.scores()[50], 1e-9);
+        assertArrayEquals(new int[]{1, 2, 3}, result.candidates()[0]);
+    }
+
+    @Test
+    public void testFindTopK_LeavesOutCandidatesNotAboveMinimum() {
+        // Prepare test data
+        TopKSimilarityEngine engine = new TopKSimilarityEngine(2, 10);
+
+        // Perform the test
+        TopKSimilarityEngine.Result result = engine.findTopK(4,
+                (source, candidate) -> candidate == 3 ? -1 : 0.2 + candidate * 0.1, 0.2);
+
+        // Assertions
+        assertArrayEquals(new int[]{2, 1}, result.candidates()[0]);
+        assertArrayEquals(new int[]{2, 1}, result.candidates()[3]);
+        assertArrayEquals(new int[]{1}, result.candidates()[2]);
+    }
+
+    @Test
+    public void testFindTopK_WithSources_ScoresOnlyThoseRowsAlignedWithSources() {
+        // Prepare test data
+        TopKSimilarityEngine engine = new TopKSimilarityEngine(4, 2);
+        int[] sources = {50, 0};
+
+        // Perform the test
+        TopKSimilarityEngine.Result result = engine.findTopK(100, sources, TopKSimilarityEngine.allPairs(100),
+                (source, candidate) -> 1.0 / (1 + Math.abs(source - candidate)), 0.0);
+
+        // Assertions
+        assertEquals(2, result.candidates().length);
+        assertArrayEquals(new int[]{49, 51}, result.candidates()[0]);
+        assertArrayEquals(new int[]{1, 2}, result.candidates()[1]);
+        assertEquals(2 * 99, result.scoredPairs());
+    }
+
+    @Test
+    public void testTopKHeap_WithEqualScores_PrefersLowerIndex() {
+        // Prepare test data
+        TopKHeap heap = new TopKHeap(2);
+        heap.offer(7, 0.5);
+        heap.offer(3, 0.5);
+        heap.offer(5, 0.5);
+        heap.offer(9, 0.4);
+
+        // Perform the test
+        int[] candidates = new int[heap.size()];
+        double[] scores = new double[heap.size()];
+        heap.drainTo(candidates, scores);
+
+        // Assertions
+        assertArrayEquals(new int[]{3, 5}, candidates);
+        assertEquals(0, heap.size());
+    }
+}
@@ -39,4 +39,14 @@ public class RecommendationConfigTest {
         // Verify that refreshRecommendations is called
         verify(recommenderService).refreshRecommendations();
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testScheduledUpdateRecommendations() {
+        // Call the method annotated with @Scheduled
+        recommendationConfig.scheduledUpdateRecommendations();
+
+        // Verify that only the changed products are applied
+        verify(recommenderService).updateRecommendations();
+        verify(recommenderService, never()).refreshRecommendations();
+    }
+}